@@ -0,0 +1,92 @@
+package org.acme;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import org.acme.cache.CacheInspector;
+import org.acme.cache.CacheUsageReport;
+import org.acme.cache.HotKeyRegistry;
+import org.acme.cache.HotKeyTracker;
+import org.acme.config.CachingConfiguration;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only inspection of the cache contents, to find the entries that fill Redis or the heap.
+ * Served only when app.caching.admin.enabled is set. Values are never returned nor transferred.
+ */
+@Path("/api/admin/cache")
+public class CacheAdminResource {
+
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_TOP = 1000;
+
+    @Inject
+    CacheInspector cacheInspector;
+
+    @Inject
+    CachingConfiguration cachingConfiguration;
+
+    @Inject
+    HotKeyRegistry hotKeys;
+
+    /**
+     * One page of entries with their size, remaining TTL and age. Pass the returned cursor
+     * to get the next page; a cursor of "0" means the scan is complete.
+     */
+    @GET
+    @Path("/entries")
+    @Produces(MediaType.APPLICATION_JSON)
+    public CacheInspector.Page entries(@QueryParam("cursor") @DefaultValue(CacheInspector.START_CURSOR) String cursor,
+                                       @QueryParam("count") @DefaultValue("100") int count) {
+        checkEnabled();
+        try {
+            return cacheInspector.scan(cursor, Math.min(Math.max(1, count), MAX_PAGE_SIZE));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    /**
+     * Largest entries and key prefixes, by size.
+     * @param prefixLength Characters of the key grouped as its prefix; 0 groups by the text before the last '_'.
+     */
+    @GET
+    @Path("/usage")
+    @Produces(MediaType.APPLICATION_JSON)
+    public CacheUsageReport usage(@QueryParam("top") @DefaultValue("20") int top,
+                                  @QueryParam("prefixLength") @DefaultValue("0") int prefixLength) {
+        checkEnabled();
+        return CacheUsageReport.collect(cacheInspector, Math.min(Math.max(1, top), MAX_TOP), prefixLength,
+                cachingConfiguration.getAdminMaxScanKeys(), MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Most frequently used cache keys and transaction ids, hottest first, with their estimated share
+     * of recent operations. Not found when hot-key tracking is disabled.
+     */
+    @GET
+    @Path("/hot-keys")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, List<HotKeyTracker.HotKey>> hotKeys() {
+        checkEnabled();
+        if (!hotKeys.isEnabled()) {
+            throw new NotFoundException();
+        }
+        return Map.of("keys", hotKeys.getKeyTracker().snapshot(),
+                "transactions", hotKeys.getTransactionTracker().snapshot());
+    }
+
+    private void checkEnabled() {
+        if (!cachingConfiguration.isAdminEnabled()) {
+            throw new NotFoundException();
+        }
+    }
+}
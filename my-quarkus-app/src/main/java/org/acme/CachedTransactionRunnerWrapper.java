@@ -1,9 +1,12 @@
 package org.acme;
 
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import org.acme.cache.FieldHydrationService;
+import org.acme.cache.HotKeyRegistry;
 import org.acme.cache.ResponseCacheService;
 import java.util.List;
 import java.util.Map;
@@ -25,6 +28,9 @@ public class CachedTransactionRunnerWrapper implements TransactionRunner {
     
     @Inject
     ResponseCacheService responseCacheService;
+
+    @Inject
+    HotKeyRegistry hotKeys;
     
     public CachedTransactionRunnerWrapper() {
         // No initialization needed - preprocessing is done inline
@@ -32,6 +38,7 @@ public class CachedTransactionRunnerWrapper implements TransactionRunner {
 
     @Override
     public CiclopsResponse processTransaction(Map<String, String> fields, String trxId) {
+        hotKeys.recordTransaction(trxId);
         System.out.println("I'm here, preprocessing input");
         
         // Pre-process: Hydrate fields with cached data if available
@@ -41,6 +48,26 @@ public class CachedTransactionRunnerWrapper implements TransactionRunner {
         // Delegate
         CiclopsResponse response = delegate.processTransaction(hydratedFields, trxId);
         
+        // Process response to cache tablefacility fields if present
+        return responseCacheService.processResponse(postProcess(response), trxId, fields, hydratedFields);
+    }
+
+    /**
+     * Non-blocking variant: the cache reads and writes complete on the I/O threads, and only the
+     * delegate, which blocks, runs on a worker thread.
+     */
+    @Override
+    public Uni<CiclopsResponse> processTransactionAsync(Map<String, String> fields, String trxId) {
+        hotKeys.recordTransaction(trxId);
+        return fieldHydrationService.hydrateFieldsAsync(fields)
+                .emitOn(Infrastructure.getDefaultWorkerPool())
+                .onItem().transformToUni(hydratedFields -> {
+                    CiclopsResponse response = delegate.processTransaction(hydratedFields, trxId);
+                    return responseCacheService.processResponseAsync(postProcess(response), trxId, fields, hydratedFields);
+                });
+    }
+
+    private CiclopsResponse postProcess(CiclopsResponse response) {
         System.out.println("After delegate, I'm here postprocessing output");
         
         // Post-process with the actual transaction ID
@@ -48,8 +75,7 @@ public class CachedTransactionRunnerWrapper implements TransactionRunner {
         // Add timestamp to response
         CiclopsResponse enhancedResponse = new CiclopsResponse(response.getFields());
         enhancedResponse.addField("_postprocessing_timestamp", List.of(String.valueOf(System.currentTimeMillis())));
-        // Process response to cache tablefacility fields if present
-        return responseCacheService.processResponse(enhancedResponse, trxId);
+        return enhancedResponse;
     }
 
 }
@@ -0,0 +1,109 @@
+package org.acme;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Response;
+import org.acme.cache.AdaptiveTtlPolicy;
+import org.acme.cache.CacheService;
+import org.acme.cache.PeerCacheClient;
+import org.acme.cache.RecentKeyFilter;
+import org.acme.cache.WriteBehindCacheWriter;
+import org.acme.constants.CacheConstants;
+
+/**
+ * Serves this node's cache entries to peers that received a request for a key created here.
+ * Only served to callers presenting the shared peer secret, when peer fetching is configured, and only
+ * for keys of this application. Reads are GETs, while touch and consume change the entry and are POSTs.
+ */
+@Path("/internal/cache")
+public class PeerCacheResource {
+
+    @Inject
+    CacheService cacheService;
+
+    @Inject
+    WriteBehindCacheWriter writeBehind;
+
+    @Inject
+    PeerCacheClient peerCacheClient;
+
+    @Inject
+    AdaptiveTtlPolicy ttlPolicy;
+
+    @Inject
+    RecentKeyFilter recentKeys;
+
+    /**
+     * Serves the entry as it is.
+     */
+    @GET
+    @Path("/entries/{key}")
+    @Produces("application/octet-stream")
+    public Response entry(@PathParam("key") String key,
+                          @HeaderParam(PeerCacheClient.SECRET_HEADER) String secret) {
+        return serve(key, secret, PeerCacheClient.Operation.GET, 0);
+    }
+
+    /**
+     * Serves the entry and resets its TTL to {@code ttl} seconds, which must be positive.
+     */
+    @POST
+    @Path("/entries/{key}/touch")
+    @Produces("application/octet-stream")
+    public Response touch(@PathParam("key") String key,
+                          @HeaderParam(PeerCacheClient.SECRET_HEADER) String secret,
+                          @QueryParam("ttl") @DefaultValue("0") int ttl) {
+        return serve(key, secret, PeerCacheClient.Operation.TOUCH, ttl);
+    }
+
+    /**
+     * Serves the entry and removes it.
+     */
+    @POST
+    @Path("/entries/{key}/consume")
+    @Produces("application/octet-stream")
+    public Response consume(@PathParam("key") String key,
+                            @HeaderParam(PeerCacheClient.SECRET_HEADER) String secret) {
+        return serve(key, secret, PeerCacheClient.Operation.CONSUME, 0);
+    }
+
+    private Response serve(String key, String secret, PeerCacheClient.Operation operation, int ttl) {
+        // Callers without the peer secret learn nothing, not even that the endpoint exists
+        if (!peerCacheClient.isPeer(secret) || !key.startsWith(CacheConstants.CACHE_KEY_PREFIX)) {
+            throw new NotFoundException();
+        }
+        if (operation == PeerCacheClient.Operation.TOUCH && ttl <= 0) {
+            // A touch from a peer never makes the entry non-expiring
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        // Served as the stored bytes, so binary payloads reach the peer unchanged
+        byte[] value = writeBehind.pendingValue(key);
+        if (value == null && recentKeys.isDefinitelyAbsent(key)) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        if (value == null) {
+            if (operation == PeerCacheClient.Operation.CONSUME) {
+                value = cacheService.getBytesAndClear(key);
+            } else if (operation == PeerCacheClient.Operation.TOUCH) {
+                value = cacheService.getBytesAndTouch(key, ttl);
+            } else {
+                value = cacheService.getBytes(key);
+            }
+        }
+        if (value == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        // The key was written here, so the peer's hydration is timed here
+        ttlPolicy.recordHydration(key);
+        recentKeys.recordKey(key);
+        return Response.ok(value).build();
+    }
+}
@@ -9,6 +9,8 @@ import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.MediaType;
 import org.acme.dto.TransactionRequestDTO;
 
+import java.util.concurrent.CompletionStage;
+
 @Path("/api")
 public class TransactionResource {
 
@@ -20,11 +22,13 @@ public class TransactionResource {
     @Path("/transaction")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public CiclopsResponse processTransaction(TransactionRequestDTO request) {
+    public CompletionStage<CiclopsResponse> processTransaction(TransactionRequestDTO request) {
         if (request == null || request.getFields() == null) {
             throw new IllegalArgumentException("Request or fields cannot be null");
         }
         
-        return transactionRunner.processTransaction(request.getFields(), request.getTrxId());
+        // Completes without holding the request thread while the cache responds
+        return transactionRunner.processTransactionAsync(request.getFields(), request.getTrxId())
+                .subscribeAsCompletionStage();
     }
 } 
\ No newline at end of file
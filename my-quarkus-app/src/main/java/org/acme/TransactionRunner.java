@@ -1,5 +1,7 @@
 package org.acme;
 
+import io.smallrye.mutiny.Uni;
+
 import java.util.Map;
 
 public interface TransactionRunner {
@@ -10,4 +12,15 @@ public interface TransactionRunner {
      * @return A CiclopsResponse containing the processed fields
      */
     CiclopsResponse processTransaction(Map<String, String> fields, String trxId);
+
+    /**
+     * Process a transaction without holding the calling thread while waiting on I/O.
+     * Runners without a non-blocking path run {@link #processTransaction(Map, String)} on subscription.
+     * @param fields The input fields for the transaction
+     * @param trxId The transaction ID
+     * @return A Uni emitting the CiclopsResponse
+     */
+    default Uni<CiclopsResponse> processTransactionAsync(Map<String, String> fields, String trxId) {
+        return Uni.createFrom().item(() -> processTransaction(fields, trxId));
+    }
 } 
\ No newline at end of file
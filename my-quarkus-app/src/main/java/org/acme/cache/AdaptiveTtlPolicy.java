@@ -0,0 +1,209 @@
+package org.acme.cache;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.acme.config.CachingConfiguration;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Chooses the TTL of tablefacility entries from how long entries of the same transaction family
+ * actually wait before they are hydrated, and spreads expiries with jitter.
+ * <p>
+ * Keys written by this node are remembered with their write time; the first hydration of such a key
+ * on this node records the delay in the family's histogram. Hydrations landing on other nodes are not
+ * seen, which only thins out the sample. Once a family has enough samples its TTL is the configured
+ * percentile of the delays, between the configured minimum and the tablefacility TTL; until then it is
+ * the tablefacility TTL. Old samples decay so the TTL follows changes in traffic.
+ */
+@ApplicationScoped
+public class AdaptiveTtlPolicy {
+
+    /**
+     * Keys awaiting their first hydration; beyond that new writes are not tracked until old ones are dropped.
+     */
+    static final int MAX_TRACKED_KEYS = 100_000;
+    /**
+     * Families with their own histogram; further families share {@link #OTHER_FAMILY}.
+     */
+    static final int MAX_FAMILIES = 256;
+    static final String DEFAULT_FAMILY = "default";
+    static final String OTHER_FAMILY = "other";
+
+    // Histogram bucket upper bounds in seconds, growing by 25% from 1 s to a day
+    private static final double[] BUCKET_BOUNDS;
+    // Samples after which all counts are halved
+    private static final long DECAY_SAMPLES = 10_000;
+
+    static {
+        int count = 0;
+        for (double bound = 1; bound < TimeUnit.DAYS.toSeconds(1); bound *= 1.25) {
+            count++;
+        }
+        BUCKET_BOUNDS = new double[count + 1];
+        double bound = 1;
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++, bound *= 1.25) {
+            BUCKET_BOUNDS[i] = Math.ceil(bound);
+        }
+    }
+
+    private static final class TrackedWrite {
+        final String family;
+        final long writtenAtNanos;
+
+        TrackedWrite(String family, long writtenAtNanos) {
+            this.family = family;
+            this.writtenAtNanos = writtenAtNanos;
+        }
+    }
+
+    /**
+     * Decaying histogram of put-to-hydration delays.
+     */
+    static final class ReuseHistogram {
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKET_BOUNDS.length);
+        private long samplesSinceDecay;
+
+        void record(double delaySeconds) {
+            int bucket = BUCKET_BOUNDS.length - 1;
+            for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+                if (delaySeconds <= BUCKET_BOUNDS[i]) {
+                    bucket = i;
+                    break;
+                }
+            }
+            counts.incrementAndGet(bucket);
+            synchronized (this) {
+                if (++samplesSinceDecay >= DECAY_SAMPLES) {
+                    samplesSinceDecay = 0;
+                    for (int i = 0; i < counts.length(); i++) {
+                        counts.set(i, counts.get(i) / 2);
+                    }
+                }
+            }
+        }
+
+        long total() {
+            long total = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                total += counts.get(i);
+            }
+            return total;
+        }
+
+        /**
+         * Upper bound, in seconds, of the bucket holding the given percentile.
+         */
+        long percentileSeconds(double percentile) {
+            long total = total();
+            long threshold = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                seen += counts.get(i);
+                if (seen >= threshold) {
+                    return (long) BUCKET_BOUNDS[i];
+                }
+            }
+            return (long) BUCKET_BOUNDS[BUCKET_BOUNDS.length - 1];
+        }
+    }
+
+    @Inject
+    CachingConfiguration cachingConfiguration;
+
+    private final Map<String, TrackedWrite> trackedWrites = new ConcurrentHashMap<>();
+    private final Map<String, ReuseHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * TTL for a new entry of the transaction, jittered.
+     * @return The TTL in seconds; 0 or negative (no expiry) when the tablefacility TTL is.
+     */
+    public int ttlFor(String trxId) {
+        int configured = cachingConfiguration.getTablefacilityTtlSeconds();
+        if (configured <= 0) {
+            return configured;
+        }
+        int ttl = cachingConfiguration.isAdaptiveTtlEnabled() ? adaptiveTtl(familyOf(trxId), configured) : configured;
+        double jitter = cachingConfiguration.getTtlJitter();
+        if (jitter > 0) {
+            ttl += (int) (ttl * jitter * ThreadLocalRandom.current().nextDouble());
+        }
+        return ttl;
+    }
+
+    /**
+     * Remembers a write so its first hydration on this node can be timed.
+     */
+    public void recordWrite(String key, String trxId) {
+        if (!cachingConfiguration.isAdaptiveTtlEnabled() || key == null) {
+            return;
+        }
+        if (trackedWrites.size() >= MAX_TRACKED_KEYS) {
+            dropStaleWrites();
+            if (trackedWrites.size() >= MAX_TRACKED_KEYS) {
+                return;
+            }
+        }
+        trackedWrites.put(key, new TrackedWrite(familyOf(trxId), System.nanoTime()));
+    }
+
+    /**
+     * Records the delay since the key was written, if this node wrote it and it was not hydrated before.
+     */
+    public void recordHydration(String key) {
+        TrackedWrite write = key != null && !trackedWrites.isEmpty() ? trackedWrites.remove(key) : null;
+        if (write != null) {
+            recordReuse(write.family, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - write.writtenAtNanos));
+        }
+    }
+
+    void recordReuse(String family, long delayMs) {
+        String tracked = histograms.size() < MAX_FAMILIES || histograms.containsKey(family) ? family : OTHER_FAMILY;
+        histograms.computeIfAbsent(tracked, f -> new ReuseHistogram()).record(delayMs / 1000.0);
+    }
+
+    long sampleCount(String family) {
+        ReuseHistogram histogram = histograms.get(family);
+        return histogram != null ? histogram.total() : 0;
+    }
+
+    int adaptiveTtl(String family, int configured) {
+        ReuseHistogram histogram = histograms.get(family);
+        if (histogram == null && histograms.size() >= MAX_FAMILIES) {
+            histogram = histograms.get(OTHER_FAMILY);
+        }
+        if (histogram == null || histogram.total() < cachingConfiguration.getAdaptiveTtlMinSamples()) {
+            return configured;
+        }
+        long ttl = histogram.percentileSeconds(cachingConfiguration.getAdaptiveTtlPercentile());
+        return (int) Math.min(configured, Math.max(cachingConfiguration.getAdaptiveTtlMinSeconds(), ttl));
+    }
+
+    /**
+     * Family of a transaction id: its leading part up to the first digit or separator, lower-cased,
+     * so "Payment-123" and "payment_456" share the family "payment".
+     */
+    static String familyOf(String trxId) {
+        if (trxId == null) {
+            return DEFAULT_FAMILY;
+        }
+        int end = 0;
+        while (end < trxId.length() && Character.isLetter(trxId.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? DEFAULT_FAMILY : trxId.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Forgets writes older than the tablefacility TTL: their entries expired without being hydrated here.
+     */
+    private void dropStaleWrites() {
+        long cutoff = System.nanoTime() - TimeUnit.SECONDS.toNanos(cachingConfiguration.getTablefacilityTtlSeconds());
+        trackedWrites.values().removeIf(write -> write.writtenAtNanos - cutoff < 0);
+    }
+}
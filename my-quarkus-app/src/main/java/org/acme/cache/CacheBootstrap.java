@@ -58,7 +58,10 @@ public class CacheBootstrap {
         // Check if Redis is configured
         if (cachingConfiguration.isRedisCache()) {
             LOG.info("Redis cache type configured - checking Redis health...");
-            if (checkRedisHealth()) {
+            if (!cachingConfiguration.getRedisShardingClients().isEmpty()) {
+                // Unhealthy shards are skipped by the sharded cache itself
+                LOG.infof("Sharded Redis cache configured across %s", cachingConfiguration.getRedisShardingClients());
+            } else if (checkRedisHealth()) {
                 LOG.info("✓ Redis is healthy - using Redis cache");
             } else {
                 LOG.warn("✗ Redis is unhealthy - falling back to in-memory cache");
@@ -67,6 +70,8 @@ public class CacheBootstrap {
             }
         } else if (cachingConfiguration.isInMemoryCache()) {
             LOG.info("In-memory cache type configured");
+        } else if (cachingConfiguration.isSharedMemoryCache()) {
+            LOG.info("Shared-memory cache type configured");
         } else {
             LOG.warnf("Unknown cache type '%s' - falling back to in-memory", cachingConfiguration.getCacheType());
             cachingConfiguration.overrideCacheType("in-memory");
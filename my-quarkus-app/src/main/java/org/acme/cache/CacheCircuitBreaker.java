@@ -0,0 +1,166 @@
+package org.acme.cache;
+
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Latency- and error-aware circuit breaker for a remote cache backend.
+ * <p>
+ * Backends report every call through {@link #recordSuccess(long)} / {@link #recordFailure()}.
+ * A call slower than the slow-call threshold counts as a failure. After {@code failureThreshold}
+ * consecutive failures the breaker opens, and callers consult {@link #allowsPrimary()} to route
+ * traffic elsewhere. While open, a background task probes the backend; once a probe succeeds the
+ * recovery action runs (e.g. write-back of entries created during the outage) and the breaker closes.
+ * <p>
+ * The request path only reads a volatile reference and touches atomics - it never takes a lock.
+ */
+public class CacheCircuitBreaker {
+
+    private static final Logger LOG = Logger.getLogger(CacheCircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        OPEN
+    }
+
+    /**
+     * Action run by the probe thread after the backend answered a probe, before the breaker closes.
+     * Returning false keeps the breaker open and retries at the next probe.
+     */
+    @FunctionalInterface
+    public interface RecoveryAction {
+        boolean recover();
+
+        /**
+         * Runs on the probe thread right after the breaker closed, e.g. to sweep up
+         * writes that raced with {@link #recover()}.
+         */
+        default void afterClose() {
+        }
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long slowCallNanos;
+    private final long probeIntervalMs;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final LongAdder totalFailures = new LongAdder();
+    private final ScheduledExecutorService probeExecutor;
+
+    private volatile BooleanSupplier probe = () -> false;
+    private volatile RecoveryAction recoveryAction = () -> true;
+
+    public CacheCircuitBreaker(String name, int failureThreshold, long slowCallMs, long probeIntervalMs) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.slowCallNanos = slowCallMs > 0 ? TimeUnit.MILLISECONDS.toNanos(slowCallMs) : Long.MAX_VALUE;
+        this.probeIntervalMs = Math.max(10, probeIntervalMs);
+        this.probeExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cache-circuit-breaker-" + name);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Sets the health check run while the breaker is open. Must return true only if the backend answered.
+     */
+    public void setProbe(BooleanSupplier probe) {
+        this.probe = probe;
+    }
+
+    public void setRecoveryAction(RecoveryAction recoveryAction) {
+        this.recoveryAction = recoveryAction;
+    }
+
+    /**
+     * Whether traffic should go to the primary backend.
+     */
+    public boolean allowsPrimary() {
+        return state.get() == State.CLOSED;
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * Total failures recorded since creation; monotonic, usable to detect failures during a window.
+     */
+    public long getTotalFailures() {
+        return totalFailures.sum();
+    }
+
+    /**
+     * Records a completed call. Calls slower than the slow-call threshold count as failures.
+     * @param startNanos {@link System#nanoTime()} taken before the call.
+     */
+    public void recordSuccess(long startNanos) {
+        if (System.nanoTime() - startNanos > slowCallNanos) {
+            recordFailure();
+            return;
+        }
+        // Avoid writing the shared counter on the common path
+        if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+        }
+    }
+
+    /**
+     * Records a failed call, opening the breaker once the threshold is reached.
+     */
+    public void recordFailure() {
+        totalFailures.increment();
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold
+                && state.compareAndSet(State.CLOSED, State.OPEN)) {
+            LOG.warnf("Circuit breaker '%s' OPEN after %d consecutive failed or slow calls - failing over",
+                    name, consecutiveFailures.get());
+            scheduleProbe();
+        }
+    }
+
+    /**
+     * Stops the background probe.
+     */
+    public void shutdown() {
+        probeExecutor.shutdownNow();
+    }
+
+    private void scheduleProbe() {
+        if (!probeExecutor.isShutdown()) {
+            probeExecutor.schedule(this::runProbe, probeIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void runProbe() {
+        boolean recovered = false;
+        try {
+            if (probe.getAsBoolean()) {
+                LOG.infof("Circuit breaker '%s' probe succeeded - recovering", name);
+                recovered = recoveryAction.recover();
+            }
+        } catch (Exception e) {
+            LOG.debugf("Circuit breaker '%s' probe failed: %s", name, e.getMessage());
+        }
+        if (recovered) {
+            consecutiveFailures.set(0);
+            state.set(State.CLOSED);
+            LOG.infof("Circuit breaker '%s' CLOSED - traffic restored to primary", name);
+            try {
+                recoveryAction.afterClose();
+            } catch (Exception e) {
+                LOG.errorf("Circuit breaker '%s' post-recovery action failed: %s", name, e.getMessage());
+            }
+        } else {
+            scheduleProbe();
+        }
+    }
+}
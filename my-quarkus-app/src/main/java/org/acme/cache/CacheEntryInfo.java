@@ -0,0 +1,45 @@
+package org.acme.cache;
+
+/**
+ * Metadata of one cache entry as reported by a {@link CacheInspector}.
+ */
+public final class CacheEntryInfo {
+
+    /**
+     * Remaining TTL reported for entries that never expire.
+     */
+    public static final long NO_TTL = -1;
+
+    private final String key;
+    private final long sizeBytes;
+    private final long ttlSeconds;
+    private final Long ageSeconds;
+
+    /**
+     * @param sizeBytes Memory used by the entry, as estimated by the backend.
+     * @param ttlSeconds Remaining TTL, or {@link #NO_TTL}.
+     * @param ageSeconds Time since the entry was written, or null if the backend cannot tell.
+     */
+    public CacheEntryInfo(String key, long sizeBytes, long ttlSeconds, Long ageSeconds) {
+        this.key = key;
+        this.sizeBytes = sizeBytes;
+        this.ttlSeconds = ttlSeconds;
+        this.ageSeconds = ageSeconds;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public Long getAgeSeconds() {
+        return ageSeconds;
+    }
+}
@@ -0,0 +1,52 @@
+package org.acme.cache;
+
+import java.util.List;
+
+/**
+ * Incremental, read-only view of the entries held by a cache backend, for finding the entries
+ * that take up memory. Implementations report sizes and TTLs without transferring values and
+ * never block writers for longer than a single entry.
+ */
+public interface CacheInspector {
+
+    /**
+     * Cursor that starts a scan, and that {@link Page#getCursor()} returns once the scan is complete.
+     */
+    String START_CURSOR = "0";
+
+    /**
+     * Returns roughly {@code count} entries following the cursor. Like Redis SCAN, entries added or
+     * removed during a scan may or may not be reported; entries present throughout are reported.
+     * @param cursor {@link #START_CURSOR} or the cursor of the previous page.
+     * @param count Hint for the number of entries to return.
+     */
+    Page scan(String cursor, int count);
+
+    /**
+     * One page of a scan.
+     */
+    final class Page {
+        private final String cursor;
+        private final List<CacheEntryInfo> entries;
+
+        public Page(String cursor, List<CacheEntryInfo> entries) {
+            this.cursor = cursor;
+            this.entries = entries;
+        }
+
+        /**
+         * Cursor of the next page, or {@link #START_CURSOR} if the scan is complete.
+         */
+        public String getCursor() {
+            return cursor;
+        }
+
+        public List<CacheEntryInfo> getEntries() {
+            return entries;
+        }
+
+        public boolean isComplete() {
+            return START_CURSOR.equals(cursor);
+        }
+    }
+}
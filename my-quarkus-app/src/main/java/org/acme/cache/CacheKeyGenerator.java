@@ -0,0 +1,219 @@
+package org.acme.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.acme.config.CachingConfiguration;
+import org.acme.constants.CacheConstants;
+import org.jboss.logging.Logger;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generates fixed-length cache keys and recognizes expired or malformed ones without a cache lookup.
+ * <p>
+ * Layout after the {@code TF_CACHE_} prefix, all base62: a format version character, 6 characters of
+ * expiry (epoch seconds), 2 of node id, 6 of a per-node sequence and a check character. Keys are 25
+ * characters whatever the transaction id, and the sequence makes keys from the same node unique even
+ * within one millisecond.
+ */
+@ApplicationScoped
+public class CacheKeyGenerator {
+
+    private static final Logger LOG = Logger.getLogger(CacheKeyGenerator.class);
+
+    public enum KeyStatus {
+        /** Well-formed and not expired */
+        VALID,
+        /** Well-formed but past its expiry: the entry is gone */
+        EXPIRED,
+        /** Not a key this application generated */
+        MALFORMED,
+        /** Key of the former TF_CACHE_&lt;trxId&gt;_&lt;millis&gt; format, which carries no expiry */
+        LEGACY
+    }
+
+    private static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final char FORMAT_VERSION = 'K';
+    private static final int EXPIRY_DIGITS = 6;
+    private static final int NODE_DIGITS = 2;
+    private static final int SEQUENCE_DIGITS = 6;
+    static final int KEY_LENGTH = CacheConstants.CACHE_KEY_PREFIX.length() + 1 + EXPIRY_DIGITS + NODE_DIGITS + SEQUENCE_DIGITS + 1;
+
+    static final long MAX_NODE_ID = pow62(NODE_DIGITS) - 1;
+    private static final long SEQUENCE_RANGE = pow62(SEQUENCE_DIGITS);
+    // Largest encodable expiry, used for entries without TTL
+    private static final long NO_EXPIRY = pow62(EXPIRY_DIGITS) - 1;
+    private static final Pattern LEGACY_KEY = Pattern.compile(Pattern.quote(CacheConstants.CACHE_KEY_PREFIX) + ".*_(\\d{13})");
+
+    @Inject
+    CachingConfiguration cachingConfiguration;
+
+    private int nodeId;
+    // Random start so a restarted node does not reissue the keys of its previous run
+    private final AtomicLong sequence = new AtomicLong(ThreadLocalRandom.current().nextLong(SEQUENCE_RANGE));
+
+    @PostConstruct
+    void init() {
+        nodeId = cachingConfiguration.getKeyNodeId().orElseGet(CacheKeyGenerator::hostNodeId);
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            LOG.warnf("Cache key node id %d out of range 0-%d, using it modulo the range", nodeId, MAX_NODE_ID);
+            nodeId = (int) Math.floorMod(nodeId, MAX_NODE_ID + 1);
+        }
+    }
+
+    /**
+     * A new key for an entry stored with the given TTL.
+     * @param ttlSeconds The entry TTL; 0 or negative for no expiry.
+     */
+    public String newKey(int ttlSeconds) {
+        long expiry = ttlSeconds > 0 ? System.currentTimeMillis() / 1000 + ttlSeconds : NO_EXPIRY;
+        return encode(expiry, nodeId, Math.floorMod(sequence.getAndIncrement(), SEQUENCE_RANGE));
+    }
+
+    /**
+     * Whether the entry under the key can be kept for another TTL without outliving the expiry in the key.
+     * Only well-formed, unexpired keys of the current format qualify.
+     * @param ttlSeconds The TTL the entry would be stored with; 0 or negative for no expiry.
+     * @param nowEpochSeconds Current time.
+     */
+    public static boolean canExtend(String key, int ttlSeconds, long nowEpochSeconds) {
+        if (inspect(key, nowEpochSeconds) != KeyStatus.VALID) {
+            return false;
+        }
+        long expiry = expiryOf(key);
+        return ttlSeconds > 0 ? expiry >= nowEpochSeconds + ttlSeconds : expiry == NO_EXPIRY;
+    }
+
+    /**
+     * Expiry embedded in a key that {@link #inspect} found well-formed.
+     */
+    private static long expiryOf(String key) {
+        int start = CacheConstants.CACHE_KEY_PREFIX.length() + 1;
+        long expiry = 0;
+        for (int i = start; i < start + EXPIRY_DIGITS; i++) {
+            expiry = expiry * 62 + ALPHABET.indexOf(key.charAt(i));
+        }
+        return expiry;
+    }
+
+    /**
+     * Node id of this generator, embedded in every key it creates.
+     */
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Whether the key was created by this node.
+     */
+    public boolean isLocal(String key) {
+        return nodeIdOf(key) == nodeId;
+    }
+
+    /**
+     * Node id embedded in a key of the current format, or -1 for any other key.
+     */
+    public static int nodeIdOf(String key) {
+        int body = CacheConstants.CACHE_KEY_PREFIX.length();
+        if (key == null || key.length() != KEY_LENGTH || !key.startsWith(CacheConstants.CACHE_KEY_PREFIX)
+                || key.charAt(body) != FORMAT_VERSION) {
+            return -1;
+        }
+        int nodeId = 0;
+        for (int i = body + 1 + EXPIRY_DIGITS; i < body + 1 + EXPIRY_DIGITS + NODE_DIGITS; i++) {
+            int digit = ALPHABET.indexOf(key.charAt(i));
+            if (digit < 0) {
+                return -1;
+            }
+            nodeId = nodeId * 62 + digit;
+        }
+        return nodeId;
+    }
+
+    static String encode(long expiryEpochSeconds, int nodeId, long sequence) {
+        StringBuilder key = new StringBuilder(KEY_LENGTH).append(CacheConstants.CACHE_KEY_PREFIX).append(FORMAT_VERSION);
+        appendBase62(key, Math.min(expiryEpochSeconds, NO_EXPIRY), EXPIRY_DIGITS);
+        appendBase62(key, nodeId, NODE_DIGITS);
+        appendBase62(key, sequence, SEQUENCE_DIGITS);
+        key.append(ALPHABET.charAt(checksum(key)));
+        return key.toString();
+    }
+
+    /**
+     * Classifies a key without touching the cache.
+     * @param nowEpochSeconds Current time.
+     */
+    public static KeyStatus inspect(String key, long nowEpochSeconds) {
+        int body = CacheConstants.CACHE_KEY_PREFIX.length();
+        if (key == null || !key.startsWith(CacheConstants.CACHE_KEY_PREFIX)) {
+            return KeyStatus.MALFORMED;
+        }
+        if (key.length() != KEY_LENGTH || key.charAt(body) != FORMAT_VERSION) {
+            return LEGACY_KEY.matcher(key).matches() ? KeyStatus.LEGACY : KeyStatus.MALFORMED;
+        }
+        long expiry = 0;
+        for (int i = body + 1; i < KEY_LENGTH; i++) {
+            int digit = ALPHABET.indexOf(key.charAt(i));
+            if (digit < 0) {
+                return KeyStatus.MALFORMED;
+            }
+            if (i < body + 1 + EXPIRY_DIGITS) {
+                expiry = expiry * 62 + digit;
+            }
+        }
+        if (ALPHABET.indexOf(key.charAt(KEY_LENGTH - 1)) != checksum(key.substring(0, KEY_LENGTH - 1))) {
+            return KeyStatus.MALFORMED;
+        }
+        return expiry <= nowEpochSeconds ? KeyStatus.EXPIRED : KeyStatus.VALID;
+    }
+
+    /**
+     * Creation time embedded in a key of the legacy format, or null for any other key.
+     */
+    static Long legacyCreatedAtMillis(String key) {
+        Matcher matcher = key != null ? LEGACY_KEY.matcher(key) : null;
+        return matcher != null && matcher.matches() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    private static void appendBase62(StringBuilder out, long value, int digits) {
+        char[] chars = new char[digits];
+        for (int i = digits - 1; i >= 0; i--) {
+            chars[i] = ALPHABET.charAt((int) (value % 62));
+            value /= 62;
+        }
+        out.append(chars);
+    }
+
+    /**
+     * Position-weighted sum of the characters, so typos and swapped characters are caught.
+     */
+    private static int checksum(CharSequence key) {
+        int sum = 0;
+        for (int i = 0; i < key.length(); i++) {
+            sum += (i + 1) * key.charAt(i);
+        }
+        return sum % 62;
+    }
+
+    private static int hostNodeId() {
+        try {
+            return (int) Math.floorMod(InetAddress.getLocalHost().getHostName().hashCode(), MAX_NODE_ID + 1);
+        } catch (UnknownHostException e) {
+            return ThreadLocalRandom.current().nextInt((int) MAX_NODE_ID + 1);
+        }
+    }
+
+    private static long pow62(int digits) {
+        long value = 1;
+        for (int i = 0; i < digits; i++) {
+            value *= 62;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,117 @@
+package org.acme.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters shared by the instrumented cache decorators, published under the {@code tf.cache} prefix
+ * (e.g. {@code tf_cache_gets_total} at {@code /q/metrics}) and tagged with the cache type.
+ * <p>
+ * Micrometer counters and timers are backed by striped adders, so concurrent requests
+ * do not contend on a shared counter when recording.
+ */
+public class CacheMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.99};
+
+    private final MeterRegistry registry;
+    private final String cacheName;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter puts;
+    private final Counter clears;
+    private final Timer getLatency;
+    private final Timer putLatency;
+    private final DistributionSummary valueSize;
+
+    public CacheMetrics(MeterRegistry registry, String cacheName) {
+        this.registry = registry;
+        this.cacheName = cacheName;
+        this.hits = Counter.builder("tf.cache.gets").tag("cache", cacheName).tag("result", "hit")
+                .description("Cache lookups that found a value").register(registry);
+        this.misses = Counter.builder("tf.cache.gets").tag("cache", cacheName).tag("result", "miss")
+                .description("Cache lookups that found no value").register(registry);
+        this.puts = Counter.builder("tf.cache.puts").tag("cache", cacheName)
+                .description("Values written to the cache").register(registry);
+        this.clears = Counter.builder("tf.cache.clears").tag("cache", cacheName)
+                .description("Keys explicitly removed from the cache").register(registry);
+        this.getLatency = Timer.builder("tf.cache.get.latency").tag("cache", cacheName)
+                .description("Latency of cache reads").publishPercentiles(PERCENTILES).register(registry);
+        this.putLatency = Timer.builder("tf.cache.put.latency").tag("cache", cacheName)
+                .description("Latency of cache writes").publishPercentiles(PERCENTILES).register(registry);
+        this.valueSize = DistributionSummary.builder("tf.cache.value.size").tag("cache", cacheName).baseUnit("bytes")
+                .description("Size of serialized values written to the cache").publishPercentiles(PERCENTILES)
+                .register(registry);
+    }
+
+    /**
+     * Publishes entry count, estimated bytes, evictions, expirations and rejections of a locally tracked cache.
+     * @param name The {@code cache} tag value, e.g. "in-memory" or "redis-fallback".
+     */
+    public void bindStatistics(String name, CacheStatistics statistics) {
+        Gauge.builder("tf.cache.entries", statistics, CacheStatistics::entryCount).tag("cache", name)
+                .description("Entries currently held").register(registry);
+        Gauge.builder("tf.cache.estimated.bytes", statistics, CacheStatistics::estimatedBytes).tag("cache", name)
+                .baseUnit("bytes").description("Estimated heap retained by entries").register(registry);
+        FunctionCounter.builder("tf.cache.evictions", statistics, CacheStatistics::evictionCount).tag("cache", name)
+                .description("Live entries removed to make room").register(registry);
+        FunctionCounter.builder("tf.cache.expirations", statistics, CacheStatistics::expirationCount).tag("cache", name)
+                .description("Entries removed because their TTL elapsed").register(registry);
+        FunctionCounter.builder("tf.cache.rejections", statistics, CacheStatistics::rejectionCount).tag("cache", name)
+                .description("New entries refused").register(registry);
+    }
+
+    /**
+     * Publishes how concentrated the traffic of a hot-key tracker is; the keys themselves are only
+     * reported by the admin endpoint, to keep them out of metric tags.
+     * @param trackerName The {@code tracker} tag value, e.g. "keys" or "transactions".
+     */
+    public void bindHotKeys(String trackerName, HotKeyTracker tracker) {
+        Gauge.builder("tf.cache.hot.top.share", tracker, HotKeyTracker::topShare).tag("cache", cacheName)
+                .tag("tracker", trackerName).description("Estimated share of operations on the hottest item")
+                .register(registry);
+        Gauge.builder("tf.cache.hot.topk.share", tracker, HotKeyTracker::topKShare).tag("cache", cacheName)
+                .tag("tracker", trackerName).description("Estimated share of operations on the tracked hottest items")
+                .register(registry);
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    void recordGet(long startNanos, boolean hit) {
+        getLatency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        (hit ? hits : misses).increment();
+    }
+
+    void recordGetAll(long startNanos, int requested, int found) {
+        getLatency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        hits.increment(found);
+        misses.increment(Math.max(0, requested - found));
+    }
+
+    void recordPut(long startNanos, String value) {
+        recordPut(startNanos, value != null ? value.length() : -1);
+    }
+
+    /**
+     * @param valueLength Size of the stored value, or -1 if there was none.
+     */
+    void recordPut(long startNanos, int valueLength) {
+        putLatency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        puts.increment();
+        if (valueLength >= 0) {
+            valueSize.record(valueLength);
+        }
+    }
+
+    void recordClear(int keys) {
+        clears.increment(keys);
+    }
+}
@@ -1,8 +1,18 @@
 package org.acme.cache;
 
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+
 /**
  * Interface for cache operations that can be implemented by different cache providers
  * (Redis, In-Memory, etc.)
+ * <p>
+ * Values can also be written and read as bytes, which every backend stores exactly as given, so binary
+ * payloads need no text encoding. Both views address the same entries: the bytes of an entry written as
+ * a String are its UTF-8 encoding, and the String of an entry written as bytes is their UTF-8 decoding,
+ * which is only faithful for UTF-8 content. Binary values must therefore be read back as bytes.
  */
 public interface CacheService {
 
@@ -13,6 +23,26 @@ public interface CacheService {
      */
     String get(String key);
 
+    /**
+     * Read-through lookup: returns the cached value, or loads, stores and returns it on a miss.
+     * The default loads on every miss; {@link ReadThroughCacheService} shares one load between concurrent
+     * callers and can reload popular entries before they expire.
+     * @param key The cache key.
+     * @param loader Produces the value for the key; a null value is returned but not cached.
+     * @param ttlSeconds The time-to-live of a loaded value in seconds. If 0 or negative, TTL is indefinite.
+     * @return The cached or loaded value, or null if the loader found none.
+     */
+    default String get(String key, Function<String, String> loader, int ttlSeconds) {
+        String value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            if (value != null) {
+                put(key, value, ttlSeconds);
+            }
+        }
+        return value;
+    }
+
     /**
      * Stores a key-value pair in the cache.
      * @param key The cache key.
@@ -21,6 +51,44 @@ public interface CacheService {
      */
     void put(String key, String value, int ttlSeconds);
 
+    /**
+     * Attempts to retrieve a value as bytes: exactly the bytes it was written with, or the UTF-8
+     * encoding of a value written as a String.
+     * @param key The cache key.
+     * @return The cached value, or null if the key is not found. The array may be shared with
+     *         concurrent callers and must not be modified.
+     */
+    byte[] getBytes(String key);
+
+    /**
+     * Stores a value given as bytes, which are kept as they are.
+     * @param key The cache key.
+     * @param value The serialized value; not modified afterwards by the caller.
+     * @param ttlSeconds The time-to-live in seconds. If 0 or negative, TTL is indefinite.
+     */
+    void put(String key, byte[] value, int ttlSeconds);
+
+    /**
+     * Stores the remaining bytes of the buffer, without moving its position.
+     * @param key The cache key.
+     * @param value The serialized value.
+     * @param ttlSeconds The time-to-live in seconds. If 0 or negative, TTL is indefinite.
+     */
+    default void put(String key, ByteBuffer value, int ttlSeconds) {
+        if (value == null) {
+            return;
+        }
+        if (value.hasArray() && value.arrayOffset() == 0 && value.position() == 0
+                && value.remaining() == value.array().length) {
+            // The buffer wraps exactly one array, which can be passed on without a copy
+            put(key, value.array(), ttlSeconds);
+        } else {
+            byte[] bytes = new byte[value.remaining()];
+            value.duplicate().get(bytes);
+            put(key, bytes, ttlSeconds);
+        }
+    }
+
     /**
      * Invalidates (removes) a specific key from the cache.
      * @param key The key to remove.
@@ -31,4 +99,94 @@ public interface CacheService {
      * Flushes all data from the cache.
      */
     void clearAll();
+
+    /**
+     * Retrieves several keys in a single operation.
+     * @param keys The cache keys.
+     * @return The cached values by key. Keys that are not found are absent from the map.
+     */
+    Map<String, String> getAll(Collection<String> keys);
+
+    /**
+     * Stores several key-value pairs in a single operation, all with the same TTL.
+     * @param entries The serialized values (String) to store, by key.
+     * @param ttlSeconds The time-to-live in seconds. If 0 or negative, TTL is indefinite.
+     */
+    void putAll(Map<String, String> entries, int ttlSeconds);
+
+    /**
+     * Byte variant of {@link #putAll(Map, int)}; named apart since both maps erase to the same type.
+     * The default stores the entries one by one; backends with a bulk write override it.
+     * @param entries The serialized values to store, by key; not modified afterwards by the caller.
+     * @param ttlSeconds The time-to-live in seconds. If 0 or negative, TTL is indefinite.
+     */
+    default void putAllBytes(Map<String, byte[]> entries, int ttlSeconds) {
+        if (entries != null) {
+            entries.forEach((key, value) -> put(key, value, ttlSeconds));
+        }
+    }
+
+    /**
+     * Invalidates (removes) several keys in a single operation.
+     * @param keys The keys to remove.
+     */
+    void clearAll(Collection<String> keys);
+
+    /**
+     * Retrieves a value and restarts its TTL, for entries that stay alive while they are being used.
+     * The default reads and rewrites the value; backends with a native touch override it.
+     * @param key The cache key.
+     * @param ttlSeconds The new time-to-live in seconds. If 0 or negative, TTL is indefinite.
+     * @return The cached value (String), or null if the key is not found.
+     */
+    default String getAndTouch(String key, int ttlSeconds) {
+        String value = get(key);
+        if (value != null) {
+            put(key, value, ttlSeconds);
+        }
+        return value;
+    }
+
+    /**
+     * Retrieves a value and removes it, for entries that are read exactly once.
+     * The default reads and then clears, which is not atomic; backends with a native get-and-delete override it.
+     * @param key The cache key.
+     * @return The cached value (String), or null if the key is not found.
+     */
+    default String getAndClear(String key) {
+        String value = get(key);
+        if (value != null) {
+            clear(key);
+        }
+        return value;
+    }
+
+    /**
+     * Byte variant of {@link #getAndTouch(String, int)}.
+     * The default reads and rewrites the value; backends with a native touch override it.
+     * @param key The cache key.
+     * @param ttlSeconds The new time-to-live in seconds. If 0 or negative, TTL is indefinite.
+     * @return The cached value, or null if the key is not found.
+     */
+    default byte[] getBytesAndTouch(String key, int ttlSeconds) {
+        byte[] value = getBytes(key);
+        if (value != null) {
+            put(key, value, ttlSeconds);
+        }
+        return value;
+    }
+
+    /**
+     * Byte variant of {@link #getAndClear(String)}.
+     * The default reads and then clears, which is not atomic; backends with a native get-and-delete override it.
+     * @param key The cache key.
+     * @return The cached value, or null if the key is not found.
+     */
+    default byte[] getBytesAndClear(String key) {
+        byte[] value = getBytes(key);
+        if (value != null) {
+            clear(key);
+        }
+        return value;
+    }
 }
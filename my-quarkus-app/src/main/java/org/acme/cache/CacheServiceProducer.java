@@ -1,6 +1,10 @@
 package org.acme.cache;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.redis.datasource.ReactiveRedisDataSource;
+import io.quarkus.redis.client.RedisClientName;
 import io.quarkus.redis.datasource.RedisDataSource;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Instance;
 import jakarta.enterprise.inject.Produces;
@@ -8,6 +12,12 @@ import jakarta.inject.Inject;
 import org.acme.config.CachingConfiguration;
 import org.jboss.logging.Logger;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Producer for CacheService that conditionally provides either Redis, In-Memory, or NoOp implementation
  * based on configuration. When caching is disabled, returns NoOpCacheService (feature lays dormant).
@@ -24,9 +34,44 @@ public class CacheServiceProducer {
     @Inject
     Instance<RedisDataSource> redisDataSourceInstance;
 
+    @Inject
+    Instance<ReactiveRedisDataSource> reactiveRedisDataSourceInstance;
+
+    @Inject
+    Instance<MeterRegistry> meterRegistryInstance;
+
+    @Inject
+    HotKeyRegistry hotKeys;
+
     // Cache instance to ensure singleton behavior
     private CacheService activeCacheService;
+    // Redis backend and its failover wrapper, when Redis is the active cache type
+    private RedisCacheService redisCacheService;
+    private FailoverCacheService failoverCacheService;
+    // Breaker of each Redis shard by client name (null entries without failover), when sharding is active
+    private final Map<String, CacheCircuitBreaker> shardBreakers = new LinkedHashMap<>();
+    private ShardedCacheService shardedCacheService;
+    // Disk persistence of the in-memory cache, when enabled
+    private InMemoryCachePersistence inMemoryPersistence;
+    // Disk tier of the in-memory cache, when enabled
+    private DiskSpillStore diskSpillStore;
+    // Old generation watcher shared by the in-memory caches, when heap pressure shedding is enabled
+    private HeapPressureMonitor heapPressureMonitor;
+    // Outermost decorator, owning the refresh-ahead threads
+    private ReadThroughCacheService readThroughCacheService;
+    // Host-shared cache file, when it is the active cache type
+    private SharedMemoryCacheService sharedMemoryCacheService;
+    // Meters shared by the sync and reactive views; null when metrics are disabled
+    private CacheMetrics cacheMetrics;
+    // Blob bookkeeping shared by the sync and reactive views; null when dedup is disabled
+    private ContentAddressedStore contentAddressedStore;
+    // In-flight reads shared by the sync and reactive views
+    private final SingleFlight<String> inFlightReads = new SingleFlight<>();
+    private ReactiveCacheService activeReactiveCacheService;
+    private ReactiveRedisCacheService reactiveRedisCacheService;
     private final NoOpCacheService noOpCacheService = new NoOpCacheService();
+    // Backend behind the decorators, for the admin inspection endpoint
+    private CacheInspector cacheInspector;
 
     /**
      * Produces the appropriate CacheService implementation based on configuration.
@@ -53,25 +98,352 @@ public class CacheServiceProducer {
         String cacheType = cachingConfiguration.getCacheType();
         LOG.infof("Caching is enabled - configuring cache service with type: %s", cacheType);
 
-        if (cachingConfiguration.isRedisCache()) {
+        if (cachingConfiguration.isRedisCache() && !cachingConfiguration.getRedisShardingClients().isEmpty()) {
+            ShardedCacheService sharded = createShardedCacheService();
+            if (sharded != null) {
+                shardedCacheService = sharded;
+                cacheInspector = sharded;
+                return activate(sharded);
+            }
+            LOG.warn("No Redis shard client available - falling back to in-memory");
+        } else if (cachingConfiguration.isRedisCache()) {
             // Try to create Redis cache service
             if (redisDataSourceInstance.isResolvable()) {
                 LOG.info("Creating Redis cache service");
                 RedisCacheService service = new RedisCacheService(redisDataSourceInstance.get());
+                service.configureClearAll(cachingConfiguration.getRedisClearAllScanCount(),
+                        cachingConfiguration.getRedisClearAllMaxKeysPerSecond());
                 service.init();
-                activeCacheService = service;
-                return service;
+                redisCacheService = service;
+                cacheInspector = service;
+                return activate(withFailover(service));
             } else {
                 LOG.warn("Redis configured but RedisDataSource not available - falling back to in-memory");
                 // Fall through to in-memory
             }
+        } else if (cachingConfiguration.isSharedMemoryCache()) {
+            try {
+                LOG.info("Creating shared-memory cache service");
+                SharedMemoryCacheService service = new SharedMemoryCacheService(Path.of(cachingConfiguration.getSharedMemoryFile()),
+                        cachingConfiguration.getSharedMemoryBuckets(), cachingConfiguration.getSharedMemorySlotsPerBucket(),
+                        cachingConfiguration.getSharedMemorySlotBytes());
+                sharedMemoryCacheService = service;
+                bindStatistics("shared-memory", service);
+                cacheInspector = service;
+                return activate(service);
+            } catch (IOException | RuntimeException e) {
+                LOG.errorf("Cannot open shared cache file %s - falling back to in-memory: %s",
+                        cachingConfiguration.getSharedMemoryFile(), e.getMessage());
+            }
         }
 
         // Use in-memory cache (either configured or as fallback)
         LOG.info("Creating In-memory cache service");
         InMemoryCacheService service = new InMemoryCacheService();
         service.initCleanupTask();
-        activeCacheService = service;
+        service.setMaxBytes(cachingConfiguration.getInMemoryMaxBytes());
+        if (cachingConfiguration.isSpillEnabled()) {
+            try {
+                diskSpillStore = new DiskSpillStore(Path.of(cachingConfiguration.getSpillDirectory()),
+                        cachingConfiguration.getSpillSegmentBytes(), cachingConfiguration.getSpillMaxBytes());
+                service.enableDiskSpill(diskSpillStore);
+                bindStatistics("in-memory-spill", diskSpillStore);
+            } catch (IOException | RuntimeException e) {
+                LOG.errorf("Cannot open spill directory %s - entries leaving the heap are dropped: %s",
+                        cachingConfiguration.getSpillDirectory(), e.getMessage());
+            }
+        }
+        shedUnderHeapPressure(service);
+        if (cachingConfiguration.isInMemoryPersistenceEnabled()) {
+            inMemoryPersistence = new InMemoryCachePersistence(Path.of(cachingConfiguration.getInMemoryPersistenceDirectory()),
+                    cachingConfiguration.getInMemoryPersistenceSnapshotIntervalSeconds(),
+                    cachingConfiguration.getInMemoryPersistenceLogQueueCapacity());
+            inMemoryPersistence.open(service);
+        }
+        bindStatistics("in-memory", service);
+        cacheInspector = service;
+        return activate(service);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (readThroughCacheService != null) {
+            readThroughCacheService.close();
+        }
+        if (heapPressureMonitor != null) {
+            heapPressureMonitor.close();
+        }
+        if (inMemoryPersistence != null) {
+            inMemoryPersistence.close();
+        }
+        if (sharedMemoryCacheService != null) {
+            sharedMemoryCacheService.close();
+        }
+        if (diskSpillStore != null) {
+            diskSpillStore.close();
+        }
+    }
+
+    /**
+     * Applies the configured decorators (compression, dedup, read coalescing, metrics, hot-key tracking)
+     * around the backend, with read-through loading outermost so loads and refreshes pass through all of them.
+     */
+    private CacheService activate(CacheService backend) {
+        activeCacheService = backend;
+        if (cachingConfiguration.isCompressionEnabled()) {
+            LOG.infof("Compressing cached values of %d bytes or more", cachingConfiguration.getCompressionThresholdBytes());
+            activeCacheService = new CompressingCacheService(activeCacheService, compressionCodec());
+        }
+        if (cachingConfiguration.isDedupEnabled()) {
+            LOG.infof("Deduplicating cached values of %d bytes or more", cachingConfiguration.getDedupMinBytes());
+            activeCacheService = new DeduplicatingCacheService(activeCacheService, contentAddressedStore());
+        }
+        if (cachingConfiguration.isCoalescingEnabled()) {
+            activeCacheService = new CoalescingCacheService(activeCacheService, inFlightReads);
+        }
+        CacheMetrics metrics = cacheMetrics();
+        if (metrics != null) {
+            activeCacheService = new InstrumentedCacheService(activeCacheService, metrics);
+        }
+        if (hotKeys.isEnabled()) {
+            activeCacheService = new HotKeyTrackingCacheService(activeCacheService, hotKeys.getKeyTracker());
+            if (metrics != null) {
+                metrics.bindHotKeys("keys", hotKeys.getKeyTracker());
+                metrics.bindHotKeys("transactions", hotKeys.getTransactionTracker());
+            }
+        }
+        if (cachingConfiguration.getRefreshAheadSeconds() > 0) {
+            LOG.infof("Refreshing read-through entries %d seconds before expiry", cachingConfiguration.getRefreshAheadSeconds());
+        }
+        readThroughCacheService = new ReadThroughCacheService(activeCacheService, cachingConfiguration.getRefreshAheadSeconds(),
+                cachingConfiguration.getRefreshAheadThreads(), cachingConfiguration.getRefreshAheadMaxTrackedKeys());
+        activeCacheService = readThroughCacheService;
+        return activeCacheService;
+    }
+
+    /**
+     * Meters for the active cache type, created on first use; null when metrics are disabled or unavailable.
+     */
+    private CacheMetrics cacheMetrics() {
+        if (cacheMetrics == null && cachingConfiguration.isMetricsEnabled() && meterRegistryInstance.isResolvable()) {
+            cacheMetrics = new CacheMetrics(meterRegistryInstance.get(), cachingConfiguration.getCacheType());
+        }
+        return cacheMetrics;
+    }
+
+    /**
+     * Lets the in-memory cache give memory back under heap pressure, when enabled.
+     */
+    private void shedUnderHeapPressure(InMemoryCacheService service) {
+        if (!cachingConfiguration.isHeapPressureEnabled()) {
+            return;
+        }
+        if (heapPressureMonitor == null) {
+            try {
+                HeapPressureMonitor monitor = new HeapPressureMonitor(cachingConfiguration.getHeapPressureHighWatermark(),
+                        cachingConfiguration.getHeapPressureLowWatermark());
+                if (!monitor.start()) {
+                    return;
+                }
+                heapPressureMonitor = monitor;
+            } catch (IllegalArgumentException e) {
+                LOG.errorf("Heap pressure shedding disabled: %s", e.getMessage());
+                return;
+            }
+        }
+        service.enableHeapPressureShedding(heapPressureMonitor, cachingConfiguration.getHeapPressureShedFraction());
+    }
+
+    private void bindStatistics(String name, CacheStatistics statistics) {
+        CacheMetrics metrics = cacheMetrics();
+        if (metrics != null) {
+            metrics.bindStatistics(name, statistics);
+        }
+    }
+
+    /**
+     * Puts Redis behind a circuit breaker that fails over to a local in-memory cache, when enabled.
+     */
+    private CacheService withFailover(RedisCacheService redis) {
+        if (!cachingConfiguration.isRedisFailoverEnabled()) {
+            return redis;
+        }
+        LOG.info("Enabling Redis circuit breaker with in-memory failover");
+        CacheCircuitBreaker breaker = new CacheCircuitBreaker("redis",
+                cachingConfiguration.getRedisFailoverFailureThreshold(),
+                cachingConfiguration.getRedisFailoverSlowCallMs(),
+                cachingConfiguration.getRedisFailoverProbeIntervalMs());
+        breaker.setProbe(redis::ping);
+        redis.setCircuitBreaker(breaker);
+
+        InMemoryCacheService fallback = new InMemoryCacheService();
+        fallback.initCleanupTask();
+        shedUnderHeapPressure(fallback);
+        bindStatistics("redis-fallback", fallback);
+        failoverCacheService = new FailoverCacheService(redis, fallback, breaker);
+        return failoverCacheService;
+    }
+
+    /**
+     * Builds one Redis backend per configured named client, each behind its own circuit breaker
+     * so an unhealthy shard is skipped. Returns null if none of the clients is available.
+     */
+    private ShardedCacheService createShardedCacheService() {
+        ShardedCacheService sharded = new ShardedCacheService(cachingConfiguration.getRedisShardingVirtualNodes());
+        int shards = 0;
+        for (String name : cachingConfiguration.getRedisShardingClients()) {
+            Instance<RedisDataSource> dataSource = redisDataSourceInstance.select(RedisClientName.Literal.of(name));
+            if (!dataSource.isResolvable()) {
+                LOG.warnf("Redis client '%s' is not configured - shard skipped", name);
+                continue;
+            }
+            RedisCacheService service = new RedisCacheService(dataSource.get());
+            service.configureClearAll(cachingConfiguration.getRedisClearAllScanCount(),
+                    cachingConfiguration.getRedisClearAllMaxKeysPerSecond());
+            CacheCircuitBreaker breaker = null;
+            if (cachingConfiguration.isRedisFailoverEnabled()) {
+                breaker = new CacheCircuitBreaker("redis-" + name,
+                        cachingConfiguration.getRedisFailoverFailureThreshold(),
+                        cachingConfiguration.getRedisFailoverSlowCallMs(),
+                        cachingConfiguration.getRedisFailoverProbeIntervalMs());
+                breaker.setProbe(service::ping);
+                service.setCircuitBreaker(breaker);
+            }
+            service.init();
+            sharded.addShard(name, service, breaker);
+            shardBreakers.put(name, breaker);
+            shards++;
+        }
+        return shards > 0 ? sharded : null;
+    }
+
+    private ContentAddressedStore contentAddressedStore() {
+        if (contentAddressedStore == null) {
+            contentAddressedStore = new ContentAddressedStore(cachingConfiguration.getDedupMinBytes());
+        }
+        return contentAddressedStore;
+    }
+
+    private ValueCompressionCodec compressionCodec() {
+        return new ValueCompressionCodec(cachingConfiguration.getCompressionThresholdBytes());
+    }
+
+    /**
+     * Produces the non-blocking view of the active cache. Redis, sharded or not, is served by the reactive
+     * client; in-memory and NoOp caches are wrapped directly since they never wait on I/O.
+     * Both views always share the same backing store as {@link #produceCacheService()}.
+     *
+     * @return The configured reactive cache service implementation
+     */
+    @Produces
+    @ApplicationScoped
+    public ReactiveCacheService produceReactiveCacheService() {
+        if (activeReactiveCacheService != null) {
+            return activeReactiveCacheService;
+        }
+
+        CacheService cacheService = produceCacheService();
+        if (shardedCacheService != null) {
+            LOG.info("Creating sharded reactive Redis cache service");
+            activeReactiveCacheService = decorate(createShardedReactiveCacheService());
+        } else if (redisCacheService != null && reactiveRedisDataSourceInstance.isResolvable()) {
+            LOG.info("Creating reactive Redis cache service");
+            ReactiveRedisCacheService reactiveService = new ReactiveRedisCacheService(reactiveRedisDataSourceInstance.get());
+            reactiveService.configureClearAll(cachingConfiguration.getRedisClearAllScanCount(),
+                    cachingConfiguration.getRedisClearAllMaxKeysPerSecond());
+            reactiveRedisCacheService = reactiveService;
+            ReactiveCacheService backend = reactiveService;
+            if (failoverCacheService != null) {
+                reactiveService.setCircuitBreaker(failoverCacheService.getBreaker());
+                backend = new FailoverReactiveCacheService(reactiveService, failoverCacheService);
+            }
+            activeReactiveCacheService = decorate(backend);
+        } else {
+            // Already decorated (compression, dedup, coalescing, metrics, hot keys) on the synchronous side
+            activeReactiveCacheService = new LocalReactiveCacheService(cacheService);
+        }
+        return activeReactiveCacheService;
+    }
+
+    /**
+     * Applies the decorators of {@link #activate(CacheService)} to a reactive backend, sharing their
+     * state (blob bookkeeping, in-flight reads, meters) with the synchronous view.
+     */
+    private ReactiveCacheService decorate(ReactiveCacheService backend) {
+        ReactiveCacheService service = backend;
+        if (cachingConfiguration.isCompressionEnabled()) {
+            service = new CompressingReactiveCacheService(service, compressionCodec());
+        }
+        if (cachingConfiguration.isDedupEnabled()) {
+            service = new DeduplicatingReactiveCacheService(service, contentAddressedStore());
+        }
+        if (cachingConfiguration.isCoalescingEnabled()) {
+            service = new CoalescingReactiveCacheService(service, inFlightReads);
+        }
+        if (cacheMetrics != null) {
+            service = new InstrumentedReactiveCacheService(service, cacheMetrics);
+        }
+        if (hotKeys.isEnabled()) {
+            service = new HotKeyTrackingReactiveCacheService(service, hotKeys.getKeyTracker());
+        }
         return service;
     }
+
+    /**
+     * Builds one reactive Redis backend per shard of the synchronous view, on the same named client and
+     * fed to the same breaker, so a shard is never reached through a blocking call.
+     *
+     * @throws IllegalStateException if a shard client has no reactive data source
+     */
+    private ShardedReactiveCacheService createShardedReactiveCacheService() {
+        ShardedReactiveCacheService sharded = new ShardedReactiveCacheService(shardedCacheService);
+        shardBreakers.forEach((name, breaker) -> {
+            Instance<ReactiveRedisDataSource> dataSource =
+                    reactiveRedisDataSourceInstance.select(RedisClientName.Literal.of(name));
+            if (!dataSource.isResolvable()) {
+                throw new IllegalStateException("Redis client '" + name + "' has no reactive data source, "
+                        + "which the sharded cache needs for every shard");
+            }
+            ReactiveRedisCacheService service = new ReactiveRedisCacheService(dataSource.get());
+            service.configureClearAll(cachingConfiguration.getRedisClearAllScanCount(),
+                    cachingConfiguration.getRedisClearAllMaxKeysPerSecond());
+            service.setCircuitBreaker(breaker);
+            sharded.addShard(name, service);
+        });
+        return sharded;
+    }
+
+    /**
+     * Produces field-level storage for tablefacility data: Redis hashes when Redis is active and
+     * hash storage is configured, otherwise an unavailable stub so callers keep whole-value storage.
+     *
+     * @return The field-level cache service
+     */
+    @Produces
+    @ApplicationScoped
+    public FieldCacheService produceFieldCacheService() {
+        produceReactiveCacheService();
+        if (reactiveRedisCacheService != null && cachingConfiguration.isRedisHashTablefacilityStorage()) {
+            LOG.info("Storing tablefacility fields as Redis hashes");
+            return reactiveRedisCacheService;
+        }
+        return new NoOpFieldCacheService();
+    }
+
+    /**
+     * Produces the inspector of the active backend. During a Redis outage Redis is still the one inspected,
+     * since the fallback only holds entries written during the outage. When caching is disabled the
+     * inspector reports no entries.
+     *
+     * @return The cache inspector
+     */
+    @Produces
+    @ApplicationScoped
+    public CacheInspector produceCacheInspector() {
+        produceCacheService();
+        if (cacheInspector != null) {
+            return cacheInspector;
+        }
+        return (cursor, count) -> new CacheInspector.Page(CacheInspector.START_CURSOR, List.of());
+    }
 }
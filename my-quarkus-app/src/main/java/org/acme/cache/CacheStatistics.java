@@ -0,0 +1,35 @@
+package org.acme.cache;
+
+/**
+ * Size and removal statistics exposed by cache implementations that track them locally.
+ * Implementations must make every method cheap and non-blocking, since they are read on metric scrapes.
+ */
+public interface CacheStatistics {
+
+    /**
+     * @return The number of entries currently held, expired-but-not-yet-purged ones included.
+     */
+    long entryCount();
+
+    /**
+     * @return An estimate of the heap bytes retained by the entries.
+     */
+    long estimatedBytes();
+
+    /**
+     * @return The number of live entries removed to make room (as opposed to expiring or being cleared).
+     */
+    long evictionCount();
+
+    /**
+     * @return The number of entries removed because their TTL elapsed.
+     */
+    long expirationCount();
+
+    /**
+     * @return The number of new entries refused, e.g. while the heap is under pressure.
+     */
+    default long rejectionCount() {
+        return 0;
+    }
+}
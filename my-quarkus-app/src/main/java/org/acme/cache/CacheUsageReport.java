@@ -0,0 +1,143 @@
+package org.acme.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Largest entries and key prefixes of a cache, collected page by page through a {@link CacheInspector}.
+ * Only metadata is kept and memory stays bounded by the number of entries and prefixes reported,
+ * whatever the size of the cache.
+ */
+public final class CacheUsageReport {
+
+    /**
+     * Distinct prefixes tracked at once; beyond that the smallest are dropped and prefix totals become approximate.
+     */
+    static final int MAX_TRACKED_PREFIXES = 10_000;
+
+    /**
+     * Aggregated usage of the keys sharing a prefix.
+     */
+    public static final class PrefixUsage {
+        private final String prefix;
+        private long keys;
+        private long bytes;
+
+        PrefixUsage(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public long getKeys() {
+            return keys;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+
+    private long scannedKeys;
+    private long totalBytes;
+    private boolean complete;
+    private boolean prefixesApproximate;
+    private List<CacheEntryInfo> largestEntries;
+    private List<PrefixUsage> largestPrefixes;
+
+    private CacheUsageReport() {
+    }
+
+    /**
+     * Scans the cache until it is exhausted or {@code maxKeys} entries have been seen.
+     * @param topN Number of entries and prefixes to report.
+     * @param prefixLength Characters of the key grouped as its prefix; 0 or negative groups by the text before the last '_'.
+     * @param maxKeys Upper bound on scanned entries, so a huge cache cannot keep the scan running.
+     * @param pageSize Count hint for each scan call.
+     */
+    public static CacheUsageReport collect(CacheInspector inspector, int topN, int prefixLength, long maxKeys, int pageSize) {
+        CacheUsageReport report = new CacheUsageReport();
+        PriorityQueue<CacheEntryInfo> largest = new PriorityQueue<>(Comparator.comparingLong(CacheEntryInfo::getSizeBytes));
+        Map<String, PrefixUsage> prefixes = new HashMap<>();
+
+        String cursor = CacheInspector.START_CURSOR;
+        do {
+            CacheInspector.Page page = inspector.scan(cursor, pageSize);
+            for (CacheEntryInfo entry : page.getEntries()) {
+                report.scannedKeys++;
+                report.totalBytes += entry.getSizeBytes();
+                largest.add(entry);
+                if (largest.size() > topN) {
+                    largest.poll();
+                }
+                PrefixUsage usage = prefixes.computeIfAbsent(prefixOf(entry.getKey(), prefixLength), PrefixUsage::new);
+                usage.keys++;
+                usage.bytes += entry.getSizeBytes();
+            }
+            if (prefixes.size() > MAX_TRACKED_PREFIXES) {
+                report.prefixesApproximate = true;
+                pruneSmallest(prefixes, MAX_TRACKED_PREFIXES / 2);
+            }
+            cursor = page.getCursor();
+            report.complete = page.isComplete();
+        } while (!report.complete && report.scannedKeys < maxKeys);
+
+        List<CacheEntryInfo> entries = new ArrayList<>(largest);
+        entries.sort(Comparator.comparingLong(CacheEntryInfo::getSizeBytes).reversed());
+        report.largestEntries = entries;
+        List<PrefixUsage> usages = new ArrayList<>(prefixes.values());
+        usages.sort(Comparator.comparingLong(PrefixUsage::getBytes).reversed());
+        report.largestPrefixes = usages.subList(0, Math.min(topN, usages.size()));
+        return report;
+    }
+
+    static String prefixOf(String key, int prefixLength) {
+        if (prefixLength > 0) {
+            return key.length() > prefixLength ? key.substring(0, prefixLength) : key;
+        }
+        int end = key.lastIndexOf('_');
+        return end > 0 ? key.substring(0, end) : key;
+    }
+
+    private static void pruneSmallest(Map<String, PrefixUsage> prefixes, int keep) {
+        List<PrefixUsage> usages = new ArrayList<>(prefixes.values());
+        usages.sort(Comparator.comparingLong(PrefixUsage::getBytes).reversed());
+        usages.subList(keep, usages.size()).forEach(usage -> prefixes.remove(usage.getPrefix()));
+    }
+
+    public long getScannedKeys() {
+        return scannedKeys;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Whether every entry was scanned, rather than stopping at the key limit.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Whether so many distinct prefixes were seen that small ones were dropped along the way.
+     */
+    public boolean isPrefixesApproximate() {
+        return prefixesApproximate;
+    }
+
+    public List<CacheEntryInfo> getLargestEntries() {
+        return largestEntries;
+    }
+
+    public List<PrefixUsage> getLargestPrefixes() {
+        return largestPrefixes;
+    }
+}
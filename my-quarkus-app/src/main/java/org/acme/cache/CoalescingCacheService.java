@@ -0,0 +1,93 @@
+package org.acme.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Decorator that coalesces concurrent reads of the same key into a single backend fetch
+ * (and a single decode, when placed above {@link CompressingCacheService}).
+ * Writes and clears pass straight through.
+ */
+public class CoalescingCacheService implements CacheService {
+
+    private final CacheService delegate;
+    private final SingleFlight<String> reads;
+    // Byte reads coalesce among themselves; followers share the leader's array
+    private final SingleFlight<byte[]> byteReads = new SingleFlight<>();
+
+    public CoalescingCacheService(CacheService delegate, SingleFlight<String> reads) {
+        this.delegate = delegate;
+        this.reads = reads;
+    }
+
+    @Override
+    public String get(String key) {
+        return reads.execute(key, () -> delegate.get(key));
+    }
+
+    @Override
+    public void put(String key, String value, int ttlSeconds) {
+        delegate.put(key, value, ttlSeconds);
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        return byteReads.execute(key, () -> delegate.getBytes(key));
+    }
+
+    @Override
+    public void put(String key, byte[] value, int ttlSeconds) {
+        delegate.put(key, value, ttlSeconds);
+    }
+
+    // Touch and consume change the entry, so each caller issues its own call
+    @Override
+    public String getAndTouch(String key, int ttlSeconds) {
+        return delegate.getAndTouch(key, ttlSeconds);
+    }
+
+    @Override
+    public String getAndClear(String key) {
+        return delegate.getAndClear(key);
+    }
+
+    @Override
+    public byte[] getBytesAndTouch(String key, int ttlSeconds) {
+        return delegate.getBytesAndTouch(key, ttlSeconds);
+    }
+
+    @Override
+    public byte[] getBytesAndClear(String key) {
+        return delegate.getBytesAndClear(key);
+    }
+
+    @Override
+    public void clear(String key) {
+        delegate.clear(key);
+    }
+
+    @Override
+    public void clearAll() {
+        delegate.clearAll();
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        return delegate.getAll(keys);
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, int ttlSeconds) {
+        delegate.putAll(entries, ttlSeconds);
+    }
+
+    @Override
+    public void putAllBytes(Map<String, byte[]> entries, int ttlSeconds) {
+        delegate.putAllBytes(entries, ttlSeconds);
+    }
+
+    @Override
+    public void clearAll(Collection<String> keys) {
+        delegate.clearAll(keys);
+    }
+}
@@ -0,0 +1,88 @@
+package org.acme.cache;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Reactive counterpart of {@link CoalescingCacheService}. Shares its {@link SingleFlight} with the
+ * synchronous view so blocking and non-blocking readers of the same key are coalesced together.
+ */
+public class CoalescingReactiveCacheService implements ReactiveCacheService {
+
+    private final ReactiveCacheService delegate;
+    private final SingleFlight<String> reads;
+    private final SingleFlight<byte[]> byteReads = new SingleFlight<>();
+
+    public CoalescingReactiveCacheService(ReactiveCacheService delegate, SingleFlight<String> reads) {
+        this.delegate = delegate;
+        this.reads = reads;
+    }
+
+    @Override
+    public Uni<String> get(String key) {
+        return reads.executeAsync(key, () -> delegate.get(key));
+    }
+
+    @Override
+    public Uni<Void> put(String key, String value, int ttlSeconds) {
+        return delegate.put(key, value, ttlSeconds);
+    }
+
+    @Override
+    public Uni<byte[]> getBytes(String key) {
+        return byteReads.executeAsync(key, () -> delegate.getBytes(key));
+    }
+
+    @Override
+    public Uni<Void> put(String key, byte[] value, int ttlSeconds) {
+        return delegate.put(key, value, ttlSeconds);
+    }
+
+    // Touch and consume change the entry, so each caller issues its own call
+    @Override
+    public Uni<String> getAndTouch(String key, int ttlSeconds) {
+        return delegate.getAndTouch(key, ttlSeconds);
+    }
+
+    @Override
+    public Uni<String> getAndClear(String key) {
+        return delegate.getAndClear(key);
+    }
+
+    @Override
+    public Uni<byte[]> getBytesAndTouch(String key, int ttlSeconds) {
+        return delegate.getBytesAndTouch(key, ttlSeconds);
+    }
+
+    @Override
+    public Uni<byte[]> getBytesAndClear(String key) {
+        return delegate.getBytesAndClear(key);
+    }
+
+    @Override
+    public Uni<Void> clear(String key) {
+        return delegate.clear(key);
+    }
+
+    @Override
+    public Uni<Void> clearAll() {
+        return delegate.clearAll();
+    }
+
+    @Override
+    public Uni<Map<String, String>> getAll(Collection<String> keys) {
+        return delegate.getAll(keys);
+    }
+
+    @Override
+    public Uni<Void> putAll(Map<String, String> entries, int ttlSeconds) {
+        return delegate.putAll(entries, ttlSeconds);
+    }
+
+    @Override
+    public Uni<Void> clearAll(Collection<String> keys) {
+        return delegate.clearAll(keys);
+    }
+}
@@ -0,0 +1,130 @@
+package org.acme.cache;
+
+import org.jboss.logging.Logger;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decorator that compresses values on the way into the backing cache and
+ * decompresses them on the way out, using a {@link ValueCompressionCodec}.
+ * A value that fails to decode is treated as a cache miss.
+ */
+public class CompressingCacheService implements CacheService {
+
+    private static final Logger LOG = Logger.getLogger(CompressingCacheService.class);
+
+    private final CacheService delegate;
+    private final ValueCompressionCodec codec;
+
+    public CompressingCacheService(CacheService delegate, ValueCompressionCodec codec) {
+        this.delegate = delegate;
+        this.codec = codec;
+    }
+
+    @Override
+    public String get(String key) {
+        return decode(key, delegate.get(key));
+    }
+
+    @Override
+    public void put(String key, String value, int ttlSeconds) {
+        delegate.put(key, codec.encode(value), ttlSeconds);
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        return decode(key, delegate.getBytes(key));
+    }
+
+    @Override
+    public void put(String key, byte[] value, int ttlSeconds) {
+        delegate.put(key, codec.encodeBytes(value), ttlSeconds);
+    }
+
+    @Override
+    public void clear(String key) {
+        delegate.clear(key);
+    }
+
+    @Override
+    public String getAndTouch(String key, int ttlSeconds) {
+        return decode(key, delegate.getAndTouch(key, ttlSeconds));
+    }
+
+    @Override
+    public String getAndClear(String key) {
+        return decode(key, delegate.getAndClear(key));
+    }
+
+    @Override
+    public byte[] getBytesAndTouch(String key, int ttlSeconds) {
+        return decode(key, delegate.getBytesAndTouch(key, ttlSeconds));
+    }
+
+    @Override
+    public byte[] getBytesAndClear(String key) {
+        return decode(key, delegate.getBytesAndClear(key));
+    }
+
+    @Override
+    public void clearAll() {
+        delegate.clearAll();
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> result = new HashMap<>();
+        delegate.getAll(keys).forEach((k, v) -> {
+            String decoded = decode(k, v);
+            if (decoded != null) {
+                result.put(k, decoded);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, int ttlSeconds) {
+        if (entries == null) {
+            return;
+        }
+        Map<String, String> encoded = new HashMap<>();
+        entries.forEach((k, v) -> encoded.put(k, codec.encode(v)));
+        delegate.putAll(encoded, ttlSeconds);
+    }
+
+    @Override
+    public void putAllBytes(Map<String, byte[]> entries, int ttlSeconds) {
+        if (entries == null) {
+            return;
+        }
+        Map<String, byte[]> encoded = new HashMap<>();
+        entries.forEach((k, v) -> encoded.put(k, codec.encodeBytes(v)));
+        delegate.putAllBytes(encoded, ttlSeconds);
+    }
+
+    @Override
+    public void clearAll(Collection<String> keys) {
+        delegate.clearAll(keys);
+    }
+
+    private String decode(String key, String value) {
+        try {
+            return codec.decode(value);
+        } catch (RuntimeException e) {
+            LOG.errorf("Failed to decompress cached value for key '%s': %s", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private byte[] decode(String key, byte[] value) {
+        try {
+            return codec.decodeBytes(value);
+        } catch (RuntimeException e) {
+            LOG.errorf("Failed to decompress cached value for key '%s': %s", key, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.acme.cache;
+
+import io.smallrye.mutiny.Uni;
+import org.jboss.logging.Logger;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reactive counterpart of {@link CompressingCacheService}.
+ * Compression runs on the caller's thread before the write is issued; decompression
+ * runs on the thread completing the read.
+ */
+public class CompressingReactiveCacheService implements ReactiveCacheService {
+
+    private static final Logger LOG = Logger.getLogger(CompressingReactiveCacheService.class);
+
+    private final ReactiveCacheService delegate;
+    private final ValueCompressionCodec codec;
+
+    public CompressingReactiveCacheService(ReactiveCacheService delegate, ValueCompressionCodec codec) {
+        this.delegate = delegate;
+        this.codec = codec;
+    }
+
+    @Override
+    public Uni<String> get(String key) {
+        return delegate.get(key).map(value -> decode(key, value));
+    }
+
+    @Override
+    public Uni<Void> put(String key, String value, int ttlSeconds) {
+        return delegate.put(key, codec.encode(value), ttlSeconds);
+    }
+
+    @Override
+    public Uni<byte[]> getBytes(String key) {
+        return delegate.getBytes(key).map(value -> decode(key, value));
+    }
+
+    @Override
+    public Uni<Void> put(String key, byte[] value, int ttlSeconds) {
+        return delegate.put(key, codec.encodeBytes(value), ttlSeconds);
+    }
+
+    @Override
+    public Uni<Void> clear(String key) {
+        return delegate.clear(key);
+    }
+
+    @Override
+    public Uni<String> getAndTouch(String key, int ttlSeconds) {
+        return delegate.getAndTouch(key, ttlSeconds).map(value -> decode(key, value));
+    }
+
+    @Override
+    public Uni<String> getAndClear(String key) {
+        return delegate.getAndClear(key).map(value -> decode(key, value));
+    }
+
+    @Override
+    public Uni<byte[]> getBytesAndTouch(String key, int ttlSeconds) {
+        return delegate.getBytesAndTouch(key, ttlSeconds).map(value -> decode(key, value));
+    }
+
+    @Override
+    public Uni<byte[]> getBytesAndClear(String key) {
+        return delegate.getBytesAndClear(key).map(value -> decode(key, value));
+    }
+
+    @Override
+    public Uni<Void> clearAll() {
+        return delegate.clearAll();
+    }
+
+    @Override
+    public Uni<Map<String, String>> getAll(Collection<String> keys) {
+        return delegate.getAll(keys).map(values -> {
+            Map<String, String> result = new HashMap<>();
+            values.forEach((k, v) -> {
+                String decoded = decode(k, v);
+                if (decoded != null) {
+                    result.put(k, decoded);
+                }
+            });
+            return result;
+        });
+    }
+
+    @Override
+    public Uni<Void> putAll(Map<String, String> entries, int ttlSeconds) {
+        if (entries == null) {
+            return Uni.createFrom().voidItem();
+        }
+        Map<String, String> encoded = new HashMap<>();
+        entries.forEach((k, v) -> encoded.put(k, codec.encode(v)));
+        return delegate.putAll(encoded, ttlSeconds);
+    }
+
+    @Override
+    public Uni<Void> clearAll(Collection<String> keys) {
+        return delegate.clearAll(keys);
+    }
+
+    private String decode(String key, String value) {
+        try {
+            return codec.decode(value);
+        } catch (RuntimeException e) {
+            LOG.errorf("Failed to decompress cached value for key '%s': %s", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private byte[] decode(String key, byte[] value) {
+        try {
+            return codec.decodeBytes(value);
+        } catch (RuntimeException e) {
+            LOG.errorf("Failed to decompress cached value for key '%s': %s", key, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.acme.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Consistent-hash ring mapping keys to named nodes. Every node is placed on the ring at many
+ * virtual points, so keys spread evenly and adding or removing a node only moves the keys
+ * of the ring segments it gains or loses (about 1/N of them).
+ * <p>
+ * The ring is an immutable sorted array swapped on membership changes, so lookups are a
+ * lock-free binary search.
+ */
+public class ConsistentHashRing {
+
+    private static final class Ring {
+        final long[] hashes;
+        final String[] nodes;
+
+        Ring(long[] hashes, String[] nodes) {
+            this.hashes = hashes;
+            this.nodes = nodes;
+        }
+    }
+
+    private final int virtualNodes;
+    private final Set<String> members = new LinkedHashSet<>();
+    private volatile Ring ring = new Ring(new long[0], new String[0]);
+
+    /**
+     * @param virtualNodes Points per node on the ring; more points give a more even spread.
+     */
+    public ConsistentHashRing(int virtualNodes) {
+        this.virtualNodes = Math.max(1, virtualNodes);
+    }
+
+    public synchronized void add(String node) {
+        if (members.add(node)) {
+            rebuild();
+        }
+    }
+
+    public synchronized void remove(String node) {
+        if (members.remove(node)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * The node owning the key, or null if the ring is empty.
+     */
+    public String nodeFor(String key) {
+        return nodeFor(key, node -> true);
+    }
+
+    /**
+     * The first node clockwise from the key that is usable. Skipping a node sends its keys to its
+     * ring successors, exactly as if it had been removed. If no node is usable, the owner is returned.
+     */
+    public String nodeFor(String key, Predicate<String> usable) {
+        Ring ring = this.ring;
+        int size = ring.hashes.length;
+        if (size == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(ring.hashes, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        String owner = ring.nodes[index % size];
+        if (usable.test(owner)) {
+            return owner;
+        }
+        for (int i = 1; i < size; i++) {
+            String candidate = ring.nodes[(index + i) % size];
+            if (!candidate.equals(owner) && usable.test(candidate)) {
+                return candidate;
+            }
+        }
+        return owner;
+    }
+
+    public synchronized Set<String> nodes() {
+        return Set.copyOf(members);
+    }
+
+    private void rebuild() {
+        long[] hashes = new long[members.size() * virtualNodes];
+        String[] nodes = new String[hashes.length];
+        Point[] entries = new Point[hashes.length];
+        int i = 0;
+        for (String node : members) {
+            for (int v = 0; v < virtualNodes; v++) {
+                entries[i++] = new Point(hash(node + "#" + v), node);
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a.hash, b.hash));
+        for (i = 0; i < entries.length; i++) {
+            hashes[i] = entries[i].hash;
+            nodes[i] = entries[i].node;
+        }
+        ring = new Ring(hashes, nodes);
+    }
+
+    private static final class Point {
+        final long hash;
+        final String node;
+
+        Point(long hash, String node) {
+            this.hash = hash;
+            this.node = node;
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer so that
+     * keys differing only in their last characters land far apart.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
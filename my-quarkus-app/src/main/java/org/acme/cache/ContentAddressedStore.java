@@ -0,0 +1,133 @@
+package org.acme.cache;
+
+import org.acme.constants.CacheConstants;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Content addressing shared by {@link DeduplicatingCacheService} and {@link DeduplicatingReactiveCacheService}.
+ * <p>
+ * A large value is stored once as a blob under the SHA-256 digest of its content; the key it was put
+ * under holds a small tagged pointer to the blob. Blobs live {@value #BLOB_TTL_FACTOR} times as long as the
+ * pointers referencing them (the backends have no atomic reference counts), and this node only rewrites
+ * a blob when it would otherwise expire before a newly written pointer.
+ */
+public class ContentAddressedStore {
+
+    static final String POINTER_HEADER = "\u0003CA1:";
+    private static final byte[] POINTER_HEADER_BYTES = POINTER_HEADER.getBytes(StandardCharsets.US_ASCII);
+    static final String BLOB_KEY_PREFIX = CacheConstants.CACHE_KEY_PREFIX + "BLOB_";
+    static final int BLOB_TTL_FACTOR = 2;
+
+    // Bound on tracked blob expiries; expired ones are pruned beyond it
+    private static final int MAX_TRACKED_BLOBS = 100_000;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final int minBytes;
+    // Digest -> epoch millis until which this node knows the blob is stored
+    private final ConcurrentHashMap<String, Long> blobExpiries = new ConcurrentHashMap<>();
+
+    /**
+     * @param minBytes Values shorter than this are stored inline; a pointer would not save anything.
+     */
+    public ContentAddressedStore(int minBytes) {
+        this.minBytes = minBytes;
+    }
+
+    boolean shouldDeduplicate(String value) {
+        return value != null && value.length() >= minBytes && !value.startsWith(POINTER_HEADER);
+    }
+
+    boolean shouldDeduplicate(byte[] value) {
+        return value != null && value.length >= minBytes && pointedDigest(value) == null;
+    }
+
+    static String digest(String value) {
+        return digest(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Digest of a value written as bytes; the same as for the String those bytes encode in UTF-8.
+     */
+    static String digest(byte[] value) {
+        MessageDigest sha256 = SHA_256.get();
+        sha256.reset();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sha256.digest(value));
+    }
+
+    static String pointer(String digest) {
+        return POINTER_HEADER + digest;
+    }
+
+    /**
+     * The digest a stored value points to, or null if the value is not a pointer.
+     */
+    static String pointedDigest(String value) {
+        return value != null && value.startsWith(POINTER_HEADER) ? value.substring(POINTER_HEADER.length()) : null;
+    }
+
+    /**
+     * The digest a value read as bytes points to, or null if the value is not a pointer.
+     */
+    static String pointedDigest(byte[] value) {
+        if (value == null || value.length < POINTER_HEADER_BYTES.length
+                || !Arrays.equals(value, 0, POINTER_HEADER_BYTES.length, POINTER_HEADER_BYTES, 0, POINTER_HEADER_BYTES.length)) {
+            return null;
+        }
+        return new String(value, POINTER_HEADER_BYTES.length, value.length - POINTER_HEADER_BYTES.length, StandardCharsets.US_ASCII);
+    }
+
+    static String blobKey(String digest) {
+        return BLOB_KEY_PREFIX + digest;
+    }
+
+    static int blobTtlSeconds(int ttlSeconds) {
+        return ttlSeconds > 0 ? (int) Math.min(Integer.MAX_VALUE, (long) ttlSeconds * BLOB_TTL_FACTOR) : 0;
+    }
+
+    /**
+     * Whether the blob must be (re)written for a pointer stored now with the given TTL.
+     * Returning true records the blob as stored until its new expiry.
+     */
+    boolean needsBlobWrite(String digest, int ttlSeconds) {
+        long now = System.currentTimeMillis();
+        long pointerExpiry = ttlSeconds > 0 ? now + TimeUnit.SECONDS.toMillis(ttlSeconds) : Long.MAX_VALUE;
+        long blobExpiry = ttlSeconds > 0 ? now + TimeUnit.SECONDS.toMillis(blobTtlSeconds(ttlSeconds)) : Long.MAX_VALUE;
+        boolean[] write = {false};
+        blobExpiries.compute(digest, (d, known) -> {
+            if (known != null && known >= pointerExpiry) {
+                return known;
+            }
+            write[0] = true;
+            return blobExpiry;
+        });
+        if (write[0] && blobExpiries.size() > MAX_TRACKED_BLOBS) {
+            blobExpiries.values().removeIf(expiry -> expiry <= now);
+        }
+        return write[0];
+    }
+
+    /**
+     * Called when a blob turned out to be missing (evicted or cleared), so the next put stores it again.
+     */
+    void forget(String digest) {
+        blobExpiries.remove(digest);
+    }
+
+    void forgetAll() {
+        blobExpiries.clear();
+    }
+}
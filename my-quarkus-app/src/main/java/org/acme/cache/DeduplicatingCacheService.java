@@ -0,0 +1,222 @@
+package org.acme.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decorator storing identical large values once: the value goes to a blob keyed by its content digest
+ * and the key it was put under holds a pointer to it (see {@link ContentAddressedStore}).
+ * Reads follow pointers transparently; a pointer whose blob is gone reads as a miss. Values written as
+ * bytes are deduplicated the same way, their blob keeping the bytes.
+ */
+public class DeduplicatingCacheService implements CacheService {
+
+    private final CacheService delegate;
+    private final ContentAddressedStore store;
+
+    public DeduplicatingCacheService(CacheService delegate, ContentAddressedStore store) {
+        this.delegate = delegate;
+        this.store = store;
+    }
+
+    @Override
+    public String get(String key) {
+        return resolve(delegate.get(key), 0);
+    }
+
+    @Override
+    public void put(String key, String value, int ttlSeconds) {
+        if (key == null || !store.shouldDeduplicate(value)) {
+            delegate.put(key, value, ttlSeconds);
+            return;
+        }
+        String digest = ContentAddressedStore.digest(value);
+        if (store.needsBlobWrite(digest, ttlSeconds)) {
+            delegate.put(ContentAddressedStore.blobKey(digest), value, ContentAddressedStore.blobTtlSeconds(ttlSeconds));
+        }
+        delegate.put(key, ContentAddressedStore.pointer(digest), ttlSeconds);
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        return resolve(delegate.getBytes(key), 0);
+    }
+
+    @Override
+    public void put(String key, byte[] value, int ttlSeconds) {
+        if (key == null || !store.shouldDeduplicate(value)) {
+            delegate.put(key, value, ttlSeconds);
+            return;
+        }
+        String digest = ContentAddressedStore.digest(value);
+        if (store.needsBlobWrite(digest, ttlSeconds)) {
+            delegate.put(ContentAddressedStore.blobKey(digest), value, ContentAddressedStore.blobTtlSeconds(ttlSeconds));
+        }
+        delegate.put(key, ContentAddressedStore.pointer(digest), ttlSeconds);
+    }
+
+    @Override
+    public void clear(String key) {
+        // Blobs may be shared, they expire on their own
+        delegate.clear(key);
+    }
+
+    /**
+     * Touches the pointer, and the blob as well when its tracked expiry would end before the pointer's.
+     */
+    @Override
+    public String getAndTouch(String key, int ttlSeconds) {
+        return resolve(delegate.getAndTouch(key, ttlSeconds), ttlSeconds);
+    }
+
+    /**
+     * Consumes the pointer only; the blob may be shared and expires on its own.
+     */
+    @Override
+    public String getAndClear(String key) {
+        return resolve(delegate.getAndClear(key), 0);
+    }
+
+    @Override
+    public byte[] getBytesAndTouch(String key, int ttlSeconds) {
+        return resolve(delegate.getBytesAndTouch(key, ttlSeconds), ttlSeconds);
+    }
+
+    @Override
+    public byte[] getBytesAndClear(String key) {
+        return resolve(delegate.getBytesAndClear(key), 0);
+    }
+
+    @Override
+    public void clearAll() {
+        store.forgetAll();
+        delegate.clearAll();
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> values = delegate.getAll(keys);
+        Set<String> blobKeys = new HashSet<>();
+        values.values().forEach(value -> {
+            String digest = ContentAddressedStore.pointedDigest(value);
+            if (digest != null) {
+                blobKeys.add(ContentAddressedStore.blobKey(digest));
+            }
+        });
+        if (blobKeys.isEmpty()) {
+            return values;
+        }
+        Map<String, String> blobs = delegate.getAll(blobKeys);
+        Map<String, String> result = new HashMap<>();
+        values.forEach((key, value) -> {
+            String digest = ContentAddressedStore.pointedDigest(value);
+            if (digest == null) {
+                result.put(key, value);
+                return;
+            }
+            String blob = blobs.get(ContentAddressedStore.blobKey(digest));
+            if (blob != null) {
+                result.put(key, blob);
+            } else {
+                store.forget(digest);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, int ttlSeconds) {
+        if (entries == null) {
+            return;
+        }
+        Map<String, String> stored = new HashMap<>();
+        Map<String, String> blobs = new HashMap<>();
+        entries.forEach((key, value) -> {
+            if (key == null || !store.shouldDeduplicate(value)) {
+                stored.put(key, value);
+                return;
+            }
+            String digest = ContentAddressedStore.digest(value);
+            String blobKey = ContentAddressedStore.blobKey(digest);
+            if (!blobs.containsKey(blobKey) && store.needsBlobWrite(digest, ttlSeconds)) {
+                blobs.put(blobKey, value);
+            }
+            stored.put(key, ContentAddressedStore.pointer(digest));
+        });
+        if (!blobs.isEmpty()) {
+            delegate.putAll(blobs, ContentAddressedStore.blobTtlSeconds(ttlSeconds));
+        }
+        delegate.putAll(stored, ttlSeconds);
+    }
+
+    @Override
+    public void putAllBytes(Map<String, byte[]> entries, int ttlSeconds) {
+        if (entries == null) {
+            return;
+        }
+        Map<String, byte[]> stored = new HashMap<>();
+        Map<String, String> pointers = new HashMap<>();
+        Map<String, byte[]> blobs = new HashMap<>();
+        entries.forEach((key, value) -> {
+            if (key == null || !store.shouldDeduplicate(value)) {
+                stored.put(key, value);
+                return;
+            }
+            String digest = ContentAddressedStore.digest(value);
+            String blobKey = ContentAddressedStore.blobKey(digest);
+            if (!blobs.containsKey(blobKey) && store.needsBlobWrite(digest, ttlSeconds)) {
+                blobs.put(blobKey, value);
+            }
+            pointers.put(key, ContentAddressedStore.pointer(digest));
+        });
+        if (!blobs.isEmpty()) {
+            delegate.putAllBytes(blobs, ContentAddressedStore.blobTtlSeconds(ttlSeconds));
+        }
+        if (!pointers.isEmpty()) {
+            delegate.putAll(pointers, ttlSeconds);
+        }
+        delegate.putAllBytes(stored, ttlSeconds);
+    }
+
+    @Override
+    public void clearAll(Collection<String> keys) {
+        delegate.clearAll(keys);
+    }
+
+    /**
+     * Follows a pointer to its blob, extending the blob's TTL to cover a pointer touched for {@code touchTtlSeconds}.
+     * @param touchTtlSeconds TTL the pointer was just touched with, or 0 if it was only read.
+     */
+    private String resolve(String value, int touchTtlSeconds) {
+        String digest = ContentAddressedStore.pointedDigest(value);
+        if (digest == null) {
+            return value;
+        }
+        String blobKey = ContentAddressedStore.blobKey(digest);
+        String blob = touchTtlSeconds != 0 && store.needsBlobWrite(digest, touchTtlSeconds)
+                ? delegate.getAndTouch(blobKey, ContentAddressedStore.blobTtlSeconds(touchTtlSeconds))
+                : delegate.get(blobKey);
+        if (blob == null) {
+            store.forget(digest);
+        }
+        return blob;
+    }
+
+    private byte[] resolve(byte[] value, int touchTtlSeconds) {
+        String digest = ContentAddressedStore.pointedDigest(value);
+        if (digest == null) {
+            return value;
+        }
+        String blobKey = ContentAddressedStore.blobKey(digest);
+        byte[] blob = touchTtlSeconds != 0 && store.needsBlobWrite(digest, touchTtlSeconds)
+                ? delegate.getBytesAndTouch(blobKey, ContentAddressedStore.blobTtlSeconds(touchTtlSeconds))
+                : delegate.getBytes(blobKey);
+        if (blob == null) {
+            store.forget(digest);
+        }
+        return blob;
+    }
+}
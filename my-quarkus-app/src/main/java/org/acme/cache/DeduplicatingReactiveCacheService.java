@@ -0,0 +1,188 @@
+package org.acme.cache;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reactive counterpart of {@link DeduplicatingCacheService}; both views share one {@link ContentAddressedStore}.
+ */
+public class DeduplicatingReactiveCacheService implements ReactiveCacheService {
+
+    private final ReactiveCacheService delegate;
+    private final ContentAddressedStore store;
+
+    public DeduplicatingReactiveCacheService(ReactiveCacheService delegate, ContentAddressedStore store) {
+        this.delegate = delegate;
+        this.store = store;
+    }
+
+    @Override
+    public Uni<String> get(String key) {
+        return delegate.get(key).flatMap(value -> resolve(value, 0));
+    }
+
+    @Override
+    public Uni<Void> put(String key, String value, int ttlSeconds) {
+        if (key == null || !store.shouldDeduplicate(value)) {
+            return delegate.put(key, value, ttlSeconds);
+        }
+        String digest = ContentAddressedStore.digest(value);
+        Uni<Void> blobWrite = store.needsBlobWrite(digest, ttlSeconds)
+                ? delegate.put(ContentAddressedStore.blobKey(digest), value, ContentAddressedStore.blobTtlSeconds(ttlSeconds))
+                : Uni.createFrom().voidItem();
+        return blobWrite.flatMap(ignored -> delegate.put(key, ContentAddressedStore.pointer(digest), ttlSeconds));
+    }
+
+    @Override
+    public Uni<byte[]> getBytes(String key) {
+        return delegate.getBytes(key).flatMap(value -> resolve(value, 0));
+    }
+
+    @Override
+    public Uni<Void> put(String key, byte[] value, int ttlSeconds) {
+        if (key == null || !store.shouldDeduplicate(value)) {
+            return delegate.put(key, value, ttlSeconds);
+        }
+        String digest = ContentAddressedStore.digest(value);
+        Uni<Void> blobWrite = store.needsBlobWrite(digest, ttlSeconds)
+                ? delegate.put(ContentAddressedStore.blobKey(digest), value, ContentAddressedStore.blobTtlSeconds(ttlSeconds))
+                : Uni.createFrom().voidItem();
+        return blobWrite.flatMap(ignored -> delegate.put(key, ContentAddressedStore.pointer(digest), ttlSeconds));
+    }
+
+    @Override
+    public Uni<Void> clear(String key) {
+        // Blobs may be shared, they expire on their own
+        return delegate.clear(key);
+    }
+
+    @Override
+    public Uni<String> getAndTouch(String key, int ttlSeconds) {
+        return delegate.getAndTouch(key, ttlSeconds).flatMap(value -> resolve(value, ttlSeconds));
+    }
+
+    @Override
+    public Uni<String> getAndClear(String key) {
+        // Blobs may be shared, they expire on their own
+        return delegate.getAndClear(key).flatMap(value -> resolve(value, 0));
+    }
+
+    @Override
+    public Uni<byte[]> getBytesAndTouch(String key, int ttlSeconds) {
+        return delegate.getBytesAndTouch(key, ttlSeconds).flatMap(value -> resolve(value, ttlSeconds));
+    }
+
+    @Override
+    public Uni<byte[]> getBytesAndClear(String key) {
+        // Blobs may be shared, they expire on their own
+        return delegate.getBytesAndClear(key).flatMap(value -> resolve(value, 0));
+    }
+
+    @Override
+    public Uni<Void> clearAll() {
+        return delegate.clearAll().invoke(store::forgetAll);
+    }
+
+    @Override
+    public Uni<Map<String, String>> getAll(Collection<String> keys) {
+        return delegate.getAll(keys).flatMap(values -> {
+            Set<String> blobKeys = new HashSet<>();
+            values.values().forEach(value -> {
+                String digest = ContentAddressedStore.pointedDigest(value);
+                if (digest != null) {
+                    blobKeys.add(ContentAddressedStore.blobKey(digest));
+                }
+            });
+            if (blobKeys.isEmpty()) {
+                return Uni.createFrom().item(values);
+            }
+            return delegate.getAll(blobKeys).map(blobs -> {
+                Map<String, String> result = new HashMap<>();
+                values.forEach((key, value) -> {
+                    String digest = ContentAddressedStore.pointedDigest(value);
+                    if (digest == null) {
+                        result.put(key, value);
+                        return;
+                    }
+                    String blob = blobs.get(ContentAddressedStore.blobKey(digest));
+                    if (blob != null) {
+                        result.put(key, blob);
+                    } else {
+                        store.forget(digest);
+                    }
+                });
+                return result;
+            });
+        });
+    }
+
+    @Override
+    public Uni<Void> putAll(Map<String, String> entries, int ttlSeconds) {
+        if (entries == null) {
+            return Uni.createFrom().voidItem();
+        }
+        Map<String, String> stored = new HashMap<>();
+        Map<String, String> blobs = new HashMap<>();
+        entries.forEach((key, value) -> {
+            if (key == null || !store.shouldDeduplicate(value)) {
+                stored.put(key, value);
+                return;
+            }
+            String digest = ContentAddressedStore.digest(value);
+            String blobKey = ContentAddressedStore.blobKey(digest);
+            if (!blobs.containsKey(blobKey) && store.needsBlobWrite(digest, ttlSeconds)) {
+                blobs.put(blobKey, value);
+            }
+            stored.put(key, ContentAddressedStore.pointer(digest));
+        });
+        Uni<Void> blobWrite = blobs.isEmpty()
+                ? Uni.createFrom().voidItem()
+                : delegate.putAll(blobs, ContentAddressedStore.blobTtlSeconds(ttlSeconds));
+        return blobWrite.flatMap(ignored -> delegate.putAll(stored, ttlSeconds));
+    }
+
+    @Override
+    public Uni<Void> clearAll(Collection<String> keys) {
+        return delegate.clearAll(keys);
+    }
+
+    /**
+     * See {@link DeduplicatingCacheService}: follows a pointer, touching the blob when the pointer was touched.
+     */
+    private Uni<String> resolve(String value, int touchTtlSeconds) {
+        String digest = ContentAddressedStore.pointedDigest(value);
+        if (digest == null) {
+            return Uni.createFrom().item(value);
+        }
+        String blobKey = ContentAddressedStore.blobKey(digest);
+        Uni<String> blobRead = touchTtlSeconds != 0 && store.needsBlobWrite(digest, touchTtlSeconds)
+                ? delegate.getAndTouch(blobKey, ContentAddressedStore.blobTtlSeconds(touchTtlSeconds))
+                : delegate.get(blobKey);
+        return blobRead.invoke(blob -> {
+            if (blob == null) {
+                store.forget(digest);
+            }
+        });
+    }
+
+    private Uni<byte[]> resolve(byte[] value, int touchTtlSeconds) {
+        String digest = ContentAddressedStore.pointedDigest(value);
+        if (digest == null) {
+            return Uni.createFrom().item(value);
+        }
+        String blobKey = ContentAddressedStore.blobKey(digest);
+        Uni<byte[]> blobRead = touchTtlSeconds != 0 && store.needsBlobWrite(digest, touchTtlSeconds)
+                ? delegate.getBytesAndTouch(blobKey, ContentAddressedStore.blobTtlSeconds(touchTtlSeconds))
+                : delegate.getBytes(blobKey);
+        return blobRead.invoke(blob -> {
+            if (blob == null) {
+                store.forget(digest);
+            }
+        });
+    }
+}
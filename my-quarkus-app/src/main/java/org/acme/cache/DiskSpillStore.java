@@ -0,0 +1,420 @@
+package org.acme.cache;
+
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Second tier of the in-memory cache: values demoted from the heap live in memory-mapped segment files,
+ * found through an on-heap index of key to location.
+ * <p>
+ * Values are appended to the active segment; a full segment is sealed and a new one started. Overwrites and
+ * removals only update the index and leave garbage behind, which {@link #compact()} reclaims by moving the
+ * live values of mostly-dead segments to the active one. When the disk budget is used up, the oldest segment
+ * is dropped with its entries. The files are scratch space: they are deleted when the store is opened.
+ */
+public class DiskSpillStore implements CacheStatistics, AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(DiskSpillStore.class);
+
+    static final String SEGMENT_SUFFIX = ".seg";
+    // Sealed segments with less live data than this share are compacted
+    static final double COMPACT_LIVE_RATIO = 0.5;
+    // How a stored value is turned back into what was written
+    private static final byte ENCODING_UTF8 = 0;
+    private static final byte ENCODING_LATIN1 = 1;
+    private static final byte ENCODING_BYTES = 2;
+
+    /**
+     * A value read from the store, with its expiry.
+     */
+    public static final class Entry {
+        private final Object value;
+        private final long expiresAtEpochMs;
+        private final Location location;
+
+        Entry(Object value, long expiresAtEpochMs, Location location) {
+            this.value = value;
+            this.expiresAtEpochMs = expiresAtEpochMs;
+            this.location = location;
+        }
+
+        /**
+         * The value as it was put: a String, or a byte[].
+         */
+        public Object getValue() {
+            return value;
+        }
+
+        public long getExpiresAtEpochMs() {
+            return expiresAtEpochMs;
+        }
+    }
+
+    private static final class Segment {
+        final Path file;
+        final MappedByteBuffer buffer;
+        final AtomicLong liveBytes = new AtomicLong();
+        // Guarded by the store's write lock
+        int writeOffset;
+        volatile boolean sealed;
+
+        Segment(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+
+    private static final class Location {
+        final Segment segment;
+        final int offset;
+        final int length;
+        final byte encoding;
+        final long expiresAtEpochMs;
+
+        Location(Segment segment, int offset, int length, byte encoding, long expiresAtEpochMs) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.encoding = encoding;
+            this.expiresAtEpochMs = expiresAtEpochMs;
+        }
+
+        boolean isExpired(long nowMs) {
+            return expiresAtEpochMs <= nowMs;
+        }
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    // Guarded by writeLock; oldest first, the last one is active
+    private final List<Segment> segments = new ArrayList<>();
+    private final Object writeLock = new Object();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder liveBytes = new LongAdder();
+    private long nextSegmentId;
+    private volatile boolean closed;
+
+    /**
+     * Opens the store, deleting segment files left in the directory.
+     * @param segmentBytes Size of one segment file; also the largest value that can be stored.
+     * @param maxBytes Disk budget; at least two segments are used.
+     */
+    public DiskSpillStore(Path directory, int segmentBytes, long maxBytes) throws IOException {
+        if (segmentBytes < 4096) {
+            throw new IllegalArgumentException("Segment size must be at least 4096 bytes, got " + segmentBytes);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = (int) Math.max(2, Math.min(Integer.MAX_VALUE, maxBytes / segmentBytes));
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stale) {
+                Files.delete(file);
+            }
+        }
+        synchronized (writeLock) {
+            openSegment();
+        }
+        LOG.infof("Spilling cache entries to %s (%d segments of %d bytes)", directory, maxSegments, segmentBytes);
+    }
+
+    /**
+     * Stores the value, replacing any previous one.
+     * @param value A String, or a byte[] stored as it is.
+     * @return The stored entry, or null if the value is larger than a segment or the store is closed.
+     */
+    public Entry put(String key, Object value, long expiresAtEpochMs) {
+        if (key == null || value == null || closed) {
+            return null;
+        }
+        byte encoding;
+        byte[] bytes;
+        if (value instanceof byte[] raw) {
+            encoding = ENCODING_BYTES;
+            bytes = raw;
+        } else {
+            String string = (String) value;
+            encoding = isLatin1(string) ? ENCODING_LATIN1 : ENCODING_UTF8;
+            bytes = string.getBytes(encoding == ENCODING_LATIN1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+        }
+        if (bytes.length > segmentBytes) {
+            return null;
+        }
+        Location location;
+        synchronized (writeLock) {
+            location = append(bytes, encoding, expiresAtEpochMs);
+        }
+        release(index.put(key, location));
+        return new Entry(value, expiresAtEpochMs, location);
+    }
+
+    /**
+     * The value and expiry of the key, or null if absent or expired.
+     */
+    public Entry get(String key) {
+        Location location = key != null ? index.get(key) : null;
+        if (location == null) {
+            return null;
+        }
+        if (location.isExpired(System.currentTimeMillis())) {
+            expire(key, location);
+            return null;
+        }
+        return new Entry(read(location), location.expiresAtEpochMs, location);
+    }
+
+    /**
+     * Removes the key and returns what it held, or null if absent or expired.
+     */
+    public Entry take(String key) {
+        Location location = key != null ? index.remove(key) : null;
+        if (location == null) {
+            return null;
+        }
+        Object value = read(location);
+        release(location);
+        if (location.isExpired(System.currentTimeMillis())) {
+            expirations.increment();
+            return null;
+        }
+        return new Entry(value, location.expiresAtEpochMs, location);
+    }
+
+    /**
+     * Removes the key only if it still holds the given entry, e.g. after promoting it.
+     * @return Whether the entry was removed.
+     */
+    public boolean remove(String key, Entry entry) {
+        if (key != null && index.remove(key, entry.location)) {
+            release(entry.location);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return Whether the key was present.
+     */
+    public boolean remove(String key) {
+        Location removed = key != null ? index.remove(key) : null;
+        release(removed);
+        return removed != null;
+    }
+
+    public boolean contains(String key) {
+        return key != null && index.containsKey(key);
+    }
+
+    public void clearAll() {
+        index.keySet().forEach(this::remove);
+    }
+
+    /**
+     * Visits every unexpired entry, weakly consistent like the in-memory cache.
+     */
+    public void forEachLive(InMemoryCacheService.EntryVisitor visitor) {
+        long now = System.currentTimeMillis();
+        index.forEach((key, location) -> {
+            if (!location.isExpired(now)) {
+                visitor.visit(key, read(location), location.expiresAtEpochMs);
+            }
+        });
+    }
+
+    /**
+     * Visits the keys with their stored size and expiry, without reading values.
+     */
+    void forEachKey(KeyVisitor visitor) {
+        index.forEach((key, location) -> visitor.visit(key, location.length, location.expiresAtEpochMs));
+    }
+
+    @FunctionalInterface
+    interface KeyVisitor {
+        void visit(String key, int storedBytes, long expiresAtEpochMs);
+    }
+
+    /**
+     * Drops expired entries and moves the live values of sealed, mostly dead segments to the active
+     * segment, deleting their files. Meant for a background thread.
+     */
+    public void compact() {
+        long now = System.currentTimeMillis();
+        index.forEach((key, location) -> {
+            if (location.isExpired(now)) {
+                expire(key, location);
+            }
+        });
+        List<Segment> candidates = new ArrayList<>();
+        synchronized (writeLock) {
+            for (Segment segment : segments) {
+                if (segment.sealed && segment.liveBytes.get() < segmentBytes * COMPACT_LIVE_RATIO) {
+                    candidates.add(segment);
+                }
+            }
+        }
+        for (Segment segment : candidates) {
+            index.forEach((key, location) -> {
+                if (location.segment != segment || closed) {
+                    return;
+                }
+                byte[] bytes = new byte[location.length];
+                segment.buffer.get(location.offset, bytes);
+                Location moved;
+                synchronized (writeLock) {
+                    moved = append(bytes, location.encoding, location.expiresAtEpochMs);
+                }
+                // Lost to a concurrent write or removal: the copy is garbage right away
+                release(index.replace(key, location, moved) ? location : moved);
+            });
+            synchronized (writeLock) {
+                if (segment.liveBytes.get() == 0 && segments.remove(segment)) {
+                    deleteSegment(segment);
+                }
+            }
+        }
+    }
+
+    @Override
+    public long entryCount() {
+        return index.size();
+    }
+
+    /**
+     * Bytes of live values on disk.
+     */
+    @Override
+    public long estimatedBytes() {
+        return liveBytes.sum();
+    }
+
+    /**
+     * Entries dropped with the oldest segment when the disk budget ran out.
+     */
+    @Override
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long expirationCount() {
+        return expirations.sum();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (writeLock) {
+            index.clear();
+            liveBytes.reset();
+            segments.forEach(this::deleteSegment);
+            segments.clear();
+        }
+    }
+
+    // Caller holds writeLock
+    private Location append(byte[] bytes, byte encoding, long expiresAtEpochMs) {
+        Segment active = segments.get(segments.size() - 1);
+        if (active.writeOffset + bytes.length > segmentBytes) {
+            active.sealed = true;
+            active = openSegment();
+        }
+        int offset = active.writeOffset;
+        active.buffer.put(offset, bytes);
+        active.writeOffset += bytes.length;
+        active.liveBytes.addAndGet(bytes.length);
+        liveBytes.add(bytes.length);
+        return new Location(active, offset, bytes.length, encoding, expiresAtEpochMs);
+    }
+
+    // Caller holds writeLock
+    private Segment openSegment() {
+        if (segments.size() >= maxSegments) {
+            dropOldestSegment();
+        }
+        long id = nextSegmentId++;
+        Path file = directory.resolve(String.format("%016d%s", id, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            Segment segment = new Segment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create spill segment " + file, e);
+        }
+    }
+
+    // Caller holds writeLock
+    private void dropOldestSegment() {
+        Segment oldest = segments.remove(0);
+        index.forEach((key, location) -> {
+            if (location.segment == oldest && index.remove(key, location)) {
+                release(location);
+                evictions.increment();
+            }
+        });
+        deleteSegment(oldest);
+    }
+
+    private void deleteSegment(Segment segment) {
+        try {
+            // Readers still holding the mapping keep reading the unlinked file
+            Files.deleteIfExists(segment.file);
+        } catch (IOException e) {
+            LOG.warnf("Cannot delete spill segment %s: %s", segment.file, e.getMessage());
+        }
+    }
+
+    private void expire(String key, Location location) {
+        if (index.remove(key, location)) {
+            release(location);
+            expirations.increment();
+        }
+    }
+
+    private void release(Location location) {
+        if (location != null) {
+            location.segment.liveBytes.addAndGet(-location.length);
+            liveBytes.add(-location.length);
+        }
+    }
+
+    private static Object read(Location location) {
+        byte[] bytes = new byte[location.length];
+        location.segment.buffer.get(location.offset, bytes);
+        if (location.encoding == ENCODING_BYTES) {
+            return bytes;
+        }
+        return new String(bytes, location.encoding == ENCODING_LATIN1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Whether every char fits in one byte, as for binary payloads, so the value is stored at one byte per char.
+     */
+    private static boolean isLatin1(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,424 @@
+package org.acme.cache;
+
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Routes cache traffic between a primary (remote) backend and a local in-memory fallback,
+ * driven by a {@link CacheCircuitBreaker}.
+ * <p>
+ * While the breaker is closed all traffic goes to the primary; reads that miss there also consult
+ * the fallback, which may still hold entries created during an outage. While the breaker is open
+ * all traffic goes to the fallback, and clears are remembered so they can be replayed. On recovery
+ * the breaker's probe thread replays clears and writes fallback entries back to the primary with
+ * their remaining TTL before traffic switches back.
+ * <p>
+ * Puts and clears that reach the primary first drop the key's fallback entry, so a write-back never copies
+ * an older value over them; a key changed while a write-back runs is cleared from the primary after its
+ * group is written, since a miss is safe where a stale value is not.
+ */
+public class FailoverCacheService implements CacheService, CacheCircuitBreaker.RecoveryAction {
+
+    private static final Logger LOG = Logger.getLogger(FailoverCacheService.class);
+
+    private final CacheService primary;
+    private final InMemoryCacheService fallback;
+    private final CacheCircuitBreaker breaker;
+
+    // Clears issued during an outage, replayed against the primary on recovery
+    private final Set<String> clearedDuringOutage = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean clearAllDuringOutage = new AtomicBoolean();
+
+    // Keys put or cleared through the primary while a write-back runs, whose written-back values may be stale
+    private final Set<String> changedDuringWriteBack = ConcurrentHashMap.newKeySet();
+    private volatile boolean writingBack;
+    private volatile boolean clearedAllDuringWriteBack;
+
+    public FailoverCacheService(CacheService primary, InMemoryCacheService fallback, CacheCircuitBreaker breaker) {
+        this.primary = primary;
+        this.fallback = fallback;
+        this.breaker = breaker;
+        breaker.setRecoveryAction(this);
+    }
+
+    public CacheCircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    @Override
+    public String get(String key) {
+        if (!breaker.allowsPrimary()) {
+            return fallback.get(key);
+        }
+        String value = primary.get(key);
+        return value != null ? value : getFromFallback(key);
+    }
+
+    @Override
+    public void put(String key, String value, int ttlSeconds) {
+        if (breaker.allowsPrimary()) {
+            dropFromFallback(key);
+            primary.put(key, value, ttlSeconds);
+        } else {
+            fallback.put(key, value, ttlSeconds);
+        }
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        if (!breaker.allowsPrimary()) {
+            return fallback.getBytes(key);
+        }
+        byte[] value = primary.getBytes(key);
+        return value != null ? value : getBytesFromFallback(key);
+    }
+
+    @Override
+    public void put(String key, byte[] value, int ttlSeconds) {
+        if (breaker.allowsPrimary()) {
+            dropFromFallback(key);
+            primary.put(key, value, ttlSeconds);
+        } else {
+            fallback.put(key, value, ttlSeconds);
+        }
+    }
+
+    @Override
+    public String getAndTouch(String key, int ttlSeconds) {
+        if (!breaker.allowsPrimary()) {
+            return fallback.getAndTouch(key, ttlSeconds);
+        }
+        String value = primary.getAndTouch(key, ttlSeconds);
+        return value != null ? value : touchInFallback(key, ttlSeconds);
+    }
+
+    @Override
+    public String getAndClear(String key) {
+        if (!breaker.allowsPrimary()) {
+            if (key != null) {
+                clearedDuringOutage.add(key);
+            }
+            return fallback.getAndClear(key);
+        }
+        String local = consumeFromFallback(key);
+        String value = primary.getAndClear(key);
+        return value != null ? value : local;
+    }
+
+    @Override
+    public byte[] getBytesAndTouch(String key, int ttlSeconds) {
+        if (!breaker.allowsPrimary()) {
+            return fallback.getBytesAndTouch(key, ttlSeconds);
+        }
+        byte[] value = primary.getBytesAndTouch(key, ttlSeconds);
+        return value != null ? value : touchBytesInFallback(key, ttlSeconds);
+    }
+
+    @Override
+    public byte[] getBytesAndClear(String key) {
+        if (!breaker.allowsPrimary()) {
+            if (key != null) {
+                clearedDuringOutage.add(key);
+            }
+            return fallback.getBytesAndClear(key);
+        }
+        byte[] local = consumeBytesFromFallback(key);
+        byte[] value = primary.getBytesAndClear(key);
+        return value != null ? value : local;
+    }
+
+    @Override
+    public void clear(String key) {
+        if (breaker.allowsPrimary()) {
+            dropFromFallback(key);
+            primary.clear(key);
+            return;
+        }
+        if (key != null) {
+            clearedDuringOutage.add(key);
+        }
+        fallback.clear(key);
+    }
+
+    @Override
+    public void clearAll() {
+        if (breaker.allowsPrimary()) {
+            dropAllFromFallback();
+            primary.clearAll();
+            return;
+        }
+        clearAllDuringOutage.set(true);
+        clearedDuringOutage.clear();
+        fallback.clearAll();
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        if (!breaker.allowsPrimary()) {
+            return fallback.getAll(keys);
+        }
+        Map<String, String> result = new HashMap<>(primary.getAll(keys));
+        if (!fallback.isEmpty() && keys != null && result.size() < keys.size()) {
+            List<String> missing = new ArrayList<>();
+            for (String key : keys) {
+                if (key != null && !result.containsKey(key)) {
+                    missing.add(key);
+                }
+            }
+            result.putAll(fallback.getAll(missing));
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, int ttlSeconds) {
+        if (breaker.allowsPrimary()) {
+            dropFromFallback(entries != null ? entries.keySet() : null);
+            primary.putAll(entries, ttlSeconds);
+        } else {
+            fallback.putAll(entries, ttlSeconds);
+        }
+    }
+
+    @Override
+    public void putAllBytes(Map<String, byte[]> entries, int ttlSeconds) {
+        if (breaker.allowsPrimary()) {
+            dropFromFallback(entries != null ? entries.keySet() : null);
+            primary.putAllBytes(entries, ttlSeconds);
+        } else {
+            fallback.putAllBytes(entries, ttlSeconds);
+        }
+    }
+
+    @Override
+    public void clearAll(Collection<String> keys) {
+        if (breaker.allowsPrimary()) {
+            dropFromFallback(keys);
+            primary.clearAll(keys);
+            return;
+        }
+        if (keys != null) {
+            keys.forEach(key -> {
+                if (key != null) {
+                    clearedDuringOutage.add(key);
+                }
+            });
+        }
+        fallback.clearAll(keys);
+    }
+
+    /**
+     * Called before a put or clear of the key goes to the primary: drops the key's fallback entry,
+     * and remembers the key if a write-back is running, as that may have read the entry already.
+     */
+    void dropFromFallback(String key) {
+        if (key == null) {
+            return;
+        }
+        if (!fallback.isEmpty()) {
+            fallback.clear(key);
+        }
+        // Checked after the drop, so a write-back starting later cannot read the dropped entry
+        if (writingBack) {
+            changedDuringWriteBack.add(key);
+        }
+    }
+
+    void dropFromFallback(Collection<String> keys) {
+        if (keys != null) {
+            keys.forEach(this::dropFromFallback);
+        }
+    }
+
+    /**
+     * Called before the primary is cleared entirely.
+     */
+    void dropAllFromFallback() {
+        fallback.clearAll();
+        if (writingBack) {
+            clearedAllDuringWriteBack = true;
+        }
+    }
+
+    /**
+     * Reads an entry created during an outage that has not been written back yet.
+     */
+    String getFromFallback(String key) {
+        return fallback.isEmpty() ? null : fallback.get(key);
+    }
+
+    /**
+     * Touches an entry created during an outage that has not been written back yet.
+     */
+    String touchInFallback(String key, int ttlSeconds) {
+        return fallback.isEmpty() ? null : fallback.getAndTouch(key, ttlSeconds);
+    }
+
+    /**
+     * Consumes an entry created during an outage, so it is not written back after being read.
+     * Called before the key is consumed from the primary.
+     */
+    String consumeFromFallback(String key) {
+        String value = fallback.isEmpty() ? null : fallback.getAndClear(key);
+        dropFromFallback(key);
+        return value;
+    }
+
+    /**
+     * Byte variant of {@link #getFromFallback(String)}.
+     */
+    byte[] getBytesFromFallback(String key) {
+        return fallback.isEmpty() ? null : fallback.getBytes(key);
+    }
+
+    /**
+     * Byte variant of {@link #touchInFallback(String, int)}.
+     */
+    byte[] touchBytesInFallback(String key, int ttlSeconds) {
+        return fallback.isEmpty() ? null : fallback.getBytesAndTouch(key, ttlSeconds);
+    }
+
+    /**
+     * Byte variant of {@link #consumeFromFallback(String)}.
+     */
+    byte[] consumeBytesFromFallback(String key) {
+        byte[] value = fallback.isEmpty() ? null : fallback.getBytesAndClear(key);
+        dropFromFallback(key);
+        return value;
+    }
+
+    /**
+     * Replays outage clears and writes fallback entries back to the primary.
+     * Runs on the breaker's probe thread while traffic still goes to the fallback.
+     * @return false if the primary failed during write-back, keeping the breaker open.
+     */
+    @Override
+    public boolean recover() {
+        long failuresBefore = breaker.getTotalFailures();
+
+        if (clearAllDuringOutage.getAndSet(false)) {
+            primary.clearAll();
+        }
+        if (!clearedDuringOutage.isEmpty()) {
+            List<String> cleared = new ArrayList<>(clearedDuringOutage);
+            primary.clearAll(cleared);
+            clearedDuringOutage.removeAll(cleared);
+        }
+        int written = writeBack(false);
+
+        if (breaker.getTotalFailures() != failuresBefore) {
+            LOG.warn("Primary cache failed during write-back - staying on fallback");
+            return false;
+        }
+        LOG.infof("Wrote back %d entries created during the outage", written);
+        return true;
+    }
+
+    /**
+     * Sweeps up entries that reached the fallback while {@link #recover()} was running.
+     * Traffic already goes to the primary, so entries that cannot be written back now are dropped.
+     */
+    @Override
+    public void afterClose() {
+        int written = writeBack(true);
+        if (written > 0) {
+            LOG.infof("Wrote back %d late entries created during the outage", written);
+        }
+    }
+
+    /**
+     * @param dropFailed Whether a group the primary fails to store is dropped from the fallback
+     *                   rather than kept for the next recovery.
+     */
+    private int writeBack(boolean dropFailed) {
+        if (fallback.isEmpty()) {
+            return 0;
+        }
+        writingBack = true;
+        try {
+            // Group by remaining TTL so every group is one pipelined putAll per value type
+            Map<Integer, Map<String, Visited>> byTtl = new HashMap<>();
+            long now = System.currentTimeMillis();
+            fallback.forEachLive((key, value, expiresAtEpochMs) -> {
+                int ttlSeconds = expiresAtEpochMs == InMemoryCacheService.NO_EXPIRY
+                        ? 0
+                        : (int) Math.max(1, (expiresAtEpochMs - now + 999) / 1000);
+                byTtl.computeIfAbsent(ttlSeconds, ttl -> new HashMap<>()).put(key, new Visited(value, expiresAtEpochMs));
+            });
+
+            int written = 0;
+            for (Map.Entry<Integer, Map<String, Visited>> group : byTtl.entrySet()) {
+                if (clearedAllDuringWriteBack) {
+                    break;
+                }
+                Map<String, Visited> entries = group.getValue();
+                entries.keySet().removeAll(changedDuringWriteBack);
+                long failuresBefore = breaker.getTotalFailures();
+                Map<String, String> strings = new HashMap<>();
+                Map<String, byte[]> bytes = new HashMap<>();
+                entries.forEach((key, visited) -> {
+                    if (visited.value instanceof byte[] value) {
+                        bytes.put(key, value);
+                    } else {
+                        strings.put(key, (String) visited.value);
+                    }
+                });
+                primary.putAll(strings, group.getKey());
+                primary.putAllBytes(bytes, group.getKey());
+                boolean failed = breaker.getTotalFailures() != failuresBefore;
+
+                // Changed through the primary while this group was written, possibly before the older value landed
+                List<String> stale = new ArrayList<>();
+                for (String key : entries.keySet()) {
+                    if (clearedAllDuringWriteBack || changedDuringWriteBack.contains(key)) {
+                        stale.add(key);
+                    }
+                }
+                if (!stale.isEmpty()) {
+                    primary.clearAll(stale);
+                }
+
+                if (failed) {
+                    if (!dropFailed) {
+                        // Keep the group in the fallback so the next recovery retries it
+                        continue;
+                    }
+                    LOG.warnf("Dropping %d entries created during the outage that could not be written back", entries.size());
+                }
+                // A key put or touched in the fallback since it was read is left for the next write-back
+                for (Map.Entry<String, Visited> entry : entries.entrySet()) {
+                    if (fallback.clearIfUnchanged(entry.getKey(), entry.getValue().value, entry.getValue().expiresAtEpochMs)
+                            && !failed) {
+                        written++;
+                    }
+                }
+            }
+            return written;
+        } finally {
+            writingBack = false;
+            changedDuringWriteBack.clear();
+            clearedAllDuringWriteBack = false;
+        }
+    }
+
+    /**
+     * A fallback entry as read for write-back.
+     */
+    private static final class Visited {
+        final Object value;
+        final long expiresAtEpochMs;
+
+        Visited(Object value, long expiresAtEpochMs) {
+            this.value = value;
+            this.expiresAtEpochMs = expiresAtEpochMs;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.acme.cache;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reactive counterpart of {@link FailoverCacheService}, sharing its breaker and fallback.
+ * While the breaker is closed calls go to the reactive primary; while it is open they are served
+ * by the synchronous {@link FailoverCacheService}, which then only touches the in-memory fallback
+ * and therefore never blocks. Puts and clears that reach the primary drop the key's fallback entry first,
+ * as the synchronous service does, so an outage entry can neither shadow them nor be written back over them.
+ */
+public class FailoverReactiveCacheService implements ReactiveCacheService {
+
+    private final ReactiveCacheService primary;
+    private final FailoverCacheService failover;
+    private final ReactiveCacheService outageView;
+    private final CacheCircuitBreaker breaker;
+
+    public FailoverReactiveCacheService(ReactiveCacheService primary, FailoverCacheService failover) {
+        this.primary = primary;
+        this.failover = failover;
+        this.outageView = new LocalReactiveCacheService(failover);
+        this.breaker = failover.getBreaker();
+    }
+
+    @Override
+    public Uni<String> get(String key) {
+        if (!breaker.allowsPrimary()) {
+            return outageView.get(key);
+        }
+        return primary.get(key).map(value -> value != null ? value : failover.getFromFallback(key));
+    }
+
+    @Override
+    public Uni<Void> put(String key, String value, int ttlSeconds) {
+        if (!breaker.allowsPrimary()) {
+            return outageView.put(key, value, ttlSeconds);
+        }
+        failover.dropFromFallback(key);
+        return primary.put(key, value, ttlSeconds);
+    }
+
+    @Override
+    public Uni<String> getAndTouch(String key, int ttlSeconds) {
+        if (!breaker.allowsPrimary()) {
+            return outageView.getAndTouch(key, ttlSeconds);
+        }
+        return primary.getAndTouch(key, ttlSeconds)
+                .map(value -> value != null ? value : failover.touchInFallback(key, ttlSeconds));
+    }
+
+    @Override
+    public Uni<String> getAndClear(String key) {
+        if (!breaker.allowsPrimary()) {
+            return outageView.getAndClear(key);
+        }
+        String local = failover.consumeFromFallback(key);
+        return primary.getAndClear(key).map(value -> value != null ? value : local);
+    }
+
+    @Override
+    public Uni<byte[]> getBytes(String key) {
+        if (!breaker.allowsPrimary()) {
+            return outageView.getBytes(key);
+        }
+        return primary.getBytes(key).map(value -> value != null ? value : failover.getBytesFromFallback(key));
+    }
+
+    @Override
+    public Uni<Void> put(String key, byte[] value, int ttlSeconds) {
+        if (!breaker.allowsPrimary()) {
+            return outageView.put(key, value, ttlSeconds);
+        }
+        failover.dropFromFallback(key);
+        return primary.put(key, value, ttlSeconds);
+    }
+
+    @Override
+    public Uni<byte[]> getBytesAndTouch(String key, int ttlSeconds) {
+        if (!breaker.allowsPrimary()) {
+            return outageView.getBytesAndTouch(key, ttlSeconds);
+        }
+        return primary.getBytesAndTouch(key, ttlSeconds)
+                .map(value -> value != null ? value : failover.touchBytesInFallback(key, ttlSeconds));
+    }
+
+    @Override
+    public Uni<byte[]> getBytesAndClear(String key) {
+        if (!breaker.allowsPrimary()) {
+            return outageView.getBytesAndClear(key);
+        }
+        byte[] local = failover.consumeBytesFromFallback(key);
+        return primary.getBytesAndClear(key).map(value -> value != null ? value : local);
+    }
+
+    @Override
+    public Uni<Void> clear(String key) {
+        if (!breaker.allowsPrimary()) {
+            return outageView.clear(key);
+        }
+        failover.dropFromFallback(key);
+        return primary.clear(key);
+    }
+
+    @Override
+    public Uni<Void> clearAll() {
+        if (!breaker.allowsPrimary()) {
+            return outageView.clearAll();
+        }
+        failover.dropAllFromFallback();
+        return primary.clearAll();
+    }
+
+    @Override
+    public Uni<Map<String, String>> getAll(Collection<String> keys) {
+        // Misses against the primary may still be in the fallback
+        return breaker.allowsPrimary()
+                ? primary.getAll(keys).map(values -> values.size() == sizeOf(keys) ? values : mergeFallback(keys, values))
+                : outageView.getAll(keys);
+    }
+
+    @Override
+    public Uni<Void> putAll(Map<String, String> entries, int ttlSeconds) {
+        if (!breaker.allowsPrimary()) {
+            return outageView.putAll(entries, ttlSeconds);
+        }
+        failover.dropFromFallback(entries != null ? entries.keySet() : null);
+        return primary.putAll(entries, ttlSeconds);
+    }
+
+    @Override
+    public Uni<Void> clearAll(Collection<String> keys) {
+        if (!breaker.allowsPrimary()) {
+            return outageView.clearAll(keys);
+        }
+        failover.dropFromFallback(keys);
+        return primary.clearAll(keys);
+    }
+
+    private Map<String, String> mergeFallback(Collection<String> keys, Map<String, String> values) {
+        Map<String, String> merged = new HashMap<>(values);
+        for (String key : keys) {
+            if (key != null && !merged.containsKey(key)) {
+                String value = failover.getFromFallback(key);
+                if (value != null) {
+                    merged.put(key, value);
+                }
+            }
+        }
+        return merged;
+    }
+
+    private static int sizeOf(Collection<String> keys) {
+        return keys == null ? 0 : keys.size();
+    }
+}
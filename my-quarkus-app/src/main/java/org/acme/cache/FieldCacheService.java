@@ -0,0 +1,47 @@
+package org.acme.cache;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Field-level cache storage: an entry is a set of named fields that can be read selectively
+ * and written as a delta of another entry, instead of one opaque value.
+ * Unlike {@link ReactiveCacheService}, writes report failures so callers can fall back to a whole-value put.
+ */
+public interface FieldCacheService {
+
+    /**
+     * Whether field-level storage is usable; when false, callers use {@link ReactiveCacheService}.
+     */
+    boolean isAvailable();
+
+    /**
+     * Retrieves fields of an entry.
+     * @param key The cache key.
+     * @param fields The fields to fetch, or empty for all of them.
+     * @return A Uni emitting the stored values by field name (fields not stored are absent),
+     *         or null if nothing was found or the backend failed.
+     */
+    Uni<Map<String, String>> getFields(String key, Collection<String> fields);
+
+    /**
+     * Stores the fields as a new entry, replacing whatever the key held.
+     * @param ttlSeconds The time-to-live in seconds. If 0 or negative, TTL is indefinite.
+     * @return A Uni completing once written, or failing if the write did not happen.
+     */
+    Uni<Void> putFields(String key, Map<String, String> fields, int ttlSeconds);
+
+    /**
+     * Stores a new entry as a copy of an existing one with some fields changed or removed,
+     * so only the difference travels to the backend.
+     * @param baseKey The entry to copy; the write fails if it no longer exists or is not stored field by field.
+     * @param changedFields Fields to add or overwrite.
+     * @param removedFields Fields of the base entry to drop.
+     * @param ttlSeconds The time-to-live in seconds. If 0 or negative, TTL is indefinite.
+     * @return A Uni completing once written, or failing if the write did not happen.
+     */
+    Uni<Void> putFieldsDelta(String key, String baseKey, Map<String, String> changedFields,
+                             Collection<String> removedFields, int ttlSeconds);
+}
@@ -0,0 +1,61 @@
+package org.acme.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Difference between the fields of a base cache entry and the fields a new entry must hold.
+ */
+public final class FieldDelta {
+
+    private final Map<String, String> changed;
+    private final List<String> removed;
+
+    private FieldDelta(Map<String, String> changed, List<String> removed) {
+        this.changed = changed;
+        this.removed = removed;
+    }
+
+    /**
+     * Delta of a new entry against the entry the request was hydrated from.
+     * <p>
+     * Only fields that hydration changed are known to be in the base entry; a field the client sent
+     * itself is never assumed to be cached, so at worst an unchanged cached field is written again.
+     * Any prefixed field of the hydrated input missing from the new entry is removed; base fields that
+     * were not hydrated are unknown here and survive, so hydration must have read every field.
+     *
+     * @param inputFields Request fields as received.
+     * @param hydratedFields Request fields after hydration from the base entry.
+     * @param current Fields the new entry must hold.
+     * @param fieldPrefix Lower-case prefix of the cached fields.
+     */
+    public static FieldDelta afterHydration(Map<String, String> inputFields, Map<String, String> hydratedFields,
+                                            Map<String, String> current, String fieldPrefix) {
+        Map<String, String> changed = new HashMap<>(current);
+        List<String> removed = new ArrayList<>();
+        hydratedFields.forEach((name, value) -> {
+            if (!name.toLowerCase().startsWith(fieldPrefix)) {
+                return;
+            }
+            if (!current.containsKey(name)) {
+                removed.add(name);
+            } else if (!Objects.equals(inputFields.get(name), value) && Objects.equals(current.get(name), value)) {
+                // Came from the base entry and did not change
+                changed.remove(name);
+            }
+        });
+        return new FieldDelta(changed, removed);
+    }
+
+    public Map<String, String> getChanged() {
+        return changed;
+    }
+
+    public Collection<String> getRemoved() {
+        return removed;
+    }
+}
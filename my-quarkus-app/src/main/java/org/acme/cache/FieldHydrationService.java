@@ -1,14 +1,18 @@
 package org.acme.cache;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.MapType;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.acme.config.CachingConfiguration;
 import org.acme.constants.CacheConstants;
 import org.jboss.logging.Logger;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -20,40 +24,105 @@ public class FieldHydrationService {
 
     private static final Logger LOG = Logger.getLogger(FieldHydrationService.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final MapType LEGACY_PAYLOAD_TYPE =
+            objectMapper.getTypeFactory().constructMapType(Map.class, String.class, String.class);
 
     @Inject
-    CacheService cacheService;
+    ReactiveCacheService cacheService;
+
+    // Concurrent hydrations of the same key (client retries, resubmits) share one fetch and one decode
+    private final SingleFlight<Map<String, String>> inFlightDecodes = new SingleFlight<>();
 
     @Inject
     CachingConfiguration cachingConfiguration;
 
+    @Inject
+    WriteBehindCacheWriter writeBehind;
+
+    @Inject
+    FieldCacheService fieldCacheService;
+
+    @Inject
+    PeerCacheClient peerCacheClient;
+
+    @Inject
+    AdaptiveTtlPolicy ttlPolicy;
+
+    @Inject
+    RecentKeyFilter recentKeys;
+
     /**
      * Hydrates input fields with cached data if available.
+     * Blocking convenience over {@link #hydrateFieldsAsync(Map)} for synchronous callers;
+     * it waits at most the configured request timeout.
      * 
      * @param fields The original input fields
      * @return Enhanced fields with cached data merged in, or original fields if no cache hit
      */
     public Map<String, String> hydrateFields(Map<String, String> fields) {
+        return hydrateFieldsAsync(fields).await().indefinitely();
+    }
+
+    /**
+     * Hydrates input fields with cached data if available, without blocking while the cache responds.
+     * A lookup slower than the configured request timeout counts as a miss.
+     * 
+     * @param fields The original input fields
+     * @return A Uni emitting the enhanced fields, or the original fields if no cache hit
+     */
+    public Uni<Map<String, String>> hydrateFieldsAsync(Map<String, String> fields) {
         // Check if fields contain a cache key
         String cacheKey = discoverCacheKey(fields);
         if (cacheKey == null) {
             LOG.debug("No cache key found, returning original fields");
-            return fields;
+            return Uni.createFrom().item(fields);
         }
 
-        // Attempt to retrieve cached data
-        String cachedValue = retrieveFromCache(cacheKey);
-        if (cachedValue == null) {
-            LOG.debugf("Cache miss for key: %s, returning original fields", cacheKey);
-            return fields;
+        // Expired and malformed keys cannot hit, skip the round trip
+        CacheKeyGenerator.KeyStatus keyStatus = CacheKeyGenerator.inspect(cacheKey, System.currentTimeMillis() / 1000);
+        if (keyStatus == CacheKeyGenerator.KeyStatus.EXPIRED || keyStatus == CacheKeyGenerator.KeyStatus.MALFORMED) {
+            LOG.debugf("Cache key %s is %s, returning original fields", cacheKey, keyStatus);
+            return Uni.createFrom().item(fields);
         }
 
-        // Process cache hit and hydrate fields
-        LOG.infof("Cache hit for key: %s, hydrating fields", cacheKey);
-        return processCacheHit(fields, cachedValue);
+        // Keys this node never wrote within an entry lifetime cannot hit either
+        if (recentKeys.isDefinitelyAbsent(cacheKey)) {
+            LOG.debugf("Cache key %s was not written recently, returning original fields", cacheKey);
+            return Uni.createFrom().item(fields);
+        }
+
+        // Attempt to retrieve and decode cached data, coalesced per key
+        return retrieveCachedData(cacheKey).map(cachedDataMap -> {
+            if (cachedDataMap == null) {
+                LOG.debugf("Cache miss for key: %s, returning original fields", cacheKey);
+                return fields;
+            }
+
+            // Process cache hit and hydrate fields
+            LOG.infof("Cache hit for key: %s, hydrating fields", cacheKey);
+            ttlPolicy.recordHydration(cacheKey);
+            // A touch extends the entry's life, so the key must stay known for as long
+            recentKeys.recordKey(cacheKey);
+            return processCacheHit(fields, cachedDataMap);
+        });
     }
 
 
+    /**
+     * Ends the lookup with a miss once the request timeout has passed. Applied to the shared fetch,
+     * so every caller coalesced on it gets the miss at the same time.
+     */
+    private Uni<Map<String, String>> withDeadline(Uni<Map<String, String>> lookup, String cacheKey) {
+        long timeoutMs = cachingConfiguration.getRequestTimeoutMs();
+        if (timeoutMs <= 0) {
+            return lookup;
+        }
+        return lookup.ifNoItem().after(Duration.ofMillis(timeoutMs)).recoverWithItem(() -> {
+            LOG.warnf("Cache lookup for key %s timed out after %d ms, returning original fields", cacheKey, timeoutMs);
+            return null;
+        });
+    }
+
     /**
      * Discover the cache key from the input fields
      */
@@ -65,32 +134,76 @@ public class FieldHydrationService {
     }
 
     /**
-     * Attempt to retrieve value from cache
+     * Retrieve and decode the cached data for the key. The decoded map is shared between
+     * concurrent callers and must not be modified.
+     */
+    private Uni<Map<String, String>> retrieveCachedData(String cacheKey) {
+        return inFlightDecodes.executeAsync(cacheKey, () -> withDeadline(retrieveFields(cacheKey)
+                .onItem().ifNull().switchTo(() -> retrieveFromCache(cacheKey).map(cachedValue -> {
+                    if (cachedValue == null) {
+                        return null;
+                    }
+                    Map<String, String> cachedDataMap = deserializeCachedData(cachedValue);
+                    if (cachedDataMap == null) {
+                        LOG.warn("Failed to deserialize cached data, returning original fields");
+                    }
+                    return cachedDataMap;
+                })), cacheKey));
+    }
+
+    /**
+     * Fetch only the needed fields when the entry is stored field by field.
+     * Emits null when field-level storage is unavailable or does not hold the entry.
      */
-    private String retrieveFromCache(String cacheKey) {
+    private Uni<Map<String, String>> retrieveFields(String cacheKey) {
+        if (!fieldCacheService.isAvailable()) {
+            return Uni.createFrom().nullItem();
+        }
+        return fieldCacheService.getFields(cacheKey, cachingConfiguration.getTablefacilityHydrateFields());
+    }
+
+    /**
+     * Attempt to retrieve value from cache, touching or consuming the entry as the key lifecycle requires.
+     * A miss on a key created by another node is retried on that node.
+     */
+    private Uni<byte[]> retrieveFromCache(String cacheKey) {
+        // Read-your-write: the entry may still be waiting for a write-behind writer
+        byte[] pendingValue = writeBehind.pendingValue(cacheKey);
+        if (pendingValue != null) {
+            return Uni.createFrom().item(pendingValue);
+        }
         try {
-            return cacheService.get(cacheKey);
+            int ttlSeconds = cachingConfiguration.getTablefacilityTtlSeconds();
+            PeerCacheClient.Operation operation;
+            Uni<byte[]> read;
+            if (cachingConfiguration.isKeyConsumeEnabled()) {
+                operation = PeerCacheClient.Operation.CONSUME;
+                read = cacheService.getBytesAndClear(cacheKey);
+            } else if (cachingConfiguration.isKeyReuseEnabled()) {
+                operation = PeerCacheClient.Operation.TOUCH;
+                read = cacheService.getBytesAndTouch(cacheKey, ttlSeconds);
+            } else {
+                operation = PeerCacheClient.Operation.GET;
+                read = cacheService.getBytes(cacheKey);
+            }
+            return read
+                    .onFailure().recoverWithItem(e -> {
+                        LOG.errorf("Error retrieving from cache for key '%s': %s", cacheKey, e.getMessage());
+                        return null;
+                    })
+                    .onItem().ifNull().switchTo(() -> peerCacheClient.fetch(cacheKey, operation, ttlSeconds));
         } catch (Exception e) {
             LOG.errorf("Error retrieving from cache for key '%s': %s", cacheKey, e.getMessage());
-            return null;
+            return Uni.createFrom().nullItem();
         }
     }
 
     /**
-     * Process a cache hit - deserialize and merge cached data with original fields
+     * Process a cache hit - merge decoded cached data with original fields
      */
-    private Map<String, String> processCacheHit(Map<String, String> originalFields, String cachedValue) {
+    private Map<String, String> processCacheHit(Map<String, String> originalFields, Map<String, String> cachedDataMap) {
         try {
-            // Deserialize cached data
-            Map<String, String> cachedDataMap = deserializeCachedData(cachedValue);
-            if (cachedDataMap == null) {
-                LOG.warn("Failed to deserialize cached data, returning original fields");
-                return originalFields;
-            }
-
-            // Merge fields
             return mergeFields(originalFields, cachedDataMap);
-
         } catch (Exception e) {
             LOG.errorf("Error processing cache hit: %s", e.getMessage());
             return originalFields;
@@ -98,13 +211,25 @@ public class FieldHydrationService {
     }
 
     /**
-     * Deserialize the cached JSON string back to Map<String, String>
+     * Deserialize the cached payload back to Map<String, String>.
+     * Binary payloads are decoded from the buffer; anything else is legacy JSON, parsed from its UTF-8 bytes.
+     * Input fields are single-valued, so only the first value of each cached field is merged.
      */
-    private Map<String, String> deserializeCachedData(String cachedValue) {
+    private Map<String, String> deserializeCachedData(byte[] cachedValue) {
+        if (TablefacilityPayloadCodec.isBinary(cachedValue)) {
+            try {
+                Map<String, List<String>> decoded = TablefacilityPayloadCodec.decodeStored(cachedValue);
+                Map<String, String> firstValues = new HashMap<>();
+                decoded.forEach((key, values) -> firstValues.put(key, values.isEmpty() ? "" : values.get(0)));
+                return firstValues;
+            } catch (IllegalArgumentException e) {
+                LOG.errorf("Failed to deserialize cached data: %s", e.getMessage());
+                return null;
+            }
+        }
         try {
-            return objectMapper.readValue(cachedValue, 
-                objectMapper.getTypeFactory().constructMapType(Map.class, String.class, String.class));
-        } catch (JsonProcessingException e) {
+            return objectMapper.readValue(cachedValue, LEGACY_PAYLOAD_TYPE);
+        } catch (IOException e) {
             LOG.errorf("Failed to deserialize cached data: %s", e.getMessage());
             return null;
         }
@@ -0,0 +1,183 @@
+package org.acme.cache;
+
+import org.jboss.logging.Logger;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Watches the long-lived heap pools and tells listeners when the heap is under pressure.
+ * <p>
+ * Pressure starts when a pool crosses the high watermark, either while filling up (usage threshold)
+ * or as measured after a collection. It ends only once usage after a collection is back under the low
+ * watermark, so listeners do not flip between states on every GC. While under pressure, listeners are
+ * called again after every collection that leaves usage above the low watermark, so they can keep
+ * giving memory back.
+ * <p>
+ * Only pools that support both usage and collection thresholds and have a defined maximum are watched;
+ * with HotSpot collectors that is the old generation. Setting the thresholds replaces any set by other code.
+ */
+public class HeapPressureMonitor implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(HeapPressureMonitor.class);
+
+    /**
+     * Receives the pressure state; called on JMX notification threads, so implementations must not block.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * @param underPressure Whether the heap is still under pressure.
+         * @param usedFraction Highest used share of a watched pool, 0 to 1.
+         */
+        void onHeapPressure(boolean underPressure, double usedFraction);
+    }
+
+    private final double highWatermark;
+    private final double lowWatermark;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final List<MemoryPoolMXBean> pools = new ArrayList<>();
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final NotificationListener notificationListener = this::handleNotification;
+    private volatile boolean underPressure;
+
+    /**
+     * @param highWatermark Used share of a pool at which pressure starts.
+     * @param lowWatermark Used share after a collection at which pressure ends; below the high watermark.
+     */
+    public HeapPressureMonitor(double highWatermark, double lowWatermark) {
+        if (highWatermark <= 0 || highWatermark >= 1 || lowWatermark <= 0 || lowWatermark >= highWatermark) {
+            throw new IllegalArgumentException("Watermarks must satisfy 0 < low < high < 1, got low=" + lowWatermark
+                    + ", high=" + highWatermark);
+        }
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Sets the pool thresholds and subscribes to memory and GC notifications.
+     * @return Whether any pool can be watched.
+     */
+    public synchronized boolean start() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            long max = pool.getUsage().getMax();
+            if (pool.getType() != MemoryType.HEAP || max <= 0
+                    || !pool.isUsageThresholdSupported() || !pool.isCollectionUsageThresholdSupported()) {
+                continue;
+            }
+            long threshold = (long) (max * highWatermark);
+            pool.setUsageThreshold(threshold);
+            pool.setCollectionUsageThreshold(threshold);
+            pools.add(pool);
+        }
+        if (pools.isEmpty()) {
+            LOG.warn("No heap pool supports usage thresholds, heap pressure is not monitored");
+            return false;
+        }
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        if (memory instanceof NotificationEmitter) {
+            subscribe((NotificationEmitter) memory);
+        }
+        List<String> poolNames = pools.stream().map(MemoryPoolMXBean::getName).toList();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            // Only collections that touch a watched pool can change its usage after collection
+            boolean collectsWatchedPool = List.of(collector.getMemoryPoolNames()).stream().anyMatch(poolNames::contains);
+            if (collectsWatchedPool && collector instanceof NotificationEmitter) {
+                subscribe((NotificationEmitter) collector);
+            }
+        }
+        LOG.infof("Monitoring heap pressure of %s (high %.2f, low %.2f)", poolNames, highWatermark, lowWatermark);
+        return true;
+    }
+
+    public boolean isUnderPressure() {
+        return underPressure;
+    }
+
+    /**
+     * Applies a usage measurement.
+     * @param afterCollection Whether the usage was measured after a collection, and can end the pressure.
+     */
+    void evaluate(double usedFraction, boolean afterCollection) {
+        boolean notify;
+        synchronized (this) {
+            boolean wasUnderPressure = underPressure;
+            if (usedFraction >= highWatermark) {
+                underPressure = true;
+            } else if (afterCollection && usedFraction <= lowWatermark) {
+                underPressure = false;
+            }
+            // Repeated while under pressure, so listeners keep shedding until usage drops
+            notify = underPressure || wasUnderPressure;
+            if (underPressure != wasUnderPressure) {
+                LOG.infof("Heap pressure %s at %.0f%% of a watched pool", underPressure ? "started" : "ended",
+                        usedFraction * 100);
+            }
+        }
+        if (notify) {
+            boolean state = underPressure;
+            for (Listener listener : listeners) {
+                try {
+                    listener.onHeapPressure(state, usedFraction);
+                } catch (RuntimeException e) {
+                    LOG.errorf("Heap pressure listener failed: %s", e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(notificationListener);
+            } catch (ListenerNotFoundException ignored) {
+                // Already gone
+            }
+        }
+        emitters.clear();
+        pools.clear();
+    }
+
+    private void subscribe(NotificationEmitter emitter) {
+        emitter.addNotificationListener(notificationListener, null, null);
+        emitters.add(emitter);
+    }
+
+    private void handleNotification(Notification notification, Object handback) {
+        String type = notification.getType();
+        if (MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals(type)) {
+            evaluate(usedFraction(false), false);
+        } else if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(type)
+                || "com.sun.management.gc.notification".equals(type)) {
+            evaluate(usedFraction(true), true);
+        }
+    }
+
+    private double usedFraction(boolean afterCollection) {
+        double highest = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            MemoryUsage usage = afterCollection ? pool.getCollectionUsage() : pool.getUsage();
+            if (usage != null && usage.getMax() > 0) {
+                highest = Math.max(highest, (double) usage.getUsed() / usage.getMax());
+            }
+        }
+        return highest;
+    }
+}
@@ -0,0 +1,52 @@
+package org.acme.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.acme.config.CachingConfiguration;
+
+/**
+ * Heavy-hitter trackers of the application: cache keys, fed by the cache decorators, and transaction ids,
+ * fed per processed transaction. Both are inert when hot-key tracking is disabled.
+ */
+@ApplicationScoped
+public class HotKeyRegistry {
+
+    @Inject
+    CachingConfiguration cachingConfiguration;
+
+    private HotKeyTracker keyTracker;
+    private HotKeyTracker transactionTracker;
+
+    @PostConstruct
+    void init() {
+        if (cachingConfiguration.isHotKeysEnabled()) {
+            keyTracker = new HotKeyTracker(cachingConfiguration.getHotKeysTopK(), cachingConfiguration.getHotKeysSampleOneIn());
+            transactionTracker = new HotKeyTracker(cachingConfiguration.getHotKeysTopK(), cachingConfiguration.getHotKeysSampleOneIn());
+        }
+    }
+
+    public boolean isEnabled() {
+        return keyTracker != null;
+    }
+
+    /**
+     * Tracker of cache keys, or null when disabled.
+     */
+    public HotKeyTracker getKeyTracker() {
+        return keyTracker;
+    }
+
+    /**
+     * Tracker of transaction ids, or null when disabled.
+     */
+    public HotKeyTracker getTransactionTracker() {
+        return transactionTracker;
+    }
+
+    public void recordTransaction(String trxId) {
+        if (transactionTracker != null) {
+            transactionTracker.record(trxId);
+        }
+    }
+}
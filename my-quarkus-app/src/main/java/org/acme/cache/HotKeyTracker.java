@@ -0,0 +1,199 @@
+package org.acme.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory heavy-hitter tracker: a count-min sketch estimates how often each key is seen and a small
+ * top-K table keeps the most frequent ones.
+ * <p>
+ * Only one operation in {@code sampleOneIn} is recorded, decided with a thread-local random number,
+ * so the common path is a few nanoseconds and hot keys do not turn the sketch counters into a
+ * contention point themselves. Counts are halved every {@link #DECAY_SAMPLES} samples, so the
+ * report follows recent traffic.
+ */
+public class HotKeyTracker {
+
+    static final int DEPTH = 4;
+    static final int WIDTH = 2048;
+    // Samples between two halvings of all counts
+    static final long DECAY_SAMPLES = 100_000;
+
+    /**
+     * A tracked key with its estimated share of the recorded operations.
+     */
+    public static final class HotKey {
+        private final String key;
+        private final long estimatedCount;
+        private final double share;
+
+        HotKey(String key, long estimatedCount, double share) {
+            this.key = key;
+            this.estimatedCount = estimatedCount;
+            this.share = share;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Estimated operations on the key in the current window, sampling accounted for; may overcount.
+         */
+        public long getEstimatedCount() {
+            return estimatedCount;
+        }
+
+        /**
+         * Estimated share of all operations in the current window, 0 to 1.
+         */
+        public double getShare() {
+            return share;
+        }
+    }
+
+    private final int topK;
+    private final int sampleMask;
+    private final AtomicLongArray counters = new AtomicLongArray(DEPTH * WIDTH);
+    private final AtomicLong samples = new AtomicLong();
+    // Guarded by this; the floor lets samples below the smallest tracked count skip the lock
+    private final Map<String, Long> top = new HashMap<>();
+    private volatile long topFloor;
+
+    /**
+     * @param topK Keys kept in the report.
+     * @param sampleOneIn Operations per recorded sample, rounded up to a power of two.
+     */
+    public HotKeyTracker(int topK, int sampleOneIn) {
+        if (topK < 1) {
+            throw new IllegalArgumentException("topK must be positive, got " + topK);
+        }
+        this.topK = topK;
+        this.sampleMask = sampleOneIn <= 1 ? 0 : (Integer.highestOneBit(sampleOneIn - 1) << 1) - 1;
+    }
+
+    public void record(String key) {
+        if (key == null || (ThreadLocalRandom.current().nextInt() & sampleMask) != 0) {
+            return;
+        }
+        int h1 = key.hashCode();
+        int h2 = mix(h1) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int column = (h1 + row * h2) & (WIDTH - 1);
+            estimate = Math.min(estimate, counters.incrementAndGet(row * WIDTH + column));
+        }
+        if (estimate > topFloor) {
+            offer(key, estimate);
+        }
+        if (samples.incrementAndGet() % DECAY_SAMPLES == 0) {
+            decay();
+        }
+    }
+
+    public int getSampleOneIn() {
+        return sampleMask + 1;
+    }
+
+    /**
+     * The tracked keys, hottest first.
+     */
+    public List<HotKey> snapshot() {
+        List<Map.Entry<String, Long>> entries;
+        synchronized (this) {
+            entries = new ArrayList<>(top.entrySet());
+        }
+        entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        long total = windowSamples();
+        List<HotKey> hotKeys = new ArrayList<>(entries.size());
+        for (Map.Entry<String, Long> e : entries) {
+            long count = e.getValue();
+            hotKeys.add(new HotKey(e.getKey(), count * getSampleOneIn(), total > 0 ? Math.min(1, (double) count / total) : 0));
+        }
+        return hotKeys;
+    }
+
+    /**
+     * Estimated share of operations going to the hottest key, 0 when nothing was recorded.
+     */
+    public double topShare() {
+        List<HotKey> hotKeys = snapshot();
+        return hotKeys.isEmpty() ? 0 : hotKeys.get(0).getShare();
+    }
+
+    /**
+     * Estimated share of operations going to the tracked keys together.
+     */
+    public double topKShare() {
+        return Math.min(1, snapshot().stream().mapToDouble(HotKey::getShare).sum());
+    }
+
+    /**
+     * Samples in the current window: the total of any sketch row, which decays with the counters.
+     */
+    private long windowSamples() {
+        long total = 0;
+        for (int column = 0; column < WIDTH; column++) {
+            total += counters.get(column);
+        }
+        return total;
+    }
+
+    private synchronized void offer(String key, long estimate) {
+        if (top.containsKey(key) || top.size() < topK) {
+            top.put(key, estimate);
+        } else {
+            String coldest = null;
+            long coldestCount = Long.MAX_VALUE;
+            for (Map.Entry<String, Long> e : top.entrySet()) {
+                if (e.getValue() < coldestCount) {
+                    coldest = e.getKey();
+                    coldestCount = e.getValue();
+                }
+            }
+            if (estimate <= coldestCount) {
+                return;
+            }
+            top.remove(coldest);
+            top.put(key, estimate);
+        }
+        updateFloor();
+    }
+
+    private synchronized void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >> 1);
+        }
+        Iterator<Map.Entry<String, Long>> it = top.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> e = it.next();
+            long halved = e.getValue() >> 1;
+            if (halved == 0) {
+                it.remove();
+            } else {
+                e.setValue(halved);
+            }
+        }
+        updateFloor();
+    }
+
+    private void updateFloor() {
+        topFloor = top.size() < topK ? 0 : top.values().stream().mapToLong(Long::longValue).min().orElse(0);
+    }
+
+    // MurmurHash3 finalizer, so the second row index is independent of the first
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,109 @@
+package org.acme.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Decorator counting every key read or written in a {@link HotKeyTracker}, to find skewed keys.
+ */
+public class HotKeyTrackingCacheService implements CacheService {
+
+    private final CacheService delegate;
+    private final HotKeyTracker tracker;
+
+    public HotKeyTrackingCacheService(CacheService delegate, HotKeyTracker tracker) {
+        this.delegate = delegate;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public String get(String key) {
+        tracker.record(key);
+        return delegate.get(key);
+    }
+
+    @Override
+    public void put(String key, String value, int ttlSeconds) {
+        tracker.record(key);
+        delegate.put(key, value, ttlSeconds);
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        tracker.record(key);
+        return delegate.getBytes(key);
+    }
+
+    @Override
+    public void put(String key, byte[] value, int ttlSeconds) {
+        tracker.record(key);
+        delegate.put(key, value, ttlSeconds);
+    }
+
+    @Override
+    public String getAndTouch(String key, int ttlSeconds) {
+        tracker.record(key);
+        return delegate.getAndTouch(key, ttlSeconds);
+    }
+
+    @Override
+    public String getAndClear(String key) {
+        tracker.record(key);
+        return delegate.getAndClear(key);
+    }
+
+    @Override
+    public byte[] getBytesAndTouch(String key, int ttlSeconds) {
+        tracker.record(key);
+        return delegate.getBytesAndTouch(key, ttlSeconds);
+    }
+
+    @Override
+    public byte[] getBytesAndClear(String key) {
+        tracker.record(key);
+        return delegate.getBytesAndClear(key);
+    }
+
+    @Override
+    public void clear(String key) {
+        tracker.record(key);
+        delegate.clear(key);
+    }
+
+    @Override
+    public void clearAll() {
+        delegate.clearAll();
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        if (keys != null) {
+            keys.forEach(tracker::record);
+        }
+        return delegate.getAll(keys);
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, int ttlSeconds) {
+        if (entries != null) {
+            entries.keySet().forEach(tracker::record);
+        }
+        delegate.putAll(entries, ttlSeconds);
+    }
+
+    @Override
+    public void putAllBytes(Map<String, byte[]> entries, int ttlSeconds) {
+        if (entries != null) {
+            entries.keySet().forEach(tracker::record);
+        }
+        delegate.putAllBytes(entries, ttlSeconds);
+    }
+
+    @Override
+    public void clearAll(Collection<String> keys) {
+        if (keys != null) {
+            keys.forEach(tracker::record);
+        }
+        delegate.clearAll(keys);
+    }
+}
@@ -0,0 +1,103 @@
+package org.acme.cache;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Reactive counterpart of {@link HotKeyTrackingCacheService}; keys are counted when the operation is requested.
+ */
+public class HotKeyTrackingReactiveCacheService implements ReactiveCacheService {
+
+    private final ReactiveCacheService delegate;
+    private final HotKeyTracker tracker;
+
+    public HotKeyTrackingReactiveCacheService(ReactiveCacheService delegate, HotKeyTracker tracker) {
+        this.delegate = delegate;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public Uni<String> get(String key) {
+        tracker.record(key);
+        return delegate.get(key);
+    }
+
+    @Override
+    public Uni<Void> put(String key, String value, int ttlSeconds) {
+        tracker.record(key);
+        return delegate.put(key, value, ttlSeconds);
+    }
+
+    @Override
+    public Uni<String> getAndTouch(String key, int ttlSeconds) {
+        tracker.record(key);
+        return delegate.getAndTouch(key, ttlSeconds);
+    }
+
+    @Override
+    public Uni<String> getAndClear(String key) {
+        tracker.record(key);
+        return delegate.getAndClear(key);
+    }
+
+    @Override
+    public Uni<byte[]> getBytes(String key) {
+        tracker.record(key);
+        return delegate.getBytes(key);
+    }
+
+    @Override
+    public Uni<Void> put(String key, byte[] value, int ttlSeconds) {
+        tracker.record(key);
+        return delegate.put(key, value, ttlSeconds);
+    }
+
+    @Override
+    public Uni<byte[]> getBytesAndTouch(String key, int ttlSeconds) {
+        tracker.record(key);
+        return delegate.getBytesAndTouch(key, ttlSeconds);
+    }
+
+    @Override
+    public Uni<byte[]> getBytesAndClear(String key) {
+        tracker.record(key);
+        return delegate.getBytesAndClear(key);
+    }
+
+    @Override
+    public Uni<Void> clear(String key) {
+        tracker.record(key);
+        return delegate.clear(key);
+    }
+
+    @Override
+    public Uni<Void> clearAll() {
+        return delegate.clearAll();
+    }
+
+    @Override
+    public Uni<Map<String, String>> getAll(Collection<String> keys) {
+        if (keys != null) {
+            keys.forEach(tracker::record);
+        }
+        return delegate.getAll(keys);
+    }
+
+    @Override
+    public Uni<Void> putAll(Map<String, String> entries, int ttlSeconds) {
+        if (entries != null) {
+            entries.keySet().forEach(tracker::record);
+        }
+        return delegate.putAll(entries, ttlSeconds);
+    }
+
+    @Override
+    public Uni<Void> clearAll(Collection<String> keys) {
+        if (keys != null) {
+            keys.forEach(tracker::record);
+        }
+        return delegate.clearAll(keys);
+    }
+}
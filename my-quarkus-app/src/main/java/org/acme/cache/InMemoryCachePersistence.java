@@ -0,0 +1,604 @@
+package org.acme.cache;
+
+import org.jboss.logging.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Optional persistence for {@link InMemoryCacheService}, so a restarted node comes back warm.
+ * <p>
+ * Every put and clear is appended to a log. A single writer thread drains whatever has queued up,
+ * writes it in one go and fsyncs once per batch (group commit), so request threads never wait on the disk.
+ * Periodically the live entries are written to a snapshot and older logs are dropped. On startup the
+ * snapshot is memory-mapped and its blocks are decoded in parallel, then the logs are replayed on top.
+ * <p>
+ * Durability is asynchronous: a crash loses at most the last unflushed batch, which only costs cache misses.
+ * The queue in front of the writer is bounded. Changes are logged from inside the cache's map updates, so
+ * a full queue cannot block; logging pauses instead, the log is marked with a gap and a snapshot is taken,
+ * after which logging resumes. A restart that replays a gap not covered by a snapshot starts cold.
+ * If the disk fails, persisted state is discarded and persistence stops, so a restart never resurrects
+ * entries whose clear could not be logged.
+ */
+public class InMemoryCachePersistence implements InMemoryCacheService.ChangeLog {
+
+    private static final Logger LOG = Logger.getLogger(InMemoryCachePersistence.class);
+
+    static final String SNAPSHOT_FILE = "cache.snapshot";
+    private static final Pattern LOG_FILE = Pattern.compile("cache-(\\d+)\\.log");
+    private static final int SNAPSHOT_MAGIC = 0x54465331; // "TFS1"
+    private static final int SNAPSHOT_BLOCK_ENTRIES = 4096;
+    private static final int MAX_WRITE_BATCH = 8192;
+    static final int DEFAULT_LOG_QUEUE_CAPACITY = 65_536;
+    // How long a marker waits for room in the queue before checking the writer is still running
+    private static final long MARKER_OFFER_MS = 100;
+    private static final byte OP_PUT = 1;
+    private static final byte OP_CLEAR = 2;
+    // Changes were dropped here: what was logged before is incomplete
+    private static final byte OP_GAP = 3;
+
+    private static final class LogRecord {
+        final byte op;
+        final String key;
+        final Object value;
+        final long expiresAtEpochMs;
+
+        LogRecord(byte op, String key, Object value, long expiresAtEpochMs) {
+            this.op = op;
+            this.key = key;
+            this.value = value;
+            this.expiresAtEpochMs = expiresAtEpochMs;
+        }
+    }
+
+    /**
+     * Queued after records to make the writer act on them in order.
+     */
+    private static final class Marker {
+        final Long newGeneration;
+        final boolean stop;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Marker(Long newGeneration, boolean stop) {
+            this.newGeneration = newGeneration;
+            this.stop = stop;
+        }
+    }
+
+    private final Path directory;
+    private final long snapshotIntervalSeconds;
+    private final int logQueueCapacity;
+    private final LinkedBlockingQueue<Object> queue;
+    private final ScheduledExecutorService snapshotExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "in-memory-cache-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private InMemoryCacheService cache;
+    private Thread writer;
+    private volatile boolean failed;
+    // Set when a change did not fit in the queue; cleared by the writer once a gap is logged and a snapshot starts
+    private final AtomicBoolean dropping = new AtomicBoolean();
+    // Owned by the writer thread; generation is read by snapshot() to pick the next one
+    private FileChannel logChannel;
+    private volatile long generation;
+
+    /**
+     * @param directory Directory holding the snapshot and logs; created if missing.
+     * @param snapshotIntervalSeconds Delay between snapshots; 0 or negative only snapshots on close.
+     */
+    public InMemoryCachePersistence(Path directory, long snapshotIntervalSeconds) {
+        this(directory, snapshotIntervalSeconds, DEFAULT_LOG_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param logQueueCapacity Changes that may wait for the log writer.
+     */
+    public InMemoryCachePersistence(Path directory, long snapshotIntervalSeconds, int logQueueCapacity) {
+        this.directory = directory;
+        this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+        this.logQueueCapacity = Math.max(1, logQueueCapacity);
+        this.queue = new LinkedBlockingQueue<>(this.logQueueCapacity);
+    }
+
+    /**
+     * Reloads the persisted entries into the cache, then starts logging its changes.
+     * Failures are logged and leave the cache empty and unpersisted rather than failing startup.
+     */
+    public void open(InMemoryCacheService cache) {
+        this.cache = cache;
+        try {
+            Files.createDirectories(directory);
+            long start = System.nanoTime();
+            long nextGeneration = restore();
+            LOG.infof("Restored %d cache entries from %s in %d ms", cache.entryCount(), directory,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+            generation = nextGeneration;
+            logChannel = openLog(generation);
+        } catch (IOException | RuntimeException e) {
+            LOG.errorf("Cache persistence disabled, could not restore from %s: %s", directory, e.getMessage());
+            cache.clearAll();
+            discard();
+            return;
+        }
+
+        writer = new Thread(this::runWriter, "in-memory-cache-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        cache.setChangeLog(this);
+        if (snapshotIntervalSeconds > 0) {
+            snapshotExecutor.scheduleWithFixedDelay(this::snapshotQuietly,
+                    snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public void put(String key, Object value, long expiresAtEpochMs) {
+        log(new LogRecord(OP_PUT, key, value, expiresAtEpochMs));
+    }
+
+    @Override
+    public void clear(String key) {
+        log(new LogRecord(OP_CLEAR, key, null, 0));
+    }
+
+    /**
+     * Whether changes are currently dropped because the log writer fell behind.
+     */
+    boolean isDroppingChanges() {
+        return dropping.get();
+    }
+
+    private void log(LogRecord record) {
+        if (failed || dropping.get() || queue.offer(record)) {
+            return;
+        }
+        if (dropping.compareAndSet(false, true)) {
+            LOG.warnf("Cache change log queue full (%d changes), logging paused until the next snapshot", logQueueCapacity);
+            try {
+                snapshotExecutor.execute(this::snapshotQuietly);
+            } catch (RejectedExecutionException e) {
+                // Closing, the final snapshot covers the dropped changes
+            }
+        }
+    }
+
+    /**
+     * Blocks until everything logged so far is on disk.
+     */
+    public void sync() {
+        await(enqueue(new Marker(null, false)));
+    }
+
+    /**
+     * Writes the live entries to a new snapshot and drops logs it makes redundant.
+     */
+    public synchronized void snapshot() throws IOException {
+        if (failed || writer == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        // New writes go to a fresh log; the snapshot is taken after the switch, so it plus the logs
+        // from the previous generation on (some writes may race the switch) cover everything
+        long snapshotGeneration = generation + 1;
+        await(enqueue(new Marker(snapshotGeneration, false)));
+
+        Path tmp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        long[] count = {0};
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(snapshotGeneration);
+
+            ByteArrayOutputStream blockBytes = new ByteArrayOutputStream();
+            DataOutputStream block = new DataOutputStream(blockBytes);
+            int[] blockEntries = {0};
+            try {
+                cache.forEachLive((key, value, expiresAt) -> {
+                    try {
+                        writeString(block, key);
+                        writeValue(block, value);
+                        block.writeLong(expiresAt);
+                        count[0]++;
+                        if (++blockEntries[0] == SNAPSHOT_BLOCK_ENTRIES) {
+                            writeBlock(out, blockBytes, blockEntries[0]);
+                            blockEntries[0] = 0;
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writeBlock(out, blockBytes, blockEntries[0]);
+            // End marker
+            out.writeInt(0);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deleteLogsBefore(snapshotGeneration - 1);
+        LOG.debugf("Wrote cache snapshot of %d entries in %d ms", count[0],
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Takes a final snapshot, so the next start does not need to replay logs, and stops the writer.
+     */
+    public void close() {
+        snapshotExecutor.shutdownNow();
+        if (writer == null) {
+            return;
+        }
+        cache.setChangeLog(null);
+        snapshotQuietly();
+        await(enqueue(new Marker(null, true)));
+        writer = null;
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            LOG.errorf("Failed to write cache snapshot to %s: %s", directory, e.getMessage());
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(Marker marker) {
+        try {
+            do {
+                if (failed || writer == null || !writer.isAlive()) {
+                    return CompletableFuture.completedFuture(null);
+                }
+            } while (!queue.offer(marker, MARKER_OFFER_MS, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.completedFuture(null);
+        }
+        return marker.done;
+    }
+
+    private static void await(CompletableFuture<Void> done) {
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // The writer already logged the failure
+        }
+    }
+
+    // --- Writer thread ---
+
+    private void runWriter() {
+        List<Object> batch = new ArrayList<>();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 16);
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(256);
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        CRC32 crc = new CRC32();
+        LogRecord gap = new LogRecord(OP_GAP, "", null, 0);
+        boolean gapLogged = false;
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, MAX_WRITE_BATCH);
+            try {
+                for (Object item : batch) {
+                    if (item instanceof LogRecord record) {
+                        appendRecord(buffer, payloadBytes, payload, crc, record);
+                        continue;
+                    }
+                    Marker marker = (Marker) item;
+                    if (dropping.get() && !gapLogged) {
+                        appendRecord(buffer, payloadBytes, payload, crc, gap);
+                        gapLogged = true;
+                    }
+                    flush(buffer);
+                    if (marker.newGeneration != null) {
+                        logChannel.close();
+                        generation = marker.newGeneration;
+                        logChannel = openLog(generation);
+                        if (gapLogged) {
+                            // The snapshot about to be taken covers the dropped changes
+                            gapLogged = false;
+                            dropping.set(false);
+                        }
+                    }
+                    if (marker.stop) {
+                        logChannel.close();
+                        running = false;
+                    }
+                    marker.done.complete(null);
+                }
+                if (dropping.get() && !gapLogged) {
+                    appendRecord(buffer, payloadBytes, payload, crc, gap);
+                    gapLogged = true;
+                }
+                // Group commit: one fsync for everything drained together
+                flush(buffer);
+            } catch (IOException e) {
+                LOG.errorf("Cache persistence disabled, failed to write %s: %s", directory, e.getMessage());
+                failed = true;
+                running = false;
+                discard();
+                batch.stream().filter(Marker.class::isInstance)
+                        .forEach(m -> ((Marker) m).done.completeExceptionally(e));
+            }
+            batch.clear();
+        }
+        if (failed) {
+            // Release anybody who queued a marker behind the failure
+            List<Object> rest = new ArrayList<>();
+            queue.drainTo(rest);
+            rest.stream().filter(Marker.class::isInstance).forEach(m -> ((Marker) m).done.complete(null));
+        }
+    }
+
+    private static void appendRecord(ByteArrayOutputStream buffer, ByteArrayOutputStream payloadBytes,
+                                     DataOutputStream payload, CRC32 crc, LogRecord record) throws IOException {
+        payloadBytes.reset();
+        payload.writeByte(record.op);
+        writeString(payload, record.key);
+        if (record.op == OP_PUT) {
+            writeValue(payload, record.value);
+            payload.writeLong(record.expiresAtEpochMs);
+        }
+        byte[] bytes = payloadBytes.toByteArray();
+        crc.reset();
+        crc.update(bytes);
+        writeInt(buffer, bytes.length);
+        writeInt(buffer, (int) crc.getValue());
+        buffer.write(bytes);
+    }
+
+    private void flush(ByteArrayOutputStream buffer) throws IOException {
+        if (buffer.size() == 0) {
+            return;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            logChannel.write(bytes);
+        }
+        logChannel.force(false);
+        buffer.reset();
+    }
+
+    private FileChannel openLog(long generation) throws IOException {
+        return FileChannel.open(logPath(generation), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    // --- Restore ---
+
+    /**
+     * Loads the snapshot and replays the logs after it.
+     * @return The generation the next log should use.
+     */
+    private long restore() throws IOException {
+        long snapshotGeneration = loadSnapshot();
+        long lastGeneration = snapshotGeneration;
+        for (long logGeneration : logGenerations()) {
+            if (logGeneration >= snapshotGeneration - 1) {
+                replayLog(logPath(logGeneration), logGeneration < snapshotGeneration);
+            }
+            lastGeneration = Math.max(lastGeneration, logGeneration);
+        }
+        deleteLogsBefore(snapshotGeneration - 1);
+        return lastGeneration + 1;
+    }
+
+    /**
+     * Maps the snapshot, locates its blocks and decodes them in parallel.
+     * @return The snapshot generation, or 0 if there is no snapshot.
+     */
+    private long loadSnapshot() throws IOException {
+        Path path = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + channel.size() + " bytes");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.remaining() < 12 || mapped.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a cache snapshot: " + path);
+            }
+            long snapshotGeneration = mapped.getLong();
+
+            List<ByteBuffer> blocks = new ArrayList<>();
+            int blockLength;
+            while ((blockLength = mapped.getInt()) > 0) {
+                mapped.getInt(); // entry count, for readers that want to presize
+                blocks.add(mapped.slice(mapped.position(), blockLength));
+                mapped.position(mapped.position() + blockLength);
+            }
+            blocks.parallelStream().forEach(this::loadBlock);
+            return snapshotGeneration;
+        }
+    }
+
+    private void loadBlock(ByteBuffer block) {
+        while (block.hasRemaining()) {
+            String key = readString(block);
+            Object value = readValue(block);
+            cache.restore(key, value, block.getLong());
+        }
+    }
+
+    /**
+     * Applies the log records in order, stopping at the first torn or corrupt record (an interrupted write).
+     * Records before a gap are skipped: a snapshot taken after the gap already holds their outcome, and
+     * without one the cache is emptied, since the changes dropped at the gap are unknown.
+     * @param coveredBySnapshot Whether the log was closed before the loaded snapshot was taken.
+     */
+    private void replayLog(Path path, boolean coveredBySnapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Log too large to map: " + channel.size() + " bytes");
+            }
+            ByteBuffer log = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32 crc = new CRC32();
+            List<ByteBuffer> records = new ArrayList<>();
+            int afterGap = 0;
+            while (log.remaining() >= 8) {
+                int length = log.getInt();
+                int checksum = log.getInt();
+                if (length <= 0 || length > log.remaining()) {
+                    break;
+                }
+                ByteBuffer payload = log.slice(log.position(), length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                log.position(log.position() + length);
+                records.add(payload);
+                if (payload.get(0) == OP_GAP) {
+                    afterGap = records.size();
+                }
+            }
+            if (log.hasRemaining()) {
+                LOG.warnf("Ignored %d bytes of incomplete records at the end of %s", log.remaining(), path);
+            }
+            if (afterGap > 0 && !coveredBySnapshot) {
+                LOG.warnf("Changes were dropped from %s and no later snapshot exists, discarding restored entries", path);
+                cache.clearAll();
+            }
+
+            for (ByteBuffer payload : records.subList(afterGap, records.size())) {
+                byte op = payload.get();
+                String key = readString(payload);
+                if (op == OP_PUT) {
+                    Object value = readValue(payload);
+                    cache.restore(key, value, payload.getLong());
+                } else {
+                    cache.clear(key);
+                }
+            }
+        }
+    }
+
+    // --- Files ---
+
+    private Path logPath(long generation) {
+        return directory.resolve("cache-" + generation + ".log");
+    }
+
+    private List<Long> logGenerations() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(p -> LOG_FILE.matcher(p.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(m -> Long.parseLong(m.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private void deleteLogsBefore(long generation) throws IOException {
+        for (long logGeneration : logGenerations()) {
+            if (logGeneration < generation) {
+                Files.deleteIfExists(logPath(logGeneration));
+            }
+        }
+    }
+
+    /**
+     * Removes all persisted state, so a later start is cold rather than stale.
+     */
+    private void discard() {
+        try {
+            Files.deleteIfExists(directory.resolve(SNAPSHOT_FILE));
+            deleteLogsBefore(Long.MAX_VALUE);
+        } catch (IOException e) {
+            LOG.errorf("Could not discard cache persistence files in %s: %s", directory, e.getMessage());
+        }
+    }
+
+    // --- Encoding ---
+
+    private static void writeBlock(DataOutputStream out, ByteArrayOutputStream blockBytes, int entries) throws IOException {
+        if (entries == 0) {
+            return;
+        }
+        out.writeInt(blockBytes.size());
+        out.writeInt(entries);
+        blockBytes.writeTo(out);
+        blockBytes.reset();
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a String like {@link #writeString}, or a byte[] as is with its length complemented, so files
+     * written before byte values existed read the same.
+     */
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value instanceof byte[] bytes) {
+            out.writeInt(~bytes.length);
+            out.write(bytes);
+        } else {
+            writeString(out, (String) value);
+        }
+    }
+
+    private static Object readValue(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        byte[] bytes = new byte[length < 0 ? ~length : length];
+        buffer.get(bytes);
+        return length < 0 ? bytes : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInt(OutputStream out, int v) throws IOException {
+        out.write(v >>> 24);
+        out.write(v >>> 16);
+        out.write(v >>> 8);
+        out.write(v);
+    }
+}
@@ -5,29 +5,106 @@ import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.inject.Vetoed;
 import org.acme.cache.qualifiers.DefaultCacheImpl;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * In-memory cache implementation for development and testing.
  * This is a basic, non-production-ready, thread-safe implementation.
  * This bean is vetoed and will be created via producer only when caching is enabled.
+ * <p>
+ * When attached to a {@link HeapPressureMonitor}, the cache refuses new keys while the heap is under
+ * pressure and evicts its least valuable entries: large, idle and close to expiry first. With a
+ * {@link DiskSpillStore} those entries, and new keys refused under pressure, go to disk instead and
+ * are promoted back to the heap when read; the same happens above the configured byte limit.
+ * <p>
+ * Entries hold a String, or a byte[] when written as bytes, so binary values are kept exactly; the
+ * visitor, change log and disk tier see the value in the form it was written.
  */
 @Vetoed
 @DefaultCacheImpl
-public class InMemoryCacheService implements CacheService {
+public class InMemoryCacheService implements CacheService, CacheStatistics, CacheInspector {
 
-    private static final long NO_EXPIRY = Long.MAX_VALUE;
+    static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    /**
+     * Receives live entries from {@link #forEachLive(EntryVisitor)}.
+     */
+    @FunctionalInterface
+    public interface EntryVisitor {
+        /**
+         * @param value A String, or a byte[] for entries written as bytes.
+         * @param expiresAtEpochMs Expiry time, or {@link Long#MAX_VALUE} if the entry never expires.
+         */
+        void visit(String key, Object value, long expiresAtEpochMs);
+    }
+
+    /**
+     * Receives every put and explicit removal, in the order they are applied to a key.
+     * Expirations are not reported: expired entries are dropped again on reload anyway.
+     */
+    public interface ChangeLog {
+        /**
+         * @param value A String, or a byte[] for entries written as bytes.
+         */
+        void put(String key, Object value, long expiresAtEpochMs);
+
+        void clear(String key);
+    }
+
+    /**
+     * Rough fixed heap cost of one entry: map node, entry object and two String headers.
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 120;
+    // Eviction candidates collected per pass over the map while shedding
+    private static final int SHED_BATCH = 256;
+    // Minimum time between shedding rounds, since young collections can report pressure many times a second
+    private static final long SHED_INTERVAL_MS = 1000;
+    // Granularity of last-access times, so hot entries are not written on every read
+    private static final long ACCESS_RESOLUTION_MS = 1000;
+    // Share of the byte limit kept after shrinking, so the limit is not hit again on the next put
+    private static final double LIMIT_SHRINK_TARGET = 0.9;
 
     private static final class CacheEntry {
-        final String value;
+        // String or byte[]
+        final Object value;
         final long expiresAtEpochMs;
+        final long createdAtEpochMs;
+        final int estimatedBytes;
+        // Racy on purpose: a stale value only makes the entry look slightly colder
+        long lastAccessEpochMs;
 
-        CacheEntry(String value, long expiresAtEpochMs) {
+        CacheEntry(String key, Object value, long expiresAtEpochMs) {
+            this(key, value, expiresAtEpochMs, System.currentTimeMillis());
+        }
+
+        CacheEntry(String key, Object value, long expiresAtEpochMs, long createdAtEpochMs) {
             this.value = value;
             this.expiresAtEpochMs = expiresAtEpochMs;
+            this.createdAtEpochMs = createdAtEpochMs;
+            this.lastAccessEpochMs = createdAtEpochMs;
+            this.estimatedBytes = ENTRY_OVERHEAD_BYTES + key.length()
+                    + (value instanceof byte[] bytes ? bytes.length : ((String) value).length());
+        }
+
+        void accessed(long nowMs) {
+            if (nowMs - lastAccessEpochMs > ACCESS_RESOLUTION_MS) {
+                lastAccessEpochMs = nowMs;
+            }
         }
 
         boolean isExpired(long nowMs) {
@@ -35,7 +112,50 @@ public class InMemoryCacheService implements CacheService {
         }
     }
 
+    private static final class ShedCandidate {
+        final String key;
+        final CacheEntry entry;
+        final double score;
+
+        ShedCandidate(String key, CacheEntry entry, double score) {
+            this.key = key;
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Sorted copy of the keys a scan pages through, so its order does not change with the map.
+     */
+    private static final class ScanSnapshot {
+        final long id;
+        final String[] keys;
+
+        ScanSnapshot(long id, String[] keys) {
+            this.id = id;
+            this.keys = keys;
+        }
+    }
+
     private final ConcurrentHashMap<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    // Striped counters: updated on every write without contending on a single cache line
+    private final LongAdder estimatedBytes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    // Heap pressure: new keys are refused while set, and one shedding round runs at a time
+    private volatile boolean admissionsPaused;
+    private volatile double shedFraction;
+    private volatile long lastShedMs;
+    // Keys of the latest scan; a scan whose snapshot was replaced by another scan takes a new one
+    private final AtomicLong scanSnapshotIds = new AtomicLong();
+    private volatile ScanSnapshot scanSnapshot;
+    private final AtomicBoolean shedScheduled = new AtomicBoolean();
+    // Heap budget of the entries (0 for none) and the disk tier entries are demoted to, if any
+    private volatile long maxBytes;
+    private volatile DiskSpillStore spillStore;
+    // Optional persistence hook; when set, mutations are logged under the key's map lock
+    private volatile ChangeLog changeLog;
     private final ScheduledExecutorService cleanupExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
         Thread t = new Thread(r, "in-memory-cache-cleaner");
         t.setDaemon(true);
@@ -55,47 +175,670 @@ public class InMemoryCacheService implements CacheService {
 
     @Override
     public String get(String key) {
+        return asString(lookup(key));
+    }
+
+    @Override
+    public void put(String key, String value, int ttlSeconds) {
+        if (key == null || value == null) {
+            return;
+        }
+        store(key, new CacheEntry(key, value, expiresAt(ttlSeconds)));
+    }
+
+    /**
+     * Keeps the array itself, which the caller must not modify afterwards.
+     */
+    @Override
+    public byte[] getBytes(String key) {
+        return asBytes(lookup(key));
+    }
+
+    @Override
+    public void put(String key, byte[] value, int ttlSeconds) {
+        if (key == null || value == null) {
+            return;
+        }
+        store(key, new CacheEntry(key, value, expiresAt(ttlSeconds)));
+    }
+
+    private Object lookup(String key) {
         if (key == null) {
             return null;
         }
         CacheEntry entry = cache.get(key);
         if (entry == null) {
-            return null;
+            return promote(key);
         }
         long now = System.currentTimeMillis();
         if (entry.isExpired(now)) {
             // Lazy eviction on read
-            cache.remove(key, entry);
+            expire(key, entry);
             return null;
         }
+        entry.accessed(now);
         return entry.value;
     }
 
     @Override
-    public void put(String key, String value, int ttlSeconds) {
-        if (key == null || value == null) {
-            return;
+    public void clear(String key) {
+        if (key != null) {
+            remove(key);
         }
-        long expiresAt = ttlSeconds > 0
-                ? System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds)
-                : NO_EXPIRY;
-        cache.put(key, new CacheEntry(value, expiresAt));
     }
 
     @Override
-    public void clear(String key) {
-        if (key != null) {
-            cache.remove(key);
+    public String getAndTouch(String key, int ttlSeconds) {
+        return asString(touch(key, ttlSeconds));
+    }
+
+    @Override
+    public byte[] getBytesAndTouch(String key, int ttlSeconds) {
+        return asBytes(touch(key, ttlSeconds));
+    }
+
+    private Object touch(String key, int ttlSeconds) {
+        if (key == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = expiresAt(ttlSeconds);
+        ChangeLog log = changeLog;
+        Object[] touched = new Object[1];
+        // Same key and value, so the byte estimate does not change
+        cache.computeIfPresent(key, (k, entry) -> {
+            if (entry.isExpired(now)) {
+                return entry;
+            }
+            touched[0] = entry.value;
+            if (log != null) {
+                log.put(k, entry.value, expiresAt);
+            }
+            return new CacheEntry(k, entry.value, expiresAt, entry.createdAtEpochMs);
+        });
+        if (touched[0] == null) {
+            CacheEntry entry = cache.get(key);
+            if (entry != null && entry.isExpired(now)) {
+                expire(key, entry);
+            } else if (entry == null && spillStore != null) {
+                // Touching a spilled entry brings it back to the heap with its new expiry
+                DiskSpillStore.Entry spilled = spillStore.get(key);
+                if (spilled != null) {
+                    store(key, new CacheEntry(key, spilled.getValue(), expiresAt));
+                    return spilled.getValue();
+                }
+            }
+        }
+        return touched[0];
+    }
+
+    @Override
+    public String getAndClear(String key) {
+        return asString(take(key));
+    }
+
+    @Override
+    public byte[] getBytesAndClear(String key) {
+        return asBytes(take(key));
+    }
+
+    private Object take(String key) {
+        if (key == null) {
+            return null;
         }
+        CacheEntry removed = remove(key);
+        if (removed == null) {
+            return takeSpilled(key);
+        }
+        if (removed.isExpired(System.currentTimeMillis())) {
+            expirations.increment();
+            return null;
+        }
+        return removed.value;
     }
 
     @Override
     public void clearAll() {
-        cache.clear();
+        // Entry by entry so the byte estimate stays exact under concurrent writes
+        cache.keySet().forEach(this::remove);
+        DiskSpillStore spill = spillStore;
+        if (spill != null) {
+            spill.forEachKey((key, storedBytes, expiresAt) -> remove(key));
+        }
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> result = new HashMap<>();
+        if (keys == null) {
+            return result;
+        }
+        for (String key : keys) {
+            String value = asString(lookup(key));
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, int ttlSeconds) {
+        if (entries == null) {
+            return;
+        }
+        // All entries of a batch share one expiry timestamp
+        long expiresAt = expiresAt(ttlSeconds);
+        for (Map.Entry<String, String> e : entries.entrySet()) {
+            if (e.getKey() != null && e.getValue() != null) {
+                store(e.getKey(), new CacheEntry(e.getKey(), e.getValue(), expiresAt));
+            }
+        }
+    }
+
+    @Override
+    public void clearAll(Collection<String> keys) {
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            if (key != null) {
+                remove(key);
+            }
+        }
+    }
+
+    /**
+     * Visits every unexpired entry, spilled ones included. Iteration is weakly consistent: it never
+     * blocks writers, and entries added, removed or moved between tiers concurrently may or may not be seen.
+     */
+    public void forEachLive(EntryVisitor visitor) {
+        long now = System.currentTimeMillis();
+        cache.forEach((key, entry) -> {
+            if (!entry.isExpired(now)) {
+                visitor.visit(key, entry.value, entry.expiresAtEpochMs);
+            }
+        });
+        DiskSpillStore spill = spillStore;
+        if (spill != null) {
+            spill.forEachLive((key, value, expiresAt) -> {
+                if (!cache.containsKey(key)) {
+                    visitor.visit(key, value, expiresAt);
+                }
+            });
+        }
+    }
+
+    /**
+     * Removes the key only if it still holds the value and expiry it was visited with by
+     * {@link #forEachLive(EntryVisitor)}, so a put or touch made since then is kept.
+     * @return Whether the entry was removed.
+     */
+    public boolean clearIfUnchanged(String key, Object value, long expiresAtEpochMs) {
+        if (key == null) {
+            return false;
+        }
+        ChangeLog log = changeLog;
+        CacheEntry[] removed = new CacheEntry[1];
+        CacheEntry current = cache.computeIfPresent(key, (k, entry) -> {
+            if (entry.expiresAtEpochMs != expiresAtEpochMs || !sameValue(entry.value, value)) {
+                return entry;
+            }
+            removed[0] = entry;
+            if (log != null) {
+                log.clear(k);
+            }
+            return null;
+        });
+        if (removed[0] != null) {
+            estimatedBytes.add(-removed[0].estimatedBytes);
+            return true;
+        }
+        DiskSpillStore spill = spillStore;
+        if (current != null || spill == null) {
+            return false;
+        }
+        DiskSpillStore.Entry spilled = spill.get(key);
+        if (spilled == null || spilled.getExpiresAtEpochMs() != expiresAtEpochMs || !sameValue(spilled.getValue(), value)
+                || !spill.remove(key, spilled)) {
+            return false;
+        }
+        if (log != null) {
+            log.clear(key);
+        }
+        return true;
+    }
+
+    private static boolean sameValue(Object stored, Object visited) {
+        if (stored == visited) {
+            return true;
+        }
+        if (stored instanceof byte[] bytes) {
+            return visited instanceof byte[] other && Arrays.equals(bytes, other);
+        }
+        return stored != null && stored.equals(visited);
+    }
+
+    /**
+     * Pages through a sorted snapshot of the keys taken when the scan starts; the cursor is the snapshot id
+     * and the last key returned, so a page starts with a binary search and no key is skipped or repeated.
+     * A scan whose snapshot was replaced by a concurrent scan continues after its last key in a new snapshot,
+     * which still holds every entry present throughout. Only heap entries are listed; spilled ones are not
+     * using the heap.
+     */
+    @Override
+    public Page scan(String cursor, int count) {
+        ScanSnapshot snapshot;
+        int start = 0;
+        if (START_CURSOR.equals(cursor)) {
+            snapshot = takeScanSnapshot();
+        } else {
+            int separator = cursor.indexOf(':');
+            long id;
+            String lastKey;
+            try {
+                id = Long.parseLong(cursor.substring(0, separator));
+                lastKey = cursor.substring(separator + 1);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid scan cursor '" + cursor + "'");
+            }
+            snapshot = scanSnapshot;
+            if (snapshot == null || snapshot.id != id) {
+                snapshot = takeScanSnapshot();
+            }
+            int found = Arrays.binarySearch(snapshot.keys, lastKey);
+            start = found >= 0 ? found + 1 : -found - 1;
+        }
+        int limit = Math.max(1, count);
+        long now = System.currentTimeMillis();
+        List<CacheEntryInfo> entries = new ArrayList<>(Math.min(limit, 1024));
+        String[] keys = snapshot.keys;
+        for (int i = start; i < keys.length; i++) {
+            CacheEntry entry = cache.get(keys[i]);
+            if (entry != null && !entry.isExpired(now)) {
+                long ttlSeconds = entry.expiresAtEpochMs == NO_EXPIRY
+                        ? CacheEntryInfo.NO_TTL
+                        : TimeUnit.MILLISECONDS.toSeconds(entry.expiresAtEpochMs - now + 999);
+                entries.add(new CacheEntryInfo(keys[i], entry.estimatedBytes, ttlSeconds,
+                        TimeUnit.MILLISECONDS.toSeconds(now - entry.createdAtEpochMs)));
+            }
+            if (entries.size() >= limit && i + 1 < keys.length) {
+                return new Page(snapshot.id + ":" + keys[i], entries);
+            }
+        }
+        if (scanSnapshot == snapshot) {
+            // Let the keys go once the scan is done
+            scanSnapshot = null;
+        }
+        return new Page(START_CURSOR, entries);
+    }
+
+    private ScanSnapshot takeScanSnapshot() {
+        String[] keys = cache.keySet().toArray(new String[0]);
+        Arrays.sort(keys);
+        ScanSnapshot snapshot = new ScanSnapshot(scanSnapshotIds.incrementAndGet(), keys);
+        scanSnapshot = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * Sheds entries under heap pressure reported by the monitor.
+     * @param shedFraction Share of the estimated bytes evicted per shedding round.
+     */
+    public void enableHeapPressureShedding(HeapPressureMonitor monitor, double shedFraction) {
+        this.shedFraction = shedFraction;
+        monitor.addListener(this::onHeapPressure);
+    }
+
+    /**
+     * Pauses admissions while under pressure and schedules a shedding round, at most one per interval.
+     */
+    void onHeapPressure(boolean underPressure, double usedFraction) {
+        admissionsPaused = underPressure;
+        long now = System.currentTimeMillis();
+        if (!underPressure || now - lastShedMs < SHED_INTERVAL_MS) {
+            return;
+        }
+        lastShedMs = now;
+        scheduleShed((long) (estimatedBytes.sum() * shedFraction));
+    }
+
+    /**
+     * Keeps the entries' estimated heap bytes under the limit by demoting or evicting entries; 0 for no limit.
+     */
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    /**
+     * Demotes entries to the store instead of evicting them, and compacts it in the background.
+     */
+    public void enableDiskSpill(DiskSpillStore spillStore) {
+        this.spillStore = spillStore;
+        cleanupExecutor.scheduleWithFixedDelay(spillStore::compact, 30, 30, TimeUnit.SECONDS);
+    }
+
+    private void scheduleShed(long targetBytes) {
+        if (targetBytes <= 0 || !shedScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            cleanupExecutor.execute(() -> {
+                try {
+                    shed(targetBytes);
+                } finally {
+                    shedScheduled.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            shedScheduled.set(false);
+        }
+    }
+
+    private void enforceLimit() {
+        long limit = maxBytes;
+        if (limit > 0) {
+            long bytes = estimatedBytes.sum();
+            if (bytes > limit) {
+                scheduleShed(bytes - (long) (limit * LIMIT_SHRINK_TARGET));
+            }
+        }
+    }
+
+    /**
+     * Whether new keys are currently refused because of heap pressure.
+     */
+    public boolean isAdmissionPaused() {
+        return admissionsPaused;
+    }
+
+    /**
+     * Demotes, or without a disk tier evicts, entries until about the given number of heap bytes is freed.
+     * Each pass over the map keeps the entries scoring highest on size times idle time per remaining second
+     * of life, so little memory is needed to choose them. Expired entries met on the way are purged and
+     * count towards the target.
+     * @return The estimated bytes freed.
+     */
+    long shed(long targetBytes) {
+        long freed = 0;
+        while (freed < targetBytes) {
+            long now = System.currentTimeMillis();
+            PriorityQueue<ShedCandidate> candidates = new PriorityQueue<>(SHED_BATCH + 1,
+                    (a, b) -> Double.compare(a.score, b.score));
+            for (Map.Entry<String, CacheEntry> e : cache.entrySet()) {
+                CacheEntry entry = e.getValue();
+                if (entry.isExpired(now)) {
+                    if (expire(e.getKey(), entry)) {
+                        freed += entry.estimatedBytes;
+                    }
+                    continue;
+                }
+                double remainingSeconds = Math.max(1, (entry.expiresAtEpochMs - now) / 1000.0);
+                double idleSeconds = 1 + Math.max(0, now - entry.lastAccessEpochMs) / 1000.0;
+                candidates.add(new ShedCandidate(e.getKey(), entry, entry.estimatedBytes * idleSeconds / remainingSeconds));
+                if (candidates.size() > SHED_BATCH) {
+                    candidates.poll();
+                }
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+            // Highest scores first
+            List<ShedCandidate> ordered = new ArrayList<>(candidates);
+            ordered.sort((a, b) -> Double.compare(b.score, a.score));
+            for (ShedCandidate candidate : ordered) {
+                if (freed >= targetBytes) {
+                    break;
+                }
+                if (demote(candidate.key, candidate.entry) || evict(candidate.key, candidate.entry)) {
+                    freed += candidate.entry.estimatedBytes;
+                }
+            }
+        }
+        return freed;
+    }
+
+    /**
+     * Logs every subsequent put and clear to the given change log.
+     */
+    public void setChangeLog(ChangeLog changeLog) {
+        this.changeLog = changeLog;
+    }
+
+    /**
+     * Loads an entry recovered from persistence without logging it again.
+     * Entries that expired in the meantime are ignored.
+     */
+    public void restore(String key, Object value, long expiresAtEpochMs) {
+        if (key == null || value == null || expiresAtEpochMs <= System.currentTimeMillis()) {
+            return;
+        }
+        CacheEntry entry = new CacheEntry(key, value, expiresAtEpochMs);
+        CacheEntry previous = cache.put(key, entry);
+        estimatedBytes.add(entry.estimatedBytes - (previous != null ? previous.estimatedBytes : 0));
+    }
+
+    /**
+     * Whether the cache currently holds no entries (expired ones included).
+     */
+    public boolean isEmpty() {
+        DiskSpillStore spill = spillStore;
+        return cache.isEmpty() && (spill == null || spill.entryCount() == 0);
+    }
+
+    @Override
+    public long entryCount() {
+        return cache.size();
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return estimatedBytes.sum();
+    }
+
+    @Override
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long expirationCount() {
+        return expirations.sum();
+    }
+
+    @Override
+    public long rejectionCount() {
+        return rejections.sum();
+    }
+
+    private void store(String key, CacheEntry entry) {
+        DiskSpillStore spill = spillStore;
+        // Overwrites are still applied under pressure: they replace memory rather than add to it
+        if (admissionsPaused && !cache.containsKey(key)) {
+            if (spill != null && spill.put(key, entry.value, entry.expiresAtEpochMs) != null) {
+                ChangeLog log = changeLog;
+                if (log != null) {
+                    log.put(key, entry.value, entry.expiresAtEpochMs);
+                }
+                return;
+            }
+            rejections.increment();
+            return;
+        }
+        ChangeLog log = changeLog;
+        CacheEntry previous;
+        if (log == null) {
+            previous = cache.put(key, entry);
+        } else {
+            // Logged inside the map's per-key lock so the log order matches the map order
+            CacheEntry[] replaced = new CacheEntry[1];
+            cache.compute(key, (k, current) -> {
+                replaced[0] = current;
+                log.put(k, entry.value, entry.expiresAtEpochMs);
+                return entry;
+            });
+            previous = replaced[0];
+        }
+        estimatedBytes.add(entry.estimatedBytes - (previous != null ? previous.estimatedBytes : 0));
+        if (spill != null) {
+            // The heap copy supersedes a spilled one
+            spill.remove(key);
+        }
+        enforceLimit();
+    }
+
+    private CacheEntry remove(String key) {
+        ChangeLog log = changeLog;
+        CacheEntry removed;
+        if (log == null) {
+            removed = cache.remove(key);
+        } else {
+            CacheEntry[] current = new CacheEntry[1];
+            cache.computeIfPresent(key, (k, entry) -> {
+                current[0] = entry;
+                log.clear(k);
+                return null;
+            });
+            removed = current[0];
+        }
+        if (removed != null) {
+            estimatedBytes.add(-removed.estimatedBytes);
+        }
+        DiskSpillStore spill = spillStore;
+        if (spill != null && spill.remove(key) && removed == null && log != null) {
+            log.clear(key);
+        }
+        return removed;
+    }
+
+    /**
+     * Moves a spilled entry back to the heap, unless admissions are paused.
+     * @return The value, or null if the key is not spilled.
+     */
+    private Object promote(String key) {
+        DiskSpillStore spill = spillStore;
+        DiskSpillStore.Entry spilled = spill != null ? spill.get(key) : null;
+        if (spilled == null) {
+            return null;
+        }
+        if (admissionsPaused) {
+            return spilled.getValue();
+        }
+        // Not a change for the change log: the entry keeps its value and expiry
+        CacheEntry entry = new CacheEntry(key, spilled.getValue(), spilled.getExpiresAtEpochMs());
+        CacheEntry current = cache.putIfAbsent(key, entry);
+        if (current != null) {
+            // Written meanwhile, the heap copy is newer
+            return current.isExpired(System.currentTimeMillis()) ? null : current.value;
+        }
+        estimatedBytes.add(entry.estimatedBytes);
+        if (!spill.remove(key, spilled)) {
+            // Cleared or rewritten meanwhile: do not bring the old value back
+            if (cache.remove(key, entry)) {
+                estimatedBytes.add(-entry.estimatedBytes);
+            }
+            return null;
+        }
+        enforceLimit();
+        return spilled.getValue();
+    }
+
+    /**
+     * Removes a spilled entry, logged like a clear.
+     */
+    private Object takeSpilled(String key) {
+        DiskSpillStore spill = spillStore;
+        DiskSpillStore.Entry taken = spill != null ? spill.take(key) : null;
+        if (taken == null) {
+            return null;
+        }
+        ChangeLog log = changeLog;
+        if (log != null) {
+            log.clear(key);
+        }
+        return taken.getValue();
+    }
+
+    /**
+     * Moves a live entry to the disk tier, unless it was replaced meanwhile. Not logged, the entry still exists.
+     */
+    private boolean demote(String key, CacheEntry entry) {
+        DiskSpillStore spill = spillStore;
+        DiskSpillStore.Entry spilled = spill != null ? spill.put(key, entry.value, entry.expiresAtEpochMs) : null;
+        if (spilled == null) {
+            return false;
+        }
+        if (cache.remove(key, entry)) {
+            estimatedBytes.add(-entry.estimatedBytes);
+            return true;
+        }
+        spill.remove(key, spilled);
+        return false;
+    }
+
+    private boolean expire(String key, CacheEntry entry) {
+        if (cache.remove(key, entry)) {
+            estimatedBytes.add(-entry.estimatedBytes);
+            expirations.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes a live entry to make room, unless it was replaced meanwhile; logged like a clear.
+     */
+    private boolean evict(String key, CacheEntry entry) {
+        ChangeLog log = changeLog;
+        boolean removed;
+        if (log == null) {
+            removed = cache.remove(key, entry);
+        } else {
+            boolean[] matched = new boolean[1];
+            cache.computeIfPresent(key, (k, current) -> {
+                if (current != entry) {
+                    return current;
+                }
+                matched[0] = true;
+                log.clear(k);
+                return null;
+            });
+            removed = matched[0];
+        }
+        if (removed) {
+            estimatedBytes.add(-entry.estimatedBytes);
+            evictions.increment();
+        }
+        return removed;
+    }
+
+    /**
+     * The String view of a stored value: written as a String, or the UTF-8 decoding of its bytes.
+     */
+    static String asString(Object value) {
+        return value instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : (String) value;
+    }
+
+    /**
+     * The byte view of a stored value: written as bytes, or the UTF-8 encoding of its String.
+     */
+    static byte[] asBytes(Object value) {
+        return value instanceof String string ? string.getBytes(StandardCharsets.UTF_8) : (byte[]) value;
+    }
+
+    private static long expiresAt(int ttlSeconds) {
+        return ttlSeconds > 0
+                ? System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds)
+                : NO_EXPIRY;
     }
 
     private void purgeExpiredEntries() {
         long now = System.currentTimeMillis();
-        cache.entrySet().removeIf(e -> e.getValue() != null && e.getValue().isExpired(now));
+        cache.forEach((key, entry) -> {
+            if (entry.isExpired(now)) {
+                expire(key, entry);
+            }
+        });
     }
 }
@@ -0,0 +1,123 @@
+package org.acme.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Decorator recording hits, misses, puts, latencies and value sizes in {@link CacheMetrics}.
+ */
+public class InstrumentedCacheService implements CacheService {
+
+    private final CacheService delegate;
+    private final CacheMetrics metrics;
+
+    public InstrumentedCacheService(CacheService delegate, CacheMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String get(String key) {
+        long start = System.nanoTime();
+        String value = delegate.get(key);
+        metrics.recordGet(start, value != null);
+        return value;
+    }
+
+    @Override
+    public void put(String key, String value, int ttlSeconds) {
+        long start = System.nanoTime();
+        delegate.put(key, value, ttlSeconds);
+        metrics.recordPut(start, value);
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        long start = System.nanoTime();
+        byte[] value = delegate.getBytes(key);
+        metrics.recordGet(start, value != null);
+        return value;
+    }
+
+    @Override
+    public void put(String key, byte[] value, int ttlSeconds) {
+        long start = System.nanoTime();
+        delegate.put(key, value, ttlSeconds);
+        metrics.recordPut(start, value != null ? value.length : -1);
+    }
+
+    @Override
+    public String getAndTouch(String key, int ttlSeconds) {
+        long start = System.nanoTime();
+        String value = delegate.getAndTouch(key, ttlSeconds);
+        metrics.recordGet(start, value != null);
+        return value;
+    }
+
+    @Override
+    public String getAndClear(String key) {
+        long start = System.nanoTime();
+        String value = delegate.getAndClear(key);
+        metrics.recordGet(start, value != null);
+        return value;
+    }
+
+    @Override
+    public byte[] getBytesAndTouch(String key, int ttlSeconds) {
+        long start = System.nanoTime();
+        byte[] value = delegate.getBytesAndTouch(key, ttlSeconds);
+        metrics.recordGet(start, value != null);
+        return value;
+    }
+
+    @Override
+    public byte[] getBytesAndClear(String key) {
+        long start = System.nanoTime();
+        byte[] value = delegate.getBytesAndClear(key);
+        metrics.recordGet(start, value != null);
+        return value;
+    }
+
+    @Override
+    public void clear(String key) {
+        delegate.clear(key);
+        metrics.recordClear(1);
+    }
+
+    @Override
+    public void clearAll() {
+        delegate.clearAll();
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        long start = System.nanoTime();
+        Map<String, String> values = delegate.getAll(keys);
+        metrics.recordGetAll(start, keys == null ? 0 : keys.size(), values.size());
+        return values;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, int ttlSeconds) {
+        long start = System.nanoTime();
+        delegate.putAll(entries, ttlSeconds);
+        if (entries != null) {
+            entries.values().forEach(value -> metrics.recordPut(start, value));
+        }
+    }
+
+    @Override
+    public void putAllBytes(Map<String, byte[]> entries, int ttlSeconds) {
+        long start = System.nanoTime();
+        delegate.putAllBytes(entries, ttlSeconds);
+        if (entries != null) {
+            entries.values().forEach(value -> metrics.recordPut(start, value != null ? value.length : -1));
+        }
+    }
+
+    @Override
+    public void clearAll(Collection<String> keys) {
+        delegate.clearAll(keys);
+        metrics.recordClear(keys == null ? 0 : keys.size());
+    }
+}
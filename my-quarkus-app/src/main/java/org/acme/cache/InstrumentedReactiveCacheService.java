@@ -0,0 +1,122 @@
+package org.acme.cache;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Reactive counterpart of {@link InstrumentedCacheService}. Latency is measured from subscription
+ * to completion, i.e. the time the cache took to answer, not time spent by the caller.
+ */
+public class InstrumentedReactiveCacheService implements ReactiveCacheService {
+
+    private final ReactiveCacheService delegate;
+    private final CacheMetrics metrics;
+
+    public InstrumentedReactiveCacheService(ReactiveCacheService delegate, CacheMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Uni<String> get(String key) {
+        return Uni.createFrom().deferred(() -> {
+            long start = System.nanoTime();
+            return delegate.get(key).invoke(value -> metrics.recordGet(start, value != null));
+        });
+    }
+
+    @Override
+    public Uni<Void> put(String key, String value, int ttlSeconds) {
+        return Uni.createFrom().deferred(() -> {
+            long start = System.nanoTime();
+            return delegate.put(key, value, ttlSeconds).invoke(ignored -> metrics.recordPut(start, value));
+        });
+    }
+
+    @Override
+    public Uni<String> getAndTouch(String key, int ttlSeconds) {
+        return Uni.createFrom().deferred(() -> {
+            long start = System.nanoTime();
+            return delegate.getAndTouch(key, ttlSeconds).invoke(value -> metrics.recordGet(start, value != null));
+        });
+    }
+
+    @Override
+    public Uni<String> getAndClear(String key) {
+        return Uni.createFrom().deferred(() -> {
+            long start = System.nanoTime();
+            return delegate.getAndClear(key).invoke(value -> metrics.recordGet(start, value != null));
+        });
+    }
+
+    @Override
+    public Uni<byte[]> getBytes(String key) {
+        return Uni.createFrom().deferred(() -> {
+            long start = System.nanoTime();
+            return delegate.getBytes(key).invoke(value -> metrics.recordGet(start, value != null));
+        });
+    }
+
+    @Override
+    public Uni<Void> put(String key, byte[] value, int ttlSeconds) {
+        return Uni.createFrom().deferred(() -> {
+            long start = System.nanoTime();
+            return delegate.put(key, value, ttlSeconds)
+                    .invoke(ignored -> metrics.recordPut(start, value != null ? value.length : -1));
+        });
+    }
+
+    @Override
+    public Uni<byte[]> getBytesAndTouch(String key, int ttlSeconds) {
+        return Uni.createFrom().deferred(() -> {
+            long start = System.nanoTime();
+            return delegate.getBytesAndTouch(key, ttlSeconds).invoke(value -> metrics.recordGet(start, value != null));
+        });
+    }
+
+    @Override
+    public Uni<byte[]> getBytesAndClear(String key) {
+        return Uni.createFrom().deferred(() -> {
+            long start = System.nanoTime();
+            return delegate.getBytesAndClear(key).invoke(value -> metrics.recordGet(start, value != null));
+        });
+    }
+
+    @Override
+    public Uni<Void> clear(String key) {
+        return delegate.clear(key).invoke(ignored -> metrics.recordClear(1));
+    }
+
+    @Override
+    public Uni<Void> clearAll() {
+        return delegate.clearAll();
+    }
+
+    @Override
+    public Uni<Map<String, String>> getAll(Collection<String> keys) {
+        return Uni.createFrom().deferred(() -> {
+            long start = System.nanoTime();
+            return delegate.getAll(keys)
+                    .invoke(values -> metrics.recordGetAll(start, keys == null ? 0 : keys.size(), values.size()));
+        });
+    }
+
+    @Override
+    public Uni<Void> putAll(Map<String, String> entries, int ttlSeconds) {
+        return Uni.createFrom().deferred(() -> {
+            long start = System.nanoTime();
+            return delegate.putAll(entries, ttlSeconds).invoke(ignored -> {
+                if (entries != null) {
+                    entries.values().forEach(value -> metrics.recordPut(start, value));
+                }
+            });
+        });
+    }
+
+    @Override
+    public Uni<Void> clearAll(Collection<String> keys) {
+        return delegate.clearAll(keys).invoke(ignored -> metrics.recordClear(keys == null ? 0 : keys.size()));
+    }
+}
@@ -0,0 +1,86 @@
+package org.acme.cache;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Reactive view over a cache that never waits on I/O ({@link InMemoryCacheService}, {@link NoOpCacheService}).
+ * Every operation completes on the calling thread, so wrapping the synchronous API costs nothing.
+ * Must not be used over a remote cache such as {@link RedisCacheService} - use
+ * {@link ReactiveRedisCacheService} instead.
+ */
+public class LocalReactiveCacheService implements ReactiveCacheService {
+
+    private final CacheService delegate;
+
+    public LocalReactiveCacheService(CacheService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Uni<String> get(String key) {
+        return Uni.createFrom().item(() -> delegate.get(key));
+    }
+
+    @Override
+    public Uni<Void> put(String key, String value, int ttlSeconds) {
+        return Uni.createFrom().voidItem().invoke(() -> delegate.put(key, value, ttlSeconds));
+    }
+
+    @Override
+    public Uni<String> getAndTouch(String key, int ttlSeconds) {
+        return Uni.createFrom().item(() -> delegate.getAndTouch(key, ttlSeconds));
+    }
+
+    @Override
+    public Uni<String> getAndClear(String key) {
+        return Uni.createFrom().item(() -> delegate.getAndClear(key));
+    }
+
+    @Override
+    public Uni<byte[]> getBytes(String key) {
+        return Uni.createFrom().item(() -> delegate.getBytes(key));
+    }
+
+    @Override
+    public Uni<Void> put(String key, byte[] value, int ttlSeconds) {
+        return Uni.createFrom().voidItem().invoke(() -> delegate.put(key, value, ttlSeconds));
+    }
+
+    @Override
+    public Uni<byte[]> getBytesAndTouch(String key, int ttlSeconds) {
+        return Uni.createFrom().item(() -> delegate.getBytesAndTouch(key, ttlSeconds));
+    }
+
+    @Override
+    public Uni<byte[]> getBytesAndClear(String key) {
+        return Uni.createFrom().item(() -> delegate.getBytesAndClear(key));
+    }
+
+    @Override
+    public Uni<Void> clear(String key) {
+        return Uni.createFrom().voidItem().invoke(() -> delegate.clear(key));
+    }
+
+    @Override
+    public Uni<Void> clearAll() {
+        return Uni.createFrom().voidItem().invoke(() -> delegate.clearAll());
+    }
+
+    @Override
+    public Uni<Map<String, String>> getAll(Collection<String> keys) {
+        return Uni.createFrom().item(() -> delegate.getAll(keys));
+    }
+
+    @Override
+    public Uni<Void> putAll(Map<String, String> entries, int ttlSeconds) {
+        return Uni.createFrom().voidItem().invoke(() -> delegate.putAll(entries, ttlSeconds));
+    }
+
+    @Override
+    public Uni<Void> clearAll(Collection<String> keys) {
+        return Uni.createFrom().voidItem().invoke(() -> delegate.clearAll(keys));
+    }
+}
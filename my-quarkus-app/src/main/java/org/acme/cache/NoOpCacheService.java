@@ -1,5 +1,9 @@
 package org.acme.cache;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * No-op cache service implementation that does nothing.
  * Used when caching is disabled - the feature "lays dormant".
@@ -18,6 +22,17 @@ public class NoOpCacheService implements CacheService {
         // No-op: feature is dormant
     }
 
+    @Override
+    public byte[] getBytes(String key) {
+        // No-op: feature is dormant
+        return null;
+    }
+
+    @Override
+    public void put(String key, byte[] value, int ttlSeconds) {
+        // No-op: feature is dormant
+    }
+
     @Override
     public void clear(String key) {
         // No-op: feature is dormant
@@ -27,5 +42,20 @@ public class NoOpCacheService implements CacheService {
     public void clearAll() {
         // No-op: feature is dormant
     }
-}
 
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        // No-op: feature is dormant
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, int ttlSeconds) {
+        // No-op: feature is dormant
+    }
+
+    @Override
+    public void clearAll(Collection<String> keys) {
+        // No-op: feature is dormant
+    }
+}
@@ -0,0 +1,35 @@
+package org.acme.cache;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Field-level storage for backends without it. Never available, so callers stay on
+ * whole-value storage; the operations only exist to satisfy the interface.
+ * This is a simple POJO, not a CDI bean, created manually by the producer.
+ */
+public class NoOpFieldCacheService implements FieldCacheService {
+
+    @Override
+    public boolean isAvailable() {
+        return false;
+    }
+
+    @Override
+    public Uni<Map<String, String>> getFields(String key, Collection<String> fields) {
+        return Uni.createFrom().nullItem();
+    }
+
+    @Override
+    public Uni<Void> putFields(String key, Map<String, String> fields, int ttlSeconds) {
+        return Uni.createFrom().failure(new UnsupportedOperationException("Field-level storage is not available"));
+    }
+
+    @Override
+    public Uni<Void> putFieldsDelta(String key, String baseKey, Map<String, String> changedFields,
+                                    Collection<String> removedFields, int ttlSeconds) {
+        return Uni.createFrom().failure(new UnsupportedOperationException("Field-level storage is not available"));
+    }
+}
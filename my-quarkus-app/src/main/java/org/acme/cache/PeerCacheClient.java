@@ -0,0 +1,172 @@
+package org.acme.cache;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.acme.config.CachingConfiguration;
+import org.jboss.logging.Logger;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fetches cache entries from the node that wrote them, for node-local caches behind a load balancer.
+ * Keys embed the id of the node that created them (see {@link CacheKeyGenerator}); a miss on a key of
+ * another configured node is retried against that node's internal endpoint.
+ * <p>
+ * Calls share one HTTP client, so connections to peers are kept alive, and are bounded by short connect
+ * and request timeouts. A peer that fails is skipped for {@link #UNREACHABLE_BACKOFF_MS} so an outage
+ * does not add a timeout to every request.
+ * <p>
+ * Every call carries the shared peer secret in {@link #SECRET_HEADER}, which the owner checks before
+ * serving anything; without a configured secret peer fetching stays disabled.
+ */
+@ApplicationScoped
+public class PeerCacheClient {
+
+    private static final Logger LOG = Logger.getLogger(PeerCacheClient.class);
+
+    public static final String ENTRY_PATH = "/internal/cache/entries/";
+
+    public static final String SECRET_HEADER = "X-Cache-Peer-Secret";
+
+    static final long UNREACHABLE_BACKOFF_MS = 1000;
+
+    /**
+     * What the owner does with the entry it serves, matching the key lifecycle of the caller.
+     */
+    public enum Operation {
+        GET, TOUCH, CONSUME
+    }
+
+    @Inject
+    CachingConfiguration cachingConfiguration;
+
+    @Inject
+    CacheKeyGenerator keyGenerator;
+
+    private volatile Map<Integer, URI> peers;
+    private volatile byte[] secret;
+    private volatile HttpClient httpClient;
+    private final Map<Integer, Long> unreachableUntil = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return !peers().isEmpty();
+    }
+
+    /**
+     * Whether a call to this node's entry endpoint carries the shared peer secret.
+     * Always false while peer fetching is disabled.
+     */
+    public boolean isPeer(String presentedSecret) {
+        return presentedSecret != null && isEnabled()
+                && MessageDigest.isEqual(secret, presentedSecret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Fetches the entry from the node that created the key.
+     * @param ttlSeconds New TTL for {@link Operation#TOUCH}; if 0 or negative the entry is read without
+     *                   a touch and keeps its TTL, as owners never make a peer's entry non-expiring.
+     * @return A Uni emitting the value, or null for keys of this or an unknown node, misses and failed calls.
+     */
+    public Uni<byte[]> fetch(String key, Operation operation, int ttlSeconds) {
+        int owner = CacheKeyGenerator.nodeIdOf(key);
+        URI base = owner >= 0 && owner != keyGenerator.getNodeId() ? peers().get(owner) : null;
+        if (base == null) {
+            return Uni.createFrom().nullItem();
+        }
+        Long until = unreachableUntil.get(owner);
+        if (until != null && until > System.currentTimeMillis()) {
+            return Uni.createFrom().nullItem();
+        }
+        String path = ENTRY_PATH + URLEncoder.encode(key, StandardCharsets.UTF_8);
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .timeout(Duration.ofMillis(cachingConfiguration.getPeerFetchTimeoutMs()))
+                .header(SECRET_HEADER, new String(secret, StandardCharsets.UTF_8));
+        // Reads are GETs; anything that changes the owner's entry is a POST
+        if (operation == Operation.CONSUME) {
+            builder.uri(base.resolve(path + "/consume")).POST(HttpRequest.BodyPublishers.noBody());
+        } else if (operation == Operation.TOUCH && ttlSeconds > 0) {
+            builder.uri(base.resolve(path + "/touch?ttl=" + ttlSeconds)).POST(HttpRequest.BodyPublishers.noBody());
+        } else {
+            builder.uri(base.resolve(path)).GET();
+        }
+        HttpRequest request = builder.build();
+        return Uni.createFrom().completionStage(() -> httpClient().sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()))
+                .map(response -> {
+                    unreachableUntil.remove(owner);
+                    if (response.statusCode() == 200) {
+                        LOG.debugf("Fetched key %s from node %d", key, owner);
+                        return response.body();
+                    }
+                    if (response.statusCode() != 404) {
+                        LOG.debugf("Node %d answered %d for key %s", owner, response.statusCode(), key);
+                    }
+                    return null;
+                })
+                .onFailure().recoverWithItem(e -> {
+                    unreachableUntil.put(owner, System.currentTimeMillis() + UNREACHABLE_BACKOFF_MS);
+                    LOG.warnf("Could not fetch key %s from node %d, skipping it for %d ms: %s", key, owner,
+                            UNREACHABLE_BACKOFF_MS, e.getMessage());
+                    return null;
+                });
+    }
+
+    private Map<Integer, URI> peers() {
+        Map<Integer, URI> parsed = peers;
+        if (parsed == null) {
+            Optional<String> configuredSecret = cachingConfiguration.getPeerFetchSecret();
+            parsed = parsePeers();
+            if (configuredSecret.isEmpty()) {
+                if (!parsed.isEmpty()) {
+                    LOG.warn("Cache peers are configured without app.caching.peer-fetch.secret, peer fetching is disabled");
+                }
+                parsed = Map.of();
+            } else {
+                // Set before the peers are published, so callers that see peers also see the secret
+                secret = configuredSecret.get().getBytes(StandardCharsets.UTF_8);
+            }
+            peers = parsed;
+        }
+        return parsed;
+    }
+
+    private Map<Integer, URI> parsePeers() {
+        Map<Integer, URI> parsed = new HashMap<>();
+        for (String entry : cachingConfiguration.getPeerFetchPeers()) {
+            int separator = entry.indexOf('=');
+            try {
+                parsed.put(Integer.parseInt(entry.substring(0, separator).trim()), URI.create(entry.substring(separator + 1).trim()));
+            } catch (RuntimeException e) {
+                LOG.warnf("Ignoring cache peer '%s', expected <node-id>=<base-url>", entry);
+            }
+        }
+        return parsed;
+    }
+
+    private HttpClient httpClient() {
+        HttpClient client = httpClient;
+        if (client == null) {
+            synchronized (this) {
+                if (httpClient == null) {
+                    httpClient = HttpClient.newBuilder()
+                            .version(HttpClient.Version.HTTP_1_1)
+                            .connectTimeout(Duration.ofMillis(cachingConfiguration.getPeerFetchConnectTimeoutMs()))
+                            .build();
+                }
+                client = httpClient;
+            }
+        }
+        return client;
+    }
+}
@@ -0,0 +1,129 @@
+package org.acme.cache;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Non-blocking counterpart of {@link CacheService}.
+ * Operations return a {@link Uni} that completes when the backend has answered, so no thread
+ * is parked while waiting on cache I/O. Callers needing a {@code CompletionStage} can use
+ * {@code subscribeAsCompletionStage()}.
+ * <p>
+ * As in {@link CacheService}, values can also be written and read as bytes, which are stored exactly as given;
+ * the byte view of an entry written as a String is its UTF-8 encoding and the String view of bytes their
+ * UTF-8 decoding.
+ */
+public interface ReactiveCacheService {
+
+    /**
+     * Attempts to retrieve a value associated with the given key.
+     * @param key The cache key.
+     * @return A Uni emitting the cached value, or null if the key is not found.
+     */
+    Uni<String> get(String key);
+
+    /**
+     * Stores a key-value pair in the cache.
+     * @param key The cache key.
+     * @param value The serialized value (String) to store.
+     * @param ttlSeconds The time-to-live in seconds. If 0 or negative, TTL is indefinite.
+     * @return A Uni completing once the value has been written.
+     */
+    Uni<Void> put(String key, String value, int ttlSeconds);
+
+    /**
+     * Attempts to retrieve a value as bytes: exactly the bytes it was written with, or the UTF-8
+     * encoding of a value written as a String.
+     * @param key The cache key.
+     * @return A Uni emitting the cached value, or null if the key is not found. The array must not be modified.
+     */
+    Uni<byte[]> getBytes(String key);
+
+    /**
+     * Stores a value given as bytes, which are kept as they are.
+     * @param key The cache key.
+     * @param value The serialized value; not modified afterwards by the caller.
+     * @param ttlSeconds The time-to-live in seconds. If 0 or negative, TTL is indefinite.
+     * @return A Uni completing once the value has been written.
+     */
+    Uni<Void> put(String key, byte[] value, int ttlSeconds);
+
+    /**
+     * Invalidates (removes) a specific key from the cache.
+     * @param key The key to remove.
+     * @return A Uni completing once the key has been removed.
+     */
+    Uni<Void> clear(String key);
+
+    /**
+     * Flushes all data from the cache.
+     * @return A Uni completing once the cache has been flushed.
+     */
+    Uni<Void> clearAll();
+
+    /**
+     * Retrieves several keys in a single operation.
+     * @param keys The cache keys.
+     * @return A Uni emitting the cached values by key. Keys that are not found are absent from the map.
+     */
+    Uni<Map<String, String>> getAll(Collection<String> keys);
+
+    /**
+     * Stores several key-value pairs in a single operation, all with the same TTL.
+     * @param entries The serialized values (String) to store, by key.
+     * @param ttlSeconds The time-to-live in seconds. If 0 or negative, TTL is indefinite.
+     * @return A Uni completing once all values have been written.
+     */
+    Uni<Void> putAll(Map<String, String> entries, int ttlSeconds);
+
+    /**
+     * Invalidates (removes) several keys in a single operation.
+     * @param keys The keys to remove.
+     * @return A Uni completing once the keys have been removed.
+     */
+    Uni<Void> clearAll(Collection<String> keys);
+
+    /**
+     * Retrieves a value and restarts its TTL, for entries that stay alive while they are being used.
+     * The default reads and rewrites the value; backends with a native touch override it.
+     * @param key The cache key.
+     * @param ttlSeconds The new time-to-live in seconds. If 0 or negative, TTL is indefinite.
+     * @return A Uni emitting the cached value, or null if the key is not found.
+     */
+    default Uni<String> getAndTouch(String key, int ttlSeconds) {
+        return get(key).call(value -> value != null ? put(key, value, ttlSeconds) : Uni.createFrom().voidItem());
+    }
+
+    /**
+     * Retrieves a value and removes it, for entries that are read exactly once.
+     * The default reads and then clears, which is not atomic; backends with a native get-and-delete override it.
+     * @param key The cache key.
+     * @return A Uni emitting the cached value, or null if the key is not found.
+     */
+    default Uni<String> getAndClear(String key) {
+        return get(key).call(value -> value != null ? clear(key) : Uni.createFrom().voidItem());
+    }
+
+    /**
+     * Byte variant of {@link #getAndTouch(String, int)}.
+     * The default reads and rewrites the value; backends with a native touch override it.
+     * @param key The cache key.
+     * @param ttlSeconds The new time-to-live in seconds. If 0 or negative, TTL is indefinite.
+     * @return A Uni emitting the cached value, or null if the key is not found.
+     */
+    default Uni<byte[]> getBytesAndTouch(String key, int ttlSeconds) {
+        return getBytes(key).call(value -> value != null ? put(key, value, ttlSeconds) : Uni.createFrom().voidItem());
+    }
+
+    /**
+     * Byte variant of {@link #getAndClear(String)}.
+     * The default reads and then clears, which is not atomic; backends with a native get-and-delete override it.
+     * @param key The cache key.
+     * @return A Uni emitting the cached value, or null if the key is not found.
+     */
+    default Uni<byte[]> getBytesAndClear(String key) {
+        return getBytes(key).call(value -> value != null ? clear(key) : Uni.createFrom().voidItem());
+    }
+}
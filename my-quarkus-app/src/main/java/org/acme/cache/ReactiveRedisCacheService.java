@@ -0,0 +1,465 @@
+package org.acme.cache;
+
+import io.quarkus.redis.datasource.ReactiveRedisDataSource;
+import io.quarkus.redis.datasource.keys.KeyScanArgs;
+import io.quarkus.redis.datasource.keys.ReactiveKeyCommands;
+import io.quarkus.redis.datasource.value.ReactiveValueCommands;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.redis.client.Command;
+import io.vertx.mutiny.redis.client.Redis;
+import io.vertx.mutiny.redis.client.Request;
+import io.vertx.mutiny.redis.client.Response;
+import io.vertx.redis.client.ResponseType;
+import jakarta.enterprise.inject.Vetoed;
+import org.acme.cache.qualifiers.RedisCacheImpl;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Non-blocking Redis cache implementation using the Quarkus reactive Redis client.
+ * Errors are logged and swallowed the same way {@link RedisCacheService} does, so a cache
+ * failure degrades to a miss instead of failing the request.
+ * <p>
+ * Also offers field-level storage as Redis HASHes: fields are read with HMGET/HGETALL, and a delta
+ * entry is written as COPY of its base plus HSET/HDEL of the difference, in one MULTI/EXEC.
+ * This bean is vetoed and will be created via producer only when caching is enabled.
+ */
+@Vetoed
+@RedisCacheImpl
+public class ReactiveRedisCacheService implements ReactiveCacheService, FieldCacheService {
+
+    private static final Logger LOG = Logger.getLogger(ReactiveRedisCacheService.class);
+
+    private final ReactiveValueCommands<String, String> valueCommands;
+    // Raw value bytes; the String commands store the same bytes, UTF-8 encoded by the client codec
+    private final ReactiveValueCommands<String, byte[]> byteValueCommands;
+    private final ReactiveKeyCommands<String> keyCommands;
+    private final Redis redis;
+
+    // Optional breaker fed with the outcome and latency of every request-path call
+    private CacheCircuitBreaker circuitBreaker;
+
+    // SCAN COUNT hint and deletion rate cap used by clearAll()
+    private int scanCount = 1000;
+    private int maxKeysPerSecond = 50_000;
+
+    public ReactiveRedisCacheService(ReactiveRedisDataSource redisDataSource) {
+        this(redisDataSource.value(String.class), redisDataSource.value(byte[].class), redisDataSource.key(String.class),
+                redisDataSource.getRedis());
+    }
+
+    ReactiveRedisCacheService(ReactiveValueCommands<String, String> valueCommands,
+                              ReactiveValueCommands<String, byte[]> byteValueCommands,
+                              ReactiveKeyCommands<String> keyCommands, Redis redis) {
+        this.valueCommands = valueCommands;
+        this.byteValueCommands = byteValueCommands;
+        this.keyCommands = keyCommands;
+        this.redis = redis;
+    }
+
+    /**
+     * Tunes how aggressively clearAll() walks and deletes keys.
+     * @param scanCount COUNT hint passed to each SCAN call.
+     * @param maxKeysPerSecond Upper bound on deleted keys per second; 0 or negative disables the limit.
+     */
+    public void configureClearAll(int scanCount, int maxKeysPerSecond) {
+        this.scanCount = Math.max(1, scanCount);
+        this.maxKeysPerSecond = maxKeysPerSecond;
+    }
+
+    public void setCircuitBreaker(CacheCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Reports the outcome and latency of the call to the circuit breaker, if any.
+     * The clock starts at subscription, when the command is actually sent. A call cancelled before it
+     * answered counts as failed: that is how the request deadline ends a call to an unresponsive Redis.
+     */
+    private <T> Uni<T> recorded(Uni<T> call) {
+        CacheCircuitBreaker breaker = circuitBreaker;
+        if (breaker == null) {
+            return call;
+        }
+        return Uni.createFrom().deferred(() -> {
+            long start = System.nanoTime();
+            return call
+                    .invoke(ignored -> breaker.recordSuccess(start))
+                    .onFailure().invoke(e -> breaker.recordFailure())
+                    .onCancellation().invoke(breaker::recordFailure);
+        });
+    }
+
+    @Override
+    public Uni<String> get(String key) {
+        if (key == null) {
+            return Uni.createFrom().nullItem();
+        }
+        return recorded(valueCommands.get(key))
+                .onFailure().recoverWithItem(e -> {
+                    LOG.errorf("Error retrieving key '%s' from Redis cache: %s", key, e.getMessage());
+                    return null;
+                });
+    }
+
+    @Override
+    public Uni<Void> put(String key, String value, int ttlSeconds) {
+        if (key == null || value == null) {
+            return Uni.createFrom().voidItem();
+        }
+        Uni<Void> write = ttlSeconds > 0
+                ? valueCommands.setex(key, ttlSeconds, value)
+                : valueCommands.set(key, value);
+        return recorded(write).onFailure().recoverWithItem(e -> {
+            LOG.errorf("Error storing key '%s' in Redis cache: %s", key, e.getMessage());
+            return null;
+        });
+    }
+
+    /**
+     * Reads the stored bytes as they are, without decoding them into a String.
+     */
+    @Override
+    public Uni<byte[]> getBytes(String key) {
+        if (key == null) {
+            return Uni.createFrom().nullItem();
+        }
+        return recorded(byteValueCommands.get(key))
+                .onFailure().recoverWithItem(e -> {
+                    LOG.errorf("Error retrieving key '%s' from Redis cache: %s", key, e.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Stores the bytes as they are, without going through a String.
+     */
+    @Override
+    public Uni<Void> put(String key, byte[] value, int ttlSeconds) {
+        if (key == null || value == null) {
+            return Uni.createFrom().voidItem();
+        }
+        Uni<Void> write = ttlSeconds > 0
+                ? byteValueCommands.setex(key, ttlSeconds, value)
+                : byteValueCommands.set(key, value);
+        return recorded(write).onFailure().recoverWithItem(e -> {
+            LOG.errorf("Error storing key '%s' in Redis cache: %s", key, e.getMessage());
+            return null;
+        });
+    }
+
+    @Override
+    public Uni<Void> clear(String key) {
+        if (key == null) {
+            return Uni.createFrom().voidItem();
+        }
+        return recorded(keyCommands.del(key))
+                .replaceWithVoid()
+                .onFailure().recoverWithItem(e -> {
+                    LOG.errorf("Error clearing key '%s' from Redis cache: %s", key, e.getMessage());
+                    return null;
+                });
+    }
+
+    @Override
+    public Uni<String> getAndTouch(String key, int ttlSeconds) {
+        if (key == null) {
+            return Uni.createFrom().nullItem();
+        }
+        return recorded(valueCommands.getex(key, RedisCacheService.getExArgs(ttlSeconds)))
+                .onFailure().recoverWithItem(e -> {
+                    LOG.errorf("Error touching key '%s' in Redis cache: %s", key, e.getMessage());
+                    return null;
+                });
+    }
+
+    @Override
+    public Uni<String> getAndClear(String key) {
+        if (key == null) {
+            return Uni.createFrom().nullItem();
+        }
+        return recorded(valueCommands.getdel(key))
+                .onFailure().recoverWithItem(e -> {
+                    LOG.errorf("Error consuming key '%s' from Redis cache: %s", key, e.getMessage());
+                    return null;
+                });
+    }
+
+    @Override
+    public Uni<byte[]> getBytesAndTouch(String key, int ttlSeconds) {
+        if (key == null) {
+            return Uni.createFrom().nullItem();
+        }
+        return recorded(byteValueCommands.getex(key, RedisCacheService.getExArgs(ttlSeconds)))
+                .onFailure().recoverWithItem(e -> {
+                    LOG.errorf("Error touching key '%s' in Redis cache: %s", key, e.getMessage());
+                    return null;
+                });
+    }
+
+    @Override
+    public Uni<byte[]> getBytesAndClear(String key) {
+        if (key == null) {
+            return Uni.createFrom().nullItem();
+        }
+        return recorded(byteValueCommands.getdel(key))
+                .onFailure().recoverWithItem(e -> {
+                    LOG.errorf("Error consuming key '%s' from Redis cache: %s", key, e.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Removes every TF_CACHE_* key with SCAN and pipelined UNLINK batches at a bounded rate.
+     * Pauses between batches are timer-based, so no thread is held while throttling.
+     */
+    @Override
+    public Uni<Void> clearAll() {
+        String pattern = RedisCacheService.CACHE_KEY_PATTERN;
+        return clearMatching(pattern, RedisCacheService.progressLogger(pattern))
+                .invoke(removed -> LOG.infof("clearAll() removed %d keys matching '%s'", removed, pattern))
+                .replaceWithVoid()
+                .onFailure().recoverWithItem(e -> {
+                    LOG.errorf("Error clearing all data from Redis cache: %s", e.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Removes every key matching the glob pattern using SCAN and pipelined UNLINK batches.
+     * @param pattern The SCAN MATCH pattern.
+     * @param progressListener Receives the running total of removed keys after each batch.
+     * @return A Uni emitting the number of keys removed.
+     */
+    public Uni<Long> clearMatching(String pattern, LongConsumer progressListener) {
+        AtomicLong removed = new AtomicLong();
+        long startNanos = System.nanoTime();
+        return keyCommands.scan(new KeyScanArgs().match(pattern).count(scanCount)).toMulti()
+                .group().intoLists().of(scanCount)
+                .onItem().transformToUniAndConcatenate(keys -> redis.batch(RedisCacheService.unlinkRequests(keys)))
+                .onItem().transformToUniAndConcatenate(responses -> {
+                    long total = removed.addAndGet(responses.stream().mapToLong(Response::toLong).sum());
+                    progressListener.accept(total);
+                    long pauseNanos = RedisCacheService.pacingDelayNanos(total, startNanos, maxKeysPerSecond);
+                    return pauseNanos > 0
+                            ? Uni.createFrom().voidItem().onItem().delayIt().by(Duration.ofNanos(pauseNanos))
+                            : Uni.createFrom().voidItem();
+                })
+                .collect().last()
+                .map(ignored -> removed.get());
+    }
+
+    @Override
+    public Uni<Map<String, String>> getAll(Collection<String> keys) {
+        List<String> nonNullKeys = RedisCacheService.nonNullKeys(keys);
+        if (nonNullKeys.isEmpty()) {
+            return Uni.createFrom().item(new HashMap<>());
+        }
+        return Multi.createFrom().iterable(RedisCacheService.chunks(nonNullKeys))
+                .onItem().transformToUniAndConcatenate(chunk -> recorded(valueCommands.mget(chunk.toArray(new String[0]))))
+                .collect().in(HashMap<String, String>::new, (result, values) -> values.forEach((k, v) -> {
+                    if (v != null) {
+                        result.put(k, v);
+                    }
+                }))
+                .map(result -> (Map<String, String>) result)
+                .onFailure().recoverWithItem(e -> {
+                    LOG.errorf("Error retrieving %d keys from Redis cache: %s", nonNullKeys.size(), e.getMessage());
+                    return new HashMap<>();
+                });
+    }
+
+    @Override
+    public Uni<Void> putAll(Map<String, String> entries, int ttlSeconds) {
+        List<Request> requests = RedisCacheService.setRequests(entries, ttlSeconds);
+        if (requests.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        return Multi.createFrom().iterable(RedisCacheService.chunks(requests))
+                .onItem().transformToUniAndConcatenate(chunk -> recorded(redis.batch(chunk)))
+                .collect().last()
+                .replaceWithVoid()
+                .onFailure().recoverWithItem(e -> {
+                    LOG.errorf("Error storing %d keys in Redis cache: %s", requests.size(), e.getMessage());
+                    return null;
+                });
+    }
+
+    @Override
+    public Uni<Void> clearAll(Collection<String> keys) {
+        List<String> nonNullKeys = RedisCacheService.nonNullKeys(keys);
+        if (nonNullKeys.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        return Multi.createFrom().iterable(RedisCacheService.chunks(nonNullKeys))
+                .onItem().transformToUniAndConcatenate(chunk -> recorded(keyCommands.unlink(chunk.toArray(new String[0]))))
+                .collect().last()
+                .replaceWithVoid()
+                .onFailure().recoverWithItem(e -> {
+                    LOG.errorf("Error clearing %d keys from Redis cache: %s", nonNullKeys.size(), e.getMessage());
+                    return null;
+                });
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * Hash reads are not reported to the circuit breaker: a WRONGTYPE reply for an entry stored as a
+     * whole value is a normal miss here, not a backend failure. They are skipped while it is open.
+     */
+    @Override
+    public Uni<Map<String, String>> getFields(String key, Collection<String> fields) {
+        if (key == null || !allowsPrimary()) {
+            return Uni.createFrom().nullItem();
+        }
+        List<String> names = fields == null ? List.of() : RedisCacheService.nonNullKeys(fields);
+        Uni<Map<String, String>> read = names.isEmpty()
+                ? redis.send(Request.cmd(Command.HGETALL).arg(key)).map(ReactiveRedisCacheService::hashEntries)
+                : redis.send(hmgetRequest(key, names)).map(values -> projectedEntries(names, values));
+        return read
+                .map(values -> values.isEmpty() ? null : values)
+                .onFailure().recoverWithItem(e -> {
+                    LOG.debugf("Could not read fields of '%s' from Redis hash: %s", key, e.getMessage());
+                    return null;
+                });
+    }
+
+    @Override
+    public Uni<Void> putFields(String key, Map<String, String> fields, int ttlSeconds) {
+        if (!allowsPrimary()) {
+            return Uni.createFrom().failure(new IllegalStateException("Redis circuit breaker is open"));
+        }
+        return recorded(redis.batch(hashWriteRequests(key, null, fields, List.of(), ttlSeconds)))
+                .invoke(responses -> checkExec(key, responses))
+                .replaceWithVoid();
+    }
+
+    @Override
+    public Uni<Void> putFieldsDelta(String key, String baseKey, Map<String, String> changedFields,
+                                    Collection<String> removedFields, int ttlSeconds) {
+        if (!allowsPrimary()) {
+            return Uni.createFrom().failure(new IllegalStateException("Redis circuit breaker is open"));
+        }
+        return recorded(redis.batch(hashWriteRequests(key, baseKey, changedFields, removedFields, ttlSeconds)))
+                .invoke(responses -> {
+                    // EXEC reply: TYPE of the base first; anything but a hash (or "none") cannot be extended
+                    Response exec = checkExec(key, responses);
+                    String baseType = exec.get(0).toString();
+                    if (!"hash".equals(baseType)) {
+                        throw new IllegalStateException("Base entry '" + baseKey + "' is "
+                                + ("none".equals(baseType) ? "gone" : "stored as " + baseType));
+                    }
+                })
+                .replaceWithVoid();
+    }
+
+    /**
+     * Returns the EXEC reply of a hash write, failing if the transaction was aborted or any of its
+     * commands failed, e.g. with WRONGTYPE on a key holding a whole value. Redis does not roll back
+     * the other commands, but the caller then rewrites the whole entry.
+     */
+    static Response checkExec(String key, List<Response> responses) {
+        Response exec = responses.isEmpty() ? null : responses.get(responses.size() - 1);
+        if (exec == null || exec.type() != ResponseType.MULTI) {
+            throw new IllegalStateException("Transaction writing '" + key + "' was aborted");
+        }
+        for (int i = 0; i < exec.size(); i++) {
+            Response reply = exec.get(i);
+            if (reply != null && reply.type() == ResponseType.ERROR) {
+                throw new IllegalStateException("Writing '" + key + "' failed: " + reply);
+            }
+        }
+        return exec;
+    }
+
+    private boolean allowsPrimary() {
+        return circuitBreaker == null || circuitBreaker.allowsPrimary();
+    }
+
+    /**
+     * Builds the MULTI/EXEC pipeline writing a hash entry: TYPE and COPY of the base (when given),
+     * HSET of the fields, HDEL of the removed fields and EXPIRE. Without a base the key is deleted
+     * first, so a full write replaces any earlier entry, hash or whole value.
+     * A base equal to the key is updated in place and not copied.
+     */
+    static List<Request> hashWriteRequests(String key, String baseKey, Map<String, String> fields,
+                                           Collection<String> removedFields, int ttlSeconds) {
+        List<Request> requests = new ArrayList<>();
+        requests.add(Request.cmd(Command.MULTI));
+        if (baseKey == null) {
+            requests.add(Request.cmd(Command.DEL).arg(key));
+        } else {
+            requests.add(Request.cmd(Command.TYPE).arg(baseKey));
+            if (!baseKey.equals(key)) {
+                requests.add(Request.cmd(Command.COPY).arg(baseKey).arg(key).arg("REPLACE"));
+            }
+        }
+        if (!fields.isEmpty()) {
+            Request hset = Request.cmd(Command.HSET).arg(key);
+            fields.forEach((name, value) -> hset.arg(name).arg(value));
+            requests.add(hset);
+        }
+        if (!removedFields.isEmpty()) {
+            Request hdel = Request.cmd(Command.HDEL).arg(key);
+            removedFields.forEach(hdel::arg);
+            requests.add(hdel);
+        }
+        if (ttlSeconds > 0) {
+            requests.add(Request.cmd(Command.EXPIRE).arg(key).arg(ttlSeconds));
+        } else if (baseKey != null) {
+            requests.add(Request.cmd(Command.PERSIST).arg(key));
+        }
+        requests.add(Request.cmd(Command.EXEC));
+        return requests;
+    }
+
+    private static Request hmgetRequest(String key, List<String> fields) {
+        Request request = Request.cmd(Command.HMGET).arg(key);
+        fields.forEach(request::arg);
+        return request;
+    }
+
+    private static Map<String, String> hashEntries(Response response) {
+        Map<String, String> entries = new HashMap<>();
+        if (response == null) {
+            return entries;
+        }
+        // RESP2 replies with a flat name/value array, RESP3 with a map
+        if (response.type() == ResponseType.MULTI && !response.getKeys().isEmpty()) {
+            for (String name : response.getKeys()) {
+                entries.put(name, response.get(name).toString());
+            }
+        } else {
+            for (int i = 0; i + 1 < response.size(); i += 2) {
+                entries.put(response.get(i).toString(), response.get(i + 1).toString());
+            }
+        }
+        return entries;
+    }
+
+    private static Map<String, String> projectedEntries(List<String> fields, Response values) {
+        Map<String, String> entries = new HashMap<>();
+        if (values == null) {
+            return entries;
+        }
+        for (int i = 0; i < fields.size() && i < values.size(); i++) {
+            Response value = values.get(i);
+            if (value != null) {
+                entries.put(fields.get(i), value.toString());
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,270 @@
+package org.acme.cache;
+
+import org.jboss.logging.Logger;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Outermost decorator serving {@link CacheService#get(String, Function, int)}: concurrent misses of a key
+ * share one load, and with refresh-ahead a hit on an entry close to expiry reloads it in the background
+ * while the caller gets the current value, so popular entries never expire under their readers.
+ * <p>
+ * Refresh-ahead needs each entry's expiry, which the cache interface does not expose, so it only applies
+ * to entries written through this decorator; their expiries are kept in a bounded on-heap table.
+ * A refresh that fails leaves the entry to expire and the next miss loads it synchronously.
+ */
+public class ReadThroughCacheService implements CacheService, AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(ReadThroughCacheService.class);
+
+    // Refreshes waiting for a thread; beyond this, hits skip the refresh and the entry may expire
+    static final int REFRESH_QUEUE_CAPACITY = 1024;
+
+    /**
+     * Expiry of an entry this decorator wrote, with the loader and TTL to refresh it with.
+     */
+    private static final class Tracked {
+        final long expiresAtMs;
+        final int ttlSeconds;
+        final Function<String, String> loader;
+
+        Tracked(long expiresAtMs, int ttlSeconds, Function<String, String> loader) {
+            this.expiresAtMs = expiresAtMs;
+            this.ttlSeconds = ttlSeconds;
+            this.loader = loader;
+        }
+    }
+
+    private final CacheService delegate;
+    private final long refreshAheadMs;
+    private final int maxTrackedKeys;
+    private final Executor refreshExecutor;
+    private final LongSupplier clock;
+    // Separate from the read coalescing below, whose in-flight table a load re-enters for the same key
+    private final SingleFlight<String> loads = new SingleFlight<>();
+    private final Map<String, Tracked> tracked = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param refreshAheadSeconds Remaining lifetime below which a hit triggers a background reload;
+     *                            0 disables refresh-ahead.
+     * @param refreshThreads Threads running background reloads.
+     * @param maxTrackedKeys Entries whose expiry is tracked for refresh-ahead.
+     */
+    public ReadThroughCacheService(CacheService delegate, int refreshAheadSeconds, int refreshThreads, int maxTrackedKeys) {
+        this(delegate, refreshAheadSeconds, maxTrackedKeys, refreshAheadSeconds > 0 ? refreshExecutor(refreshThreads) : null,
+                System::currentTimeMillis);
+    }
+
+    ReadThroughCacheService(CacheService delegate, int refreshAheadSeconds, int maxTrackedKeys, Executor refreshExecutor,
+                            LongSupplier clock) {
+        this.delegate = delegate;
+        this.refreshAheadMs = refreshExecutor != null ? TimeUnit.SECONDS.toMillis(Math.max(0, refreshAheadSeconds)) : 0;
+        this.maxTrackedKeys = maxTrackedKeys;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+    }
+
+    @Override
+    public String get(String key, Function<String, String> loader, int ttlSeconds) {
+        String value = delegate.get(key);
+        if (value != null) {
+            refreshIfExpiring(key);
+            return value;
+        }
+        tracked.remove(key);
+        return loads.execute(key, () -> load(key, loader, ttlSeconds));
+    }
+
+    @Override
+    public String get(String key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public void put(String key, String value, int ttlSeconds) {
+        delegate.put(key, value, ttlSeconds);
+        retrack(key, ttlSeconds);
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        return delegate.getBytes(key);
+    }
+
+    @Override
+    public void put(String key, byte[] value, int ttlSeconds) {
+        delegate.put(key, value, ttlSeconds);
+        retrack(key, ttlSeconds);
+    }
+
+    @Override
+    public String getAndTouch(String key, int ttlSeconds) {
+        String value = delegate.getAndTouch(key, ttlSeconds);
+        if (value != null) {
+            retrack(key, ttlSeconds);
+        }
+        return value;
+    }
+
+    @Override
+    public String getAndClear(String key) {
+        tracked.remove(key);
+        return delegate.getAndClear(key);
+    }
+
+    @Override
+    public byte[] getBytesAndTouch(String key, int ttlSeconds) {
+        byte[] value = delegate.getBytesAndTouch(key, ttlSeconds);
+        if (value != null) {
+            retrack(key, ttlSeconds);
+        }
+        return value;
+    }
+
+    @Override
+    public byte[] getBytesAndClear(String key) {
+        tracked.remove(key);
+        return delegate.getBytesAndClear(key);
+    }
+
+    @Override
+    public void clear(String key) {
+        tracked.remove(key);
+        delegate.clear(key);
+    }
+
+    @Override
+    public void clearAll() {
+        tracked.clear();
+        delegate.clearAll();
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        return delegate.getAll(keys);
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, int ttlSeconds) {
+        delegate.putAll(entries, ttlSeconds);
+        entries.keySet().forEach(key -> retrack(key, ttlSeconds));
+    }
+
+    @Override
+    public void putAllBytes(Map<String, byte[]> entries, int ttlSeconds) {
+        delegate.putAllBytes(entries, ttlSeconds);
+        entries.keySet().forEach(key -> retrack(key, ttlSeconds));
+    }
+
+    @Override
+    public void clearAll(Collection<String> keys) {
+        keys.forEach(tracked::remove);
+        delegate.clearAll(keys);
+    }
+
+    /**
+     * Entries whose expiry is tracked for refresh-ahead.
+     */
+    public int trackedKeyCount() {
+        return tracked.size();
+    }
+
+    /**
+     * Stops the refresh threads; refreshes in progress are interrupted.
+     */
+    @Override
+    public void close() {
+        if (refreshExecutor instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private String load(String key, Function<String, String> loader, int ttlSeconds) {
+        String value = loader.apply(key);
+        if (value != null) {
+            delegate.put(key, value, ttlSeconds);
+            track(key, ttlSeconds, loader);
+        }
+        return value;
+    }
+
+    private void refreshIfExpiring(String key) {
+        Tracked entry = tracked.get(key);
+        if (entry == null || refreshAheadMs == 0) {
+            return;
+        }
+        // Capped at half the TTL so short-lived entries are not reloaded on every hit
+        long window = Math.min(refreshAheadMs, TimeUnit.SECONDS.toMillis(entry.ttlSeconds) / 2);
+        long now = clock.getAsLong();
+        if (now < entry.expiresAtMs - window || now >= entry.expiresAtMs || !refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    // Misses of the key during the reload wait for it instead of loading again
+                    loads.execute(key, () -> load(key, entry.loader, entry.ttlSeconds));
+                } catch (RuntimeException e) {
+                    LOG.warnf("Refresh-ahead of key '%s' failed, the entry will expire: %s", key, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    private void track(String key, int ttlSeconds, Function<String, String> loader) {
+        if (refreshAheadMs == 0 || ttlSeconds <= 0) {
+            return;
+        }
+        long now = clock.getAsLong();
+        if (tracked.size() >= maxTrackedKeys && !tracked.containsKey(key)) {
+            tracked.values().removeIf(entry -> entry.expiresAtMs <= now);
+            if (tracked.size() >= maxTrackedKeys) {
+                return;
+            }
+        }
+        tracked.put(key, new Tracked(now + TimeUnit.SECONDS.toMillis(ttlSeconds), ttlSeconds, loader));
+    }
+
+    /**
+     * Follows a write of a tracked key from outside the loader, which restarts its lifetime.
+     */
+    private void retrack(String key, int ttlSeconds) {
+        Tracked entry = tracked.get(key);
+        if (entry == null) {
+            return;
+        }
+        if (ttlSeconds <= 0) {
+            tracked.remove(key);
+        } else {
+            track(key, ttlSeconds, entry.loader);
+        }
+    }
+
+    private static ExecutorService refreshExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        int poolSize = Math.max(1, threads);
+        return new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY), r -> {
+                    Thread t = new Thread(r, "cache-refresh-ahead-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+}
@@ -0,0 +1,213 @@
+package org.acme.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.acme.config.CachingConfiguration;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rotating, time-partitioned Bloom filter of the cache keys this node wrote or served recently, so hydration
+ * can skip the backend for keys that cannot be in the cache anymore.
+ * <p>
+ * Keys go into the current generation; a lookup checks every generation. Generations are as long as the
+ * longest entry lifetime divided by one less than their number, so the oldest one is only dropped once
+ * every key in it has expired. A definite miss is only trusted for compact keys created by this node, and
+ * only once the filter has been running for a full entry lifetime, since entries written before startup
+ * (persistence, Redis) are not in it. Writers other than this node cannot be seen, so the filter is off for
+ * the host-shared cache.
+ */
+@ApplicationScoped
+public class RecentKeyFilter {
+
+    private static final Logger LOG = Logger.getLogger(RecentKeyFilter.class);
+
+    /**
+     * Bloom filter over a lock-free bit array.
+     */
+    static final class BloomFilter {
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+
+        BloomFilter(long expectedKeys, double falsePositiveRate) {
+            double ln2 = Math.log(2);
+            long optimalBits = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (ln2 * ln2));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+            this.words = new AtomicLongArray(wordCount);
+            this.bits = wordCount * 64L;
+            this.hashes = (int) Math.max(1, Math.round((double) bits / expectedKeys * ln2));
+        }
+
+        void add(long hash1, long hash2) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(hash1 + i * hash2, bits);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                if ((words.get(word) & mask) == 0) {
+                    words.getAndUpdate(word, current -> current | mask);
+                }
+            }
+        }
+
+        boolean mightContain(long hash1, long hash2) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(hash1 + i * hash2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void clear() {
+            for (int i = 0; i < words.length(); i++) {
+                words.set(i, 0);
+            }
+        }
+
+        int hashCount() {
+            return hashes;
+        }
+    }
+
+    @Inject
+    CachingConfiguration cachingConfiguration;
+
+    @Inject
+    CacheKeyGenerator keyGenerator;
+
+    // Null when disabled; generations[epoch % length] holds the keys of that epoch
+    private BloomFilter[] generations;
+    private long generationMs;
+    private long startedAtMs;
+    private volatile long currentEpoch;
+    private final LongAdder skippedLookups = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        init(System.currentTimeMillis());
+    }
+
+    void init(long nowMs) {
+        if (!cachingConfiguration.isNegativeLookupEnabled()) {
+            return;
+        }
+        int ttlSeconds = cachingConfiguration.getTablefacilityTtlSeconds();
+        if (ttlSeconds <= 0 || cachingConfiguration.isSharedMemoryCache()) {
+            LOG.warn("Negative lookup filter disabled: needs expiring entries and a cache written only by this node");
+            return;
+        }
+        int count = cachingConfiguration.getNegativeLookupGenerations();
+        // Jitter can stretch an entry's lifetime beyond the configured TTL
+        long lifetimeMs = (long) Math.ceil(TimeUnit.SECONDS.toMillis(ttlSeconds) * (1 + cachingConfiguration.getTtlJitter()));
+        generationMs = Math.max(1, (lifetimeMs + count - 2) / (count - 1));
+        generations = new BloomFilter[count];
+        for (int i = 0; i < count; i++) {
+            generations[i] = new BloomFilter(cachingConfiguration.getNegativeLookupExpectedKeys(),
+                    cachingConfiguration.getNegativeLookupFalsePositiveRate());
+        }
+        startedAtMs = nowMs;
+        currentEpoch = nowMs / generationMs;
+        LOG.infof("Negative lookup filter: %d generations of %d ms, %d hashes", count, generationMs,
+                generations[0].hashCount());
+    }
+
+    public boolean isEnabled() {
+        return generations != null;
+    }
+
+    /**
+     * Records a key that was written, touched or read, keeping it known for another entry lifetime.
+     */
+    public void recordKey(String key) {
+        recordKey(key, System.currentTimeMillis());
+    }
+
+    void recordKey(String key, long nowMs) {
+        if (generations == null || key == null) {
+            return;
+        }
+        long hash = hash(key);
+        current(nowMs).add(hash, secondHash(hash));
+    }
+
+    /**
+     * Whether the key certainly has no cache entry, so the backend need not be asked.
+     * False whenever the filter cannot be sure.
+     */
+    public boolean isDefinitelyAbsent(String key) {
+        return isDefinitelyAbsent(key, System.currentTimeMillis());
+    }
+
+    boolean isDefinitelyAbsent(String key, long nowMs) {
+        if (generations == null || key == null || nowMs - startedAtMs < generationMs * (generations.length - 1)
+                || !keyGenerator.isLocal(key)) {
+            return false;
+        }
+        current(nowMs);
+        long hash1 = hash(key);
+        long hash2 = secondHash(hash1);
+        for (BloomFilter generation : generations) {
+            if (generation.mightContain(hash1, hash2)) {
+                return false;
+            }
+        }
+        skippedLookups.increment();
+        return true;
+    }
+
+    /**
+     * Lookups answered as definite misses.
+     */
+    public long skippedLookupCount() {
+        return skippedLookups.sum();
+    }
+
+    /**
+     * The generation of the current epoch, clearing the generations whose epoch has passed.
+     */
+    private BloomFilter current(long nowMs) {
+        long epoch = nowMs / generationMs;
+        if (epoch > currentEpoch) {
+            synchronized (this) {
+                long previous = currentEpoch;
+                if (epoch > previous) {
+                    // Every slot between the previous and the new epoch now belongs to a newer epoch
+                    for (long e = previous + 1; e <= Math.min(epoch, previous + generations.length); e++) {
+                        generations[(int) (e % generations.length)].clear();
+                    }
+                    currentEpoch = epoch;
+                }
+            }
+        }
+        return generations[(int) (epoch % generations.length)];
+    }
+
+    // FNV-1a over the chars, finished with the MurmurHash3 64-bit mixer
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long secondHash(long hash) {
+        return mix(hash ^ 0x9e3779b97f4a7c15L) | 1;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
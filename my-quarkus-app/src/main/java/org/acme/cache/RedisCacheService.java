@@ -1,26 +1,66 @@
 package org.acme.cache;
 
 import io.quarkus.redis.datasource.RedisDataSource;
+import io.quarkus.redis.datasource.value.GetExArgs;
 import io.quarkus.redis.datasource.value.ValueCommands;
 import io.quarkus.redis.datasource.keys.KeyCommands;
+import io.quarkus.redis.datasource.keys.KeyScanArgs;
+import io.quarkus.redis.datasource.keys.KeyScanCursor;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.inject.Vetoed;
+import io.vertx.mutiny.redis.client.Command;
+import io.vertx.mutiny.redis.client.Request;
+import io.vertx.mutiny.redis.client.Response;
 import jakarta.inject.Inject;
 import org.acme.cache.qualifiers.RedisCacheImpl;
+import org.acme.constants.CacheConstants;
 import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
 /**
  * Redis cache implementation using Quarkus Redis client.
  * This bean is vetoed and will be created via producer only when caching is enabled.
  */
 @Vetoed
 @RedisCacheImpl
-public class RedisCacheService implements CacheService {
+public class RedisCacheService implements CacheService, CacheInspector {
 
     private static final Logger LOG = Logger.getLogger(RedisCacheService.class);
 
+    /**
+     * Upper bound of keys sent in one MGET/UNLINK command or one pipelined batch,
+     * so a huge bulk call does not monopolize the connection.
+     */
+    static final int BATCH_SIZE = 500;
+
+    /**
+     * Pattern of the keys owned by this application, used to scope clearAll().
+     */
+    static final String CACHE_KEY_PATTERN = CacheConstants.CACHE_KEY_PREFIX + "*";
+
+    /**
+     * clearAll() logs its progress every time this many more keys have been removed.
+     */
+    static final long PROGRESS_LOG_INTERVAL = 10_000;
+
     private RedisDataSource redisDataSource;
 
+    // Optional breaker fed with the outcome and latency of every request-path call
+    private CacheCircuitBreaker circuitBreaker;
+
+    // SCAN COUNT hint and deletion rate cap used by clearAll()
+    private int scanCount = 1000;
+    private int maxKeysPerSecond = 50_000;
+
     // Default constructor for CDI (when not vetoed)
     public RedisCacheService() {
     }
@@ -47,10 +87,55 @@ public class RedisCacheService implements CacheService {
         }
     }
 
+    /**
+     * Tunes how aggressively clearAll() walks and deletes keys.
+     * @param scanCount COUNT hint passed to each SCAN call.
+     * @param maxKeysPerSecond Upper bound on deleted keys per second; 0 or negative disables the limit.
+     */
+    public void configureClearAll(int scanCount, int maxKeysPerSecond) {
+        this.scanCount = Math.max(1, scanCount);
+        this.maxKeysPerSecond = maxKeysPerSecond;
+    }
+
+    public void setCircuitBreaker(CacheCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Lightweight health check that reports failures instead of swallowing them.
+     * @return true if Redis answered.
+     */
+    public boolean ping() {
+        try {
+            getKeyCommands().exists("__health_check__");
+            return true;
+        } catch (Exception e) {
+            LOG.debugf("Redis ping failed: %s", e.getMessage());
+            return false;
+        }
+    }
+
+    private void recordSuccess(long startNanos) {
+        if (circuitBreaker != null) {
+            circuitBreaker.recordSuccess(startNanos);
+        }
+    }
+
+    private void recordFailure() {
+        if (circuitBreaker != null) {
+            circuitBreaker.recordFailure();
+        }
+    }
+
     private ValueCommands<String, String> getValueCommands() {
         return redisDataSource.value(String.class);
     }
 
+    // Raw value bytes; the String commands store the same bytes, UTF-8 encoded by the client codec
+    private ValueCommands<String, byte[]> getByteValueCommands() {
+        return redisDataSource.value(byte[].class);
+    }
+
     private KeyCommands<String> getKeyCommands() {
         return redisDataSource.key(String.class);
     }
@@ -60,9 +145,13 @@ public class RedisCacheService implements CacheService {
         if (key == null) {
             return null;
         }
+        long start = System.nanoTime();
         try {
-            return getValueCommands().get(key);
+            String value = getValueCommands().get(key);
+            recordSuccess(start);
+            return value;
         } catch (Exception e) {
+            recordFailure();
             LOG.errorf("Error retrieving key '%s' from Redis cache: %s", key, e.getMessage());
             return null;
         }
@@ -73,6 +162,7 @@ public class RedisCacheService implements CacheService {
         if (key == null || value == null) {
             return;
         }
+        long start = System.nanoTime();
         try {
             ValueCommands<String, String> commands = getValueCommands();
             if (ttlSeconds > 0) {
@@ -80,7 +170,52 @@ public class RedisCacheService implements CacheService {
             } else {
                 commands.set(key, value);
             }
+            recordSuccess(start);
+        } catch (Exception e) {
+            recordFailure();
+            LOG.errorf("Error storing key '%s' in Redis cache: %s", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the stored bytes as they are, without decoding them into a String.
+     */
+    @Override
+    public byte[] getBytes(String key) {
+        if (key == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            byte[] value = getByteValueCommands().get(key);
+            recordSuccess(start);
+            return value;
+        } catch (Exception e) {
+            recordFailure();
+            LOG.errorf("Error retrieving key '%s' from Redis cache: %s", key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stores the bytes as they are, without going through a String.
+     */
+    @Override
+    public void put(String key, byte[] value, int ttlSeconds) {
+        if (key == null || value == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            ValueCommands<String, byte[]> commands = getByteValueCommands();
+            if (ttlSeconds > 0) {
+                commands.setex(key, ttlSeconds, value);
+            } else {
+                commands.set(key, value);
+            }
+            recordSuccess(start);
         } catch (Exception e) {
+            recordFailure();
             LOG.errorf("Error storing key '%s' in Redis cache: %s", key, e.getMessage());
         }
     }
@@ -90,21 +225,355 @@ public class RedisCacheService implements CacheService {
         if (key == null) {
             return;
         }
+        long start = System.nanoTime();
         try {
             getKeyCommands().del(key);
+            recordSuccess(start);
         } catch (Exception e) {
+            recordFailure();
             LOG.errorf("Error clearing key '%s' from Redis cache: %s", key, e.getMessage());
         }
     }
 
+    /**
+     * Reads the value and restarts its TTL in one GETEX round trip.
+     */
+    @Override
+    public String getAndTouch(String key, int ttlSeconds) {
+        if (key == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            String value = getValueCommands().getex(key, getExArgs(ttlSeconds));
+            recordSuccess(start);
+            return value;
+        } catch (Exception e) {
+            recordFailure();
+            LOG.errorf("Error touching key '%s' in Redis cache: %s", key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads and deletes the value atomically with GETDEL, so concurrent callers cannot both consume it.
+     */
+    @Override
+    public String getAndClear(String key) {
+        if (key == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            String value = getValueCommands().getdel(key);
+            recordSuccess(start);
+            return value;
+        } catch (Exception e) {
+            recordFailure();
+            LOG.errorf("Error consuming key '%s' from Redis cache: %s", key, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public byte[] getBytesAndTouch(String key, int ttlSeconds) {
+        if (key == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            byte[] value = getByteValueCommands().getex(key, getExArgs(ttlSeconds));
+            recordSuccess(start);
+            return value;
+        } catch (Exception e) {
+            recordFailure();
+            LOG.errorf("Error touching key '%s' in Redis cache: %s", key, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public byte[] getBytesAndClear(String key) {
+        if (key == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            byte[] value = getByteValueCommands().getdel(key);
+            recordSuccess(start);
+            return value;
+        } catch (Exception e) {
+            recordFailure();
+            LOG.errorf("Error consuming key '%s' from Redis cache: %s", key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * GETEX arguments setting the TTL, or removing it when the TTL is indefinite.
+     */
+    static GetExArgs getExArgs(int ttlSeconds) {
+        return ttlSeconds > 0 ? new GetExArgs().ex(ttlSeconds) : new GetExArgs().persist();
+    }
+
+    /**
+     * Removes every TF_CACHE_* key. Keys are walked incrementally with SCAN and removed with
+     * pipelined UNLINK batches at a bounded rate, so Redis is never blocked the way KEYS or FLUSHDB
+     * would block it. Blocks the calling thread until done; progress is logged along the way.
+     */
     @Override
     public void clearAll() {
         try {
-            // For now, we'll implement a simple approach
-            // In a real implementation, you might want to use a different strategy
-            LOG.warn("clearAll() not fully implemented for Redis - consider using a different approach");
+            long removed = clearMatching(CACHE_KEY_PATTERN, progressLogger(CACHE_KEY_PATTERN));
+            LOG.infof("clearAll() removed %d keys matching '%s'", removed, CACHE_KEY_PATTERN);
         } catch (Exception e) {
             LOG.errorf("Error clearing all data from Redis cache: %s", e.getMessage());
         }
     }
+
+    /**
+     * Removes every key matching the glob pattern using SCAN and pipelined UNLINK batches.
+     * @param pattern The SCAN MATCH pattern.
+     * @param progressListener Receives the running total of removed keys after each batch.
+     * @return The number of keys removed.
+     */
+    public long clearMatching(String pattern, LongConsumer progressListener) {
+        KeyScanCursor<String> cursor = getKeyCommands().scan(new KeyScanArgs().match(pattern).count(scanCount));
+        long removed = 0;
+        long startNanos = System.nanoTime();
+        while (cursor.hasNext()) {
+            Set<String> keys = cursor.next();
+            if (keys.isEmpty()) {
+                continue;
+            }
+            for (Response response : redisDataSource.getReactive().getRedis().batchAndAwait(unlinkRequests(keys))) {
+                removed += response.toLong();
+            }
+            progressListener.accept(removed);
+
+            long pauseNanos = pacingDelayNanos(removed, startNanos, maxKeysPerSecond);
+            if (pauseNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(pauseNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    LOG.warnf("Clearing keys matching '%s' interrupted after %d keys", pattern, removed);
+                    break;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * One SCAN call over TF_CACHE_* keys, followed by a pipelined MEMORY USAGE and PTTL per key,
+     * so values never leave Redis. Redis does not track creation time: age is only known for keys of
+     * the legacy format, which embed it.
+     */
+    @Override
+    public Page scan(String cursor, int count) {
+        Response reply = redisDataSource.execute(Command.SCAN, cursor, "MATCH", CACHE_KEY_PATTERN,
+                "COUNT", Integer.toString(Math.max(1, count)));
+        List<String> keys = new ArrayList<>();
+        reply.get(1).forEach(key -> keys.add(key.toString()));
+        List<CacheEntryInfo> entries = new ArrayList<>(keys.size());
+        if (!keys.isEmpty()) {
+            List<Request> requests = new ArrayList<>(keys.size() * 2);
+            for (String key : keys) {
+                // SAMPLES 0 measures the whole value instead of extrapolating from a sample
+                requests.add(Request.cmd(Command.MEMORY).arg("USAGE").arg(key).arg("SAMPLES").arg(0));
+                requests.add(Request.cmd(Command.PTTL).arg(key));
+            }
+            List<Response> replies = redisDataSource.getReactive().getRedis().batchAndAwait(requests);
+            long nowMs = System.currentTimeMillis();
+            for (int i = 0; i < keys.size(); i++) {
+                Response usage = replies.get(2 * i);
+                Response pttl = replies.get(2 * i + 1);
+                if (usage == null || pttl == null || pttl.toLong() == -2) {
+                    // Removed since the SCAN
+                    continue;
+                }
+                long ttlMs = pttl.toLong();
+                Long createdAtMs = CacheKeyGenerator.legacyCreatedAtMillis(keys.get(i));
+                entries.add(new CacheEntryInfo(keys.get(i), usage.toLong(),
+                        ttlMs < 0 ? CacheEntryInfo.NO_TTL : TimeUnit.MILLISECONDS.toSeconds(ttlMs + 999),
+                        createdAtMs != null ? TimeUnit.MILLISECONDS.toSeconds(nowMs - createdAtMs) : null));
+            }
+        }
+        return new Page(reply.get(0).toString(), entries);
+    }
+
+    /**
+     * Builds one multi-key UNLINK per chunk of keys, for pipelining.
+     */
+    static List<Request> unlinkRequests(Collection<String> keys) {
+        List<Request> requests = new ArrayList<>();
+        for (List<String> chunk : chunks(new ArrayList<>(keys))) {
+            Request request = Request.cmd(Command.UNLINK);
+            chunk.forEach(request::arg);
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    /**
+     * How long to pause so that {@code removed} keys since {@code startNanos} stay within the rate cap.
+     */
+    static long pacingDelayNanos(long removed, long startNanos, int maxKeysPerSecond) {
+        if (maxKeysPerSecond <= 0) {
+            return 0;
+        }
+        long targetElapsedNanos = removed * TimeUnit.SECONDS.toNanos(1) / maxKeysPerSecond;
+        return targetElapsedNanos - (System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Progress listener logging every {@link #PROGRESS_LOG_INTERVAL} removed keys.
+     */
+    static LongConsumer progressLogger(String pattern) {
+        long[] nextLogAt = {PROGRESS_LOG_INTERVAL};
+        return removed -> {
+            if (removed >= nextLogAt[0]) {
+                LOG.infof("Clearing keys matching '%s': %d removed so far", pattern, removed);
+                nextLogAt[0] = (removed / PROGRESS_LOG_INTERVAL + 1) * PROGRESS_LOG_INTERVAL;
+            }
+        };
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> result = new HashMap<>();
+        List<String> nonNullKeys = nonNullKeys(keys);
+        if (nonNullKeys.isEmpty()) {
+            return result;
+        }
+        try {
+            for (List<String> chunk : chunks(nonNullKeys)) {
+                long start = System.nanoTime();
+                // One MGET round trip per chunk instead of one GET per key
+                getValueCommands().mget(chunk.toArray(new String[0])).forEach((k, v) -> {
+                    if (v != null) {
+                        result.put(k, v);
+                    }
+                });
+                recordSuccess(start);
+            }
+        } catch (Exception e) {
+            recordFailure();
+            LOG.errorf("Error retrieving %d keys from Redis cache: %s", nonNullKeys.size(), e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, int ttlSeconds) {
+        List<Request> requests = setRequests(entries, ttlSeconds);
+        if (requests.isEmpty()) {
+            return;
+        }
+        try {
+            // Pipelined: all SETEX commands of a chunk are written before any reply is awaited
+            for (List<Request> chunk : chunks(requests)) {
+                long start = System.nanoTime();
+                redisDataSource.getReactive().getRedis().batchAndAwait(chunk);
+                recordSuccess(start);
+            }
+        } catch (Exception e) {
+            recordFailure();
+            LOG.errorf("Error storing %d keys in Redis cache: %s", requests.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Pipelined like {@link #putAll(Map, int)}, with the bytes stored as they are.
+     */
+    @Override
+    public void putAllBytes(Map<String, byte[]> entries, int ttlSeconds) {
+        List<Request> requests = byteSetRequests(entries, ttlSeconds);
+        if (requests.isEmpty()) {
+            return;
+        }
+        try {
+            for (List<Request> chunk : chunks(requests)) {
+                long start = System.nanoTime();
+                redisDataSource.getReactive().getRedis().batchAndAwait(chunk);
+                recordSuccess(start);
+            }
+        } catch (Exception e) {
+            recordFailure();
+            LOG.errorf("Error storing %d keys in Redis cache: %s", requests.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void clearAll(Collection<String> keys) {
+        List<String> nonNullKeys = nonNullKeys(keys);
+        if (nonNullKeys.isEmpty()) {
+            return;
+        }
+        try {
+            for (List<String> chunk : chunks(nonNullKeys)) {
+                long start = System.nanoTime();
+                // UNLINK reclaims memory in a background thread on the Redis side
+                getKeyCommands().unlink(chunk.toArray(new String[0]));
+                recordSuccess(start);
+            }
+        } catch (Exception e) {
+            recordFailure();
+            LOG.errorf("Error clearing %d keys from Redis cache: %s", nonNullKeys.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Builds one SETEX (or SET when the TTL is indefinite) request per entry, for pipelining.
+     */
+    static List<Request> setRequests(Map<String, String> entries, int ttlSeconds) {
+        List<Request> requests = new ArrayList<>();
+        if (entries == null) {
+            return requests;
+        }
+        for (Map.Entry<String, String> e : entries.entrySet()) {
+            if (e.getKey() == null || e.getValue() == null) {
+                continue;
+            }
+            requests.add(ttlSeconds > 0
+                    ? Request.cmd(Command.SETEX).arg(e.getKey()).arg(ttlSeconds).arg(e.getValue())
+                    : Request.cmd(Command.SET).arg(e.getKey()).arg(e.getValue()));
+        }
+        return requests;
+    }
+
+    /**
+     * Byte variant of {@link #setRequests(Map, int)}.
+     */
+    static List<Request> byteSetRequests(Map<String, byte[]> entries, int ttlSeconds) {
+        List<Request> requests = new ArrayList<>();
+        if (entries == null) {
+            return requests;
+        }
+        for (Map.Entry<String, byte[]> e : entries.entrySet()) {
+            if (e.getKey() == null || e.getValue() == null) {
+                continue;
+            }
+            requests.add(ttlSeconds > 0
+                    ? Request.cmd(Command.SETEX).arg(e.getKey()).arg(ttlSeconds).arg(e.getValue())
+                    : Request.cmd(Command.SET).arg(e.getKey()).arg(e.getValue()));
+        }
+        return requests;
+    }
+
+    static List<String> nonNullKeys(Collection<String> keys) {
+        if (keys == null) {
+            return List.of();
+        }
+        return keys.stream().filter(Objects::nonNull).distinct().toList();
+    }
+
+    static <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += BATCH_SIZE) {
+            chunks.add(items.subList(i, Math.min(i + BATCH_SIZE, items.size())));
+        }
+        return chunks;
+    }
 }
@@ -2,6 +2,7 @@ package org.acme.cache;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.acme.CiclopsResponse;
@@ -9,7 +10,10 @@ import org.acme.config.CachingConfiguration;
 import org.acme.constants.CacheConstants;
 import org.jboss.logging.Logger;
 
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
@@ -24,7 +28,7 @@ public class ResponseCacheService {
     private static final Logger LOG = Logger.getLogger(ResponseCacheService.class);
 
     @Inject
-    CacheService cacheService;
+    ReactiveCacheService cacheService;
 
     @Inject
     ObjectMapper objectMapper;
@@ -32,9 +36,57 @@ public class ResponseCacheService {
     @Inject
     CachingConfiguration cachingConfiguration;
 
+    @Inject
+    WriteBehindCacheWriter writeBehind;
+
+    @Inject
+    FieldCacheService fieldCacheService;
+
+    @Inject
+    CacheKeyGenerator keyGenerator;
+
+    @Inject
+    AdaptiveTtlPolicy ttlPolicy;
+
+    @Inject
+    RecentKeyFilter recentKeys;
+
+    /**
+     * Caches the tablefacility fields of the response and replaces them with a cache key.
+     * Blocking convenience over {@link #processResponseAsync(CiclopsResponse, String)} for synchronous callers;
+     * it waits at most the configured request timeout.
+     */
     public CiclopsResponse processResponse(CiclopsResponse response, String trxId) {
+        return processResponseAsync(response, trxId).await().indefinitely();
+    }
+
+    /**
+     * Like {@link #processResponse(CiclopsResponse, String)}, with the request fields before and after
+     * hydration so field-level storage can write only what changed since the entry the request came from.
+     */
+    public CiclopsResponse processResponse(CiclopsResponse response, String trxId,
+                                           Map<String, String> inputFields, Map<String, String> hydratedFields) {
+        return processResponseAsync(response, trxId, inputFields, hydratedFields).await().indefinitely();
+    }
+
+    /**
+     * Caches the tablefacility fields of the response and replaces them with a cache key,
+     * without blocking while the cache write is in flight.
+     *
+     * @return A Uni emitting the updated response once the cache write completes,
+     *         or the original response if caching is not needed, fails or exceeds the request timeout
+     */
+    public Uni<CiclopsResponse> processResponseAsync(CiclopsResponse response, String trxId) {
+        return processResponseAsync(response, trxId, null, null);
+    }
+
+    /**
+     * Non-blocking variant of {@link #processResponse(CiclopsResponse, String, Map, Map)}.
+     */
+    public Uni<CiclopsResponse> processResponseAsync(CiclopsResponse response, String trxId,
+                                                     Map<String, String> inputFields, Map<String, String> hydratedFields) {
         if (response == null || response.getFields() == null) {
-            return response;
+            return Uni.createFrom().item(response);
         }
 
         // Check if we should cache this response
@@ -47,7 +99,7 @@ public class ResponseCacheService {
         // Only cache if there are tablefacility fields
         if (!hasTablefacilityFields) {
             LOG.debug("No tablefacility fields found, no caching needed");
-            return response;
+            return Uni.createFrom().item(response);
         }
 
         try {
@@ -63,55 +115,181 @@ public class ResponseCacheService {
                 }
             }
 
+            LOG.debugf("Caching tablefacility fields of transaction %s", trxId);
             LOG.debugf("Partitioned fields - tablefacility: %d, non-tablefacility: %d",
                     tablefacilityFields.size(), nonTablefacilityFields.size());
             LOG.debugf("Tablefacility fields: %s", tablefacilityFields.keySet());
             LOG.debugf("Non-tablefacility fields: %s", nonTablefacilityFields.keySet());
 
-            // Generate cache key
-            String cacheKey = generateCacheKey(trxId);
+            String previousKey = inputFields != null ? inputFields.get(CacheConstants.CACHE_KEY_FIELD) : null;
+            int ttlSeconds = ttlPolicy.ttlFor(trxId);
+            String cacheKey = cacheKeyFor(previousKey, ttlSeconds);
+            ttlPolicy.recordWrite(cacheKey, trxId);
+            // Before the write, so a hydration racing a write-behind never sees a definite miss
+            recentKeys.recordKey(cacheKey);
 
-            // Serialize tablefacility fields to cache
-            String serializedData = serializeFields(tablefacilityFields);
-
-            // Cache the data with configured TTL
-            cacheService.put(cacheKey, serializedData, cachingConfiguration.getTablefacilityTtlSeconds());
-
-            LOG.infof("Cached %d fields (tablefacility) with key: %s", tablefacilityFields.size(), cacheKey);
-
-            // Add cache key to the non-tablefacility fields
-            List<String> cacheKeyValue = Arrays.asList(cacheKey);
-            nonTablefacilityFields.put(CacheConstants.CACHE_KEY_FIELD, cacheKeyValue);
+            if (writeBehind.isEnabled()) {
+                // Serialization and the put happen on a background writer
+                boolean queued = writeBehind.submit(cacheKey, () -> {
+                    try {
+                        return serializeFields(tablefacilityFields);
+                    } catch (JsonProcessingException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, ttlSeconds);
+                if (!queued) {
+                    // Shed under load: the key would point at nothing, or at an older entry in reuse mode
+                    LOG.warnf("Write-behind shed the write, returning transaction %s uncached", trxId);
+                    return Uni.createFrom().item(response);
+                }
+                LOG.infof("Queued %d fields (tablefacility) for caching with key: %s", tablefacilityFields.size(), cacheKey);
+                return Uni.createFrom().item(withCacheKey(response, nonTablefacilityFields, cacheKey));
+            }
 
-            // Update the response fields
-            response.setFields(nonTablefacilityFields);
-            return response;
+            // Cache the data with the transaction's TTL, field by field when the backend supports it
+            Uni<Void> write = fieldCacheService.isAvailable()
+                    ? putFields(cacheKey, tablefacilityFields, inputFields, hydratedFields, ttlSeconds)
+                            .onFailure().recoverWithUni(e -> {
+                                LOG.warnf("Field-level caching failed for key %s, storing whole payload: %s", cacheKey, e.getMessage());
+                                return putSerialized(cacheKey, tablefacilityFields, ttlSeconds);
+                            })
+                    : putSerialized(cacheKey, tablefacilityFields, ttlSeconds);
+            if (consumesAfterWrite(previousKey, cacheKey)) {
+                // Hash entries are read without consuming them, as the delta write copies from them
+                write = write.call(() -> cacheService.clear(previousKey));
+            }
+            return withDeadline(write, cacheKey)
+                    .map(ignored -> {
+                        LOG.infof("Cached %d fields (tablefacility) with key: %s", tablefacilityFields.size(), cacheKey);
+                        return withCacheKey(response, nonTablefacilityFields, cacheKey);
+                    })
+                    .onFailure().recoverWithItem(e -> {
+                        LOG.errorf("Error processing response for caching: %s", e.getMessage());
+                        // Return original response if caching fails
+                        return response;
+                    });
 
         } catch (Exception e) {
             LOG.errorf("Error processing response for caching: %s", e.getMessage());
             // Return original response if caching fails
-            return response;
+            return Uni.createFrom().item(response);
         }
     }
 
     /**
-     * Generates a unique cache key for the transaction
+     * The key to store the entry under: in reuse mode the conversation's previous key, as long as
+     * its lifetime still covers a full TTL, otherwise a new key. With a node-local cache only keys
+     * of this node are reused, since peers fetch a key from the node that created it.
      */
-    private String generateCacheKey(String trxId) {
-        return CacheConstants.CACHE_KEY_PREFIX + trxId + "_" + System.currentTimeMillis();
+    private String cacheKeyFor(String previousKey, int ttlSeconds) {
+        if (!cachingConfiguration.isKeyReuseEnabled()) {
+            return keyGenerator.newKey(ttlSeconds);
+        }
+        if (previousKey != null && CacheKeyGenerator.canExtend(previousKey, ttlSeconds, System.currentTimeMillis() / 1000)
+                && (cachingConfiguration.isRedisCache() || keyGenerator.isLocal(previousKey))) {
+            LOG.debugf("Reusing cache key %s", previousKey);
+            return previousKey;
+        }
+        // A reusable key carries the whole conversation's lifetime, the entry itself only one TTL
+        return keyGenerator.newKey(ttlSeconds > 0 ? Math.max(ttlSeconds, cachingConfiguration.getKeyMaxLifetimeSeconds()) : ttlSeconds);
+    }
+
+    /**
+     * Fails the write once the request timeout has passed, so the response goes back without a cache key
+     * instead of waiting on a slow backend.
+     */
+    private Uni<Void> withDeadline(Uni<Void> write, String cacheKey) {
+        long timeoutMs = cachingConfiguration.getRequestTimeoutMs();
+        if (timeoutMs <= 0) {
+            return write;
+        }
+        return write.ifNoItem().after(Duration.ofMillis(timeoutMs))
+                .failWith(() -> new TimeoutException("Caching with key " + cacheKey + " timed out after " + timeoutMs + " ms"));
+    }
+
+    /**
+     * Whether the entry the request was hydrated from must still be removed after the write.
+     * Whole values are consumed by hydration already; only field-level entries are left.
+     */
+    private boolean consumesAfterWrite(String previousKey, String cacheKey) {
+        return cachingConfiguration.isKeyConsumeEnabled() && fieldCacheService.isAvailable()
+                && previousKey != null && !previousKey.equals(cacheKey);
+    }
+
+    /**
+     * Serializes the fields in the configured payload format and stores them as one value
+     */
+    private Uni<Void> putSerialized(String cacheKey, Map<String, List<String>> fields, int ttlSeconds) {
+        byte[] serializedData;
+        try {
+            serializedData = serializeFields(fields);
+        } catch (JsonProcessingException e) {
+            return Uni.createFrom().failure(e);
+        }
+        return cacheService.put(cacheKey, serializedData, ttlSeconds);
+    }
+
+    /**
+     * Stores the fields individually; when the request was hydrated from an earlier entry,
+     * only the fields that changed since that entry are sent
+     */
+    private Uni<Void> putFields(String cacheKey, Map<String, List<String>> fields,
+                                Map<String, String> inputFields, Map<String, String> hydratedFields, int ttlSeconds) {
+        // Field-level storage keeps single values, like the JSON format
+        Map<String, String> values = new HashMap<>();
+        fields.forEach((name, list) -> values.put(name, list == null || list.isEmpty() ? "" : list.get(0)));
+
+        String baseKey = inputFields != null ? inputFields.get(CacheConstants.CACHE_KEY_FIELD) : null;
+        // With a hydration projection the base may hold fields the request never saw, which a delta would keep
+        if (baseKey == null || hydratedFields == null || !cachingConfiguration.getTablefacilityHydrateFields().isEmpty()) {
+            return fieldCacheService.putFields(cacheKey, values, ttlSeconds);
+        }
+        FieldDelta delta = FieldDelta.afterHydration(inputFields, hydratedFields, values, CacheConstants.TABLEFACILITY_PREFIX);
+        LOG.debugf("Writing %d changed and %d removed fields on top of %s", delta.getChanged().size(),
+                delta.getRemoved().size(), baseKey);
+        return fieldCacheService.putFieldsDelta(cacheKey, baseKey, delta.getChanged(), delta.getRemoved(), ttlSeconds)
+                .onFailure().recoverWithUni(e -> {
+                    LOG.debugf("Delta write on top of %s failed, writing all fields: %s", baseKey, e.getMessage());
+                    return fieldCacheService.putFields(cacheKey, values, ttlSeconds);
+                });
+    }
+
+    /**
+     * Replaces the response fields with the non-tablefacility fields plus the cache key
+     */
+    private CiclopsResponse withCacheKey(CiclopsResponse response, Map<String, List<String>> nonTablefacilityFields,
+                                         String cacheKey) {
+        // Add cache key to the non-tablefacility fields
+        List<String> cacheKeyValue = Arrays.asList(cacheKey);
+        nonTablefacilityFields.put(CacheConstants.CACHE_KEY_FIELD, cacheKeyValue);
+
+        // Update the response fields
+        response.setFields(nonTablefacilityFields);
+        return response;
+    }
+
+    /**
+     * Serializes all fields in the configured payload format, as the bytes to store
+     */
+    private byte[] serializeFields(Map<String, List<String>> fields) throws JsonProcessingException {
+        if (cachingConfiguration.isBinaryTablefacilityFormat()) {
+            // Binary format keeps every value of multi-valued fields
+            return TablefacilityPayloadCodec.encodeToBytes(fields);
+        }
+        return serializeFieldsAsJson(fields);
     }
 
     /**
-     * Serializes all fields to JSON string
+     * Serializes all fields to JSON, UTF-8 encoded (legacy format)
      */
-    private String serializeFields(Map<String, List<String>> fields) throws JsonProcessingException {
+    private byte[] serializeFieldsAsJson(Map<String, List<String>> fields) throws JsonProcessingException {
         // Convert List<String> to single String values for serialization
         Map<String, String> serializableFields = fields.entrySet().stream()
                 .collect(Collectors.toMap(
                         Map.Entry::getKey,
                         entry -> entry.getValue().isEmpty() ? "" : entry.getValue().get(0)));
 
-        return objectMapper.writeValueAsString(serializableFields);
+        return objectMapper.writeValueAsBytes(serializableFields);
     }
 
 }
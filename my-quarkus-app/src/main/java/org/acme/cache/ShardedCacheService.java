@@ -0,0 +1,238 @@
+package org.acme.cache;
+
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spreads keys over several cache backends (typically one {@link RedisCacheService} per named Redis client)
+ * with a {@link ConsistentHashRing}, so capacity and throughput scale with the number of shards.
+ * <p>
+ * Each shard may have a {@link CacheCircuitBreaker}; while it is open the shard is skipped and its keys go
+ * to the next shard on the ring, the same keys that would move there if the shard were removed.
+ * Bulk operations are split by shard so each shard still gets one bulk call.
+ * Inspection walks the shards one after the other.
+ */
+public class ShardedCacheService implements CacheService, CacheInspector {
+
+    private static final Logger LOG = Logger.getLogger(ShardedCacheService.class);
+
+    private static final class Shard {
+        final CacheService cache;
+        final CacheCircuitBreaker breaker;
+
+        Shard(CacheService cache, CacheCircuitBreaker breaker) {
+            this.cache = cache;
+            this.breaker = breaker;
+        }
+
+        boolean isUsable() {
+            return breaker == null || breaker.allowsPrimary();
+        }
+    }
+
+    private final ConsistentHashRing ring;
+    private final Map<String, Shard> shards = new ConcurrentHashMap<>();
+
+    /**
+     * @param virtualNodes Points per shard on the hash ring.
+     */
+    public ShardedCacheService(int virtualNodes) {
+        this.ring = new ConsistentHashRing(virtualNodes);
+    }
+
+    /**
+     * Adds a shard; only the keys of the ring segments it takes over move to it.
+     * @param breaker Health of the shard, or null to always use it.
+     */
+    public void addShard(String name, CacheService cache, CacheCircuitBreaker breaker) {
+        shards.put(name, new Shard(cache, breaker));
+        ring.add(name);
+        LOG.infof("Added cache shard '%s' (%d shards)", name, shards.size());
+    }
+
+    public void removeShard(String name) {
+        ring.remove(name);
+        shards.remove(name);
+        LOG.infof("Removed cache shard '%s' (%d shards)", name, shards.size());
+    }
+
+    /**
+     * Name of the shard currently serving the key, or null if there are no shards.
+     */
+    public String shardNameFor(String key) {
+        return ring.nodeFor(key, name -> {
+            Shard shard = shards.get(name);
+            return shard != null && shard.isUsable();
+        });
+    }
+
+    private CacheService shardFor(String key) {
+        String name = shardNameFor(key);
+        Shard shard = name != null ? shards.get(name) : null;
+        return shard != null ? shard.cache : null;
+    }
+
+    @Override
+    public String get(String key) {
+        CacheService shard = key != null ? shardFor(key) : null;
+        return shard != null ? shard.get(key) : null;
+    }
+
+    @Override
+    public void put(String key, String value, int ttlSeconds) {
+        CacheService shard = key != null ? shardFor(key) : null;
+        if (shard != null) {
+            shard.put(key, value, ttlSeconds);
+        }
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        CacheService shard = key != null ? shardFor(key) : null;
+        return shard != null ? shard.getBytes(key) : null;
+    }
+
+    @Override
+    public void put(String key, byte[] value, int ttlSeconds) {
+        CacheService shard = key != null ? shardFor(key) : null;
+        if (shard != null) {
+            shard.put(key, value, ttlSeconds);
+        }
+    }
+
+    @Override
+    public String getAndTouch(String key, int ttlSeconds) {
+        CacheService shard = key != null ? shardFor(key) : null;
+        return shard != null ? shard.getAndTouch(key, ttlSeconds) : null;
+    }
+
+    @Override
+    public String getAndClear(String key) {
+        CacheService shard = key != null ? shardFor(key) : null;
+        return shard != null ? shard.getAndClear(key) : null;
+    }
+
+    @Override
+    public byte[] getBytesAndTouch(String key, int ttlSeconds) {
+        CacheService shard = key != null ? shardFor(key) : null;
+        return shard != null ? shard.getBytesAndTouch(key, ttlSeconds) : null;
+    }
+
+    @Override
+    public byte[] getBytesAndClear(String key) {
+        CacheService shard = key != null ? shardFor(key) : null;
+        return shard != null ? shard.getBytesAndClear(key) : null;
+    }
+
+    @Override
+    public void clear(String key) {
+        CacheService shard = key != null ? shardFor(key) : null;
+        if (shard != null) {
+            shard.clear(key);
+        }
+    }
+
+    @Override
+    public void clearAll() {
+        shards.values().forEach(shard -> shard.cache.clearAll());
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> result = new HashMap<>();
+        groupByShard(keys).forEach((shard, shardKeys) -> result.putAll(shard.getAll(shardKeys)));
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, int ttlSeconds) {
+        if (entries == null) {
+            return;
+        }
+        Map<CacheService, Map<String, String>> byShard = new HashMap<>();
+        entries.forEach((key, value) -> {
+            CacheService shard = key != null ? shardFor(key) : null;
+            if (shard != null) {
+                byShard.computeIfAbsent(shard, s -> new HashMap<>()).put(key, value);
+            }
+        });
+        byShard.forEach((shard, shardEntries) -> shard.putAll(shardEntries, ttlSeconds));
+    }
+
+    @Override
+    public void putAllBytes(Map<String, byte[]> entries, int ttlSeconds) {
+        if (entries == null) {
+            return;
+        }
+        Map<CacheService, Map<String, byte[]>> byShard = new HashMap<>();
+        entries.forEach((key, value) -> {
+            CacheService shard = key != null ? shardFor(key) : null;
+            if (shard != null) {
+                byShard.computeIfAbsent(shard, s -> new HashMap<>()).put(key, value);
+            }
+        });
+        byShard.forEach((shard, shardEntries) -> shard.putAllBytes(shardEntries, ttlSeconds));
+    }
+
+    @Override
+    public void clearAll(Collection<String> keys) {
+        groupByShard(keys).forEach(CacheService::clearAll);
+    }
+
+    /**
+     * Scans the shards in name order; the cursor is the shard position and that shard's own cursor.
+     * Shards that cannot be inspected or whose breaker is open are skipped.
+     */
+    @Override
+    public Page scan(String cursor, int count) {
+        List<String> names = new ArrayList<>(shards.keySet());
+        Collections.sort(names);
+        int index = 0;
+        String shardCursor = START_CURSOR;
+        if (!START_CURSOR.equals(cursor)) {
+            int separator = cursor.indexOf(':');
+            try {
+                index = Integer.parseInt(cursor.substring(0, separator));
+                shardCursor = cursor.substring(separator + 1);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid scan cursor '" + cursor + "'");
+            }
+        }
+        for (; index < names.size(); index++, shardCursor = START_CURSOR) {
+            Shard shard = shards.get(names.get(index));
+            if (shard == null || !shard.isUsable() || !(shard.cache instanceof CacheInspector)) {
+                continue;
+            }
+            Page page = ((CacheInspector) shard.cache).scan(shardCursor, count);
+            String next;
+            if (!page.isComplete()) {
+                next = index + ":" + page.getCursor();
+            } else {
+                next = index + 1 < names.size() ? (index + 1) + ":" + START_CURSOR : START_CURSOR;
+            }
+            return new Page(next, page.getEntries());
+        }
+        return new Page(START_CURSOR, List.of());
+    }
+
+    private Map<CacheService, List<String>> groupByShard(Collection<String> keys) {
+        Map<CacheService, List<String>> byShard = new HashMap<>();
+        if (keys == null) {
+            return byShard;
+        }
+        for (String key : keys) {
+            CacheService shard = key != null ? shardFor(key) : null;
+            if (shard != null) {
+                byShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(key);
+            }
+        }
+        return byShard;
+    }
+}
@@ -0,0 +1,158 @@
+package org.acme.cache;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Reactive counterpart of {@link ShardedCacheService}: one non-blocking backend per shard, routed by the
+ * sharded synchronous view so both views place a key on the same shard and skip the same unhealthy shards.
+ * Bulk operations are split by shard and the shards are called concurrently.
+ */
+public class ShardedReactiveCacheService implements ReactiveCacheService {
+
+    private final ShardedCacheService routing;
+    private final Map<String, ReactiveCacheService> shards = new ConcurrentHashMap<>();
+
+    /**
+     * @param routing The synchronous view whose ring and breakers decide the shard of a key.
+     */
+    public ShardedReactiveCacheService(ShardedCacheService routing) {
+        this.routing = routing;
+    }
+
+    /**
+     * Adds the reactive backend of a shard already added to the routing view under the same name.
+     */
+    public void addShard(String name, ReactiveCacheService cache) {
+        shards.put(name, cache);
+    }
+
+    private ReactiveCacheService shardFor(String key) {
+        String name = key != null ? routing.shardNameFor(key) : null;
+        return name != null ? shards.get(name) : null;
+    }
+
+    @Override
+    public Uni<String> get(String key) {
+        ReactiveCacheService shard = shardFor(key);
+        return shard != null ? shard.get(key) : Uni.createFrom().nullItem();
+    }
+
+    @Override
+    public Uni<Void> put(String key, String value, int ttlSeconds) {
+        ReactiveCacheService shard = shardFor(key);
+        return shard != null ? shard.put(key, value, ttlSeconds) : Uni.createFrom().voidItem();
+    }
+
+    @Override
+    public Uni<String> getAndTouch(String key, int ttlSeconds) {
+        ReactiveCacheService shard = shardFor(key);
+        return shard != null ? shard.getAndTouch(key, ttlSeconds) : Uni.createFrom().nullItem();
+    }
+
+    @Override
+    public Uni<String> getAndClear(String key) {
+        ReactiveCacheService shard = shardFor(key);
+        return shard != null ? shard.getAndClear(key) : Uni.createFrom().nullItem();
+    }
+
+    @Override
+    public Uni<byte[]> getBytes(String key) {
+        ReactiveCacheService shard = shardFor(key);
+        return shard != null ? shard.getBytes(key) : Uni.createFrom().nullItem();
+    }
+
+    @Override
+    public Uni<Void> put(String key, byte[] value, int ttlSeconds) {
+        ReactiveCacheService shard = shardFor(key);
+        return shard != null ? shard.put(key, value, ttlSeconds) : Uni.createFrom().voidItem();
+    }
+
+    @Override
+    public Uni<byte[]> getBytesAndTouch(String key, int ttlSeconds) {
+        ReactiveCacheService shard = shardFor(key);
+        return shard != null ? shard.getBytesAndTouch(key, ttlSeconds) : Uni.createFrom().nullItem();
+    }
+
+    @Override
+    public Uni<byte[]> getBytesAndClear(String key) {
+        ReactiveCacheService shard = shardFor(key);
+        return shard != null ? shard.getBytesAndClear(key) : Uni.createFrom().nullItem();
+    }
+
+    @Override
+    public Uni<Void> clear(String key) {
+        ReactiveCacheService shard = shardFor(key);
+        return shard != null ? shard.clear(key) : Uni.createFrom().voidItem();
+    }
+
+    @Override
+    public Uni<Void> clearAll() {
+        return all(new ArrayList<>(shards.values()), ReactiveCacheService::clearAll);
+    }
+
+    @Override
+    public Uni<Map<String, String>> getAll(Collection<String> keys) {
+        List<Uni<Map<String, String>>> reads = new ArrayList<>();
+        groupByShard(keys).forEach((shard, shardKeys) -> reads.add(shard.getAll(shardKeys)));
+        if (reads.isEmpty()) {
+            return Uni.createFrom().item(new HashMap<>());
+        }
+        return Uni.join().all(reads).andFailFast().map(pages -> {
+            Map<String, String> result = new HashMap<>();
+            pages.forEach(result::putAll);
+            return result;
+        });
+    }
+
+    @Override
+    public Uni<Void> putAll(Map<String, String> entries, int ttlSeconds) {
+        if (entries == null) {
+            return Uni.createFrom().voidItem();
+        }
+        Map<ReactiveCacheService, Map<String, String>> byShard = new HashMap<>();
+        entries.forEach((key, value) -> {
+            ReactiveCacheService shard = shardFor(key);
+            if (shard != null) {
+                byShard.computeIfAbsent(shard, s -> new HashMap<>()).put(key, value);
+            }
+        });
+        return all(new ArrayList<>(byShard.keySet()), shard -> shard.putAll(byShard.get(shard), ttlSeconds));
+    }
+
+    @Override
+    public Uni<Void> clearAll(Collection<String> keys) {
+        Map<ReactiveCacheService, List<String>> byShard = groupByShard(keys);
+        return all(new ArrayList<>(byShard.keySet()), shard -> shard.clearAll(byShard.get(shard)));
+    }
+
+    private static Uni<Void> all(List<ReactiveCacheService> targets, Function<ReactiveCacheService, Uni<Void>> call) {
+        if (targets.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        List<Uni<Void>> calls = new ArrayList<>();
+        targets.forEach(shard -> calls.add(call.apply(shard)));
+        return Uni.join().all(calls).andFailFast().replaceWithVoid();
+    }
+
+    private Map<ReactiveCacheService, List<String>> groupByShard(Collection<String> keys) {
+        Map<ReactiveCacheService, List<String>> byShard = new HashMap<>();
+        if (keys == null) {
+            return byShard;
+        }
+        for (String key : keys) {
+            ReactiveCacheService shard = shardFor(key);
+            if (shard != null) {
+                byShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(key);
+            }
+        }
+        return byShard;
+    }
+}
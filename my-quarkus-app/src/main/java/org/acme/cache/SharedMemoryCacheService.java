@@ -0,0 +1,712 @@
+package org.acme.cache;
+
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32C;
+
+/**
+ * Cache held in a memory-mapped file that every instance on the host opens, so co-located processes
+ * share one set of entries without a network hop. Pointing the file at tmpfs (/dev/shm) keeps it off the disk.
+ * <p>
+ * The file is a fixed table of buckets, each made of a lock word and a few fixed-size slots; a key lives
+ * in one of the slots of the bucket its hash selects. Writers take the bucket lock with a compare-and-set
+ * on the mapped memory, which is atomic across processes. Readers take no lock: every slot carries a
+ * seqlock version and a CRC of its key and value, and a read overlapping a write is retried while a torn
+ * slot reads as a miss. The lock word holds the PID of its holder, so a lock left by a crashed process is
+ * taken over once that process is gone; processes sharing the file must therefore see each other's PIDs.
+ * A lock that stays unchanged for {@link #STALE_LOCK_TIMEOUT_MS} is taken over as well, for a holder whose
+ * PID was reused.
+ * <p>
+ * Values that do not fit in a slot are not cached. When all slots of a bucket are live, the entry closest
+ * to expiry is evicted. Expired entries are reclaimed by the next write to their bucket.
+ */
+public class SharedMemoryCacheService implements CacheService, CacheStatistics, CacheInspector {
+
+    private static final Logger LOG = Logger.getLogger(SharedMemoryCacheService.class);
+
+    /**
+     * Bucket locks are held for a few microseconds; one held this long by a process that still looks alive
+     * was left by a dead process whose PID was reused. Measured by the waiter on its monotonic clock.
+     */
+    static final long STALE_LOCK_TIMEOUT_MS = 30_000;
+
+    // How often a waiter checks whether the holder of a bucket lock is still alive
+    private static final long HOLDER_CHECK_INTERVAL_MS = 10;
+    private static final int SPINS_BEFORE_YIELD = 100;
+
+    private static final long PID = ProcessHandle.current().pid();
+    // Low half of the lock word, so every acquisition in this process writes a distinct stamp
+    private static final AtomicInteger LOCK_SEQUENCE = new AtomicInteger();
+
+    private static final int MAGIC = 0x54465348; // "TFSH"
+    // 2: lock words hold the holder's PID instead of the time they were taken
+    private static final int FORMAT_VERSION = 2;
+    private static final int FILE_HEADER_BYTES = 64;
+    // One cache line per lock word, so neighbouring buckets do not contend
+    private static final int BUCKET_HEADER_BYTES = 64;
+    private static final int SLOT_HEADER_BYTES = 48;
+    private static final int MAX_READ_ATTEMPTS = 16;
+
+    // File header
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_FORMAT = 4;
+    private static final int HEADER_BUCKETS = 8;
+    private static final int HEADER_SLOTS_PER_BUCKET = 12;
+    private static final int HEADER_SLOT_BYTES = 16;
+    private static final int HEADER_ENTRY_COUNT = 24;
+    private static final int HEADER_ESTIMATED_BYTES = 32;
+    private static final int HEADER_EVICTIONS = 40;
+    private static final int HEADER_EXPIRATIONS = 48;
+
+    // Slot header; an expiry of 0 marks an empty slot
+    private static final int SLOT_VERSION = 0;
+    private static final int SLOT_EXPIRES_AT = 8;
+    private static final int SLOT_KEY_HASH = 16;
+    private static final int SLOT_CREATED_AT = 24;
+    private static final int SLOT_KEY_LENGTH = 32;
+    private static final int SLOT_VALUE_LENGTH = 36;
+    private static final int SLOT_CRC = 40;
+    private static final int SLOT_ENCODING = 44;
+
+    private static final int ENCODING_LATIN1 = 0;
+    private static final int ENCODING_UTF8 = 1;
+    private static final int ENCODING_BYTES = 2;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /**
+     * Consistent copy of an occupied slot.
+     */
+    private static final class Slot {
+        final String key;
+        // String or byte[], as written
+        final Object value;
+        final long expiresAtEpochMs;
+        final long createdAtEpochMs;
+        final int storedBytes;
+
+        Slot(String key, Object value, long expiresAtEpochMs, long createdAtEpochMs, int storedBytes) {
+            this.key = key;
+            this.value = value;
+            this.expiresAtEpochMs = expiresAtEpochMs;
+            this.createdAtEpochMs = createdAtEpochMs;
+            this.storedBytes = storedBytes;
+        }
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int buckets;
+    private final int slotsPerBucket;
+    private final int slotBytes;
+    private final int bucketStride;
+    // Local to this process: values too large for a slot
+    private final LongAdder oversized = new LongAdder();
+
+    /**
+     * Opens the shared file, creating it with the given geometry if it does not exist or is not valid.
+     * An existing valid file keeps its own geometry, so every process uses the same layout.
+     * @param slotBytes Bytes per slot, header included; rounded up to a multiple of 64.
+     */
+    public SharedMemoryCacheService(Path file, int buckets, int slotsPerBucket, int slotBytes) throws IOException {
+        this.file = file;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileLock lock = channel.lock();
+            try {
+                int[] geometry = readGeometry();
+                if (geometry == null) {
+                    geometry = new int[]{Math.max(1, buckets), Math.max(1, slotsPerBucket),
+                            roundUp(Math.max(slotBytes, SLOT_HEADER_BYTES + 64), 64)};
+                } else if (geometry[0] != buckets || geometry[1] != slotsPerBucket || geometry[2] != roundUp(slotBytes, 64)) {
+                    LOG.warnf("Shared cache file %s has %d buckets x %d slots of %d bytes, ignoring the configured geometry",
+                            file, geometry[0], geometry[1], geometry[2]);
+                }
+                this.buckets = geometry[0];
+                this.slotsPerBucket = geometry[1];
+                this.slotBytes = geometry[2];
+                this.bucketStride = BUCKET_HEADER_BYTES + this.slotsPerBucket * this.slotBytes;
+                long size = FILE_HEADER_BYTES + (long) this.buckets * bucketStride;
+                if (size > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Shared cache file would exceed 2 GB: " + size + " bytes");
+                }
+                boolean initialize = readGeometry() == null || channel.size() != size;
+                if (initialize) {
+                    // A fresh sparse file reads as zeros: every lock free, every slot empty
+                    channel.truncate(0);
+                }
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.order(ByteOrder.nativeOrder());
+                if (initialize) {
+                    buffer.putInt(HEADER_FORMAT, FORMAT_VERSION);
+                    buffer.putInt(HEADER_BUCKETS, this.buckets);
+                    buffer.putInt(HEADER_SLOTS_PER_BUCKET, this.slotsPerBucket);
+                    buffer.putInt(HEADER_SLOT_BYTES, this.slotBytes);
+                    buffer.force();
+                    // Magic last, so a crash during initialization leaves a file that is initialized again
+                    buffer.putInt(HEADER_MAGIC, MAGIC);
+                    buffer.force();
+                    LOG.infof("Created shared cache file %s (%d buckets x %d slots of %d bytes)",
+                            file, this.buckets, this.slotsPerBucket, this.slotBytes);
+                } else {
+                    LOG.infof("Opened shared cache file %s with %d entries", file, entryCount());
+                }
+            } finally {
+                lock.release();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Geometry of a valid existing file, or null if the file must be initialized.
+     */
+    private int[] readGeometry() throws IOException {
+        if (channel.size() < FILE_HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).order(ByteOrder.nativeOrder());
+        channel.read(header, 0);
+        if (header.getInt(HEADER_MAGIC) != MAGIC || header.getInt(HEADER_FORMAT) != FORMAT_VERSION) {
+            return null;
+        }
+        int[] geometry = {header.getInt(HEADER_BUCKETS), header.getInt(HEADER_SLOTS_PER_BUCKET), header.getInt(HEADER_SLOT_BYTES)};
+        if (geometry[0] <= 0 || geometry[1] <= 0 || geometry[2] <= SLOT_HEADER_BYTES) {
+            return null;
+        }
+        return geometry;
+    }
+
+    /**
+     * Unmaps nothing (the JVM releases the mapping with the buffer) but releases the file handle.
+     */
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOG.warnf("Error closing shared cache file %s: %s", file, e.getMessage());
+        }
+    }
+
+    @Override
+    public String get(String key) {
+        return InMemoryCacheService.asString(lookup(key));
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        return InMemoryCacheService.asBytes(lookup(key));
+    }
+
+    private Object lookup(String key) {
+        if (key == null) {
+            return null;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = ConsistentHashRing.hash(key);
+        int bucket = bucketOf(hash);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < slotsPerBucket; i++) {
+            Slot slot = read(slotOffset(bucket, i), hash, keyBytes, true);
+            if (slot != null) {
+                return slot.expiresAtEpochMs > now ? slot.value : null;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void put(String key, String value, int ttlSeconds) {
+        if (key == null || value == null) {
+            return;
+        }
+        boolean latin1 = isLatin1(value);
+        store(key, value.getBytes(latin1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8),
+                latin1 ? ENCODING_LATIN1 : ENCODING_UTF8, ttlSeconds);
+    }
+
+    /**
+     * Stores the bytes as they are; their String view is their UTF-8 decoding.
+     */
+    @Override
+    public void put(String key, byte[] value, int ttlSeconds) {
+        if (key == null || value == null) {
+            return;
+        }
+        store(key, value, ENCODING_BYTES, ttlSeconds);
+    }
+
+    private void store(String key, byte[] valueBytes, int encoding, int ttlSeconds) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length + valueBytes.length > slotBytes - SLOT_HEADER_BYTES) {
+            oversized.increment();
+            LOG.debugf("Value of %d bytes for key '%s' does not fit in a shared cache slot", valueBytes.length, key);
+            // An older value must not outlive this write
+            clear(key);
+            return;
+        }
+        long hash = ConsistentHashRing.hash(key);
+        int bucket = bucketOf(hash);
+        long stamp = lockBucket(bucket);
+        try {
+            long now = System.currentTimeMillis();
+            int target = -1;
+            int free = -1;
+            int victim = -1;
+            long victimExpiry = Long.MAX_VALUE;
+            for (int i = 0; i < slotsPerBucket; i++) {
+                int offset = slotOffset(bucket, i);
+                long expiresAt = buffer.getLong(offset + SLOT_EXPIRES_AT);
+                if (expiresAt != 0 && matches(offset, hash, keyBytes)) {
+                    target = i;
+                    break;
+                }
+                if (expiresAt <= now) {
+                    if (free < 0) {
+                        free = i;
+                    }
+                } else if (expiresAt < victimExpiry) {
+                    victim = i;
+                    victimExpiry = expiresAt;
+                }
+            }
+            int slot = target >= 0 ? target : free >= 0 ? free : victim;
+            int offset = slotOffset(bucket, slot);
+            long previousExpiry = buffer.getLong(offset + SLOT_EXPIRES_AT);
+            int storedBytes = SLOT_HEADER_BYTES + keyBytes.length + valueBytes.length;
+            if (previousExpiry == 0) {
+                addToHeader(HEADER_ENTRY_COUNT, 1);
+                addToHeader(HEADER_ESTIMATED_BYTES, storedBytes);
+            } else {
+                addToHeader(HEADER_ESTIMATED_BYTES, storedBytes - storedBytes(offset));
+                if (slot != target) {
+                    addToHeader(previousExpiry <= now ? HEADER_EXPIRATIONS : HEADER_EVICTIONS, 1);
+                }
+            }
+            write(offset, hash, keyBytes, valueBytes, encoding, expiresAt(ttlSeconds), now);
+        } finally {
+            unlockBucket(bucket, stamp);
+        }
+    }
+
+    @Override
+    public void clear(String key) {
+        if (key != null) {
+            take(key, true, 0);
+        }
+    }
+
+    /**
+     * Reads the value and sets its new expiry under the bucket lock, so the touch is atomic across processes.
+     */
+    @Override
+    public String getAndTouch(String key, int ttlSeconds) {
+        return key != null ? InMemoryCacheService.asString(take(key, false, expiresAt(ttlSeconds))) : null;
+    }
+
+    /**
+     * Reads and removes the value under the bucket lock, so only one process consumes it.
+     */
+    @Override
+    public String getAndClear(String key) {
+        return key != null ? InMemoryCacheService.asString(take(key, true, 0)) : null;
+    }
+
+    @Override
+    public byte[] getBytesAndTouch(String key, int ttlSeconds) {
+        return key != null ? InMemoryCacheService.asBytes(take(key, false, expiresAt(ttlSeconds))) : null;
+    }
+
+    @Override
+    public byte[] getBytesAndClear(String key) {
+        return key != null ? InMemoryCacheService.asBytes(take(key, true, 0)) : null;
+    }
+
+    @Override
+    public void clearAll() {
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            long stamp = lockBucket(bucket);
+            try {
+                for (int i = 0; i < slotsPerBucket; i++) {
+                    int offset = slotOffset(bucket, i);
+                    if (buffer.getLong(offset + SLOT_EXPIRES_AT) != 0) {
+                        empty(offset);
+                    }
+                }
+            } finally {
+                unlockBucket(bucket, stamp);
+            }
+        }
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> result = new HashMap<>();
+        if (keys == null) {
+            return result;
+        }
+        for (String key : keys) {
+            String value = get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, int ttlSeconds) {
+        if (entries != null) {
+            entries.forEach((key, value) -> put(key, value, ttlSeconds));
+        }
+    }
+
+    @Override
+    public void clearAll(Collection<String> keys) {
+        if (keys != null) {
+            keys.forEach(this::clear);
+        }
+    }
+
+    /**
+     * Walks the slots in file order; the cursor is the index of the next slot.
+     */
+    @Override
+    public Page scan(String cursor, int count) {
+        int start;
+        try {
+            start = Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid scan cursor '" + cursor + "'");
+        }
+        int totalSlots = buckets * slotsPerBucket;
+        int limit = Math.max(1, count);
+        long now = System.currentTimeMillis();
+        List<CacheEntryInfo> entries = new ArrayList<>(Math.min(limit, 1024));
+        for (int index = Math.max(0, start); index < totalSlots; index++) {
+            Slot slot = read(slotOffset(index / slotsPerBucket, index % slotsPerBucket), 0, null, false);
+            if (slot != null && slot.expiresAtEpochMs > now) {
+                long ttlSeconds = slot.expiresAtEpochMs == Long.MAX_VALUE
+                        ? CacheEntryInfo.NO_TTL
+                        : TimeUnit.MILLISECONDS.toSeconds(slot.expiresAtEpochMs - now + 999);
+                entries.add(new CacheEntryInfo(slot.key, slot.storedBytes, ttlSeconds,
+                        TimeUnit.MILLISECONDS.toSeconds(now - slot.createdAtEpochMs)));
+            }
+            if (entries.size() >= limit && index + 1 < totalSlots) {
+                return new Page(Integer.toString(index + 1), entries);
+            }
+        }
+        return new Page(START_CURSOR, entries);
+    }
+
+    /**
+     * Counts are shared by all processes using the file.
+     */
+    @Override
+    public long entryCount() {
+        return (long) LONGS.getVolatile(buffer, HEADER_ENTRY_COUNT);
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return (long) LONGS.getVolatile(buffer, HEADER_ESTIMATED_BYTES);
+    }
+
+    @Override
+    public long evictionCount() {
+        return (long) LONGS.getVolatile(buffer, HEADER_EVICTIONS);
+    }
+
+    @Override
+    public long expirationCount() {
+        return (long) LONGS.getVolatile(buffer, HEADER_EXPIRATIONS);
+    }
+
+    /**
+     * Values this process could not cache because they exceed a slot.
+     */
+    public long oversizedCount() {
+        return oversized.sum();
+    }
+
+    /**
+     * Finds the key under the bucket lock and either removes it or sets a new expiry.
+     * @return The live value, or null if the key is absent or expired.
+     */
+    private Object take(String key, boolean remove, long newExpiresAt) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = ConsistentHashRing.hash(key);
+        int bucket = bucketOf(hash);
+        long stamp = lockBucket(bucket);
+        try {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < slotsPerBucket; i++) {
+                int offset = slotOffset(bucket, i);
+                long expiresAt = buffer.getLong(offset + SLOT_EXPIRES_AT);
+                if (expiresAt == 0 || !matches(offset, hash, keyBytes)) {
+                    continue;
+                }
+                // Stable while we hold the lock
+                Slot slot = read(offset, hash, keyBytes, true);
+                boolean live = expiresAt > now;
+                if (remove || !live) {
+                    if (!live) {
+                        addToHeader(HEADER_EXPIRATIONS, 1);
+                    }
+                    empty(offset);
+                } else {
+                    long version = beginWrite(offset);
+                    buffer.putLong(offset + SLOT_EXPIRES_AT, newExpiresAt);
+                    LONGS.setVolatile(buffer, offset + SLOT_VERSION, version + 1);
+                }
+                return live && slot != null ? slot.value : null;
+            }
+            return null;
+        } finally {
+            unlockBucket(bucket, stamp);
+        }
+    }
+
+    /**
+     * Lock-free read of a slot with the seqlock protocol.
+     * @param keyBytes Key the slot must hold, or null to accept any occupied slot.
+     * @return A consistent copy of the slot, or null if it is empty, holds another key, is torn or keeps changing.
+     */
+    private Slot read(int offset, long hash, byte[] keyBytes, boolean withValue) {
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            long before = (long) LONGS.getVolatile(buffer, offset + SLOT_VERSION);
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long expiresAt = buffer.getLong(offset + SLOT_EXPIRES_AT);
+            long slotHash = buffer.getLong(offset + SLOT_KEY_HASH);
+            long createdAt = buffer.getLong(offset + SLOT_CREATED_AT);
+            int keyLength = buffer.getInt(offset + SLOT_KEY_LENGTH);
+            int valueLength = buffer.getInt(offset + SLOT_VALUE_LENGTH);
+            int crc = buffer.getInt(offset + SLOT_CRC);
+            int encoding = buffer.getInt(offset + SLOT_ENCODING);
+            boolean candidate = expiresAt != 0
+                    && (keyBytes == null || (slotHash == hash && keyLength == keyBytes.length))
+                    && keyLength >= 0 && valueLength >= 0 && keyLength + valueLength <= slotBytes - SLOT_HEADER_BYTES;
+            byte[] data = null;
+            if (candidate) {
+                data = new byte[withValue ? keyLength + valueLength : keyLength];
+                buffer.get(offset + SLOT_HEADER_BYTES, data);
+            }
+            VarHandle.acquireFence();
+            if ((long) LONGS.getVolatile(buffer, offset + SLOT_VERSION) != before) {
+                continue;
+            }
+            if (!candidate) {
+                return null;
+            }
+            if (keyBytes != null && !Arrays.equals(data, 0, keyLength, keyBytes, 0, keyLength)) {
+                return null;
+            }
+            Object value = null;
+            if (withValue) {
+                if (crc(data, data.length) != crc) {
+                    // Left torn by a process that died mid-write
+                    return null;
+                }
+                value = encoding == ENCODING_BYTES
+                        ? Arrays.copyOfRange(data, keyLength, keyLength + valueLength)
+                        : new String(data, keyLength, valueLength,
+                                encoding == ENCODING_LATIN1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+            }
+            return new Slot(new String(data, 0, keyLength, StandardCharsets.UTF_8), value, expiresAt, createdAt,
+                    SLOT_HEADER_BYTES + keyLength + valueLength);
+        }
+        return null;
+    }
+
+    /**
+     * Writes a slot; the caller holds the bucket lock.
+     */
+    private void write(int offset, long hash, byte[] keyBytes, byte[] valueBytes, int encoding, long expiresAt, long now) {
+        long version = beginWrite(offset);
+        buffer.putLong(offset + SLOT_EXPIRES_AT, expiresAt);
+        buffer.putLong(offset + SLOT_KEY_HASH, hash);
+        buffer.putLong(offset + SLOT_CREATED_AT, now);
+        buffer.putInt(offset + SLOT_KEY_LENGTH, keyBytes.length);
+        buffer.putInt(offset + SLOT_VALUE_LENGTH, valueBytes.length);
+        buffer.putInt(offset + SLOT_ENCODING, encoding);
+        buffer.put(offset + SLOT_HEADER_BYTES, keyBytes);
+        buffer.put(offset + SLOT_HEADER_BYTES + keyBytes.length, valueBytes);
+        CRC32C crc = new CRC32C();
+        crc.update(keyBytes);
+        crc.update(valueBytes);
+        buffer.putInt(offset + SLOT_CRC, (int) crc.getValue());
+        LONGS.setVolatile(buffer, offset + SLOT_VERSION, version + 1);
+    }
+
+    /**
+     * Marks an occupied slot empty; the caller holds the bucket lock.
+     */
+    private void empty(int offset) {
+        addToHeader(HEADER_ENTRY_COUNT, -1);
+        addToHeader(HEADER_ESTIMATED_BYTES, -storedBytes(offset));
+        long version = beginWrite(offset);
+        buffer.putLong(offset + SLOT_EXPIRES_AT, 0);
+        LONGS.setVolatile(buffer, offset + SLOT_VERSION, version + 1);
+    }
+
+    /**
+     * Makes the slot version odd so readers retry, and returns it. A version already odd was left by a
+     * writer that died; it is kept and completed by this write.
+     */
+    private long beginWrite(int offset) {
+        long version = (long) LONGS.getVolatile(buffer, offset + SLOT_VERSION);
+        long odd = (version & 1) == 0 ? version + 1 : version;
+        LONGS.setVolatile(buffer, offset + SLOT_VERSION, odd);
+        VarHandle.storeStoreFence();
+        return odd;
+    }
+
+    private boolean matches(int offset, long hash, byte[] keyBytes) {
+        if (buffer.getLong(offset + SLOT_KEY_HASH) != hash || buffer.getInt(offset + SLOT_KEY_LENGTH) != keyBytes.length) {
+            return false;
+        }
+        byte[] stored = new byte[keyBytes.length];
+        buffer.get(offset + SLOT_HEADER_BYTES, stored);
+        return Arrays.equals(stored, keyBytes);
+    }
+
+    private int storedBytes(int offset) {
+        return SLOT_HEADER_BYTES + buffer.getInt(offset + SLOT_KEY_LENGTH) + buffer.getInt(offset + SLOT_VALUE_LENGTH);
+    }
+
+    /**
+     * Spins until the bucket lock is acquired, taking over a lock whose holder process is gone.
+     * @return The stamp written into the lock word, needed to release it.
+     */
+    private long lockBucket(int bucket) {
+        int offset = bucketOffset(bucket);
+        long stamp = lockStamp(PID, LOCK_SEQUENCE.incrementAndGet());
+        long observed = 0;
+        long observedSince = 0;
+        long checkedAt = 0;
+        for (int spins = 0; ; spins++) {
+            long held = (long) LONGS.getVolatile(buffer, offset);
+            if (held == 0) {
+                if (LONGS.compareAndSet(buffer, offset, 0L, stamp)) {
+                    return stamp;
+                }
+                continue;
+            }
+            if (spins < SPINS_BEFORE_YIELD) {
+                Thread.onSpinWait();
+                continue;
+            }
+            // Held past the spin phase: time how long this lock word stays and check its holder periodically
+            long now = System.nanoTime();
+            if (held != observed) {
+                observed = held;
+                observedSince = now;
+                checkedAt = now - TimeUnit.MILLISECONDS.toNanos(HOLDER_CHECK_INTERVAL_MS);
+            }
+            if (now - checkedAt >= TimeUnit.MILLISECONDS.toNanos(HOLDER_CHECK_INTERVAL_MS)) {
+                checkedAt = now;
+                long heldForMs = TimeUnit.NANOSECONDS.toMillis(now - observedSince);
+                boolean holderGone = !isAlive(holderPid(held));
+                if ((holderGone || heldForMs >= STALE_LOCK_TIMEOUT_MS) && LONGS.compareAndSet(buffer, offset, held, stamp)) {
+                    LOG.warnf("Took over shared cache bucket %d from process %d, %s", bucket, holderPid(held),
+                            holderGone ? "which is gone" : "after waiting " + heldForMs + " ms");
+                    return stamp;
+                }
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Lock word of an acquisition: the holder's PID in the high half and a sequence number in the low half.
+     */
+    static long lockStamp(long pid, int sequence) {
+        return pid << 32 | (sequence & 0xFFFFFFFFL);
+    }
+
+    private static long holderPid(long stamp) {
+        return stamp >>> 32;
+    }
+
+    private static boolean isAlive(long pid) {
+        // Threads of this process release their locks themselves
+        return pid == PID || ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+    }
+
+    private void unlockBucket(int bucket, long stamp) {
+        // Fails only if the lock was taken over meanwhile, which then belongs to someone else
+        LONGS.compareAndSet(buffer, bucketOffset(bucket), stamp, 0L);
+    }
+
+    private void addToHeader(int offset, long delta) {
+        LONGS.getAndAdd(buffer, offset, delta);
+    }
+
+    private int bucketOf(long hash) {
+        return (int) Math.floorMod(hash, (long) buckets);
+    }
+
+    private int bucketOffset(int bucket) {
+        return FILE_HEADER_BYTES + bucket * bucketStride;
+    }
+
+    private int slotOffset(int bucket, int slot) {
+        return bucketOffset(bucket) + BUCKET_HEADER_BYTES + slot * slotBytes;
+    }
+
+    private static long expiresAt(int ttlSeconds) {
+        return ttlSeconds > 0 ? System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Whether every char fits in one byte, as for binary payloads, so the value is stored at one byte per char.
+     */
+    private static boolean isLatin1(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int crc(byte[] data, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(data, 0, length);
+        return (int) crc.getValue();
+    }
+
+    private static int roundUp(int value, int multiple) {
+        return (value + multiple - 1) / multiple * multiple;
+    }
+}
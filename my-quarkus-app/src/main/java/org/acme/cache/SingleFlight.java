@@ -0,0 +1,95 @@
+package org.acme.cache;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent loads of the same key into one: the first caller (the leader) runs the loader,
+ * callers arriving while it is in flight wait for and share its result. Nothing is retained once the
+ * load completes, so this is request coalescing, not caching.
+ * <p>
+ * Synchronous and reactive callers share the same in-flight table, so a blocking caller can piggyback
+ * on a reactive load and vice versa.
+ *
+ * @param <V> The loaded value type. Shared results must be treated as read-only by callers.
+ */
+public class SingleFlight<V> {
+
+    private final ConcurrentHashMap<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the loader for the key, or waits for the load already in flight.
+     */
+    public V execute(String key, Supplier<V> loader) {
+        if (key == null) {
+            return loader.get();
+        }
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (Throwable t) {
+            // Errors too, or followers would wait in join() for a load that is over
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #execute(String, Supplier)}: the loader is subscribed at most once
+     * per in-flight window and followers are completed with its outcome. A follower may cancel without
+     * affecting the leader or the other followers.
+     */
+    public Uni<V> executeAsync(String key, Supplier<Uni<V>> loader) {
+        if (key == null) {
+            return Uni.createFrom().deferred(loader::get);
+        }
+        return Uni.createFrom().deferred(() -> {
+            CompletableFuture<V> mine = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+            if (existing != null) {
+                // A copy, so a follower that cancels doesn't cancel the load's outcome for everyone else
+                return Uni.createFrom().completionStage(existing.copy());
+            }
+            return loader.get()
+                    .onItemOrFailure().invoke((value, failure) -> {
+                        inFlight.remove(key, mine);
+                        if (failure == null) {
+                            mine.complete(value);
+                        } else {
+                            mine.completeExceptionally(failure);
+                        }
+                    })
+                    .onCancellation().invoke(() -> {
+                        // Don't leave followers waiting on a load nobody will finish
+                        inFlight.remove(key, mine);
+                        mine.cancel(false);
+                    });
+        });
+    }
+
+    /**
+     * Number of keys currently being loaded.
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
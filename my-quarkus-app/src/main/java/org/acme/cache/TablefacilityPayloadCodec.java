@@ -0,0 +1,217 @@
+package org.acme.cache;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versioned, length-prefixed binary format for cached tablefacility fields.
+ * <p>
+ * Layout (all integers are unsigned LEB128 varints):
+ * <pre>
+ * magic 0x02 'T' 'F' | version | fieldCount
+ *   fieldCount x ( keyLength key valueCount valueCount x ( valueLength+1 value ) )
+ * </pre>
+ * Strings are UTF-8. A value length of 0 encodes a null value, so lists round-trip exactly,
+ * including multi-valued ones.
+ * <p>
+ * Payloads are stored as they are through the byte API of the cache. Version 1 payloads were stored as an
+ * ISO-8859-1 string, one char per byte, which the cache kept UTF-8 encoded; {@link #decodeStored(byte[])}
+ * still reads them. Nodes that only know version 1 read a version 2 payload as a miss.
+ */
+public final class TablefacilityPayloadCodec {
+
+    static final byte MAGIC_0 = 0x02;
+    static final byte MAGIC_1 = 'T';
+    static final byte MAGIC_2 = 'F';
+    static final byte VERSION = 2;
+    // Same layout, stored as a one-char-per-byte string
+    static final byte LEGACY_STRING_VERSION = 1;
+
+    private static final int HEADER_LENGTH = 4;
+
+    private TablefacilityPayloadCodec() {
+        // Utility class - no instantiation allowed
+    }
+
+    /**
+     * Encodes the fields into an exactly sized buffer, positioned at 0 and ready to read.
+     */
+    public static ByteBuffer encode(Map<String, List<String>> fields) {
+        // First pass: UTF-8 encode once and size the buffer exactly
+        List<byte[]> encoded = new ArrayList<>();
+        int size = HEADER_LENGTH + varIntSize(fields.size());
+        for (Map.Entry<String, List<String>> entry : fields.entrySet()) {
+            byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            encoded.add(key);
+            size += varIntSize(key.length) + key.length;
+            List<String> values = entry.getValue() != null ? entry.getValue() : Collections.emptyList();
+            size += varIntSize(values.size());
+            for (String value : values) {
+                byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+                encoded.add(bytes);
+                size += bytes != null ? varIntSize(bytes.length + 1) + bytes.length : 1;
+            }
+        }
+
+        // Second pass: write
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(MAGIC_0).put(MAGIC_1).put(MAGIC_2).put(VERSION);
+        putVarInt(buffer, fields.size());
+        int i = 0;
+        for (Map.Entry<String, List<String>> entry : fields.entrySet()) {
+            byte[] key = encoded.get(i++);
+            putVarInt(buffer, key.length);
+            buffer.put(key);
+            int valueCount = entry.getValue() != null ? entry.getValue().size() : 0;
+            putVarInt(buffer, valueCount);
+            for (int v = 0; v < valueCount; v++) {
+                byte[] bytes = encoded.get(i++);
+                if (bytes == null) {
+                    putVarInt(buffer, 0);
+                } else {
+                    putVarInt(buffer, bytes.length + 1);
+                    buffer.put(bytes);
+                }
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Decodes fields from the buffer's current position, consuming the payload.
+     * @throws IllegalArgumentException if the buffer does not hold a supported payload
+     */
+    public static Map<String, List<String>> decode(ByteBuffer buffer) {
+        try {
+            if (!hasHeader(buffer)) {
+                throw new IllegalArgumentException("Not a binary tablefacility payload");
+            }
+            buffer.position(buffer.position() + 3);
+            byte version = buffer.get();
+            if (version != VERSION && version != LEGACY_STRING_VERSION) {
+                throw new IllegalArgumentException("Unsupported tablefacility payload version: " + version);
+            }
+            int fieldCount = getCount(buffer);
+            Map<String, List<String>> fields = new HashMap<>(capacityFor(fieldCount));
+            for (int f = 0; f < fieldCount; f++) {
+                String key = getString(buffer, getVarInt(buffer));
+                int valueCount = getCount(buffer);
+                List<String> values = new ArrayList<>(valueCount);
+                for (int v = 0; v < valueCount; v++) {
+                    int lengthPlusOne = getVarInt(buffer);
+                    values.add(lengthPlusOne == 0 ? null : getString(buffer, lengthPlusOne - 1));
+                }
+                fields.put(key, values);
+            }
+            return fields;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated tablefacility payload", e);
+        }
+    }
+
+    /**
+     * Whether the buffer starts (at its position) with the binary payload magic.
+     */
+    public static boolean hasHeader(ByteBuffer buffer) {
+        int p = buffer.position();
+        return buffer.remaining() >= HEADER_LENGTH
+                && buffer.get(p) == MAGIC_0 && buffer.get(p + 1) == MAGIC_1 && buffer.get(p + 2) == MAGIC_2;
+    }
+
+    /**
+     * Encodes the fields into the bytes to store.
+     */
+    public static byte[] encodeToBytes(Map<String, List<String>> fields) {
+        // Exactly sized, so the backing array is the payload
+        return encode(fields).array();
+    }
+
+    /**
+     * Whether a cached value holds a binary payload rather than legacy JSON.
+     */
+    public static boolean isBinary(byte[] cachedValue) {
+        return cachedValue != null && hasHeader(ByteBuffer.wrap(cachedValue));
+    }
+
+    /**
+     * Decodes a binary payload as read from the cache, undoing the string encoding of version 1 payloads.
+     * @throws IllegalArgumentException if the value does not hold a supported payload
+     */
+    public static Map<String, List<String>> decodeStored(byte[] cachedValue) {
+        if (isBinary(cachedValue) && cachedValue[3] == LEGACY_STRING_VERSION) {
+            String legacy = new String(cachedValue, StandardCharsets.UTF_8);
+            return decode(ByteBuffer.wrap(legacy.getBytes(StandardCharsets.ISO_8859_1)));
+        }
+        return decode(ByteBuffer.wrap(cachedValue));
+    }
+
+    private static String getString(ByteBuffer buffer, int length) {
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("Truncated tablefacility payload");
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    /**
+     * Reads an element count, rejecting counts that cannot fit in the remaining bytes
+     * (every element takes at least one byte) before anything is allocated for them.
+     */
+    private static int getCount(ByteBuffer buffer) {
+        int count = getVarInt(buffer);
+        if (count > buffer.remaining()) {
+            throw new IllegalArgumentException("Truncated tablefacility payload");
+        }
+        return count;
+    }
+
+    private static int capacityFor(int size) {
+        return size < 3 ? size + 1 : (int) (size / 0.75f) + 1;
+    }
+
+    static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IllegalArgumentException("Negative length in tablefacility payload");
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in tablefacility payload");
+    }
+}
@@ -0,0 +1,152 @@
+package org.acme.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate codec for cached values.
+ * Values at or above the threshold are compressed and stored as a tagged header followed by
+ * the Base64 encoded Deflate stream. Values without the header are returned unchanged on decode,
+ * so entries written before compression was enabled (or below the threshold) still read back.
+ */
+public class ValueCompressionCodec {
+
+    /**
+     * Header marking a Deflate-compressed value. Starts with a control character that
+     * never appears at the front of a JSON document.
+     */
+    static final String DEFLATE_HEADER = "\u0001DF1:";
+    private static final byte[] DEFLATE_HEADER_BYTES = DEFLATE_HEADER.getBytes(StandardCharsets.US_ASCII);
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
+    private final int thresholdBytes;
+
+    public ValueCompressionCodec(int thresholdBytes) {
+        this.thresholdBytes = Math.max(0, thresholdBytes);
+    }
+
+    /**
+     * Compresses the value if it is large enough and compression actually shrinks it.
+     * @param value The plain value.
+     * @return The encoded value, or the plain value if compression does not pay off.
+     */
+    public String encode(String value) {
+        if (value == null || value.length() < thresholdBytes) {
+            return value;
+        }
+        byte[] raw = value.getBytes(StandardCharsets.UTF_8);
+        if (raw.length < thresholdBytes) {
+            return value;
+        }
+        String encoded = DEFLATE_HEADER + Base64.getEncoder().encodeToString(deflate(raw));
+        return encoded.length() < value.length() ? encoded : value;
+    }
+
+    /**
+     * Restores the plain value of an encoded entry.
+     * @param value The stored value.
+     * @return The plain value; untagged values are returned as-is.
+     * @throws IllegalStateException if a tagged value cannot be decompressed
+     */
+    public String decode(String value) {
+        if (!isCompressed(value)) {
+            return value;
+        }
+        byte[] compressed = Base64.getDecoder().decode(value.substring(DEFLATE_HEADER.length()));
+        return new String(inflate(compressed), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Byte form of {@link #encode(String)}: the header and Base64 text are ASCII, so the result is exactly
+     * the UTF-8 encoding of what the String form produces and either form can decode it.
+     * @param value The plain value, UTF-8 encoded.
+     * @return The encoded value, or the plain value if compression does not pay off.
+     */
+    public byte[] encodeBytes(byte[] value) {
+        if (value == null || value.length < thresholdBytes) {
+            return value;
+        }
+        byte[] deflated = Base64.getEncoder().encode(deflate(value));
+        if (DEFLATE_HEADER_BYTES.length + deflated.length >= value.length) {
+            return value;
+        }
+        byte[] encoded = new byte[DEFLATE_HEADER_BYTES.length + deflated.length];
+        System.arraycopy(DEFLATE_HEADER_BYTES, 0, encoded, 0, DEFLATE_HEADER_BYTES.length);
+        System.arraycopy(deflated, 0, encoded, DEFLATE_HEADER_BYTES.length, deflated.length);
+        return encoded;
+    }
+
+    /**
+     * Byte form of {@link #decode(String)}.
+     * @param value The stored value, UTF-8 encoded.
+     * @return The plain value, UTF-8 encoded; untagged values are returned as-is.
+     * @throws IllegalStateException if a tagged value cannot be decompressed
+     */
+    public byte[] decodeBytes(byte[] value) {
+        if (!isCompressed(value)) {
+            return value;
+        }
+        ByteBuffer base64 = ByteBuffer.wrap(value, DEFLATE_HEADER_BYTES.length, value.length - DEFLATE_HEADER_BYTES.length);
+        ByteBuffer compressed = Base64.getDecoder().decode(base64);
+        byte[] bytes = new byte[compressed.remaining()];
+        compressed.get(bytes);
+        return inflate(bytes);
+    }
+
+    private static boolean isCompressed(byte[] value) {
+        if (value == null || value.length < DEFLATE_HEADER_BYTES.length) {
+            return false;
+        }
+        for (int i = 0; i < DEFLATE_HEADER_BYTES.length; i++) {
+            if (value[i] != DEFLATE_HEADER_BYTES[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isCompressed(String value) {
+        return value != null && value.startsWith(DEFLATE_HEADER);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] compressed) {
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(compressed);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+        byte[] buffer = new byte[8192];
+        try {
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed cache value");
+                }
+                out.write(buffer, 0, n);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed cache value", e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,289 @@
+package org.acme.cache;
+
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.acme.config.CachingConfiguration;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind for cache puts: callers hand over the key and a serializer and return immediately,
+ * while background writers serialize the values in batches and store each batch with one bulk put,
+ * off the request path.
+ * <p>
+ * The queue is lock-free, bounded by a counter and partitioned by key, one partition per writer, so the
+ * writes of a key are stored in submission order. A write that does not fit, or that arrives after shutdown
+ * started, is shed rather than done on the caller's thread; the caller learns it from {@link #submit} and
+ * must not hand out the key. A queued write superseded by a later one of the same key is skipped. Writes
+ * still queued or in flight are visible through {@link #pendingValue(String)} so a follow-up read on this
+ * node sees its own write. On shutdown the queue is drained before the cache goes away.
+ */
+@ApplicationScoped
+public class WriteBehindCacheWriter {
+
+    private static final Logger LOG = Logger.getLogger(WriteBehindCacheWriter.class);
+
+    // How long an idle writer parks before checking whether shutdown started
+    private static final long IDLE_PARK_MS = 100;
+
+    /**
+     * A queued write. The value is serialized at most once, by whichever of the writer
+     * or a read-your-write lookup needs it first.
+     */
+    static final class PendingWrite {
+        final String key;
+        final int ttlSeconds;
+        private Supplier<byte[]> serializer;
+        private byte[] value;
+
+        PendingWrite(String key, Supplier<byte[]> serializer, int ttlSeconds) {
+            this.key = key;
+            this.serializer = serializer;
+            this.ttlSeconds = ttlSeconds;
+        }
+
+        synchronized byte[] value() {
+            if (serializer != null) {
+                value = serializer.get();
+                serializer = null;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Writes of the keys hashing to one writer. Only the writer, and the shutdown sweep after it,
+     * take the monitor, while storing a batch; submitters never do.
+     */
+    private static final class Partition {
+        final ConcurrentLinkedQueue<PendingWrite> queue = new ConcurrentLinkedQueue<>();
+        volatile Thread writer;
+        // Set by the writer before it parks, so submitters only unpark a writer that may be waiting
+        volatile boolean idle;
+    }
+
+    @Inject
+    CacheService cacheService;
+
+    @Inject
+    CachingConfiguration cachingConfiguration;
+
+    // Null until the first submit starts the writers
+    private volatile Partition[] partitions;
+    // Writes queued over all partitions, bounded by the queue capacity
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder shed = new LongAdder();
+    private final Map<String, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean accepting = true;
+
+    /**
+     * Whether puts should be handed to {@link #submit(String, Supplier, int)}.
+     */
+    public boolean isEnabled() {
+        return cachingConfiguration.isWriteBehindEnabled();
+    }
+
+    /**
+     * Queues a cache write without blocking. Serialization failures are logged by the writer and the entry is skipped.
+     * @return false if the write was shed because the queue is full or shutdown started; nothing is stored then.
+     */
+    public boolean submit(String key, Supplier<byte[]> serializer, int ttlSeconds) {
+        if (!accepting) {
+            return shed(key, "shutdown started");
+        }
+        if (queued.incrementAndGet() > cachingConfiguration.getWriteBehindQueueCapacity()) {
+            queued.decrementAndGet();
+            return shed(key, "queue full");
+        }
+        Partition[] current = startWriters();
+        Partition partition = current[Math.floorMod(key.hashCode(), current.length)];
+        PendingWrite write = new PendingWrite(key, serializer, ttlSeconds);
+        pending.put(key, write);
+        partition.queue.offer(write);
+        if (!accepting && partition.queue.remove(write)) {
+            // Shutdown started meanwhile and its final sweep may already have run
+            queued.decrementAndGet();
+            pending.remove(key, write);
+            return shed(key, "shutdown started");
+        }
+        if (partition.idle) {
+            LockSupport.unpark(partition.writer);
+        }
+        return true;
+    }
+
+    /**
+     * The serialized value of a write still queued or in flight for the key, or null if there is none.
+     */
+    public byte[] pendingValue(String key) {
+        PendingWrite write = key != null ? pending.get(key) : null;
+        if (write == null) {
+            return null;
+        }
+        try {
+            return write.value();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    int queuedCount() {
+        return queued.get();
+    }
+
+    /**
+     * Writes dropped because the queue was full or shutdown had started.
+     */
+    long shedCount() {
+        return shed.sum();
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        drain(cachingConfiguration.getWriteBehindDrainTimeoutMs());
+    }
+
+    /**
+     * Stops accepting writes, lets the writers empty the queue and writes whatever is left
+     * after the timeout from the calling thread.
+     */
+    void drain(long timeoutMs) {
+        accepting = false;
+        Partition[] current = partitions;
+        if (current == null) {
+            return;
+        }
+        for (Partition partition : current) {
+            LockSupport.unpark(partition.writer);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        for (Thread writer : writers) {
+            try {
+                writer.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // Also picks up writes enqueued by submits that raced the flag, after the writers exited
+        for (Partition partition : current) {
+            List<PendingWrite> rest = new ArrayList<>();
+            for (PendingWrite write; (write = partition.queue.poll()) != null; ) {
+                rest.add(write);
+            }
+            if (!rest.isEmpty()) {
+                LOG.warnf("Write-behind writers left %d entries after %d ms, writing them on shutdown", rest.size(), timeoutMs);
+                queued.addAndGet(-rest.size());
+                writeBatch(partition, rest);
+            }
+        }
+    }
+
+    private boolean shed(String key, String reason) {
+        shed.increment();
+        LOG.debugf("Write-behind %s, not caching key '%s'", reason, key);
+        return false;
+    }
+
+    private Partition[] startWriters() {
+        Partition[] current = partitions;
+        if (current != null) {
+            return current;
+        }
+        synchronized (writers) {
+            if (partitions == null) {
+                int count = Math.max(1, cachingConfiguration.getWriteBehindWriters());
+                Partition[] created = new Partition[count];
+                for (int i = 0; i < count; i++) {
+                    Partition partition = new Partition();
+                    created[i] = partition;
+                    Thread t = new Thread(() -> runWriter(partition), "cache-write-behind-" + i);
+                    t.setDaemon(true);
+                    partition.writer = t;
+                    writers.add(t);
+                }
+                partitions = created;
+                writers.forEach(Thread::start);
+                LOG.infof("Started %d write-behind cache writers", count);
+            }
+            return partitions;
+        }
+    }
+
+    private void runWriter(Partition partition) {
+        int batchSize = Math.max(1, cachingConfiguration.getWriteBehindBatchSize());
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            for (PendingWrite write; batch.size() < batchSize && (write = partition.queue.poll()) != null; ) {
+                batch.add(write);
+            }
+            if (batch.isEmpty()) {
+                if (!accepting) {
+                    return;
+                }
+                partition.idle = true;
+                // Re-checked after publishing idle, so a write offered meanwhile is not left waiting a full park
+                if (partition.queue.isEmpty()) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(IDLE_PARK_MS));
+                }
+                partition.idle = false;
+                continue;
+            }
+            queued.addAndGet(-batch.size());
+            writeBatch(partition, batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Serializes and stores the batch, skipping writes superseded by a later write of the same key.
+     */
+    private void writeBatch(Partition partition, List<PendingWrite> batch) {
+        synchronized (partition) {
+            writeBatch(batch);
+        }
+    }
+
+    private void writeBatch(List<PendingWrite> batch) {
+        // The bulk put takes one TTL, so the batch is stored as one put per distinct TTL
+        Map<Integer, Map<String, byte[]>> byTtl = new LinkedHashMap<>();
+        Map<Integer, List<PendingWrite>> writesByTtl = new HashMap<>();
+        for (PendingWrite write : batch) {
+            if (pending.get(write.key) != write) {
+                continue;
+            }
+            try {
+                byTtl.computeIfAbsent(write.ttlSeconds, ttl -> new LinkedHashMap<>()).put(write.key, write.value());
+                writesByTtl.computeIfAbsent(write.ttlSeconds, ttl -> new ArrayList<>()).add(write);
+            } catch (RuntimeException e) {
+                LOG.errorf("Error serializing cache entry '%s': %s", write.key, e.getMessage());
+                pending.remove(write.key, write);
+            }
+        }
+        byTtl.forEach((ttlSeconds, entries) -> {
+            try {
+                cacheService.putAllBytes(entries, ttlSeconds);
+                LOG.debugf("Wrote %d cache entries behind", entries.size());
+            } catch (RuntimeException e) {
+                LOG.errorf("Error writing %d cache entries behind, keys %s: %s", entries.size(), entries.keySet(), e.getMessage());
+            } finally {
+                // Stored or failed, either way only now can readers go to the cache itself
+                writesByTtl.get(ttlSeconds).forEach(write -> pending.remove(write.key, write));
+            }
+        });
+    }
+}
@@ -4,6 +4,9 @@ import jakarta.enterprise.context.ApplicationScoped;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Configuration service for caching settings
  */
@@ -21,6 +24,204 @@ public class CachingConfiguration {
     @ConfigProperty(name = "app.caching.type", defaultValue = "in-memory")
     String cacheType;
 
+    @ConfigProperty(name = "app.caching.tablefacility.format", defaultValue = "json")
+    String tablefacilityFormat;
+
+    @ConfigProperty(name = "app.caching.tablefacility.hydrate-fields")
+    Optional<List<String>> tablefacilityHydrateFields;
+
+    @ConfigProperty(name = "app.caching.redis.tablefacility-storage", defaultValue = "string")
+    String redisTablefacilityStorage;
+
+    @ConfigProperty(name = "app.caching.key.node-id")
+    Optional<Integer> keyNodeId;
+
+    @ConfigProperty(name = "app.caching.peer-fetch.peers")
+    Optional<List<String>> peerFetchPeers;
+
+    @ConfigProperty(name = "app.caching.peer-fetch.secret")
+    Optional<String> peerFetchSecret;
+
+    @ConfigProperty(name = "app.caching.peer-fetch.connect-timeout-ms", defaultValue = "100")
+    long peerFetchConnectTimeoutMs;
+
+    @ConfigProperty(name = "app.caching.peer-fetch.timeout-ms", defaultValue = "250")
+    long peerFetchTimeoutMs;
+
+    @ConfigProperty(name = "app.caching.request-timeout-ms", defaultValue = "1000")
+    long requestTimeoutMs;
+
+    @ConfigProperty(name = "app.caching.key.lifecycle", defaultValue = "new-key")
+    String keyLifecycle;
+
+    @ConfigProperty(name = "app.caching.key.max-lifetime-seconds", defaultValue = "86400")
+    int keyMaxLifetimeSeconds;
+
+    @ConfigProperty(name = "app.caching.ttl.jitter", defaultValue = "0.1")
+    double ttlJitter;
+
+    @ConfigProperty(name = "app.caching.ttl.adaptive.enabled", defaultValue = "false")
+    boolean adaptiveTtlEnabled;
+
+    @ConfigProperty(name = "app.caching.ttl.adaptive.percentile", defaultValue = "0.99")
+    double adaptiveTtlPercentile;
+
+    @ConfigProperty(name = "app.caching.ttl.adaptive.min-samples", defaultValue = "100")
+    int adaptiveTtlMinSamples;
+
+    @ConfigProperty(name = "app.caching.ttl.adaptive.min-seconds", defaultValue = "30")
+    int adaptiveTtlMinSeconds;
+
+    @ConfigProperty(name = "app.caching.negative-lookup.enabled", defaultValue = "false")
+    boolean negativeLookupEnabled;
+
+    @ConfigProperty(name = "app.caching.negative-lookup.false-positive-rate", defaultValue = "0.01")
+    double negativeLookupFalsePositiveRate;
+
+    @ConfigProperty(name = "app.caching.negative-lookup.expected-keys", defaultValue = "100000")
+    long negativeLookupExpectedKeys;
+
+    @ConfigProperty(name = "app.caching.negative-lookup.generations", defaultValue = "4")
+    int negativeLookupGenerations;
+
+    @ConfigProperty(name = "app.caching.compression.redis.enabled", defaultValue = "true")
+    boolean redisCompressionEnabled;
+
+    @ConfigProperty(name = "app.caching.compression.redis.threshold", defaultValue = "1024")
+    int redisCompressionThresholdBytes;
+
+    @ConfigProperty(name = "app.caching.compression.in-memory.enabled", defaultValue = "true")
+    boolean inMemoryCompressionEnabled;
+
+    @ConfigProperty(name = "app.caching.compression.in-memory.threshold", defaultValue = "1024")
+    int inMemoryCompressionThresholdBytes;
+
+    @ConfigProperty(name = "app.caching.redis.clear-all.scan-count", defaultValue = "1000")
+    int redisClearAllScanCount;
+
+    @ConfigProperty(name = "app.caching.redis.clear-all.max-keys-per-second", defaultValue = "50000")
+    int redisClearAllMaxKeysPerSecond;
+
+    @ConfigProperty(name = "app.caching.redis.sharding.clients")
+    Optional<List<String>> redisShardingClients;
+
+    @ConfigProperty(name = "app.caching.redis.sharding.virtual-nodes", defaultValue = "160")
+    int redisShardingVirtualNodes;
+
+    @ConfigProperty(name = "app.caching.redis.failover.enabled", defaultValue = "true")
+    boolean redisFailoverEnabled;
+
+    @ConfigProperty(name = "app.caching.redis.failover.failure-threshold", defaultValue = "5")
+    int redisFailoverFailureThreshold;
+
+    @ConfigProperty(name = "app.caching.redis.failover.slow-call-ms", defaultValue = "250")
+    long redisFailoverSlowCallMs;
+
+    @ConfigProperty(name = "app.caching.redis.failover.probe-interval-ms", defaultValue = "1000")
+    long redisFailoverProbeIntervalMs;
+
+    @ConfigProperty(name = "app.caching.metrics.enabled", defaultValue = "true")
+    boolean metricsEnabled;
+
+    @ConfigProperty(name = "app.caching.admin.enabled", defaultValue = "false")
+    boolean adminEnabled;
+
+    @ConfigProperty(name = "app.caching.admin.max-scan-keys", defaultValue = "100000")
+    long adminMaxScanKeys;
+
+    @ConfigProperty(name = "app.caching.hot-keys.enabled", defaultValue = "true")
+    boolean hotKeysEnabled;
+
+    @ConfigProperty(name = "app.caching.hot-keys.top-k", defaultValue = "20")
+    int hotKeysTopK;
+
+    @ConfigProperty(name = "app.caching.hot-keys.sample-one-in", defaultValue = "16")
+    int hotKeysSampleOneIn;
+
+    @ConfigProperty(name = "app.caching.read-through.refresh-ahead-seconds", defaultValue = "0")
+    int refreshAheadSeconds;
+
+    @ConfigProperty(name = "app.caching.read-through.refresh-threads", defaultValue = "2")
+    int refreshAheadThreads;
+
+    @ConfigProperty(name = "app.caching.read-through.max-tracked-keys", defaultValue = "100000")
+    int refreshAheadMaxTrackedKeys;
+
+    @ConfigProperty(name = "app.caching.dedup.enabled", defaultValue = "false")
+    boolean dedupEnabled;
+
+    @ConfigProperty(name = "app.caching.dedup.min-bytes", defaultValue = "512")
+    int dedupMinBytes;
+
+    @ConfigProperty(name = "app.caching.coalescing.enabled", defaultValue = "true")
+    boolean coalescingEnabled;
+
+    @ConfigProperty(name = "app.caching.in-memory.persistence.enabled", defaultValue = "false")
+    boolean inMemoryPersistenceEnabled;
+
+    @ConfigProperty(name = "app.caching.in-memory.persistence.directory", defaultValue = "data/tf-cache")
+    String inMemoryPersistenceDirectory;
+
+    @ConfigProperty(name = "app.caching.shared-memory.file", defaultValue = "data/tf-cache.shm")
+    String sharedMemoryFile;
+
+    @ConfigProperty(name = "app.caching.shared-memory.buckets", defaultValue = "4096")
+    int sharedMemoryBuckets;
+
+    @ConfigProperty(name = "app.caching.shared-memory.slots-per-bucket", defaultValue = "8")
+    int sharedMemorySlotsPerBucket;
+
+    @ConfigProperty(name = "app.caching.shared-memory.slot-bytes", defaultValue = "4096")
+    int sharedMemorySlotBytes;
+
+    @ConfigProperty(name = "app.caching.in-memory.persistence.snapshot-interval-seconds", defaultValue = "300")
+    long inMemoryPersistenceSnapshotIntervalSeconds;
+
+    @ConfigProperty(name = "app.caching.in-memory.persistence.log-queue-capacity", defaultValue = "65536")
+    int inMemoryPersistenceLogQueueCapacity;
+
+    @ConfigProperty(name = "app.caching.in-memory.max-bytes", defaultValue = "0")
+    long inMemoryMaxBytes;
+
+    @ConfigProperty(name = "app.caching.in-memory.spill.enabled", defaultValue = "false")
+    boolean spillEnabled;
+
+    @ConfigProperty(name = "app.caching.in-memory.spill.directory", defaultValue = "data/tf-cache-spill")
+    String spillDirectory;
+
+    @ConfigProperty(name = "app.caching.in-memory.spill.segment-bytes", defaultValue = "67108864")
+    int spillSegmentBytes;
+
+    @ConfigProperty(name = "app.caching.in-memory.spill.max-bytes", defaultValue = "1073741824")
+    long spillMaxBytes;
+
+    @ConfigProperty(name = "app.caching.in-memory.heap-pressure.enabled", defaultValue = "false")
+    boolean heapPressureEnabled;
+
+    @ConfigProperty(name = "app.caching.in-memory.heap-pressure.high-watermark", defaultValue = "0.85")
+    double heapPressureHighWatermark;
+
+    @ConfigProperty(name = "app.caching.in-memory.heap-pressure.low-watermark", defaultValue = "0.70")
+    double heapPressureLowWatermark;
+
+    @ConfigProperty(name = "app.caching.in-memory.heap-pressure.shed-fraction", defaultValue = "0.25")
+    double heapPressureShedFraction;
+
+    @ConfigProperty(name = "app.caching.write-behind.enabled", defaultValue = "false")
+    boolean writeBehindEnabled;
+
+    @ConfigProperty(name = "app.caching.write-behind.queue-capacity", defaultValue = "10000")
+    int writeBehindQueueCapacity;
+
+    @ConfigProperty(name = "app.caching.write-behind.writers", defaultValue = "2")
+    int writeBehindWriters;
+
+    @ConfigProperty(name = "app.caching.write-behind.batch-size", defaultValue = "100")
+    int writeBehindBatchSize;
+
+    @ConfigProperty(name = "app.caching.write-behind.drain-timeout-ms", defaultValue = "5000")
+    long writeBehindDrainTimeoutMs;
+
     // Runtime override for cache type (e.g., when Redis is unhealthy)
     private String overrideCacheType;
 
@@ -32,6 +233,446 @@ public class CachingConfiguration {
         return tablefacilityTtlSeconds;
     }
 
+    /**
+     * Whether tablefacility payloads are written in the compact binary format ("binary") rather than
+     * JSON ("json", default). Both formats are readable by this version; nodes of earlier versions read
+     * binary payloads as misses, so binary is only enabled once every node is upgraded.
+     */
+    public boolean isBinaryTablefacilityFormat() {
+        return "binary".equalsIgnoreCase(tablefacilityFormat);
+    }
+
+    /**
+     * Node id embedded in generated cache keys (0-3843); defaults to a hash of the host name.
+     */
+    public Optional<Integer> getKeyNodeId() {
+        return keyNodeId;
+    }
+
+    /**
+     * Peers that misses on keys of other nodes are fetched from, as "&lt;node-id&gt;=&lt;base-url&gt;" entries.
+     * Empty disables peer fetching.
+     */
+    public List<String> getPeerFetchPeers() {
+        return peerFetchPeers.orElse(List.of());
+    }
+
+    /**
+     * Secret shared by all nodes, sent with every peer fetch and required by the entry endpoint.
+     * Peer fetching stays disabled without it.
+     */
+    public Optional<String> getPeerFetchSecret() {
+        return peerFetchSecret.filter(secret -> !secret.isBlank());
+    }
+
+    public long getPeerFetchConnectTimeoutMs() {
+        return peerFetchConnectTimeoutMs;
+    }
+
+    /**
+     * Deadline of a whole peer fetch; a slower owner counts as a miss.
+     */
+    public long getPeerFetchTimeoutMs() {
+        return peerFetchTimeoutMs;
+    }
+
+    /**
+     * Deadline of the cache work around one transaction, hydration and response caching each; past it the
+     * transaction runs with its own fields and the response is returned uncached. 0 waits indefinitely.
+     */
+    public long getRequestTimeoutMs() {
+        return requestTimeoutMs;
+    }
+
+    /**
+     * Whether a continuing conversation keeps its cache key ("reuse"): hydration touches the entry
+     * with a sliding TTL and the next response overwrites it in place.
+     */
+    public boolean isKeyReuseEnabled() {
+        return "reuse".equalsIgnoreCase(keyLifecycle);
+    }
+
+    /**
+     * Whether hydration consumes the entry it reads ("consume"), so every step leaves one live entry.
+     * The default ("new-key") leaves previous entries to their TTL.
+     */
+    public boolean isKeyConsumeEnabled() {
+        return "consume".equalsIgnoreCase(keyLifecycle);
+    }
+
+    /**
+     * Lifetime of a reused key; once less than one TTL of it remains, the conversation moves to a new key.
+     */
+    public int getKeyMaxLifetimeSeconds() {
+        return keyMaxLifetimeSeconds;
+    }
+
+    /**
+     * Fraction of the TTL added at random to each new entry, so entries written together do not expire together.
+     */
+    public double getTtlJitter() {
+        return Math.max(0, ttlJitter);
+    }
+
+    /**
+     * Whether tablefacility TTLs follow the observed delay between writing an entry and hydrating it,
+     * per transaction family, with the tablefacility TTL as the upper bound.
+     */
+    public boolean isAdaptiveTtlEnabled() {
+        return adaptiveTtlEnabled;
+    }
+
+    /**
+     * Share of observed hydrations an adaptive TTL must cover.
+     */
+    public double getAdaptiveTtlPercentile() {
+        return Math.min(1, Math.max(0, adaptiveTtlPercentile));
+    }
+
+    /**
+     * Hydrations a transaction family needs before its TTL adapts.
+     */
+    public int getAdaptiveTtlMinSamples() {
+        return Math.max(1, adaptiveTtlMinSamples);
+    }
+
+    /**
+     * Lower bound of adaptive TTLs.
+     */
+    public int getAdaptiveTtlMinSeconds() {
+        return adaptiveTtlMinSeconds;
+    }
+
+    /**
+     * Whether hydration skips the cache for keys this node has not written or served within an entry lifetime,
+     * as told by a rotating Bloom filter.
+     */
+    public boolean isNegativeLookupEnabled() {
+        return negativeLookupEnabled;
+    }
+
+    /**
+     * Share of keys absent from the cache that the filter still reports as possibly present.
+     */
+    public double getNegativeLookupFalsePositiveRate() {
+        return Math.min(0.5, Math.max(1e-9, negativeLookupFalsePositiveRate));
+    }
+
+    /**
+     * Keys written per filter generation that keep the false-positive rate; more keys raise it.
+     */
+    public long getNegativeLookupExpectedKeys() {
+        return Math.max(1, negativeLookupExpectedKeys);
+    }
+
+    /**
+     * Filters the entry lifetime is split across; more generations retire old keys sooner at the cost of memory.
+     */
+    public int getNegativeLookupGenerations() {
+        return Math.max(2, negativeLookupGenerations);
+    }
+
+    /**
+     * Tablefacility fields hydration needs; empty means all cached fields.
+     * Only field-level (hash) storage can fetch a subset.
+     */
+    public List<String> getTablefacilityHydrateFields() {
+        return tablefacilityHydrateFields.orElse(List.of());
+    }
+
+    /**
+     * Named Redis clients ({@code quarkus.redis.<name>.hosts}) to shard keys across; empty uses the default client only.
+     */
+    public List<String> getRedisShardingClients() {
+        return redisShardingClients.orElse(List.of());
+    }
+
+    /**
+     * Points per Redis shard on the consistent-hash ring.
+     */
+    public int getRedisShardingVirtualNodes() {
+        return redisShardingVirtualNodes;
+    }
+
+    /**
+     * Whether Redis keeps tablefacility fields as a hash ("hash") rather than one value ("string", default).
+     */
+    public boolean isRedisHashTablefacilityStorage() {
+        return "hash".equalsIgnoreCase(redisTablefacilityStorage);
+    }
+
+    /**
+     * COUNT hint for each SCAN issued by the Redis clearAll().
+     */
+    public int getRedisClearAllScanCount() {
+        return redisClearAllScanCount;
+    }
+
+    /**
+     * Maximum keys per second removed by the Redis clearAll(); 0 disables the limit.
+     */
+    public int getRedisClearAllMaxKeysPerSecond() {
+        return redisClearAllMaxKeysPerSecond;
+    }
+
+    /**
+     * Whether Redis runs behind a circuit breaker that fails over to a local in-memory cache.
+     */
+    public boolean isRedisFailoverEnabled() {
+        return redisFailoverEnabled;
+    }
+
+    /**
+     * Consecutive failed or slow Redis calls that open the circuit breaker.
+     */
+    public int getRedisFailoverFailureThreshold() {
+        return redisFailoverFailureThreshold;
+    }
+
+    /**
+     * Latency above which a Redis call counts as a failure; 0 disables latency tracking.
+     */
+    public long getRedisFailoverSlowCallMs() {
+        return redisFailoverSlowCallMs;
+    }
+
+    /**
+     * Delay between recovery probes while the circuit breaker is open.
+     */
+    public long getRedisFailoverProbeIntervalMs() {
+        return redisFailoverProbeIntervalMs;
+    }
+
+    /**
+     * Whether cache operations are published as Micrometer metrics.
+     */
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * Whether the cache inspection endpoints under /api/admin/cache are served.
+     */
+    public boolean isAdminEnabled() {
+        return adminEnabled;
+    }
+
+    /**
+     * Upper bound on the entries one usage report scans, to keep its cost bounded on a large cache.
+     */
+    public long getAdminMaxScanKeys() {
+        return adminMaxScanKeys;
+    }
+
+    /**
+     * Whether cache keys and transaction ids are counted to report the most frequent ones.
+     */
+    public boolean isHotKeysEnabled() {
+        return hotKeysEnabled;
+    }
+
+    /**
+     * Number of hottest cache keys and transaction ids kept.
+     */
+    public int getHotKeysTopK() {
+        return Math.max(1, hotKeysTopK);
+    }
+
+    /**
+     * Operations per recorded sample (rounded up to a power of two); 1 records every operation.
+     */
+    public int getHotKeysSampleOneIn() {
+        return Math.max(1, hotKeysSampleOneIn);
+    }
+
+    /**
+     * Remaining lifetime, in seconds, below which a read-through hit reloads the entry in the background;
+     * 0 disables refresh-ahead.
+     */
+    public int getRefreshAheadSeconds() {
+        return Math.max(0, refreshAheadSeconds);
+    }
+
+    /**
+     * Threads reloading entries ahead of their expiry.
+     */
+    public int getRefreshAheadThreads() {
+        return Math.max(1, refreshAheadThreads);
+    }
+
+    /**
+     * Loaded entries whose expiry is remembered for refresh-ahead; entries beyond it are only loaded on a miss.
+     */
+    public int getRefreshAheadMaxTrackedKeys() {
+        return Math.max(1, refreshAheadMaxTrackedKeys);
+    }
+
+    /**
+     * Whether large values are stored once per distinct content, with keys holding pointers to them.
+     */
+    public boolean isDedupEnabled() {
+        return dedupEnabled;
+    }
+
+    /**
+     * Minimum value size before it is stored by content digest rather than inline.
+     */
+    public int getDedupMinBytes() {
+        return dedupMinBytes;
+    }
+
+    /**
+     * Whether concurrent reads of the same key share one backend fetch and decode.
+     */
+    public boolean isCoalescingEnabled() {
+        return coalescingEnabled;
+    }
+
+    /**
+     * Whether the in-memory cache is persisted to disk and reloaded on startup.
+     */
+    public boolean isInMemoryPersistenceEnabled() {
+        return inMemoryPersistenceEnabled;
+    }
+
+    /**
+     * Directory holding the in-memory cache snapshot and change logs.
+     */
+    public String getInMemoryPersistenceDirectory() {
+        return inMemoryPersistenceDirectory;
+    }
+
+    /**
+     * Delay between snapshots of the in-memory cache; 0 only snapshots on shutdown.
+     */
+    public long getInMemoryPersistenceSnapshotIntervalSeconds() {
+        return inMemoryPersistenceSnapshotIntervalSeconds;
+    }
+
+    /**
+     * Changes that may wait for the log writer; beyond this, logging pauses until the next snapshot.
+     */
+    public int getInMemoryPersistenceLogQueueCapacity() {
+        return inMemoryPersistenceLogQueueCapacity;
+    }
+
+    /**
+     * Estimated heap bytes the in-memory cache may hold before entries are demoted to disk or evicted; 0 for no limit.
+     */
+    public long getInMemoryMaxBytes() {
+        return inMemoryMaxBytes;
+    }
+
+    /**
+     * Whether entries leaving the in-memory cache's heap go to local segment files instead of being dropped.
+     */
+    public boolean isSpillEnabled() {
+        return spillEnabled;
+    }
+
+    /**
+     * Directory of the spill segment files; its segment files are deleted on startup.
+     */
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    /**
+     * Size of one spill segment file, which is also the largest value that can be spilled.
+     */
+    public int getSpillSegmentBytes() {
+        return spillSegmentBytes;
+    }
+
+    /**
+     * Disk budget of the spill tier; beyond it the oldest segment is dropped.
+     */
+    public long getSpillMaxBytes() {
+        return spillMaxBytes;
+    }
+
+    /**
+     * Whether in-memory caches shed entries and refuse new ones while the old generation is nearly full.
+     */
+    public boolean isHeapPressureEnabled() {
+        return heapPressureEnabled;
+    }
+
+    /**
+     * Used share of the old generation at which heap pressure starts.
+     */
+    public double getHeapPressureHighWatermark() {
+        return heapPressureHighWatermark;
+    }
+
+    /**
+     * Used share of the old generation after a collection at which heap pressure ends.
+     */
+    public double getHeapPressureLowWatermark() {
+        return heapPressureLowWatermark;
+    }
+
+    /**
+     * Share of the cache's estimated bytes evicted per shedding round, at most one round per second.
+     */
+    public double getHeapPressureShedFraction() {
+        return Math.min(1, Math.max(0, heapPressureShedFraction));
+    }
+
+    /**
+     * Memory-mapped file shared by the instances of one host when the cache type is "shared-memory".
+     */
+    public String getSharedMemoryFile() {
+        return sharedMemoryFile;
+    }
+
+    public int getSharedMemoryBuckets() {
+        return sharedMemoryBuckets;
+    }
+
+    public int getSharedMemorySlotsPerBucket() {
+        return sharedMemorySlotsPerBucket;
+    }
+
+    /**
+     * Bytes per shared-memory slot; larger (compressed) values are not cached.
+     */
+    public int getSharedMemorySlotBytes() {
+        return sharedMemorySlotBytes;
+    }
+
+    /**
+     * Whether response payloads are cached by background writers instead of on the request thread.
+     */
+    public boolean isWriteBehindEnabled() {
+        return writeBehindEnabled;
+    }
+
+    /**
+     * Writes that may wait in the write-behind queue; beyond that writes are shed and responses go back uncached.
+     */
+    public int getWriteBehindQueueCapacity() {
+        return writeBehindQueueCapacity;
+    }
+
+    public int getWriteBehindWriters() {
+        return writeBehindWriters;
+    }
+
+    /**
+     * Maximum number of entries a write-behind writer stores with one bulk put.
+     */
+    public int getWriteBehindBatchSize() {
+        return writeBehindBatchSize;
+    }
+
+    /**
+     * How long shutdown waits for the write-behind writers before writing the rest itself.
+     */
+    public long getWriteBehindDrainTimeoutMs() {
+        return writeBehindDrainTimeoutMs;
+    }
+
     public String getCacheType() {
         return overrideCacheType != null ? overrideCacheType : cacheType;
     }
@@ -44,6 +685,20 @@ public class CachingConfiguration {
         this.overrideCacheType = newCacheType;
     }
 
+    /**
+     * Whether values are compressed for the active cache type.
+     */
+    public boolean isCompressionEnabled() {
+        return isRedisCache() ? redisCompressionEnabled : inMemoryCompressionEnabled;
+    }
+
+    /**
+     * Minimum value size in bytes before compression is attempted, for the active cache type.
+     */
+    public int getCompressionThresholdBytes() {
+        return isRedisCache() ? redisCompressionThresholdBytes : inMemoryCompressionThresholdBytes;
+    }
+
     public boolean isRedisCache() {
         return "redis".equalsIgnoreCase(getCacheType());
     }
@@ -51,4 +706,8 @@ public class CachingConfiguration {
     public boolean isInMemoryCache() {
         return "in-memory".equalsIgnoreCase(getCacheType());
     }
+
+    public boolean isSharedMemoryCache() {
+        return "shared-memory".equalsIgnoreCase(getCacheType());
+    }
 }
@@ -0,0 +1,43 @@
+package org.acme;
+
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.Response;
+import org.acme.cache.PeerCacheClient;
+import org.acme.constants.CacheConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PeerCacheResourceTest {
+
+    private static final String SECRET = "peer-secret";
+    private static final String KEY = CacheConstants.CACHE_KEY_PREFIX + "k1";
+
+    private PeerCacheResource resource;
+
+    @BeforeEach
+    void setUp() {
+        resource = new PeerCacheResource();
+        resource.peerCacheClient = new PeerCacheClient() {
+            @Override
+            public boolean isPeer(String presentedSecret) {
+                return SECRET.equals(presentedSecret);
+            }
+        };
+    }
+
+    @Test
+    void callersWithoutThePeerSecretAreNotServed() {
+        // No cache is wired in, so any rejected call that reached it would fail with an NPE
+        assertThrows(NotFoundException.class, () -> resource.entry(KEY, null));
+        assertThrows(NotFoundException.class, () -> resource.touch(KEY, "wrong", 60));
+        assertThrows(NotFoundException.class, () -> resource.consume(KEY, "wrong"));
+    }
+
+    @Test
+    void touchNeedsAPositiveTtl() {
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), resource.touch(KEY, SECRET, 0).getStatus());
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), resource.touch(KEY, SECRET, -1).getStatus());
+    }
+}
@@ -0,0 +1,126 @@
+package org.acme.cache;
+
+import org.acme.config.CachingConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveTtlPolicyTest {
+
+    private static final int CONFIGURED_TTL = 3600;
+
+    private AdaptiveTtlPolicy policy;
+    private boolean adaptive = true;
+    private double jitter = 0;
+
+    @BeforeEach
+    void setUp() {
+        policy = new AdaptiveTtlPolicy();
+        policy.cachingConfiguration = new CachingConfiguration() {
+            @Override
+            public int getTablefacilityTtlSeconds() {
+                return CONFIGURED_TTL;
+            }
+
+            @Override
+            public double getTtlJitter() {
+                return jitter;
+            }
+
+            @Override
+            public boolean isAdaptiveTtlEnabled() {
+                return adaptive;
+            }
+
+            @Override
+            public double getAdaptiveTtlPercentile() {
+                return 0.99;
+            }
+
+            @Override
+            public int getAdaptiveTtlMinSamples() {
+                return 100;
+            }
+
+            @Override
+            public int getAdaptiveTtlMinSeconds() {
+                return 30;
+            }
+        };
+    }
+
+    @Test
+    void testConfiguredTtlUntilEnoughSamples() {
+        for (int i = 0; i < 99; i++) {
+            policy.recordReuse("payment", 5_000);
+        }
+        assertEquals(CONFIGURED_TTL, policy.ttlFor("payment-1"));
+
+        policy.recordReuse("payment", 5_000);
+        assertTrue(policy.ttlFor("payment-1") < CONFIGURED_TTL);
+    }
+
+    @Test
+    void testTtlCoversPercentileOfReuse() {
+        for (int i = 0; i < 990; i++) {
+            policy.recordReuse("payment", 40_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            policy.recordReuse("payment", 2_000_000);
+        }
+
+        int ttl = policy.ttlFor("Payment_42");
+        assertTrue(ttl >= 40 && ttl <= 50, "TTL " + ttl + " should cover 40 s with bucket headroom only");
+        // Other families keep the configured TTL
+        assertEquals(CONFIGURED_TTL, policy.ttlFor("refund-1"));
+    }
+
+    @Test
+    void testTtlBounds() {
+        for (int i = 0; i < 100; i++) {
+            policy.recordReuse("fast", 100);
+            policy.recordReuse("slow", 10_000_000);
+        }
+
+        assertEquals(30, policy.ttlFor("fast1"));
+        assertEquals(CONFIGURED_TTL, policy.ttlFor("slow1"));
+    }
+
+    @Test
+    void testJitterOnlyExtends() {
+        jitter = 0.1;
+        adaptive = false;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < 1000; i++) {
+            int ttl = policy.ttlFor("payment-1");
+            min = Math.min(min, ttl);
+            max = Math.max(max, ttl);
+        }
+
+        assertTrue(min >= CONFIGURED_TTL);
+        assertTrue(max <= CONFIGURED_TTL * 1.1);
+        assertTrue(max > min, "TTLs should be spread");
+    }
+
+    @Test
+    void testHydrationOfTrackedWrite() {
+        policy.recordWrite("key-1", "payment-1");
+        policy.recordHydration("key-1");
+        policy.recordHydration("key-1");
+        policy.recordHydration("unknown");
+
+        assertEquals(1, policy.sampleCount("payment"));
+        assertEquals(0, policy.sampleCount("default"));
+    }
+
+    @Test
+    void testFamilyOf() {
+        assertEquals("payment", AdaptiveTtlPolicy.familyOf("Payment-123"));
+        assertEquals("payment", AdaptiveTtlPolicy.familyOf("payment_456"));
+        assertEquals("test", AdaptiveTtlPolicy.familyOf("test123"));
+        assertEquals(AdaptiveTtlPolicy.DEFAULT_FAMILY, AdaptiveTtlPolicy.familyOf("42"));
+        assertEquals(AdaptiveTtlPolicy.DEFAULT_FAMILY, AdaptiveTtlPolicy.familyOf(null));
+    }
+}
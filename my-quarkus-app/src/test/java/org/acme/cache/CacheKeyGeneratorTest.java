@@ -0,0 +1,54 @@
+package org.acme.cache;
+
+import org.acme.cache.CacheKeyGenerator.KeyStatus;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheKeyGeneratorTest {
+
+    private static final long NOW = 1_760_000_000L;
+
+    @Test
+    void keysHaveFixedLengthAndCarryTheirExpiry() {
+        String key = CacheKeyGenerator.encode(NOW + 3600, 42, 7);
+
+        assertTrue(key.startsWith("TF_CACHE_"));
+        assertEquals(CacheKeyGenerator.KEY_LENGTH, key.length());
+        assertEquals(KeyStatus.VALID, CacheKeyGenerator.inspect(key, NOW));
+        assertEquals(KeyStatus.EXPIRED, CacheKeyGenerator.inspect(key, NOW + 3600));
+    }
+
+    @Test
+    void sequenceMakesKeysUnique() {
+        assertNotEquals(CacheKeyGenerator.encode(NOW, 1, 1), CacheKeyGenerator.encode(NOW, 1, 2));
+        assertNotEquals(CacheKeyGenerator.encode(NOW, 1, 1), CacheKeyGenerator.encode(NOW, 2, 1));
+    }
+
+    @Test
+    void tamperedAndForeignKeysAreMalformed() {
+        String key = CacheKeyGenerator.encode(NOW + 3600, 42, 7);
+        char[] tampered = key.toCharArray();
+        tampered[12] = tampered[12] == 'a' ? 'b' : 'a';
+
+        assertEquals(KeyStatus.MALFORMED, CacheKeyGenerator.inspect(new String(tampered), NOW));
+        assertEquals(KeyStatus.MALFORMED, CacheKeyGenerator.inspect("invalid_cache_key_12345", NOW));
+        assertEquals(KeyStatus.MALFORMED, CacheKeyGenerator.inspect("TF_CACHE_garbage", NOW));
+        assertEquals(KeyStatus.MALFORMED, CacheKeyGenerator.inspect(null, NOW));
+    }
+
+    @Test
+    void legacyKeysAreStillLookedUp() {
+        assertEquals(KeyStatus.LEGACY, CacheKeyGenerator.inspect("TF_CACHE_trx-123_1760000000000", NOW));
+    }
+
+    @Test
+    void keysCanBeExtendedWhileTheirLifetimeCoversAnotherTtl() {
+        String key = CacheKeyGenerator.encode(NOW + 7200, 42, 7);
+
+        assertTrue(CacheKeyGenerator.canExtend(key, 3600, NOW));
+        assertFalse(CacheKeyGenerator.canExtend(key, 3600, NOW + 3601));
+        assertFalse(CacheKeyGenerator.canExtend(key, 0, NOW));
+        assertFalse(CacheKeyGenerator.canExtend("TF_CACHE_trx-123_1760000000000", 3600, NOW));
+    }
+}
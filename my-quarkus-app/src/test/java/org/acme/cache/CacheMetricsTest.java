@@ -0,0 +1,57 @@
+package org.acme.cache;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.acme.dto.TransactionRequestDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+
+/**
+ * Verifies cache metrics are published at /q/metrics once the cache has been used.
+ */
+@QuarkusTest
+public class CacheMetricsTest {
+
+    @Test
+    void cacheOperationsArePublished() {
+        TransactionRequestDTO request = new TransactionRequestDTO();
+        Map<String, String> fields = new HashMap<>();
+        fields.put("mockTF", "3");
+        request.setFields(fields);
+        request.setTrxId("metrics_test");
+
+        String cacheKey = given()
+            .contentType(ContentType.JSON)
+            .body(request)
+        .when()
+            .post("/api/transaction")
+        .then()
+            .statusCode(200)
+            .extract()
+            .jsonPath()
+            .getString("fields.tf_cache_key[0]");
+
+        TransactionRequestDTO hydration = new TransactionRequestDTO();
+        Map<String, String> hydrationFields = new HashMap<>();
+        hydrationFields.put("tf_cache_key", cacheKey);
+        hydration.setFields(hydrationFields);
+        hydration.setTrxId("metrics_test_2");
+        given().contentType(ContentType.JSON).body(hydration).when().post("/api/transaction").then().statusCode(200);
+
+        given()
+        .when()
+            .get("/q/metrics")
+        .then()
+            .statusCode(200)
+            .body(containsString("tf_cache_puts_total{cache=\"in-memory\"}"))
+            .body(containsString("tf_cache_gets_total{cache=\"in-memory\",result=\"hit\"}"))
+            .body(containsString("tf_cache_get_latency_seconds{cache=\"in-memory\",quantile=\"0.99\"}"))
+            .body(containsString("tf_cache_entries{cache=\"in-memory\"}"))
+            .body(containsString("tf_cache_value_size_bytes"));
+    }
+}
@@ -0,0 +1,90 @@
+package org.acme.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheUsageReportTest {
+
+    @Test
+    void inMemoryScanVisitsEveryEntryOnceAcrossPages() {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        for (int i = 0; i < 25; i++) {
+            cache.put("TF_CACHE_k" + i, "v", 60);
+        }
+
+        Set<String> seen = new HashSet<>();
+        String cursor = CacheInspector.START_CURSOR;
+        int pages = 0;
+        do {
+            CacheInspector.Page page = cache.scan(cursor, 10);
+            page.getEntries().forEach(entry -> assertTrue(seen.add(entry.getKey())));
+            cursor = page.getCursor();
+            pages++;
+        } while (!CacheInspector.START_CURSOR.equals(cursor));
+
+        assertEquals(25, seen.size());
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void inMemoryScanReportsEntriesPresentThroughoutOnceWhileTheMapChanges() {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        for (int i = 0; i < 100; i++) {
+            cache.put("TF_CACHE_k" + i, "v", 60);
+        }
+
+        Set<String> seen = new HashSet<>();
+        String cursor = CacheInspector.START_CURSOR;
+        int round = 0;
+        do {
+            CacheInspector.Page page = cache.scan(cursor, 7);
+            page.getEntries().forEach(entry -> assertTrue(seen.add(entry.getKey()), "Reported twice: " + entry.getKey()));
+            cursor = page.getCursor();
+            // Churn between pages, and a concurrent scan replacing the snapshot
+            cache.put("TF_CACHE_new" + round, "v", 60);
+            cache.clear("TF_CACHE_new" + (round - 1));
+            if (round++ == 3) {
+                cache.scan(CacheInspector.START_CURSOR, 1);
+            }
+        } while (!CacheInspector.START_CURSOR.equals(cursor));
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(seen.contains("TF_CACHE_k" + i), "Missed TF_CACHE_k" + i);
+        }
+    }
+
+    @Test
+    void reportsLargestEntriesAndPrefixes() {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        cache.put("TF_CACHE_big_1", "x".repeat(5000), 60);
+        cache.put("TF_CACHE_big_2", "x".repeat(3000), 0);
+        cache.put("TF_CACHE_small_1", "x", 60);
+
+        CacheUsageReport report = CacheUsageReport.collect(cache, 2, 0, 1000, 2);
+
+        assertTrue(report.isComplete());
+        assertEquals(3, report.getScannedKeys());
+        assertEquals("TF_CACHE_big_1", report.getLargestEntries().get(0).getKey());
+        assertEquals("TF_CACHE_big_2", report.getLargestEntries().get(1).getKey());
+        assertEquals(CacheEntryInfo.NO_TTL, report.getLargestEntries().get(1).getTtlSeconds());
+        assertEquals("TF_CACHE_big", report.getLargestPrefixes().get(0).getPrefix());
+        assertEquals(2, report.getLargestPrefixes().get(0).getKeys());
+    }
+
+    @Test
+    void stopsAtTheKeyLimit() {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        for (int i = 0; i < 10; i++) {
+            cache.put("TF_CACHE_k" + i, "v", 60);
+        }
+
+        CacheUsageReport report = CacheUsageReport.collect(cache, 5, 0, 4, 2);
+
+        assertFalse(report.isComplete());
+        assertEquals(4, report.getScannedKeys());
+    }
+}
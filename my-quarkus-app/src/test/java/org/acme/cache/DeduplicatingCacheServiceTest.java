@@ -0,0 +1,74 @@
+package org.acme.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeduplicatingCacheServiceTest {
+
+    private static final String PAYLOAD = "tablefacility_1=reference-table;".repeat(40);
+
+    @Test
+    void identicalPayloadsAreStoredOnce() {
+        InMemoryCacheService backend = new InMemoryCacheService();
+        CacheService cache = new DeduplicatingCacheService(backend, new ContentAddressedStore(256));
+
+        cache.put("TF_CACHE_a", PAYLOAD, 60);
+        cache.put("TF_CACHE_b", PAYLOAD, 60);
+        cache.putAll(Map.of("TF_CACHE_c", PAYLOAD, "TF_CACHE_small", "tiny"), 60);
+
+        // Three pointers, one blob, one inline value
+        assertEquals(5, backend.entryCount());
+        assertTrue(backend.get("TF_CACHE_a").startsWith(ContentAddressedStore.POINTER_HEADER));
+        assertEquals(PAYLOAD, cache.get("TF_CACHE_a"));
+        assertEquals(Map.of("TF_CACHE_b", PAYLOAD, "TF_CACHE_small", "tiny"),
+                cache.getAll(List.of("TF_CACHE_b", "TF_CACHE_small")));
+    }
+
+    @Test
+    void clearingOneKeyKeepsSharedBlob() {
+        InMemoryCacheService backend = new InMemoryCacheService();
+        CacheService cache = new DeduplicatingCacheService(backend, new ContentAddressedStore(256));
+        cache.put("TF_CACHE_a", PAYLOAD, 60);
+        cache.put("TF_CACHE_b", PAYLOAD, 60);
+
+        cache.clear("TF_CACHE_a");
+
+        assertNull(cache.get("TF_CACHE_a"));
+        assertEquals(PAYLOAD, cache.get("TF_CACHE_b"));
+    }
+
+    @Test
+    void missingBlobReadsAsMissAndIsRewritten() {
+        InMemoryCacheService backend = new InMemoryCacheService();
+        CacheService cache = new DeduplicatingCacheService(backend, new ContentAddressedStore(256));
+        cache.put("TF_CACHE_a", PAYLOAD, 60);
+        backend.clear(ContentAddressedStore.blobKey(ContentAddressedStore.digest(PAYLOAD)));
+
+        assertNull(cache.get("TF_CACHE_a"));
+
+        cache.put("TF_CACHE_b", PAYLOAD, 60);
+        assertEquals(PAYLOAD, cache.get("TF_CACHE_b"));
+    }
+
+    @Test
+    void binaryPayloadsAreDeduplicatedAsBytes() {
+        InMemoryCacheService backend = new InMemoryCacheService();
+        CacheService cache = new DeduplicatingCacheService(backend, new ContentAddressedStore(256));
+        byte[] binary = new byte[1024];
+        for (int i = 0; i < binary.length; i++) {
+            binary[i] = (byte) (0x80 + i % 128);
+        }
+
+        cache.put("TF_CACHE_a", binary, 60);
+        cache.put("TF_CACHE_b", binary, 60);
+
+        assertEquals(3, backend.entryCount());
+        assertArrayEquals(binary, cache.getBytes("TF_CACHE_a"));
+        assertArrayEquals(binary, cache.getBytesAndClear("TF_CACHE_b"));
+        assertNull(cache.getBytes("TF_CACHE_b"));
+    }
+}
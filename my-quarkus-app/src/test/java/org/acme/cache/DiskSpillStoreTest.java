@@ -0,0 +1,99 @@
+package org.acme.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiskSpillStoreTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    private DiskSpillStore store;
+
+    @AfterEach
+    void close() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    void storesReadsAndTakesValues() throws IOException {
+        store = new DiskSpillStore(directory, SEGMENT_BYTES, 16 * SEGMENT_BYTES);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        store.put("latin", "café \u0000ÿ", expiresAt);
+        store.put("utf8", "€ uro", expiresAt);
+        store.put("expired", "x", System.currentTimeMillis() - 1);
+
+        assertEquals("café \u0000ÿ", store.get("latin").getValue());
+        assertEquals(expiresAt, store.get("latin").getExpiresAtEpochMs());
+        assertNull(store.get("expired"));
+        assertEquals("€ uro", store.take("utf8").getValue());
+        assertNull(store.get("utf8"));
+        assertEquals(1, store.entryCount());
+        assertNull(store.put("huge", "x".repeat(SEGMENT_BYTES + 1), expiresAt));
+    }
+
+    @Test
+    void compactionMovesLiveValuesAndDeletesSegments() throws IOException {
+        store = new DiskSpillStore(directory, SEGMENT_BYTES, 16 * SEGMENT_BYTES);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        for (int i = 0; i < 40; i++) {
+            store.put("key-" + i, "v".repeat(400) + i, expiresAt);
+        }
+        for (int i = 0; i < 40; i++) {
+            if (i % 10 != 0) {
+                store.remove("key-" + i);
+            }
+        }
+        long before = segmentFiles();
+
+        store.compact();
+
+        assertTrue(segmentFiles() < before, "compaction should delete mostly dead segments");
+        for (int i = 0; i < 40; i += 10) {
+            assertEquals("v".repeat(400) + i, store.get("key-" + i).getValue());
+        }
+        assertEquals(401 + 3 * 402, store.estimatedBytes());
+    }
+
+    @Test
+    void oldestSegmentIsDroppedWhenBudgetIsUsed() throws IOException {
+        store = new DiskSpillStore(directory, SEGMENT_BYTES, 2 * SEGMENT_BYTES);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        for (int i = 0; i < 30; i++) {
+            store.put("key-" + i, "v".repeat(1000), expiresAt);
+        }
+
+        assertNull(store.get("key-0"));
+        assertNotNull(store.get("key-29"));
+        assertTrue(store.evictionCount() > 0);
+        assertTrue(segmentFiles() <= 2);
+    }
+
+    @Test
+    void staleSegmentsAreDeletedOnOpen() throws IOException {
+        Files.writeString(directory.resolve("0000000000000042" + DiskSpillStore.SEGMENT_SUFFIX), "stale");
+
+        store = new DiskSpillStore(directory, SEGMENT_BYTES, 16 * SEGMENT_BYTES);
+
+        assertEquals(1, segmentFiles());
+        assertEquals(0, store.entryCount());
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(DiskSpillStore.SEGMENT_SUFFIX)).count();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package org.acme.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FailoverCacheServiceTest {
+
+    /**
+     * Primary that behaves like RedisCacheService: swallows errors but reports them to the breaker.
+     */
+    private static final class FlakyPrimary implements CacheService {
+        final InMemoryCacheService store = new InMemoryCacheService();
+        final CacheCircuitBreaker breaker;
+        volatile boolean down;
+        volatile Runnable beforePutAll;
+
+        FlakyPrimary(CacheCircuitBreaker breaker) {
+            this.breaker = breaker;
+        }
+
+        private boolean call() {
+            if (down) {
+                breaker.recordFailure();
+                return false;
+            }
+            breaker.recordSuccess(System.nanoTime());
+            return true;
+        }
+
+        @Override
+        public String get(String key) {
+            return call() ? store.get(key) : null;
+        }
+
+        @Override
+        public void put(String key, String value, int ttlSeconds) {
+            if (call()) {
+                store.put(key, value, ttlSeconds);
+            }
+        }
+
+        @Override
+        public byte[] getBytes(String key) {
+            return call() ? store.getBytes(key) : null;
+        }
+
+        @Override
+        public void put(String key, byte[] value, int ttlSeconds) {
+            if (call()) {
+                store.put(key, value, ttlSeconds);
+            }
+        }
+
+        @Override
+        public void clear(String key) {
+            if (call()) {
+                store.clear(key);
+            }
+        }
+
+        @Override
+        public void clearAll() {
+            if (call()) {
+                store.clearAll();
+            }
+        }
+
+        @Override
+        public Map<String, String> getAll(Collection<String> keys) {
+            return call() ? store.getAll(keys) : Map.of();
+        }
+
+        @Override
+        public void putAll(Map<String, String> entries, int ttlSeconds) {
+            Runnable hook = beforePutAll;
+            if (hook != null) {
+                hook.run();
+            }
+            if (call()) {
+                store.putAll(entries, ttlSeconds);
+            }
+        }
+
+        @Override
+        public void clearAll(Collection<String> keys) {
+            if (call()) {
+                store.clearAll(keys);
+            }
+        }
+    }
+
+    @Test
+    void failsOverWhenPrimaryFailsAndWritesBackOnRecovery() throws InterruptedException {
+        CacheCircuitBreaker breaker = new CacheCircuitBreaker("test", 3, 0, 20);
+        FlakyPrimary primary = new FlakyPrimary(breaker);
+        breaker.setProbe(() -> !primary.down);
+        FailoverCacheService cache = new FailoverCacheService(primary, new InMemoryCacheService(), breaker);
+
+        cache.put("before", "1", 60);
+        cache.put("stale", "x", 60);
+        primary.down = true;
+        for (int i = 0; i < 3; i++) {
+            assertNull(cache.get("before"));
+        }
+        assertEquals(CacheCircuitBreaker.State.OPEN, breaker.getState());
+
+        // During the outage the fallback serves traffic and remembers clears
+        cache.put("during", "2", 60);
+        cache.clear("stale");
+        assertEquals("2", cache.get("during"));
+
+        primary.down = false;
+        long deadline = System.currentTimeMillis() + 5000;
+        while (breaker.getState() != CacheCircuitBreaker.State.CLOSED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(CacheCircuitBreaker.State.CLOSED, breaker.getState());
+
+        assertEquals("2", primary.store.get("during"), "Outage entry should be written back");
+        assertNull(primary.store.get("stale"), "Outage clear should be replayed");
+        assertEquals("1", cache.get("before"));
+        breaker.shutdown();
+    }
+
+    @Test
+    void writeBackKeepsEntriesPutWhileItRuns() {
+        CacheCircuitBreaker breaker = new CacheCircuitBreaker("race", 1, 0, 60_000);
+        FlakyPrimary primary = new FlakyPrimary(breaker);
+        FailoverCacheService cache = new FailoverCacheService(primary, new InMemoryCacheService(), breaker);
+        primary.down = true;
+        cache.get("k");
+        assertFalse(breaker.allowsPrimary());
+        cache.put("k", "old", 60);
+        primary.down = false;
+
+        // Traffic still goes to the fallback while recovery writes back
+        primary.beforePutAll = () -> cache.put("k", "new", 60);
+        assertTrue(cache.recover());
+        primary.beforePutAll = null;
+
+        assertEquals("new", cache.getFromFallback("k"), "A put during write-back must not be cleared");
+        cache.afterClose();
+        assertEquals("new", primary.store.get("k"));
+        assertNull(cache.getFromFallback("k"));
+        breaker.shutdown();
+    }
+
+    @Test
+    void writeBackAfterCloseNeverLeavesAnOlderValueOverAPrimaryWrite() {
+        CacheCircuitBreaker breaker = new CacheCircuitBreaker("closed", 10, 0, 60_000);
+        FlakyPrimary primary = new FlakyPrimary(breaker);
+        InMemoryCacheService fallback = new InMemoryCacheService();
+        FailoverCacheService cache = new FailoverCacheService(primary, fallback, breaker);
+        // Left over from the outage when the breaker closed
+        fallback.put("early", "old", 60);
+        fallback.put("racing", "old", 60);
+
+        cache.put("early", "new", 60);
+        // Put through the primary after the write-back read the fallback, before its older value lands
+        primary.beforePutAll = () -> {
+            primary.beforePutAll = null;
+            cache.put("racing", "new", 60);
+        };
+        cache.afterClose();
+
+        assertEquals("new", primary.store.get("early"));
+        assertNotEquals("old", primary.store.get("racing"));
+        assertNull(cache.getFromFallback("racing"));
+        breaker.shutdown();
+    }
+
+    @Test
+    void writeBackAfterCloseDropsWhatThePrimaryRejects() {
+        CacheCircuitBreaker breaker = new CacheCircuitBreaker("rejecting", 10, 0, 60_000);
+        FlakyPrimary primary = new FlakyPrimary(breaker);
+        InMemoryCacheService fallback = new InMemoryCacheService();
+        FailoverCacheService cache = new FailoverCacheService(primary, fallback, breaker);
+        fallback.put("k", "v", 60);
+        primary.down = true;
+
+        cache.afterClose();
+
+        assertNull(cache.getFromFallback("k"), "A failed group is dropped, not left until the next outage");
+        breaker.shutdown();
+    }
+
+    @Test
+    void reactiveClearsAlsoClearTheFallback() {
+        CacheCircuitBreaker breaker = new CacheCircuitBreaker("reactive", 10, 0, 60_000);
+        FlakyPrimary primary = new FlakyPrimary(breaker);
+        InMemoryCacheService fallback = new InMemoryCacheService();
+        FailoverCacheService failover = new FailoverCacheService(primary, fallback, breaker);
+        FailoverReactiveCacheService cache = new FailoverReactiveCacheService(new LocalReactiveCacheService(primary), failover);
+        fallback.put("k1", "outage", 60);
+        fallback.put("k2", "outage", 60);
+        fallback.put("k3", "outage", 60);
+
+        cache.clear("k1").await().indefinitely();
+        cache.clearAll(List.of("k2")).await().indefinitely();
+
+        assertNull(cache.get("k1").await().indefinitely());
+        assertNull(cache.get("k2").await().indefinitely());
+        assertEquals("outage", cache.get("k3").await().indefinitely());
+        cache.clearAll().await().indefinitely();
+        assertNull(cache.get("k3").await().indefinitely());
+        failover.afterClose();
+        assertTrue(primary.store.isEmpty(), "Nothing cleared may be written back");
+        breaker.shutdown();
+    }
+
+    @Test
+    void slowCallsCountAsFailures() {
+        CacheCircuitBreaker breaker = new CacheCircuitBreaker("slow", 2, 1, 60_000);
+        long longAgo = System.nanoTime() - 1_000_000_000L;
+
+        breaker.recordSuccess(longAgo);
+        assertTrue(breaker.allowsPrimary());
+        breaker.recordSuccess(longAgo);
+
+        assertFalse(breaker.allowsPrimary());
+        breaker.shutdown();
+    }
+}
@@ -0,0 +1,39 @@
+package org.acme.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FieldDeltaTest {
+
+    private static final String PREFIX = "tablefacility";
+
+    @Test
+    void onlyChangedFieldsAreWritten() {
+        Map<String, String> input = Map.of("tf_cache_key", "TF_CACHE_1", "amount", "10");
+        Map<String, String> hydrated = Map.of("tf_cache_key", "TF_CACHE_1", "amount", "10",
+                "tablefacility_1", "a", "tablefacility_2", "b", "tablefacility_3", "c");
+        Map<String, String> current = Map.of("tablefacility_1", "a", "tablefacility_2", "B", "tablefacility_4", "d");
+
+        FieldDelta delta = FieldDelta.afterHydration(input, hydrated, current, PREFIX);
+
+        assertEquals(Map.of("tablefacility_2", "B", "tablefacility_4", "d"), delta.getChanged());
+        assertEquals(List.of("tablefacility_3"), List.copyOf(delta.getRemoved()));
+    }
+
+    @Test
+    void fieldsSentByClientAreNotAssumedCached() {
+        // tablefacility_1 may be missing from the base entry: hydration did not change it
+        Map<String, String> input = Map.of("tf_cache_key", "TF_CACHE_1", "tablefacility_1", "a");
+        Map<String, String> hydrated = Map.of("tf_cache_key", "TF_CACHE_1", "tablefacility_1", "a");
+        Map<String, String> current = Map.of("tablefacility_1", "a");
+
+        FieldDelta delta = FieldDelta.afterHydration(input, hydrated, current, PREFIX);
+
+        assertEquals(Map.of("tablefacility_1", "a"), delta.getChanged());
+        assertTrue(delta.getRemoved().isEmpty());
+    }
+}
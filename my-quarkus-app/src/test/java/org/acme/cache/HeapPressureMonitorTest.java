@@ -0,0 +1,42 @@
+package org.acme.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeapPressureMonitorTest {
+
+    @Test
+    void pressureEndsOnlyBelowLowWatermarkAfterCollection() {
+        HeapPressureMonitor monitor = new HeapPressureMonitor(0.85, 0.70);
+        List<Boolean> states = new ArrayList<>();
+        monitor.addListener((underPressure, usedFraction) -> states.add(underPressure));
+
+        monitor.evaluate(0.80, true);
+        assertFalse(monitor.isUnderPressure());
+        assertTrue(states.isEmpty());
+
+        monitor.evaluate(0.90, false);
+        assertTrue(monitor.isUnderPressure());
+        // Between the watermarks, or below the low one without a collection, the pressure stays
+        monitor.evaluate(0.75, true);
+        monitor.evaluate(0.50, false);
+        assertTrue(monitor.isUnderPressure());
+
+        monitor.evaluate(0.65, true);
+        assertFalse(monitor.isUnderPressure());
+        assertEquals(List.of(true, true, true, false), states);
+
+        monitor.evaluate(0.75, true);
+        assertEquals(4, states.size());
+    }
+
+    @Test
+    void rejectsInvalidWatermarks() {
+        assertThrows(IllegalArgumentException.class, () -> new HeapPressureMonitor(0.7, 0.8));
+        assertThrows(IllegalArgumentException.class, () -> new HeapPressureMonitor(1.2, 0.5));
+    }
+}
@@ -0,0 +1,59 @@
+package org.acme.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HotKeyTrackerTest {
+
+    @Test
+    void reportsHeavyHittersHottestFirst() {
+        HotKeyTracker tracker = new HotKeyTracker(3, 1);
+        for (int i = 0; i < 20_000; i++) {
+            tracker.record("key-" + i);
+            if (i % 2 == 0) {
+                tracker.record("hot");
+            }
+            if (i % 5 == 0) {
+                tracker.record("warm");
+            }
+        }
+
+        List<HotKeyTracker.HotKey> top = tracker.snapshot();
+        assertEquals(3, top.size());
+        assertEquals("hot", top.get(0).getKey());
+        assertEquals("warm", top.get(1).getKey());
+        assertEquals(10_000, top.get(0).getEstimatedCount(), 200);
+        assertEquals(10_000 / 34_000.0, top.get(0).getShare(), 0.01);
+        assertEquals(top.get(0).getShare(), tracker.topShare());
+    }
+
+    @Test
+    void countsDecaySoOldTrafficFades() {
+        HotKeyTracker tracker = new HotKeyTracker(2, 1);
+        for (int i = 0; i < 1000; i++) {
+            tracker.record("old");
+        }
+        // Ten halvings bring the old count to zero
+        for (long i = 0; i < 10 * HotKeyTracker.DECAY_SAMPLES; i++) {
+            tracker.record(i % 2 == 0 ? "new" : "key-" + i);
+        }
+
+        assertEquals("new", tracker.snapshot().get(0).getKey());
+        assertTrue(tracker.snapshot().stream().noneMatch(hotKey -> hotKey.getKey().equals("old")));
+    }
+
+    @Test
+    void samplingScalesEstimates() {
+        HotKeyTracker tracker = new HotKeyTracker(1, 10);
+        assertEquals(16, tracker.getSampleOneIn());
+        for (int i = 0; i < 160_000; i++) {
+            tracker.record("hot");
+        }
+
+        assertEquals(160_000, tracker.snapshot().get(0).getEstimatedCount(), 16_000);
+        assertEquals(1.0, tracker.topShare(), 0.001);
+    }
+}
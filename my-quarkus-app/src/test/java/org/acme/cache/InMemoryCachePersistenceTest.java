@@ -0,0 +1,143 @@
+package org.acme.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryCachePersistenceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresFromSnapshotAfterClose() {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        InMemoryCachePersistence persistence = new InMemoryCachePersistence(directory, 0);
+        persistence.open(cache);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("TF_CACHE_" + i, "value-" + i, 600);
+        }
+        cache.put("TF_CACHE_forever", "\u0002TF\u0001binaryÿ", 0);
+        cache.clear("TF_CACHE_7");
+        persistence.close();
+
+        InMemoryCacheService restored = new InMemoryCacheService();
+        new InMemoryCachePersistence(directory, 0).open(restored);
+
+        assertEquals(10_000, restored.entryCount());
+        assertEquals("value-9999", restored.get("TF_CACHE_9999"));
+        assertEquals("\u0002TF\u0001binaryÿ", restored.get("TF_CACHE_forever"));
+        assertNull(restored.get("TF_CACHE_7"));
+    }
+
+    @Test
+    void replaysLogWrittenSinceLastSnapshot() throws IOException {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        InMemoryCachePersistence persistence = new InMemoryCachePersistence(directory, 0);
+        persistence.open(cache);
+        cache.put("k1", "v1", 600);
+        cache.put("k2", "v2", 600);
+        persistence.snapshot();
+        cache.put("k1", "v1b", 600);
+        cache.clear("k2");
+        cache.put("k3", "v3", 600);
+        // Simulate a crash: changes are on disk, but no final snapshot
+        persistence.sync();
+
+        InMemoryCacheService restored = new InMemoryCacheService();
+        new InMemoryCachePersistence(directory, 0).open(restored);
+
+        assertEquals("v1b", restored.get("k1"));
+        assertNull(restored.get("k2"));
+        assertEquals("v3", restored.get("k3"));
+    }
+
+    @Test
+    void ignoresTornRecordAtEndOfLog() throws IOException {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        InMemoryCachePersistence persistence = new InMemoryCachePersistence(directory, 0);
+        persistence.open(cache);
+        cache.put("k1", "v1", 600);
+        persistence.sync();
+        try (var logs = Files.list(directory)) {
+            Path log = logs.filter(p -> p.getFileName().toString().endsWith(".log")).findFirst().orElseThrow();
+            Files.write(log, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+        }
+
+        InMemoryCacheService restored = new InMemoryCacheService();
+        new InMemoryCachePersistence(directory, 0).open(restored);
+
+        assertEquals("v1", restored.get("k1"));
+        assertEquals(1, restored.entryCount());
+    }
+
+    @Test
+    void binaryValuesSurviveSnapshotAndLog() {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        InMemoryCachePersistence persistence = new InMemoryCachePersistence(directory, 0);
+        persistence.open(cache);
+        byte[] binary = new byte[]{0x02, 'T', 'F', 0x01, (byte) 0x80, (byte) 0xFF, 0x00, (byte) 0xC3};
+        cache.put("TF_CACHE_snapshot", binary, 600);
+        persistence.close();
+
+        InMemoryCacheService reopened = new InMemoryCacheService();
+        InMemoryCachePersistence logged = new InMemoryCachePersistence(directory, 0);
+        logged.open(reopened);
+        reopened.put("TF_CACHE_log", binary, 600);
+        reopened.put("TF_CACHE_empty", new byte[0], 600);
+        logged.sync();
+
+        InMemoryCacheService restored = new InMemoryCacheService();
+        new InMemoryCachePersistence(directory, 0).open(restored);
+
+        assertArrayEquals(binary, restored.getBytes("TF_CACHE_snapshot"));
+        assertArrayEquals(binary, restored.getBytes("TF_CACHE_log"));
+        assertArrayEquals(new byte[0], restored.getBytes("TF_CACHE_empty"));
+        logged.close();
+    }
+
+    @Test
+    void fullLogQueueDropsToSnapshotsWithoutResurrectingClears() throws Exception {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        InMemoryCachePersistence persistence = new InMemoryCachePersistence(directory, 0, 1);
+        persistence.open(cache);
+        cache.put("TF_CACHE_base", "v", 600);
+        persistence.snapshot();
+
+        // Holding the monitor keeps the catch-up snapshot waiting, like a crash before it ran
+        synchronized (persistence) {
+            for (int i = 0; i < 20_000; i++) {
+                cache.put("TF_CACHE_" + i, "v" + i, 600);
+                cache.clear("TF_CACHE_" + i);
+            }
+            assertTrue(persistence.isDroppingChanges());
+            cache.put("TF_CACHE_late", "v", 600);
+            persistence.sync();
+
+            InMemoryCacheService crashed = new InMemoryCacheService();
+            new InMemoryCachePersistence(directory, 0).open(crashed);
+            assertEquals(0, crashed.entryCount(), "Without a snapshot after the gap the restart is cold");
+        }
+
+        while (persistence.isDroppingChanges()) {
+            Thread.sleep(10);
+        }
+        persistence.snapshot();
+        cache.put("TF_CACHE_logged", "v", 600);
+        persistence.sync();
+
+        InMemoryCacheService restored = new InMemoryCacheService();
+        new InMemoryCachePersistence(directory, 0).open(restored);
+        assertEquals("v", restored.get("TF_CACHE_base"));
+        assertEquals("v", restored.get("TF_CACHE_late"));
+        assertEquals("v", restored.get("TF_CACHE_logged"));
+        assertEquals(3, restored.entryCount());
+        persistence.close();
+    }
+}
@@ -0,0 +1,176 @@
+package org.acme.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryCacheServiceTest {
+
+    @Test
+    void putAllThenGetAllReturnsOnlyHits() {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        cache.putAll(Map.of("a", "1", "b", "2"), 60);
+
+        Map<String, String> result = cache.getAll(Arrays.asList("a", "b", "missing", null));
+
+        assertEquals(Map.of("a", "1", "b", "2"), result);
+    }
+
+    @Test
+    void clearAllWithKeysRemovesOnlyThoseKeys() {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        cache.putAll(Map.of("a", "1", "b", "2", "c", "3"), 60);
+
+        cache.clearAll(List.of("a", "c"));
+
+        assertNull(cache.get("a"));
+        assertEquals("2", cache.get("b"));
+        assertNull(cache.get("c"));
+    }
+
+    @Test
+    void getAndClearConsumesTheEntryOnce() {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        cache.put("a", "1", 60);
+
+        assertEquals("1", cache.getAndClear("a"));
+        assertNull(cache.getAndClear("a"));
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.estimatedBytes());
+    }
+
+    @Test
+    void getAndTouchKeepsTheValueAndResetsTheTtl() {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        cache.put("a", "1", 1);
+
+        assertEquals("1", cache.getAndTouch("a", 0));
+        long[] expiry = new long[1];
+        cache.forEachLive((key, value, expiresAt) -> expiry[0] = expiresAt);
+
+        assertEquals(InMemoryCacheService.NO_EXPIRY, expiry[0]);
+        assertNull(cache.getAndTouch("missing", 60));
+    }
+
+    @Test
+    void heapPressurePausesAdmissionOfNewKeysOnly() {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        cache.put("a", "1", 60);
+
+        cache.onHeapPressure(true, 0.9);
+        cache.put("a", "2", 60);
+        cache.put("b", "1", 60);
+
+        assertTrue(cache.isAdmissionPaused());
+        assertEquals("2", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.rejectionCount());
+
+        cache.onHeapPressure(false, 0.6);
+        cache.put("b", "1", 60);
+        assertEquals("1", cache.get("b"));
+        cache.shutdownCleanupTask();
+    }
+
+    @Test
+    void shedEvictsLargestAndSoonestExpiringFirst() {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        List<String> cleared = new ArrayList<>();
+        cache.setChangeLog(new InMemoryCacheService.ChangeLog() {
+            @Override
+            public void put(String key, Object value, long expiresAtEpochMs) {
+            }
+
+            @Override
+            public void clear(String key) {
+                cleared.add(key);
+            }
+        });
+        cache.put("small-long", "x", 3600);
+        cache.put("large-long", "x".repeat(10_000), 3600);
+        cache.put("large-short", "x".repeat(10_000), 60);
+
+        long freed = cache.shed(1);
+
+        assertTrue(freed >= 10_000);
+        assertNull(cache.get("large-short"));
+        assertNotNull(cache.get("large-long"));
+        assertNotNull(cache.get("small-long"));
+        assertEquals(1, cache.evictionCount());
+        assertEquals(List.of("large-short"), cleared);
+
+        cache.shed(Long.MAX_VALUE);
+        assertTrue(cache.isEmpty());
+        assertEquals(0, cache.estimatedBytes());
+    }
+
+    @Test
+    void spilledEntriesArePromotedOnRead(@TempDir Path directory) throws IOException {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        DiskSpillStore spill = new DiskSpillStore(directory, 64 * 1024, 1024 * 1024);
+        cache.enableDiskSpill(spill);
+        cache.put("cold", "x".repeat(5_000), 60);
+        cache.put("warm", "y", 60);
+
+        cache.shed(1);
+
+        assertEquals(1, spill.entryCount());
+        assertEquals(0, cache.evictionCount());
+        assertEquals(2, cache.getAll(List.of("cold", "warm")).size());
+        assertEquals(0, spill.entryCount());
+
+        cache.shed(1);
+        cache.clear("cold");
+        assertNull(cache.get("cold"));
+        assertEquals(0, spill.entryCount());
+        cache.shutdownCleanupTask();
+        spill.close();
+    }
+
+    @Test
+    void byteAndStringViewsShareEntries() {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        byte[] json = "{\"name\":\"J\u00fcrgen\"}".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer framed = ByteBuffer.allocate(json.length + 4);
+        framed.position(2);
+        framed.put(json).flip().position(2);
+
+        cache.put("a", json, 60);
+        cache.put("b", framed, 60);
+
+        assertEquals("{\"name\":\"J\u00fcrgen\"}", cache.get("a"));
+        assertArrayEquals(json, cache.getBytes("b"));
+        assertEquals(2, framed.position());
+        assertNull(cache.getBytes("missing"));
+    }
+
+    @Test
+    void binaryValuesKeepTheirExactBytes(@TempDir Path directory) throws IOException {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        DiskSpillStore spill = new DiskSpillStore(directory, 64 * 1024, 1024 * 1024);
+        cache.enableDiskSpill(spill);
+        byte[] binary = new byte[]{0x02, 'T', 'F', 0x01, (byte) 0x80, (byte) 0xFF, 0x00, (byte) 0xC3};
+
+        cache.put("bin", binary, 60);
+        assertArrayEquals(binary, cache.getBytes("bin"));
+        assertArrayEquals(binary, cache.getBytesAndTouch("bin", 60));
+
+        cache.shed(Long.MAX_VALUE);
+        assertEquals(1, spill.entryCount());
+        assertArrayEquals(binary, cache.getBytes("bin"));
+        assertArrayEquals(binary, cache.getBytesAndClear("bin"));
+        assertNull(cache.getBytes("bin"));
+        cache.shutdownCleanupTask();
+        spill.close();
+    }
+}
@@ -0,0 +1,29 @@
+package org.acme.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalReactiveCacheServiceTest {
+
+    @Test
+    void sharesStoreWithSynchronousCache() {
+        InMemoryCacheService inMemory = new InMemoryCacheService();
+        ReactiveCacheService reactive = new LocalReactiveCacheService(inMemory);
+
+        reactive.put("k1", "v1", 60).await().indefinitely();
+        assertEquals("v1", inMemory.get("k1"));
+        assertEquals("v1", reactive.get("k1").await().indefinitely());
+
+        reactive.clear("k1").await().indefinitely();
+        assertNull(reactive.get("k1").await().indefinitely());
+    }
+
+    @Test
+    void noOpCacheAlwaysMisses() {
+        ReactiveCacheService reactive = new LocalReactiveCacheService(new NoOpCacheService());
+
+        reactive.put("k1", "v1", 60).await().indefinitely();
+        assertNull(reactive.get("k1").await().indefinitely());
+    }
+}
@@ -0,0 +1,176 @@
+package org.acme.cache;
+
+import com.sun.net.httpserver.HttpServer;
+import org.acme.config.CachingConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PeerCacheClientTest {
+
+    private static final int LOCAL_NODE = 3;
+    private static final int PEER_NODE = 7;
+    private static final int DOWN_NODE = 9;
+    private static final String SECRET = "peer-secret";
+
+    private final Map<String, String> peerEntries = new ConcurrentHashMap<>();
+    private final List<String> peerCalls = new CopyOnWriteArrayList<>();
+    private HttpServer peer;
+    private String peerUrl;
+    private PeerCacheClient client;
+
+    @BeforeEach
+    void startPeer() throws IOException {
+        peer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        peer.createContext(PeerCacheClient.ENTRY_PATH, exchange -> {
+            String path = exchange.getRequestURI().getPath().substring(PeerCacheClient.ENTRY_PATH.length());
+            String query = exchange.getRequestURI().getQuery();
+            peerCalls.add(exchange.getRequestMethod() + " " + path + (query != null ? "?" + query : ""));
+            String value = null;
+            int status = 404;
+            if (!SECRET.equals(exchange.getRequestHeaders().getFirst(PeerCacheClient.SECRET_HEADER))) {
+                status = 403;
+            } else if (path.endsWith("/consume")) {
+                value = peerEntries.remove(path.substring(0, path.length() - "/consume".length()));
+            } else if (path.endsWith("/touch")) {
+                value = peerEntries.get(path.substring(0, path.length() - "/touch".length()));
+            } else {
+                value = peerEntries.get(path);
+            }
+            byte[] body = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            exchange.sendResponseHeaders(value != null ? 200 : status, value != null ? body.length : -1);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        peer.start();
+
+        peerUrl = "http://127.0.0.1:" + peer.getAddress().getPort();
+        client = client(SECRET);
+    }
+
+    private PeerCacheClient client(String secret) {
+        CachingConfiguration configuration = new CachingConfiguration() {
+            @Override
+            public List<String> getPeerFetchPeers() {
+                return List.of(PEER_NODE + "=" + peerUrl, DOWN_NODE + "=http://127.0.0.1:1", LOCAL_NODE + "=" + peerUrl);
+            }
+
+            @Override
+            public Optional<String> getPeerFetchSecret() {
+                return Optional.ofNullable(secret);
+            }
+
+            @Override
+            public long getPeerFetchConnectTimeoutMs() {
+                return 500;
+            }
+
+            @Override
+            public long getPeerFetchTimeoutMs() {
+                return 2000;
+            }
+
+            @Override
+            public Optional<Integer> getKeyNodeId() {
+                return Optional.of(LOCAL_NODE);
+            }
+        };
+        CacheKeyGenerator keyGenerator = new CacheKeyGenerator();
+        keyGenerator.cachingConfiguration = configuration;
+        keyGenerator.init();
+        PeerCacheClient peerCacheClient = new PeerCacheClient();
+        peerCacheClient.cachingConfiguration = configuration;
+        peerCacheClient.keyGenerator = keyGenerator;
+        return peerCacheClient;
+    }
+
+    @AfterEach
+    void stopPeer() {
+        peer.stop(0);
+    }
+
+    private static String key(int node) {
+        return CacheKeyGenerator.encode(System.currentTimeMillis() / 1000 + 3600, node, 1);
+    }
+
+    @Test
+    void fetchesKeysOfOtherNodesFromTheirOwner() {
+        String key = key(PEER_NODE);
+        peerEntries.put(key, "payload");
+
+        assertEquals("payload", fetch(key, PeerCacheClient.Operation.GET));
+        assertEquals("payload", fetch(key, PeerCacheClient.Operation.CONSUME));
+        assertNull(fetch(key, PeerCacheClient.Operation.GET));
+    }
+
+    @Test
+    void neverAsksForLocalOrUnknownKeys() {
+        String local = key(LOCAL_NODE);
+        peerEntries.put(local, "payload");
+
+        assertNull(fetch(local, PeerCacheClient.Operation.GET));
+        assertNull(fetch(key(42), PeerCacheClient.Operation.GET));
+        assertNull(fetch("TF_CACHE_trx-1_1760000000000", PeerCacheClient.Operation.GET));
+    }
+
+    @Test
+    void unreachablePeerReadsAsMiss() {
+        assertNull(fetch(key(DOWN_NODE), PeerCacheClient.Operation.GET));
+        // Skipped without a call during the backoff
+        assertNull(fetch(key(DOWN_NODE), PeerCacheClient.Operation.GET));
+    }
+
+    @Test
+    void callsCarryTheSecretAndChangesArePosts() {
+        String key = key(PEER_NODE);
+        peerEntries.put(key, "payload");
+
+        assertEquals("payload", fetch(key, PeerCacheClient.Operation.GET));
+        assertEquals("payload", fetch(key, PeerCacheClient.Operation.TOUCH));
+        // A touch that would make the entry non-expiring is sent as a plain read
+        assertEquals("payload", fetch(key, PeerCacheClient.Operation.TOUCH, 0));
+        assertEquals("payload", fetch(key, PeerCacheClient.Operation.CONSUME));
+        assertEquals(List.of("GET " + key, "POST " + key + "/touch?ttl=60", "GET " + key, "POST " + key + "/consume"), peerCalls);
+    }
+
+    @Test
+    void peerFetchNeedsTheSharedSecret() {
+        String key = key(PEER_NODE);
+        peerEntries.put(key, "payload");
+
+        PeerCacheClient withoutSecret = client(null);
+        assertFalse(withoutSecret.isEnabled());
+        assertFalse(withoutSecret.isPeer(SECRET));
+        assertNull(withoutSecret.fetch(key, PeerCacheClient.Operation.GET, 60).await().indefinitely());
+        assertTrue(peerCalls.isEmpty());
+
+        assertTrue(client.isPeer(SECRET));
+        assertFalse(client.isPeer("wrong"));
+        assertFalse(client.isPeer(null));
+        // A peer with a different secret is refused by the owner
+        assertNull(client("wrong").fetch(key, PeerCacheClient.Operation.GET, 60).await().indefinitely());
+        assertEquals("payload", peerEntries.get(key));
+    }
+
+    private String fetch(String key, PeerCacheClient.Operation operation) {
+        return fetch(key, operation, 60);
+    }
+
+    private String fetch(String key, PeerCacheClient.Operation operation, int ttlSeconds) {
+        byte[] value = client.fetch(key, operation, ttlSeconds).await().indefinitely();
+        return value != null ? new String(value, StandardCharsets.UTF_8) : null;
+    }
+}
@@ -0,0 +1,147 @@
+package org.acme.cache;
+
+import io.smallrye.mutiny.TimeoutException;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.redis.client.Command;
+import io.vertx.redis.client.Redis;
+import io.vertx.redis.client.RedisConnection;
+import io.vertx.redis.client.Request;
+import io.vertx.redis.client.Response;
+import io.vertx.redis.client.impl.types.ErrorType;
+import io.vertx.redis.client.impl.types.MultiType;
+import io.vertx.redis.client.impl.types.NumberType;
+import io.vertx.redis.client.impl.types.SimpleStringType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Field-level writes against a scripted Redis connection that answers each MULTI/EXEC batch
+ * with the given EXEC reply.
+ */
+public class ReactiveRedisCacheServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final List<List<Command>> batches = new ArrayList<>();
+    private List<Response> execReplies;
+    // Redis that never answers
+    private volatile boolean hang;
+    private ReactiveRedisCacheService service;
+
+    @BeforeEach
+    void setUp() {
+        Redis redis = new Redis() {
+            @Override
+            public Future<RedisConnection> connect() {
+                return Future.failedFuture("not connected");
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public Future<Response> send(Request request) {
+                return Future.failedFuture("unexpected " + request.command());
+            }
+
+            @Override
+            public Future<List<Response>> batch(List<Request> requests) {
+                if (hang) {
+                    return Promise.<List<Response>>promise().future();
+                }
+                batches.add(requests.stream().map(Request::command).toList());
+                List<Response> replies = new ArrayList<>();
+                for (int i = 0; i < requests.size() - 1; i++) {
+                    replies.add(SimpleStringType.create(i == 0 ? "OK" : "QUEUED"));
+                }
+                MultiType exec = MultiType.create(execReplies.size(), false);
+                execReplies.forEach(exec::add);
+                replies.add(exec);
+                return Future.succeededFuture(replies);
+            }
+        };
+        service = new ReactiveRedisCacheService(null, null, null, io.vertx.mutiny.redis.client.Redis.newInstance(redis));
+    }
+
+    @Test
+    void deltaCopiesTheBaseHashAndWritesTheDifference() {
+        execReplies = List.of(SimpleStringType.create("hash"), NumberType.create(1), NumberType.create(1),
+                NumberType.create(1), NumberType.create(1));
+
+        service.putFieldsDelta("TF_CACHE_2", "TF_CACHE_1", Map.of("tablefacility_1", "b"), List.of("tablefacility_2"), 60)
+                .await().atMost(TIMEOUT);
+
+        assertEquals(List.of(List.of(Command.MULTI, Command.TYPE, Command.COPY, Command.HSET, Command.HDEL,
+                Command.EXPIRE, Command.EXEC)), batches);
+    }
+
+    @Test
+    void deltaOnAWholeValueFails() {
+        // COPY duplicates the string, HSET and EXPIRE fail inside EXEC
+        execReplies = List.of(SimpleStringType.create("string"), NumberType.create(1),
+                ErrorType.create("WRONGTYPE Operation against a key holding the wrong kind of value"), NumberType.create(1));
+
+        assertThrows(IllegalStateException.class, () -> service.putFieldsDelta("TF_CACHE_2", "TF_CACHE_1",
+                Map.of("tablefacility_1", "b"), List.of(), 60).await().atMost(TIMEOUT));
+    }
+
+    @Test
+    void inPlaceDeltaOnAWholeValueFails() {
+        execReplies = List.of(SimpleStringType.create("string"),
+                ErrorType.create("WRONGTYPE Operation against a key holding the wrong kind of value"), NumberType.create(1));
+
+        assertThrows(IllegalStateException.class, () -> service.putFieldsDelta("TF_CACHE_1", "TF_CACHE_1",
+                Map.of("tablefacility_1", "b"), List.of(), 60).await().atMost(TIMEOUT));
+        assertEquals(List.of(Command.MULTI, Command.TYPE, Command.HSET, Command.EXPIRE, Command.EXEC), batches.get(0));
+    }
+
+    @Test
+    void deltaOnAMissingBaseFails() {
+        execReplies = List.of(SimpleStringType.create("none"), NumberType.create(0), NumberType.create(1),
+                NumberType.create(1));
+
+        assertThrows(IllegalStateException.class, () -> service.putFieldsDelta("TF_CACHE_2", "TF_CACHE_1",
+                Map.of("tablefacility_1", "b"), List.of(), 60).await().atMost(TIMEOUT));
+    }
+
+    @Test
+    void fullWriteReplacesAnyEarlierEntry() {
+        execReplies = List.of(NumberType.create(1), NumberType.create(1), NumberType.create(1));
+
+        service.putFields("TF_CACHE_1", Map.of("tablefacility_1", "a"), 60).await().atMost(TIMEOUT);
+
+        assertEquals(List.of(Command.MULTI, Command.DEL, Command.HSET, Command.EXPIRE, Command.EXEC), batches.get(0));
+    }
+
+    @Test
+    void fullWriteFailsOnAnErrorReply() {
+        execReplies = List.of(NumberType.create(1), ErrorType.create("OOM command not allowed"), NumberType.create(1));
+
+        assertThrows(IllegalStateException.class,
+                () -> service.putFields("TF_CACHE_1", Map.of("tablefacility_1", "a"), 60).await().atMost(TIMEOUT));
+    }
+
+    @Test
+    void callsCancelledByTheDeadlineCountAsFailures() {
+        CacheCircuitBreaker breaker = new CacheCircuitBreaker("hung", 1, 0, 60_000);
+        service.setCircuitBreaker(breaker);
+        hang = true;
+
+        assertThrows(TimeoutException.class, () -> service.putFields("TF_CACHE_1", Map.of("tablefacility_1", "a"), 60)
+                .ifNoItem().after(Duration.ofMillis(50)).fail()
+                .await().atMost(TIMEOUT));
+
+        assertEquals(1, breaker.getTotalFailures());
+        assertFalse(breaker.allowsPrimary());
+        breaker.shutdown();
+    }
+}
@@ -0,0 +1,140 @@
+package org.acme.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadThroughCacheServiceTest {
+
+    private static final int TTL_SECONDS = 100;
+
+    private final InMemoryCacheService backend = new InMemoryCacheService();
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    // Refreshes are run by hand
+    private final List<Runnable> refreshes = new ArrayList<>();
+    private final ReadThroughCacheService cache =
+            new ReadThroughCacheService(backend, 10, 100, refreshes::add, clock::get);
+
+    @Test
+    void missesLoadAndStoreTheValue() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", cache.get("k1", key -> "v" + loads.incrementAndGet(), TTL_SECONDS));
+        assertEquals("v1", cache.get("k1", key -> "v" + loads.incrementAndGet(), TTL_SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals("v1", backend.get("k1"));
+    }
+
+    @Test
+    void nullLoadsAreNotCached() {
+        assertNull(cache.get("k1", key -> null, TTL_SECONDS));
+
+        assertNull(backend.get("k1"));
+        assertEquals(0, cache.trackedKeyCount());
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> cache.get("k1", key -> {
+                    loads.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "v1";
+                }, TTL_SECONDS)));
+            }
+            while (loads.get() == 0) {
+                Thread.onSpinWait();
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("v1", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void hitsCloseToExpiryRefreshInTheBackground() {
+        AtomicInteger loads = new AtomicInteger();
+        long loadedAt = clock.get();
+        cache.get("k1", key -> "v" + loads.incrementAndGet(), TTL_SECONDS);
+
+        clock.set(loadedAt + 80_000);
+        cache.get("k1", key -> "unused", TTL_SECONDS);
+        assertTrue(refreshes.isEmpty(), "Entry is not close to expiry yet");
+
+        clock.set(loadedAt + 95_000);
+        assertEquals("v1", cache.get("k1", key -> "unused", TTL_SECONDS), "The caller gets the current value");
+        cache.get("k1", key -> "unused", TTL_SECONDS);
+        assertEquals(1, refreshes.size(), "One refresh per key at a time");
+
+        refreshes.remove(0).run();
+        assertEquals("v2", cache.get("k1", key -> "unused", TTL_SECONDS));
+        // The refresh restarted the lifetime
+        clock.set(loadedAt + 100_000);
+        cache.get("k1", key -> "unused", TTL_SECONDS);
+        assertTrue(refreshes.isEmpty());
+    }
+
+    @Test
+    void failedRefreshLeavesTheEntryAndCanBeRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        long loadedAt = clock.get();
+        cache.get("k1", key -> {
+            if (attempts.incrementAndGet() > 1) {
+                throw new IllegalStateException("source down");
+            }
+            return "v1";
+        }, TTL_SECONDS);
+
+        clock.set(loadedAt + 95_000);
+        cache.get("k1", key -> "unused", TTL_SECONDS);
+        refreshes.remove(0).run();
+
+        assertEquals("v1", backend.get("k1"));
+        cache.get("k1", key -> "unused", TTL_SECONDS);
+        assertEquals(1, refreshes.size());
+    }
+
+    @Test
+    void clearedEntriesAreNoLongerRefreshed() {
+        cache.get("k1", key -> "v1", TTL_SECONDS);
+        cache.clear("k1");
+
+        assertEquals(0, cache.trackedKeyCount());
+        backend.put("k1", "v1", TTL_SECONDS);
+        clock.addAndGet(95_000);
+        cache.get("k1", key -> "unused", TTL_SECONDS);
+        assertTrue(refreshes.isEmpty());
+    }
+
+    @Test
+    void defaultReadThroughLoadsOnMiss() {
+        CacheService plain = backend;
+
+        assertEquals("v1", plain.get("k1", key -> "v1", TTL_SECONDS));
+        assertEquals("v1", plain.get("k1", key -> "v2", TTL_SECONDS));
+    }
+}
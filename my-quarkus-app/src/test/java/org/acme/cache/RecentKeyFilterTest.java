@@ -0,0 +1,151 @@
+package org.acme.cache;
+
+import org.acme.config.CachingConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecentKeyFilterTest {
+
+    private static final int TTL_SECONDS = 90;
+    // 90 s over 3 rotations: a generation lasts 30 s and the filter needs 90 s to warm up
+    private static final long GENERATION_MS = 30_000;
+    private static final long WARM_UP_MS = 3 * GENERATION_MS;
+
+    private final long start = System.currentTimeMillis();
+    private CacheKeyGenerator keyGenerator;
+    private RecentKeyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        keyGenerator = generator(1);
+        filter = new RecentKeyFilter();
+        filter.cachingConfiguration = configuration(1);
+        filter.keyGenerator = keyGenerator;
+        filter.init(start);
+    }
+
+    @Test
+    void testUnknownKeysAreAbsentOnlyAfterWarmUp() {
+        String written = keyGenerator.newKey(TTL_SECONDS);
+        String stale = keyGenerator.newKey(TTL_SECONDS);
+        filter.recordKey(written, start);
+
+        assertFalse(filter.isDefinitelyAbsent(stale, start + WARM_UP_MS - 1),
+                "Entries written before startup may still be cached");
+        assertTrue(filter.isDefinitelyAbsent(stale, start + WARM_UP_MS));
+        assertFalse(filter.isDefinitelyAbsent(written, start + WARM_UP_MS));
+        assertEquals(1, filter.skippedLookupCount());
+    }
+
+    @Test
+    void testKeysOfOtherNodesAndOtherFormatsAreNeverAbsent() {
+        String foreign = generator(2).newKey(TTL_SECONDS);
+        long later = start + WARM_UP_MS;
+
+        assertFalse(filter.isDefinitelyAbsent(foreign, later));
+        assertFalse(filter.isDefinitelyAbsent("TF_CACHE_legacy-key", later));
+        assertFalse(filter.isDefinitelyAbsent(null, later));
+    }
+
+    @Test
+    void testKeysAreKeptForAnEntryLifetime() {
+        long written = start + WARM_UP_MS;
+        String key = keyGenerator.newKey(TTL_SECONDS);
+        filter.recordKey(key, written);
+
+        assertFalse(filter.isDefinitelyAbsent(key, written + TTL_SECONDS * 1000L));
+        // Four rotations later the key's generation has been reused
+        assertTrue(filter.isDefinitelyAbsent(key, written + 4 * GENERATION_MS));
+    }
+
+    @Test
+    void testRecordingAgainExtendsTheLifetime() {
+        long written = start + WARM_UP_MS;
+        String key = keyGenerator.newKey(TTL_SECONDS);
+        filter.recordKey(key, written);
+        filter.recordKey(key, written + 2 * GENERATION_MS);
+
+        assertFalse(filter.isDefinitelyAbsent(key, written + 4 * GENERATION_MS));
+    }
+
+    @Test
+    void testFalsePositiveRateIsNearTheConfiguredOne() {
+        long now = start + WARM_UP_MS;
+        for (int i = 0; i < 10_000; i++) {
+            filter.recordKey(keyGenerator.newKey(TTL_SECONDS), now);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (!filter.isDefinitelyAbsent(keyGenerator.newKey(TTL_SECONDS), now)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "Expected about 1% false positives, got " + falsePositives);
+    }
+
+    @Test
+    void testDisabledFilterNeverSkips() {
+        RecentKeyFilter disabled = new RecentKeyFilter();
+        disabled.cachingConfiguration = new CachingConfiguration() {
+            @Override
+            public boolean isNegativeLookupEnabled() {
+                return false;
+            }
+        };
+        disabled.keyGenerator = keyGenerator;
+        disabled.init(start);
+
+        assertFalse(disabled.isEnabled());
+        assertFalse(disabled.isDefinitelyAbsent(keyGenerator.newKey(TTL_SECONDS), start + WARM_UP_MS));
+    }
+
+    private static CacheKeyGenerator generator(int nodeId) {
+        CacheKeyGenerator generator = new CacheKeyGenerator();
+        generator.cachingConfiguration = configuration(nodeId);
+        generator.init();
+        return generator;
+    }
+
+    private static CachingConfiguration configuration(int nodeId) {
+        return new CachingConfiguration() {
+            @Override
+            public int getTablefacilityTtlSeconds() {
+                return TTL_SECONDS;
+            }
+
+            @Override
+            public double getTtlJitter() {
+                return 0;
+            }
+
+            @Override
+            public Optional<Integer> getKeyNodeId() {
+                return Optional.of(nodeId);
+            }
+
+            @Override
+            public boolean isNegativeLookupEnabled() {
+                return true;
+            }
+
+            @Override
+            public double getNegativeLookupFalsePositiveRate() {
+                return 0.01;
+            }
+
+            @Override
+            public long getNegativeLookupExpectedKeys() {
+                return 10_000;
+            }
+
+            @Override
+            public int getNegativeLookupGenerations() {
+                return 4;
+            }
+        };
+    }
+}
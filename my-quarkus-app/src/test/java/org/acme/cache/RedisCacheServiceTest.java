@@ -0,0 +1,41 @@
+package org.acme.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Redis-independent helpers of RedisCacheService.
+ */
+public class RedisCacheServiceTest {
+
+    @Test
+    void unlinkRequestsAreChunkedByBatchSize() {
+        List<String> keys = IntStream.range(0, RedisCacheService.BATCH_SIZE * 2 + 1)
+                .mapToObj(i -> "TF_CACHE_" + i)
+                .collect(Collectors.toList());
+
+        assertEquals(3, RedisCacheService.unlinkRequests(keys).size());
+    }
+
+    @Test
+    void pacingHoldsDeletionRateUnderCap() {
+        long start = System.nanoTime();
+
+        long pause = RedisCacheService.pacingDelayNanos(1000, start, 1000);
+
+        // 1000 keys at 1000 keys/s should take about one second
+        assertTrue(pause > TimeUnit.MILLISECONDS.toNanos(900), "pause was " + pause);
+        assertTrue(pause <= TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void pacingDisabledWhenNoCap() {
+        assertEquals(0, RedisCacheService.pacingDelayNanos(1_000_000, System.nanoTime(), 0));
+    }
+}
@@ -0,0 +1,98 @@
+package org.acme.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedCacheServiceTest {
+
+    private static final List<String> KEYS = IntStream.range(0, 20_000)
+            .mapToObj(i -> "TF_CACHE_" + i + "_1700000000000")
+            .collect(Collectors.toList());
+
+    @Test
+    void keysSpreadEvenlyAcrossNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(160);
+        List.of("a", "b", "c", "d").forEach(ring::add);
+
+        Map<String, Long> counts = KEYS.stream().collect(Collectors.groupingBy(ring::nodeFor, Collectors.counting()));
+
+        assertEquals(4, counts.size());
+        counts.values().forEach(count -> assertTrue(count > 3_500 && count < 6_500, "count was " + count));
+    }
+
+    @Test
+    void addingNodeOnlyMovesItsShareOfKeys() {
+        ConsistentHashRing ring = new ConsistentHashRing(160);
+        List.of("a", "b", "c", "d").forEach(ring::add);
+        Map<String, String> before = new HashMap<>();
+        KEYS.forEach(key -> before.put(key, ring.nodeFor(key)));
+
+        ring.add("e");
+
+        long moved = KEYS.stream().filter(key -> !before.get(key).equals(ring.nodeFor(key))).count();
+        // Ideal is 1/5 of the keys, all of them to the new node
+        assertTrue(moved > 2_800 && moved < 5_200, "moved " + moved);
+        KEYS.stream().filter(key -> !before.get(key).equals(ring.nodeFor(key)))
+                .forEach(key -> assertEquals("e", ring.nodeFor(key)));
+    }
+
+    @Test
+    void degradedShardIsSkipped() {
+        CacheCircuitBreaker breakerA = new CacheCircuitBreaker("a", 1, 0, 60_000);
+        InMemoryCacheService shardA = new InMemoryCacheService();
+        InMemoryCacheService shardB = new InMemoryCacheService();
+        ShardedCacheService sharded = new ShardedCacheService(160);
+        sharded.addShard("a", shardA, breakerA);
+        sharded.addShard("b", shardB, null);
+
+        String keyOnA = KEYS.stream().filter(key -> "a".equals(sharded.shardNameFor(key))).findFirst().orElseThrow();
+        breakerA.recordFailure();
+        try {
+            sharded.put(keyOnA, "v1", 60);
+
+            assertEquals("b", sharded.shardNameFor(keyOnA));
+            assertEquals("v1", shardB.get(keyOnA));
+            assertNull(shardA.get(keyOnA));
+            assertEquals("v1", sharded.get(keyOnA));
+        } finally {
+            breakerA.shutdown();
+        }
+    }
+
+    @Test
+    void reactiveViewUsesTheSameShards() {
+        CacheCircuitBreaker breakerA = new CacheCircuitBreaker("a", 1, 0, 60_000);
+        InMemoryCacheService shardA = new InMemoryCacheService();
+        InMemoryCacheService shardB = new InMemoryCacheService();
+        ShardedCacheService sharded = new ShardedCacheService(160);
+        sharded.addShard("a", shardA, breakerA);
+        sharded.addShard("b", shardB, null);
+        ShardedReactiveCacheService reactive = new ShardedReactiveCacheService(sharded);
+        reactive.addShard("a", new LocalReactiveCacheService(shardA));
+        reactive.addShard("b", new LocalReactiveCacheService(shardB));
+
+        String keyOnA = KEYS.stream().filter(key -> "a".equals(sharded.shardNameFor(key))).findFirst().orElseThrow();
+        String keyOnB = KEYS.stream().filter(key -> "b".equals(sharded.shardNameFor(key))).findFirst().orElseThrow();
+        try {
+            reactive.putAll(Map.of(keyOnA, "v1", keyOnB, "v2"), 60).await().indefinitely();
+
+            assertEquals("v1", shardA.get(keyOnA));
+            assertEquals("v2", shardB.get(keyOnB));
+            assertEquals(Map.of(keyOnA, "v1", keyOnB, "v2"), reactive.getAll(List.of(keyOnA, keyOnB)).await().indefinitely());
+
+            breakerA.recordFailure();
+            reactive.put(keyOnA, "v3", 60).await().indefinitely();
+            assertEquals("v3", shardB.get(keyOnA));
+            assertEquals("v3", sharded.get(keyOnA));
+        } finally {
+            breakerA.shutdown();
+        }
+    }
+}
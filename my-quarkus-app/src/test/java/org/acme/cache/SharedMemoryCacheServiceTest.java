@@ -0,0 +1,156 @@
+package org.acme.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SharedMemoryCacheServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void instancesMappingTheSameFileShareEntries() throws IOException {
+        Path file = dir.resolve("cache.shm");
+        SharedMemoryCacheService first = new SharedMemoryCacheService(file, 64, 4, 512);
+        SharedMemoryCacheService second = new SharedMemoryCacheService(file, 64, 4, 512);
+
+        first.put("k", "vé中", 60);
+        assertEquals("vé中", second.get("k"));
+        assertEquals("vé中", second.getAndClear("k"));
+        assertNull(first.get("k"));
+        assertEquals(0, first.entryCount());
+
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void entriesSurviveReopening() throws IOException {
+        Path file = dir.resolve("cache.shm");
+        SharedMemoryCacheService cache = new SharedMemoryCacheService(file, 64, 4, 512);
+        cache.put("k", "v", 0);
+        cache.close();
+
+        SharedMemoryCacheService reopened = new SharedMemoryCacheService(file, 16, 2, 256);
+        assertEquals("v", reopened.get("k"));
+        assertEquals(1, reopened.entryCount());
+        reopened.close();
+    }
+
+    @Test
+    void fullBucketEvictsAndOversizedValuesAreSkipped() throws IOException {
+        SharedMemoryCacheService cache = new SharedMemoryCacheService(dir.resolve("cache.shm"), 1, 2, 128);
+        cache.put("a", "1", 60);
+        cache.put("b", "2", 120);
+        cache.put("c", "3", 180);
+
+        assertNull(cache.get("a"));
+        assertEquals("2", cache.get("b"));
+        assertEquals("3", cache.get("c"));
+        assertEquals(1, cache.evictionCount());
+
+        cache.put("b", "x".repeat(500), 60);
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.oversizedCount());
+        cache.close();
+    }
+
+    @Test
+    void invalidFileIsInitializedAgain() throws IOException {
+        Path file = dir.resolve("cache.shm");
+        Files.write(file, new byte[1000]);
+
+        SharedMemoryCacheService cache = new SharedMemoryCacheService(file, 8, 2, 256);
+        cache.put("k", "v", 60);
+        assertEquals("v", cache.get("k"));
+        cache.close();
+    }
+
+    @Test
+    void bucketLockIsTakenOverOnlyFromAProcessThatIsGone() throws Exception {
+        Path file = dir.resolve("cache.shm");
+        // One bucket, so its lock word sits right after the file header
+        SharedMemoryCacheService cache = new SharedMemoryCacheService(file, 1, 2, 128);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Process live = new ProcessBuilder("sleep", "30").start();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            mapped.order(ByteOrder.nativeOrder());
+
+            Process dead = new ProcessBuilder("true").start();
+            dead.waitFor();
+            mapped.putLong(64, SharedMemoryCacheService.lockStamp(dead.pid(), 1));
+            executor.submit(() -> cache.put("a", "1", 60)).get(5, TimeUnit.SECONDS);
+            assertEquals("1", cache.get("a"));
+
+            // A live holder keeps its lock however long the writer waits, until it releases it
+            mapped.putLong(64, SharedMemoryCacheService.lockStamp(live.pid(), 1));
+            Future<?> blocked = executor.submit(() -> cache.put("b", "2", 60));
+            assertThrows(TimeoutException.class, () -> blocked.get(300, TimeUnit.MILLISECONDS));
+            mapped.putLong(64, 0L);
+            blocked.get(5, TimeUnit.SECONDS);
+            assertEquals("2", cache.get("b"));
+        } finally {
+            live.destroy();
+            executor.shutdownNow();
+            cache.close();
+        }
+    }
+
+    @Test
+    void concurrentWritersKeepEntriesConsistent() throws Exception {
+        SharedMemoryCacheService cache = new SharedMemoryCacheService(dir.resolve("cache.shm"), 4, 4, 256);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int writer = t;
+            tasks.add(pool.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    String key = "k" + (i % 8);
+                    cache.put(key, key + ":" + writer + ":" + i, 60);
+                    String value = cache.get(key);
+                    assertTrue(value == null || value.startsWith(key + ":"), value);
+                }
+            }));
+        }
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        pool.shutdown();
+        assertTrue(cache.entryCount() <= 8);
+        cache.close();
+    }
+
+    @Test
+    void binaryValuesKeepTheirExactBytes() throws IOException {
+        SharedMemoryCacheService cache = new SharedMemoryCacheService(dir.resolve("cache.shm"), 64, 4, 512);
+        byte[] binary = new byte[]{0x02, 'T', 'F', 0x01, (byte) 0x80, (byte) 0xFF, 0x00, (byte) 0xC3};
+
+        cache.put("bin", binary, 60);
+        assertArrayEquals(binary, cache.getBytes("bin"));
+        assertArrayEquals(binary, cache.getBytesAndTouch("bin", 60));
+        cache.put("text", "vé", 60);
+        assertArrayEquals("vé".getBytes(StandardCharsets.UTF_8), cache.getBytes("text"));
+        assertArrayEquals(binary, cache.getBytesAndClear("bin"));
+        assertNull(cache.getBytes("bin"));
+        cache.close();
+    }
+}
@@ -0,0 +1,153 @@
+package org.acme.cache;
+
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("k1", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "v1";
+                })));
+            }
+            // Let every caller reach the in-flight table before the leader finishes
+            while (loads.get() == 0) {
+                Thread.onSpinWait();
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("v1", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(0, singleFlight.inFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failuresPropagateAndAreNotRetained() {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+
+        assertThrows(IllegalStateException.class,
+                () -> singleFlight.execute("k1", () -> { throw new IllegalStateException("boom"); }));
+        assertEquals("v1", singleFlight.execute("k1", () -> "v1"));
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void asyncFollowersCompleteWithLeaderResult() throws Exception {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        Uni<String> load = singleFlight.executeAsync("k1", () -> Uni.createFrom().item(() -> {
+            loads.incrementAndGet();
+            await(release);
+            return "v1";
+        }).runSubscriptionOn(Executors.newSingleThreadExecutor()));
+
+        Uni<String> leader = load.memoize().indefinitely();
+        leader.subscribe().with(v -> { });
+        while (singleFlight.inFlightCount() == 0) {
+            Thread.onSpinWait();
+        }
+        // Subscribed before the release, while the leader's load is still in flight
+        CompletableFuture<String> follower = singleFlight
+                .executeAsync("k1", () -> Uni.createFrom().item("unexpected"))
+                .subscribeAsCompletionStage();
+        release.countDown();
+
+        assertEquals("v1", follower.get(5, TimeUnit.SECONDS));
+        assertEquals("v1", leader.await().atMost(Duration.ofSeconds(5)));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void cancelledFollowerLeavesTheOthersWaitingForTheLoad() throws Exception {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> leader = singleFlight.executeAsync("k1", () -> Uni.createFrom().item(() -> {
+            await(release);
+            return "v1";
+        }).runSubscriptionOn(Executors.newSingleThreadExecutor())).subscribeAsCompletionStage();
+        while (singleFlight.inFlightCount() == 0) {
+            Thread.onSpinWait();
+        }
+        Cancellable cancelled = singleFlight
+                .executeAsync("k1", () -> Uni.createFrom().item("unexpected"))
+                .subscribe().with(v -> { });
+        CompletableFuture<String> follower = singleFlight
+                .executeAsync("k1", () -> Uni.createFrom().item("unexpected"))
+                .subscribeAsCompletionStage();
+        cancelled.cancel();
+        release.countDown();
+
+        assertEquals("v1", follower.get(5, TimeUnit.SECONDS));
+        assertEquals("v1", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void errorInTheLoaderReleasesFollowers() throws Exception {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("k1", () -> {
+                loading.countDown();
+                await(release);
+                throw new AssertionError("boom");
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<String> follower = executor.submit(() -> singleFlight.execute("k1", () -> "unexpected"));
+            // Give the follower time to join the leader's load
+            Thread.sleep(100);
+            release.countDown();
+
+            ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AssertionError.class, leaderFailure.getCause());
+            ExecutionException followerFailure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AssertionError.class, followerFailure.getCause());
+            assertEquals(0, singleFlight.inFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.acme.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TablefacilityPayloadCodecTest {
+
+    @Test
+    void roundTripsMultiValuedAndNullValues() {
+        Map<String, List<String>> fields = new HashMap<>();
+        fields.put("tablefacility_1", List.of("a", "b", "c"));
+        fields.put("tablefacility_2", new ArrayList<>());
+        fields.put("tablefacility_3", Arrays.asList("x", null, ""));
+        fields.put("tablefacility_ünïcode", List.of("värde", "x".repeat(300)));
+
+        Map<String, List<String>> decoded = TablefacilityPayloadCodec.decode(TablefacilityPayloadCodec.encode(fields));
+
+        assertEquals(fields, decoded);
+    }
+
+    @Test
+    void storedBytesRoundTripUnchanged() {
+        Map<String, List<String>> fields = Map.of("tablefacility_1", List.of("värde", "€"));
+
+        byte[] stored = TablefacilityPayloadCodec.encodeToBytes(fields);
+
+        assertTrue(TablefacilityPayloadCodec.isBinary(stored));
+        assertEquals(TablefacilityPayloadCodec.encode(fields).remaining(), stored.length);
+        assertEquals(fields, TablefacilityPayloadCodec.decodeStored(stored));
+    }
+
+    @Test
+    void readsVersionOnePayloadsStoredAsStrings() {
+        Map<String, List<String>> fields = Map.of("tablefacility_1", List.of("värde", "€"));
+        byte[] payload = TablefacilityPayloadCodec.encodeToBytes(fields);
+        payload[3] = TablefacilityPayloadCodec.LEGACY_STRING_VERSION;
+        // What earlier versions stored: one char per byte, kept UTF-8 encoded by the cache
+        byte[] stored = new String(payload, StandardCharsets.ISO_8859_1).getBytes(StandardCharsets.UTF_8);
+
+        assertTrue(stored.length > payload.length);
+        assertEquals(fields, TablefacilityPayloadCodec.decodeStored(stored));
+    }
+
+    @Test
+    void legacyJsonIsNotBinary() {
+        assertFalse(TablefacilityPayloadCodec.isBinary("{\"tablefacility_1\":\"v\"}".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(TablefacilityPayloadCodec.isBinary(null));
+    }
+
+    @Test
+    void rejectsTruncatedAndUnknownVersionPayloads() {
+        ByteBuffer encoded = TablefacilityPayloadCodec.encode(Map.of("tablefacility_1", List.of("value")));
+        ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(encoded.array(), encoded.remaining() - 2));
+        assertThrows(IllegalArgumentException.class, () -> TablefacilityPayloadCodec.decode(truncated));
+
+        ByteBuffer futureVersion = ByteBuffer.wrap(encoded.array().clone());
+        futureVersion.put(3, (byte) 99);
+        assertThrows(IllegalArgumentException.class, () -> TablefacilityPayloadCodec.decode(futureVersion));
+    }
+}
@@ -0,0 +1,68 @@
+package org.acme.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ValueCompressionCodecTest {
+
+    private static String tablefacilityJson(int fields) {
+        return IntStream.rangeClosed(1, fields)
+                .mapToObj(i -> "\"tablefacility_" + i + "\":\"mock_value_" + i + "\"")
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+
+    @Test
+    void compressesLargeRepetitivePayloads() {
+        ValueCompressionCodec codec = new ValueCompressionCodec(1024);
+        String json = tablefacilityJson(500);
+
+        String encoded = codec.encode(json);
+
+        assertTrue(ValueCompressionCodec.isCompressed(encoded));
+        assertTrue(encoded.length() < json.length() / 3, "Expected at least 3x shrink, got " + encoded.length());
+        assertEquals(json, codec.decode(encoded));
+    }
+
+    @Test
+    void leavesSmallValuesUntouched() {
+        ValueCompressionCodec codec = new ValueCompressionCodec(1024);
+        String json = tablefacilityJson(3);
+
+        assertSame(json, codec.encode(json));
+    }
+
+    @Test
+    void decodesLegacyUncompressedValues() {
+        ValueCompressionCodec codec = new ValueCompressionCodec(0);
+        String legacy = tablefacilityJson(10);
+
+        assertEquals(legacy, codec.decode(legacy));
+        assertNull(codec.decode(null));
+    }
+
+    @Test
+    void rejectsCorruptCompressedValues() {
+        ValueCompressionCodec codec = new ValueCompressionCodec(0);
+
+        assertThrows(IllegalStateException.class, () -> codec.decode(ValueCompressionCodec.DEFLATE_HEADER + "AAAA"));
+    }
+
+    @Test
+    void byteFormIsTheUtf8OfTheStringForm() {
+        ValueCompressionCodec codec = new ValueCompressionCodec(1024);
+        String json = tablefacilityJson(500).replace("mock", "m\u00f6ck");
+        byte[] raw = json.getBytes(StandardCharsets.UTF_8);
+
+        byte[] encoded = codec.encodeBytes(raw);
+
+        assertEquals(codec.encode(json), new String(encoded, StandardCharsets.UTF_8));
+        assertArrayEquals(raw, codec.decodeBytes(encoded));
+        assertArrayEquals(raw, codec.decodeBytes(codec.encode(json).getBytes(StandardCharsets.UTF_8)));
+        assertEquals(json, codec.decode(new String(encoded, StandardCharsets.UTF_8)));
+    }
+}
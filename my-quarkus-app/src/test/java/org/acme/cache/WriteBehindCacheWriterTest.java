@@ -0,0 +1,191 @@
+package org.acme.cache;
+
+import org.acme.config.CachingConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindCacheWriterTest {
+
+    private static WriteBehindCacheWriter writer(CacheService cache, int capacity) {
+        WriteBehindCacheWriter writer = new WriteBehindCacheWriter();
+        writer.cacheService = cache;
+        writer.cachingConfiguration = new CachingConfiguration() {
+            @Override
+            public int getWriteBehindQueueCapacity() {
+                return capacity;
+            }
+
+            @Override
+            public int getWriteBehindWriters() {
+                return 1;
+            }
+
+            @Override
+            public int getWriteBehindBatchSize() {
+                return 10;
+            }
+        };
+        return writer;
+    }
+
+    @Test
+    void pendingWriteIsReadableUntilStored() throws InterruptedException {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        WriteBehindCacheWriter writer = writer(cache, 100);
+        CountDownLatch release = new CountDownLatch(1);
+
+        writer.submit("k1", () -> {
+            await(release);
+            return bytes("v1");
+        }, 60);
+        writer.submit("k2", () -> bytes("v2"), 60);
+
+        // The writer is stuck serializing k1; both writes are still visible to this node
+        assertArrayEquals(bytes("v2"), writer.pendingValue("k2"));
+        // A reader of k1 waits for the serialization in progress instead of going to the cache
+        AtomicReference<byte[]> seen = new AtomicReference<>();
+        Thread reader = new Thread(() -> seen.set(writer.pendingValue("k1")));
+        reader.start();
+        // Blocked behind the writer, or running the serializer itself if the writer has not taken k1 yet
+        while (reader.getState() == Thread.State.NEW || reader.getState() == Thread.State.RUNNABLE) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        reader.join(5000);
+        assertArrayEquals(bytes("v1"), seen.get());
+
+        writer.drain(5000);
+        assertEquals("v1", cache.get("k1"));
+        assertEquals("v2", cache.get("k2"));
+        assertNull(writer.pendingValue("k1"));
+        assertEquals(0, writer.queuedCount());
+    }
+
+    @Test
+    void shedsWritesWhenQueueIsFullOrStopped() {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        WriteBehindCacheWriter writer = writer(cache, 0);
+
+        assertFalse(writer.submit("k1", () -> bytes("v1"), 60));
+        assertNull(cache.get("k1"));
+
+        writer.drain(1000);
+        assertFalse(writer.submit("k2", () -> bytes("v2"), 60));
+        assertNull(cache.get("k2"));
+        assertEquals(2, writer.shedCount());
+    }
+
+    @Test
+    void supersededWritesAreSkipped() {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        WriteBehindCacheWriter writer = writer(cache, 100);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean oldSerialized = new AtomicBoolean();
+
+        writer.submit("blocker", () -> {
+            entered.countDown();
+            await(release);
+            return bytes("b");
+        }, 60);
+        await(entered);
+        writer.submit("k1", () -> {
+            oldSerialized.set(true);
+            return bytes("old");
+        }, 60);
+        writer.submit("k1", () -> bytes("new"), 60);
+        release.countDown();
+
+        writer.drain(5000);
+        assertEquals("new", cache.get("k1"));
+        assertFalse(oldSerialized.get());
+    }
+
+    @Test
+    void fullQueueShedsWithoutWaitingForTheWriter() {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        WriteBehindCacheWriter writer = writer(cache, 1);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        writer.submit("blocker", () -> {
+            entered.countDown();
+            await(release);
+            return bytes("b");
+        }, 60);
+        await(entered);
+        assertTrue(writer.submit("k1", () -> bytes("v1"), 60));
+        // The writer is stuck on its batch; a caller returns at once instead of waiting behind it
+        long start = System.nanoTime();
+        assertFalse(writer.submit("k2", () -> bytes("v2"), 60));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        release.countDown();
+
+        writer.drain(5000);
+        assertEquals("v1", cache.get("k1"));
+        assertNull(cache.get("k2"));
+    }
+
+    @Test
+    void batchesAreStoredWithOneBulkPutPerTtlAndAFailedPutLosesOnlyItsGroup() {
+        InMemoryCacheService store = new InMemoryCacheService();
+        List<Integer> bulkPuts = new CopyOnWriteArrayList<>();
+        CacheService cache = new InMemoryCacheService() {
+            @Override
+            public void putAllBytes(Map<String, byte[]> entries, int ttlSeconds) {
+                bulkPuts.add(entries.size());
+                if (ttlSeconds == 13) {
+                    throw new IllegalStateException("backend down");
+                }
+                store.putAllBytes(entries, ttlSeconds);
+            }
+        };
+        WriteBehindCacheWriter writer = writer(cache, 100);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        writer.submit("blocker", () -> {
+            entered.countDown();
+            await(release);
+            return bytes("b");
+        }, 60);
+        await(entered);
+        writer.submit("k1", () -> bytes("v1"), 13);
+        writer.submit("k2", () -> bytes("v2"), 60);
+        writer.submit("k3", () -> bytes("v3"), 60);
+        writer.submit("k4", () -> {
+            throw new IllegalStateException("not serializable");
+        }, 60);
+        release.countDown();
+
+        writer.drain(5000);
+        assertEquals(List.of(1, 1, 2), bulkPuts);
+        assertNull(store.get("k1"));
+        assertEquals("v2", store.get("k2"));
+        assertEquals("v3", store.get("k3"));
+        assertNull(writer.pendingValue("k1"));
+        assertNull(writer.pendingValue("k4"));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}